@@ -0,0 +1,282 @@
+/*******************************************************************************
+ * Copyright (c) 2009-2018 Weasis Team and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ *     Nicolas Roduit - initial API and implementation
+ *******************************************************************************/
+package org.weasis.acquire.explorer;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.swing.SwingWorker;
+
+import org.dcm4che3.data.Tag;
+import org.dcm4che3.net.Status;
+import org.dcm4che3.util.UIDUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.weasis.acquire.explorer.dicom.Transform2Dicom;
+import org.weasis.core.api.gui.util.AppProperties;
+import org.weasis.core.api.gui.util.GuiExecutor;
+import org.weasis.core.api.media.data.TagW;
+import org.weasis.core.api.service.BundleTools;
+import org.weasis.core.api.util.FileUtil;
+import org.weasis.core.api.util.ThreadUtil;
+import org.weasis.dicom.codec.TagD;
+import org.weasis.dicom.op.CStore;
+import org.weasis.dicom.param.AdvancedParams;
+import org.weasis.dicom.param.ConnectOptions;
+import org.weasis.dicom.param.DicomNode;
+import org.weasis.dicom.param.DicomProgress;
+import org.weasis.dicom.param.DicomState;
+import org.weasis.opencv.data.PlanarImage;
+
+/**
+ * Dicomize and publish the given image collection in a staged pipeline (transform, encode, wrap and C-STORE). The
+ * first three stages run in parallel on a pool of workers, each finished instance is put in a bounded queue which is
+ * consumed by the C-STORE stage running in this worker thread. Therefore the encoding of the next images overlaps the
+ * network transfer of the previous ones and the queue capacity limits the number of instances waiting on disk.
+ * <p>
+ * The instances are sent by small batches (one association per batch) as soon as they are available. The dicomized
+ * images are set to {@link AcquireImageStatus#SUBMITTED} and the stored images are removed from the dataModel.
+ * Progression can be listened with propertyChange notification of this workerTask.
+ *
+ * @version $Rev$ $Date$
+ */
+public class DicomizePublishTask extends SwingWorker<DicomState, AcquireImageInfo> {
+    private static final Logger LOGGER = LoggerFactory.getLogger(DicomizePublishTask.class);
+
+    public static final String P_NB_THREADS = "weasis.acquire.publish.threads"; //$NON-NLS-1$
+    public static final String P_BATCH_SIZE = "weasis.acquire.publish.batch"; //$NON-NLS-1$
+
+    private static final long BATCH_LINGER_MS = 300;
+
+    public enum Stage {
+        TRANSFORM, ENCODE, WRAP, STORE
+    }
+
+    private static final class Instance {
+        private final AcquireImageInfo imageInfo;
+        private final List<File> files;
+
+        Instance(AcquireImageInfo imageInfo, List<File> files) {
+            this.imageInfo = imageInfo;
+            this.files = files;
+        }
+    }
+
+    private final Collection<AcquireImageInfo> toPublish;
+    private final DicomNode callingNode;
+    private final DicomNode destinationNode;
+    private final int nbWorkers;
+    private final int batchSize;
+
+    private final LongAdder[] stageTime = new LongAdder[Stage.values().length];
+    private final LongAdder[] stageCount = new LongAdder[Stage.values().length];
+    private final AtomicBoolean aborted = new AtomicBoolean(false);
+    private final List<AcquireImageInfo> published = new CopyOnWriteArrayList<>();
+
+    public DicomizePublishTask(Collection<AcquireImageInfo> toPublish, DicomNode destinationNode) {
+        this.toPublish = Objects.requireNonNull(toPublish);
+        this.destinationNode = Objects.requireNonNull(destinationNode);
+        this.callingNode = new DicomNode(BundleTools.SYSTEM_PREFERENCES.getProperty("weasis.aet", "WEASIS_AE")); //$NON-NLS-1$ //$NON-NLS-2$
+        int defThreads = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+        this.nbWorkers = Math.max(1, BundleTools.SYSTEM_PREFERENCES.getIntProperty(P_NB_THREADS, defThreads));
+        this.batchSize = Math.max(1, BundleTools.SYSTEM_PREFERENCES.getIntProperty(P_BATCH_SIZE, 20));
+        for (int i = 0; i < stageTime.length; i++) {
+            stageTime[i] = new LongAdder();
+            stageCount[i] = new LongAdder();
+        }
+        LOGGER.debug("destinationNode is : {}", destinationNode); //$NON-NLS-1$
+    }
+
+    @Override
+    protected DicomState doInBackground() throws Exception {
+        File exportDirDicom =
+            FileUtil.createTempDir(AppProperties.buildAccessibleTempDirectory("tmp", "dicomize", "dcm")); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+        File exportDirImage =
+            FileUtil.createTempDir(AppProperties.buildAccessibleTempDirectory("tmp", "dicomize", "img")); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+
+        final int nbImageToProcess = toPublish.size();
+        // Bounded queue: the workers wait when the C-STORE stage is slower than the encoding
+        BlockingQueue<Instance> storeQueue = new ArrayBlockingQueue<>(Math.max(batchSize, nbWorkers * 2));
+        ExecutorService workers = ThreadUtil.buildNewFixedThreadExecutor(nbWorkers, "Dicomize"); //$NON-NLS-1$
+
+        try {
+            Transform2Dicom.buildStudySeriesDate(toPublish, AcquireManager.GLOBAL);
+            String seriesInstanceUID = UIDUtils.createUID(); // Global series for all PR
+
+            for (AcquireImageInfo imageInfo : toPublish) {
+                workers.execute(() -> dicomize(imageInfo, exportDirDicom, exportDirImage, seriesInstanceUID,
+                    storeQueue));
+            }
+
+            DicomState state = null;
+            int nbImageProcessed = 0;
+            List<Instance> batch = new ArrayList<>(batchSize);
+            while (nbImageProcessed < nbImageToProcess) {
+                batch.clear();
+                batch.add(storeQueue.take());
+                while (batch.size() < batchSize && nbImageProcessed + batch.size() < nbImageToProcess) {
+                    Instance next = storeQueue.poll(BATCH_LINGER_MS, TimeUnit.MILLISECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                nbImageProcessed += batch.size();
+
+                if (batch.stream().anyMatch(i -> i.files.isEmpty())) {
+                    aborted.set(true);
+                    state = new DicomState(Status.UnableToProcess,
+                        Messages.getString("AcquirePublishDialog.dicomize_error_msg"), null); //$NON-NLS-1$
+                    break;
+                }
+                state = store(batch);
+                if (state.getStatus() != Status.Success) {
+                    aborted.set(true);
+                    break;
+                }
+                batch.forEach(i -> i.files.forEach(FileUtil::delete));
+                batch.forEach(i -> published.add(i.imageInfo));
+                setProgress(nbImageProcessed * 100 / nbImageToProcess);
+                publish(batch.stream().map(i -> i.imageInfo).toArray(AcquireImageInfo[]::new));
+            }
+            return state;
+        } catch (InterruptedException e) {
+            aborted.set(true);
+            throw e;
+        } finally {
+            workers.shutdownNow();
+            workers.awaitTermination(30, TimeUnit.SECONDS);
+            FileUtil.recursiveDelete(exportDirImage);
+            FileUtil.recursiveDelete(exportDirDicom);
+            logStageTimings();
+        }
+    }
+
+    private void dicomize(AcquireImageInfo imageInfo, File exportDirDicom, File exportDirImage,
+        String seriesInstanceUID, BlockingQueue<Instance> storeQueue) {
+        List<File> files = Collections.emptyList();
+        if (!aborted.get()) {
+            try {
+                long start = System.nanoTime();
+                PlanarImage transformedImage = Transform2Dicom.transform(imageInfo);
+                start = record(Stage.TRANSFORM, start);
+                File imgFile = Transform2Dicom.encode(imageInfo, transformedImage, exportDirImage);
+                start = record(Stage.ENCODE, start);
+                if (imgFile != null) {
+                    files = Transform2Dicom.wrap(imageInfo, imgFile, exportDirDicom, seriesInstanceUID);
+                    record(Stage.WRAP, start);
+                    if (!files.isEmpty()) {
+                        GuiExecutor.instance().execute(() -> imageInfo.setStatus(AcquireImageStatus.SUBMITTED));
+                    }
+                    if (exportDirImage.equals(imgFile.getParentFile())) {
+                        FileUtil.delete(imgFile);
+                    }
+                }
+            } catch (Exception e) {
+                LOGGER.error("Dicomize {}", imageInfo.getImage().getName(), e); //$NON-NLS-1$
+            }
+        }
+        try {
+            storeQueue.put(new Instance(imageInfo, files));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private DicomState store(List<Instance> batch) {
+        long start = System.nanoTime();
+        List<String> paths = new ArrayList<>();
+        batch.forEach(i -> i.files.forEach(f -> paths.add(f.getPath())));
+
+        AdvancedParams params = new AdvancedParams();
+        ConnectOptions connectOptions = new ConnectOptions();
+        connectOptions.setConnectTimeout(3000);
+        connectOptions.setAcceptTimeout(5000);
+        params.setConnectOptions(connectOptions);
+        DicomState state = CStore.process(params, callingNode, destinationNode, paths, new DicomProgress());
+        record(Stage.STORE, start);
+        return state;
+    }
+
+    private long record(Stage stage, long start) {
+        long end = System.nanoTime();
+        stageTime[stage.ordinal()].add(end - start);
+        stageCount[stage.ordinal()].increment();
+        return end;
+    }
+
+    /**
+     * @param stage
+     * @return the cumulated time in milliseconds spent in the given stage (summed over all the workers)
+     */
+    public long getStageTime(Stage stage) {
+        return TimeUnit.NANOSECONDS.toMillis(stageTime[stage.ordinal()].sum());
+    }
+
+    /**
+     * @param stage
+     * @return the number of calls of the given stage (the STORE stage is called once per batch)
+     */
+    public long getStageCount(Stage stage) {
+        return stageCount[stage.ordinal()].sum();
+    }
+
+    public int getNbPublished() {
+        return published.size();
+    }
+
+    /**
+     * @return the images stored in the destination, even when the task has been cancelled or has failed
+     */
+    public List<AcquireImageInfo> getPublished() {
+        return Collections.unmodifiableList(published);
+    }
+
+    private void logStageTimings() {
+        if (LOGGER.isInfoEnabled()) {
+            StringBuilder buf = new StringBuilder();
+            for (Stage stage : Stage.values()) {
+                long count = getStageCount(stage);
+                buf.append(' ').append(stage).append(": ").append(getStageTime(stage)).append(" ms/").append(count); //$NON-NLS-1$ //$NON-NLS-2$
+            }
+            LOGGER.info("Publish {} images with {} workers,{}", published.size(), nbWorkers, buf); //$NON-NLS-1$
+        }
+    }
+
+    @Override
+    protected void process(List<AcquireImageInfo> chunks) {
+        chunks.forEach(imageInfo -> {
+            imageInfo.setStatus(AcquireImageStatus.PUBLISHED);
+            imageInfo.getImage().setTag(TagW.Checked, Boolean.TRUE);
+            AcquireManager.getInstance().removeImage(imageInfo);
+        });
+    }
+
+    @Override
+    protected void done() {
+        super.done();
+        if (!published.isEmpty()) {
+            // Change to a new exman after publishing (avoid to reuse the same exam)
+            AcquireManager.GLOBAL.setTag(TagD.get(Tag.StudyInstanceUID), UIDUtils.createUID());
+        }
+    }
+}
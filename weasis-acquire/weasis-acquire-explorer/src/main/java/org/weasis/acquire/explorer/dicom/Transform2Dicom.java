@@ -14,7 +14,10 @@ import java.awt.Rectangle;
 import java.awt.geom.Point2D;
 import java.io.File;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
 
@@ -30,7 +33,6 @@ import org.weasis.acquire.explorer.AcquireImageInfo;
 import org.weasis.acquire.explorer.AcquireManager;
 import org.weasis.core.api.image.CropOp;
 import org.weasis.core.api.image.RotationOp;
-import org.weasis.core.api.image.SimpleOpManager;
 import org.weasis.core.api.image.util.Unit;
 import org.weasis.core.api.media.data.ImageElement;
 import org.weasis.core.api.media.data.TagW;
@@ -53,103 +55,137 @@ public final class Transform2Dicom {
     }
 
     /**
-     * Do the encoding of the given image in a standard lossy JPEG format with optionally doing some pre-processing
-     * operations (like resize, flip, crop, zoom, contrast ...) if any postProcessOperation have been set in the
-     * AcquireImageInfo. The temporary image file is then encapsulated in a standard DICOM format according to the
-     * proper Dicom attributes set in the AcquireImageInfo. This Dicom is written in the exportDirDicom with its
-     * sopInstanceUID as filename.
+     * Apply the post-processing operations to the image when the original file cannot be encapsulated directly.
      *
+     * @param imageInfo
+     * @return the transformed image or null when the original JPEG file can be reused without re-encoding
+     */
+    public static PlanarImage transform(AcquireImageInfo imageInfo) {
+        ImageElement imageElement = imageInfo.getImage();
+        if (getReusableJpeg(imageInfo) != null) {
+            return null;
+        }
+        // TODO should be handled in the transformation
+        // Rectangle area = (Rectangle) opManager.getParamValue(CropOp.OP_NAME, CropOp.P_AREA);
+        // Integer rotationAngle = Optional
+        // .ofNullable((Integer) opManager.getParamValue(RotationOp.OP_NAME, RotationOp.P_ROTATE)).orElse(0);
+        // rotationAngle = rotationAngle % 360;
+        // if (area != null && rotationAngle != 0 && rotationAngle != 180) {
+        // transformedImage = TranslateDescriptor.create(transformedImage, (float) -area.getX(),
+        // (float) -area.getY(), null, null);
+        // }
+        return imageElement.getImage(imageInfo.getPostProcessOpManager(), false);
+    }
+
+    /**
+     * Encode the transformed image in JPEG into the exportDirImage with its sopInstanceUID as filename.
      *
      * @param imageInfo
-     * @param exportDirDicom
+     * @param transformedImage
+     *            the result of {@link #transform(AcquireImageInfo)}, null to reuse the original JPEG file
      * @param exportDirImage
+     * @return the JPEG file to encapsulate or null if the encoding has failed
+     */
+    public static File encode(AcquireImageInfo imageInfo, PlanarImage transformedImage, File exportDirImage) {
+        ImageElement imageElement = imageInfo.getImage();
+        if (transformedImage == null) {
+            File imgFile = getReusableJpeg(imageInfo);
+            if (imgFile == null) {
+                LOGGER.error("Cannot transform image {}", imageElement.getName()); //$NON-NLS-1$
+            }
+            return imgFile;
+        }
+
+        String sopInstanceUID = Objects.requireNonNull((String) imageElement.getTagValue(TagD.getUID(Level.INSTANCE)));
+        File imgFile = new File(exportDirImage, sopInstanceUID + ".jpg"); //$NON-NLS-1$
+        MatOfInt map = new MatOfInt(Imgcodecs.CV_IMWRITE_JPEG_QUALITY, 80);
+        if (!ImageProcessor.writeImage(transformedImage.toImageCV(), imgFile, map)) {
+            // out of memory ??
+            FileUtil.delete(imgFile);
+            LOGGER.error("Cannot Transform to jpeg {}", imageElement.getName()); //$NON-NLS-1$
+            return null;
+        }
+        return imgFile;
+    }
+
+    /**
+     * Encapsulate the JPEG file in a DICOM file and write the related Presentation State when the image has
+     * graphics. Both files are written in the exportDirDicom.
+     *
+     * @param imageInfo
+     * @param imgFile
+     * @param exportDirDicom
      * @param seriesInstanceUID
      *            Global series for all PR
-     * @return
+     * @return the DICOM files written (the image first and the optional PR) or an empty list if the process has
+     *         failed
      */
-
-    public static boolean dicomize(AcquireImageInfo imageInfo, File exportDirDicom, File exportDirImage,
+    public static List<File> wrap(AcquireImageInfo imageInfo, File imgFile, File exportDirDicom,
         String seriesInstanceUID) {
-
         ImageElement imageElement = imageInfo.getImage();
-        String sopInstanceUID = Objects.requireNonNull((String) imageElement.getTagValue(TagD.getUID(Level.INSTANCE)));
-
-        // Transform to JPEG
-        File imgFile = imageElement.getFileCache().getOriginalFile().orElse(null);
-        if (imgFile == null || !imageElement.getMimeType().contains("jpeg") //$NON-NLS-1$
-            || !imageInfo.getCurrentValues().equals(imageInfo.getDefaultValues())) {
-
-            imgFile = new File(exportDirImage, sopInstanceUID + ".jpg"); //$NON-NLS-1$
-            SimpleOpManager opManager = imageInfo.getPostProcessOpManager();
-            PlanarImage transformedImage = imageElement.getImage(opManager, false);
-            
-            // TODO should be handled in the transformation
-            // Rectangle area = (Rectangle) opManager.getParamValue(CropOp.OP_NAME, CropOp.P_AREA);
-            // Integer rotationAngle = Optional
-            // .ofNullable((Integer) opManager.getParamValue(RotationOp.OP_NAME, RotationOp.P_ROTATE)).orElse(0);
-            // rotationAngle = rotationAngle % 360;
-            // if (area != null && rotationAngle != 0 && rotationAngle != 180) {
-            // transformedImage = TranslateDescriptor.create(transformedImage, (float) -area.getX(),
-            // (float) -area.getY(), null, null);
-            // }
-
-            MatOfInt map = new MatOfInt(Imgcodecs.CV_IMWRITE_JPEG_QUALITY, 80);
-            if (!ImageProcessor.writeImage(transformedImage.toImageCV(), imgFile, map)) {
-                // out of memory ??
-                FileUtil.delete(imgFile);
-                LOGGER.error("Cannot Transform to jpeg {}", imageElement.getName()); //$NON-NLS-1$
-                return false;
-            }
+        if (imgFile == null || !imgFile.canRead()) {
+            LOGGER.error("Cannot read JPEG image {}", imageElement.getName()); //$NON-NLS-1$
+            return Collections.emptyList();
         }
 
-        // Dicomize
-        if (imgFile.canRead()) {
-            Attributes attrs = imageInfo.getAttributes();
-            DicomMediaUtils.fillAttributes(AcquireManager.GLOBAL.getTagEntrySetIterator(), attrs);
-            DicomMediaUtils.fillAttributes(imageInfo.getSeries().getTagEntrySetIterator(), attrs);
-            DicomMediaUtils.fillAttributes(imageElement.getTagEntrySetIterator(), attrs);
-            // Spatial calibration
-            if (Unit.PIXEL != imageElement.getPixelSpacingUnit()) {
-                attrs.setString(Tag.PixelSpacingCalibrationDescription, VR.LO, "Used fiducial"); //$NON-NLS-1$
-                double unitRatio = imageElement.getPixelSize()
-                    * Unit.MILLIMETER.getConversionRatio(imageElement.getPixelSpacingUnit().getConvFactor());
-                attrs.setDouble(Tag.PixelSpacing, VR.DS, unitRatio, unitRatio);
-            }
-
-            try {
-                Dicomizer.jpeg(attrs, imgFile, new File(exportDirDicom, sopInstanceUID), false);
-            } catch (Exception e) {
-                LOGGER.error("Cannot Dicomize {}", imageElement.getName(), e); //$NON-NLS-1$
-                return false;
-            }
+        String sopInstanceUID = Objects.requireNonNull((String) imageElement.getTagValue(TagD.getUID(Level.INSTANCE)));
+        List<File> files = new ArrayList<>(2);
+        Attributes attrs = imageInfo.getAttributes();
+        DicomMediaUtils.fillAttributes(AcquireManager.GLOBAL.getTagEntrySetIterator(), attrs);
+        DicomMediaUtils.fillAttributes(imageInfo.getSeries().getTagEntrySetIterator(), attrs);
+        DicomMediaUtils.fillAttributes(imageElement.getTagEntrySetIterator(), attrs);
+        // Spatial calibration
+        if (Unit.PIXEL != imageElement.getPixelSpacingUnit()) {
+            attrs.setString(Tag.PixelSpacingCalibrationDescription, VR.LO, "Used fiducial"); //$NON-NLS-1$
+            double unitRatio = imageElement.getPixelSize()
+                * Unit.MILLIMETER.getConversionRatio(imageElement.getPixelSpacingUnit().getConvFactor());
+            attrs.setDouble(Tag.PixelSpacing, VR.DS, unitRatio, unitRatio);
+        }
 
-            // Presentation State
-            GraphicModel grModel = (GraphicModel) imageElement.getTagValue(TagW.PresentationModel);
-            if (grModel != null && grModel.hasSerializableGraphics()) {
-                Point2D offset = null;
-                Rectangle crop =
-                    (Rectangle) imageInfo.getPostProcessOpManager().getParamValue(CropOp.OP_NAME, CropOp.P_AREA);
-                if (crop != null) {
-                    Integer rotationAngle = Optional.ofNullable((Integer) imageInfo.getPostProcessOpManager()
-                        .getParamValue(RotationOp.OP_NAME, RotationOp.P_ROTATE)).orElse(0);
-                    rotationAngle = rotationAngle % 360;
-                    if (rotationAngle == 0 || rotationAngle == 180) {
-                        offset = new Point2D.Double(crop.getX(), crop.getY());
-                    } else {
-                        double factor = 2.0; // work only with 90 and 270 degrees
-                        offset = new Point2D.Double(crop.getX() * factor, crop.getY() * factor);
-                    }
+        File dcmFile = new File(exportDirDicom, sopInstanceUID);
+        try {
+            Dicomizer.jpeg(attrs, imgFile, dcmFile, false);
+        } catch (Exception e) {
+            LOGGER.error("Cannot Dicomize {}", imageElement.getName(), e); //$NON-NLS-1$
+            return Collections.emptyList();
+        }
+        files.add(dcmFile);
+
+        // Presentation State
+        GraphicModel grModel = (GraphicModel) imageElement.getTagValue(TagW.PresentationModel);
+        if (grModel != null && grModel.hasSerializableGraphics()) {
+            Point2D offset = null;
+            Rectangle crop =
+                (Rectangle) imageInfo.getPostProcessOpManager().getParamValue(CropOp.OP_NAME, CropOp.P_AREA);
+            if (crop != null) {
+                Integer rotationAngle = Optional.ofNullable((Integer) imageInfo.getPostProcessOpManager()
+                    .getParamValue(RotationOp.OP_NAME, RotationOp.P_ROTATE)).orElse(0);
+                rotationAngle = rotationAngle % 360;
+                if (rotationAngle == 0 || rotationAngle == 180) {
+                    offset = new Point2D.Double(crop.getX(), crop.getY());
+                } else {
+                    double factor = 2.0; // work only with 90 and 270 degrees
+                    offset = new Point2D.Double(crop.getX() * factor, crop.getY() * factor);
                 }
-                String prUid = UIDUtils.createUID();
-                File outputFile = new File(exportDirDicom, prUid);
-                DicomPrSerializer.writePresentation(grModel, attrs, outputFile, seriesInstanceUID, prUid, offset);
             }
-        } else {
-            LOGGER.error("Cannot read JPEG image {}", imageElement.getName()); //$NON-NLS-1$
-            return false;
+            String prUid = UIDUtils.createUID();
+            File outputFile = new File(exportDirDicom, prUid);
+            if (DicomPrSerializer.writePresentation(grModel, attrs, outputFile, seriesInstanceUID, prUid,
+                offset) != null) {
+                files.add(outputFile);
+            }
         }
+        return files;
+    }
 
-        return true;
+    private static File getReusableJpeg(AcquireImageInfo imageInfo) {
+        ImageElement imageElement = imageInfo.getImage();
+        File imgFile = imageElement.getFileCache().getOriginalFile().orElse(null);
+        if (imgFile == null || !imageElement.getMimeType().contains("jpeg") //$NON-NLS-1$
+            || !imageInfo.getCurrentValues().equals(imageInfo.getDefaultValues())) {
+            return null;
+        }
+        return imgFile;
     }
 
     /**
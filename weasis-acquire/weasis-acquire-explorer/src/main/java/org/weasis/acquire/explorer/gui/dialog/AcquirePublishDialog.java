@@ -17,7 +17,6 @@ import java.awt.FlowLayout;
 import java.awt.event.ActionListener;
 import java.awt.event.WindowAdapter;
 import java.awt.event.WindowEvent;
-import java.io.File;
 import java.util.Arrays;
 import java.util.List;
 import java.util.concurrent.ExecutionException;
@@ -32,20 +31,20 @@ import javax.swing.JLabel;
 import javax.swing.JOptionPane;
 import javax.swing.JPanel;
 import javax.swing.JProgressBar;
-import javax.swing.SwingWorker;
 import javax.swing.SwingWorker.StateValue;
 import javax.swing.WindowConstants;
 import javax.swing.border.EmptyBorder;
 import javax.swing.tree.DefaultMutableTreeNode;
 import javax.swing.tree.TreePath;
 
+import org.dcm4che3.net.Status;
 import org.osgi.framework.FrameworkUtil;
 import org.osgi.service.prefs.Preferences;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.weasis.acquire.explorer.AcquireImageInfo;
 import org.weasis.acquire.explorer.AcquireManager;
-import org.weasis.acquire.explorer.DicomizeTask;
+import org.weasis.acquire.explorer.DicomizePublishTask;
 import org.weasis.acquire.explorer.Messages;
 import org.weasis.acquire.explorer.gui.central.meta.model.imp.AcquireGlobalMeta;
 import org.weasis.acquire.explorer.gui.central.meta.model.imp.AcquireImageMeta;
@@ -59,10 +58,10 @@ import org.weasis.core.api.service.BundlePreferences;
 import org.weasis.core.api.service.BundleTools;
 import org.weasis.core.api.util.FontTools;
 import org.weasis.core.api.util.StringUtil;
-import org.weasis.core.api.util.ThreadUtil;
 import org.weasis.dicom.explorer.pref.node.AbstractDicomNode;
 import org.weasis.dicom.explorer.pref.node.AbstractDicomNode.UsageType;
 import org.weasis.dicom.explorer.pref.node.DefaultDicomNode;
+import org.weasis.dicom.param.DicomState;
 import org.weasis.opencv.data.PlanarImage;
 
 @SuppressWarnings("serial")
@@ -111,8 +110,6 @@ public class AcquirePublishDialog extends JDialog {
         }
     }
 
-    private final AcquirePublishPanel publishPanel;
-
     private PublishTree publishTree;
     private JPanel resolutionPane;
     private JComboBox<Resolution> resolutionCombo;
@@ -126,7 +123,6 @@ public class AcquirePublishDialog extends JDialog {
     public AcquirePublishDialog(AcquirePublishPanel publishPanel) {
         super(WinUtil.getParentWindow(publishPanel), Messages.getString("AcquirePublishDialog.publication"), //$NON-NLS-1$
             ModalityType.APPLICATION_MODAL);
-        this.publishPanel = publishPanel;
 
         setContentPane(initContent());
         publishTree.getTree().addCheckingPath(new TreePath(publishTree.getModel().getRootNode().getPath()));
@@ -284,10 +280,18 @@ public class AcquirePublishDialog extends JDialog {
             }
         }
 
-        SwingWorker<File, AcquireImageInfo> dicomizeTask = new DicomizeTask(toPublish);
-        ActionListener taskCancelActionListener = e -> dicomizeTask.cancel(true);
+        AbstractDicomNode node = (AbstractDicomNode) comboNode.getSelectedItem();
+        if (!(node instanceof DefaultDicomNode)) {
+            JOptionPane.showMessageDialog(this, Messages.getString("AcquirePublishDialog.node_error_msg"), //$NON-NLS-1$
+                this.getTitle(), JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+
+        DicomizePublishTask publishTask =
+            new DicomizePublishTask(toPublish, ((DefaultDicomNode) node).getDicomNode());
+        ActionListener taskCancelActionListener = e -> publishTask.cancel(true);
 
-        dicomizeTask.addPropertyChangeListener(evt -> {
+        publishTask.addPropertyChangeListener(evt -> {
             if ("progress".equals(evt.getPropertyName())) { //$NON-NLS-1$
                 int progress = (Integer) evt.getNewValue();
                 progressBar.setValue(progress);
@@ -302,33 +306,40 @@ public class AcquirePublishDialog extends JDialog {
                     cancelButton.addActionListener(taskCancelActionListener);
 
                 } else if (StateValue.DONE == evt.getNewValue()) {
-                    File exportDirDicom = null;
+                    DicomState state = null;
 
-                    if (!dicomizeTask.isCancelled()) {
+                    if (!publishTask.isCancelled()) {
                         try {
-                            exportDirDicom = dicomizeTask.get();
+                            state = publishTask.get();
                         } catch (InterruptedException doNothing) {
-                            LOGGER.warn("Dicomizing task Interruption"); //$NON-NLS-1$
+                            LOGGER.warn("Publishing task Interruption"); //$NON-NLS-1$
                             Thread.currentThread().interrupt();
                         } catch (ExecutionException e) {
-                            LOGGER.error("Dicomizing task", e); //$NON-NLS-1$
+                            LOGGER.error("Publishing task", e); //$NON-NLS-1$
                         }
 
-                        if (exportDirDicom != null) {
-                            AbstractDicomNode node = (AbstractDicomNode) comboNode.getSelectedItem();
-                            if (node instanceof DefaultDicomNode) {
-                                publishPanel.publishDirDicom(exportDirDicom, ((DefaultDicomNode) node).getDicomNode());
-                                clearAndHide();
-                            }
-                        } else {
+                        if (state == null) {
                             JOptionPane.showMessageDialog(this,
                                 Messages.getString("AcquirePublishDialog.dicomize_error_msg"), //$NON-NLS-1$
                                 Messages.getString("AcquirePublishDialog.dicomize_error_title"), //$NON-NLS-1$
                                 JOptionPane.ERROR_MESSAGE);
+                        } else if (state.getStatus() != Status.Success && state.getStatus() != Status.Cancel) {
+                            LOGGER.error("Dicom send error: {}", state.getMessage()); //$NON-NLS-1$
+                            JOptionPane.showMessageDialog(this, state.getMessage(), this.getTitle(),
+                                JOptionPane.ERROR_MESSAGE);
                         }
                     }
 
-                    if (exportDirDicom == null) {
+                    List<AcquireImageInfo> published = publishTask.getPublished();
+                    if (!published.isEmpty() && (state == null || state.getStatus() != Status.Success)) {
+                        // Cancelled or failed after having stored some batches
+                        showPartialPublication(published);
+                    }
+
+                    // The published images have been removed, the tree must be rebuilt for publishing the others
+                    if (state != null || !published.isEmpty()) {
+                        clearAndHide();
+                    } else {
                         resolutionPane.setVisible(!getOversizedSelected(publishTree).isEmpty());
                         progressBar.setValue(0);
                         progressBar.setVisible(false);
@@ -340,8 +351,19 @@ public class AcquirePublishDialog extends JDialog {
             }
         });
 
-        ThreadUtil.buildNewSingleThreadExecutor("Dicomize").execute(dicomizeTask); //$NON-NLS-1$
+        AcquirePublishPanel.PUBLISH_DICOM.execute(publishTask);
+    }
 
+    private void showPartialPublication(List<AcquireImageInfo> published) {
+        int maxNames = 20;
+        String names = published.stream().limit(maxNames).map(i -> i.getImage().getName())
+            .collect(Collectors.joining("\n")); //$NON-NLS-1$
+        if (published.size() > maxNames) {
+            names += "\n..."; //$NON-NLS-1$
+        }
+        JOptionPane.showMessageDialog(this,
+            String.format(Messages.getString("AcquirePublishDialog.partial_msg"), published.size(), names), //$NON-NLS-1$
+            this.getTitle(), JOptionPane.WARNING_MESSAGE);
     }
 
     private List<AcquireImageInfo> getSelectedImages(PublishTree tree) {
@@ -20,7 +20,6 @@ import org.weasis.base.explorer.JIThumbnailCache;
 import org.weasis.base.explorer.list.AThumbnailModel;
 import org.weasis.core.api.media.MimeInspector;
 import org.weasis.core.api.media.data.MediaElement;
-import org.weasis.dicom.codec.DicomMediaIO;
 
 @SuppressWarnings({ "serial" })
 public class AcquireThumbnailModel<E extends MediaElement> extends AThumbnailModel<E> {
@@ -53,7 +52,7 @@ public class AcquireThumbnailModel<E extends MediaElement> extends AThumbnailMod
     @Override
     public void loadContent(Path path) {
         DirectoryStream.Filter<Path> filter = p -> !Files.isDirectory(p)
-            && !MimeInspector.isMatchingMimeTypeFromMagicNumber(p.toFile(), DicomMediaIO.MIMETYPE);
+            && !MimeInspector.isDicomPrefix(MimeInspector.readPrefix(p.toFile(), MimeInspector.DICM_OFFSET + 4));
         loadContent(path, filter);
     }
 
@@ -12,15 +12,19 @@ package org.weasis.base.explorer;
 
 import java.awt.image.BufferedImage;
 import java.io.File;
+import java.io.Serializable;
 import java.net.URI;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.LinkedHashMap;
 import java.util.Map;
-import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.PriorityBlockingQueue;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -29,26 +33,52 @@ import org.weasis.core.api.gui.util.GuiExecutor;
 import org.weasis.core.api.image.util.ImageFiler;
 import org.weasis.core.api.media.data.ImageElement;
 import org.weasis.core.api.media.data.MediaElement;
+import org.weasis.core.api.media.data.Thumbnail;
+import org.weasis.core.api.service.BundleTools;
 import org.weasis.core.api.util.ThreadUtil;
 import org.weasis.opencv.data.PlanarImage;
 import org.weasis.opencv.op.ImageConversion;
 import org.weasis.opencv.op.ImageProcessor;
 
+/**
+ * Loads the thumbnails of the file explorer. Only the visible range of the list and a lookahead of one page in the
+ * direction of the scrolling are loaded: the requests outside this range are dropped as soon as the list is scrolled.
+ * The visible thumbnails of the last scroll position are loaded first.
+ * <p>
+ * The number of threads can be configured with the property {@value #P_THREADS}.
+ */
 public final class JIThumbnailCache {
     private static final Logger LOGGER = LoggerFactory.getLogger(JIThumbnailCache.class);
 
-    private final LinkedBlockingQueue<Runnable> queue = new LinkedBlockingQueue<>();
-    // Set only one concurrent thread. The time consuming part is in loading image thread (see ImageElement)
-    private final ExecutorService qExecutor =
-        new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, queue, ThreadUtil.getThreadFactory("Thumbnail Cache")); //$NON-NLS-1$
+    public static final String P_THREADS = "explorer.thumbnail.threads"; //$NON-NLS-1$
+    private static final int MAX_ENTRIES = 300;
 
+    private final PriorityBlockingQueue<Runnable> queue = new PriorityBlockingQueue<>(50, new PriorityComparator());
+    private final ExecutorService qExecutor;
+    // Requests in the queue or in progress
+    private final Set<URI> pending = ConcurrentHashMap.newKeySet();
     private final Map<URI, ThumbnailIcon> cachedThumbnails;
 
+    // Visible range, updated from the EDT
+    private volatile int firstVisible = -1;
+    private volatile int lastVisible = -1;
+    private final AtomicLong generation = new AtomicLong();
+
+    // Statistics of the queue
+    private final AtomicLong nbLoaded = new AtomicLong();
+    private final AtomicLong nbDropped = new AtomicLong();
+    private final AtomicLong totalLatency = new AtomicLong();
+    private final AtomicLong maxLatency = new AtomicLong();
+
     public JIThumbnailCache() {
-        this.cachedThumbnails = Collections.synchronizedMap(new LinkedHashMap<URI, ThumbnailIcon>(80) {
+        int nbThreads = Math.max(1, BundleTools.SYSTEM_PREFERENCES.getIntProperty(P_THREADS,
+            Math.min(4, Math.max(1, Runtime.getRuntime().availableProcessors() / 2))));
+        this.qExecutor = new ThreadPoolExecutor(nbThreads, nbThreads, 0L, TimeUnit.MILLISECONDS, queue,
+            ThreadUtil.getThreadFactory("Thumbnail Cache")); //$NON-NLS-1$
+        // LRU cache
+        this.cachedThumbnails = Collections.synchronizedMap(new LinkedHashMap<URI, ThumbnailIcon>(80, 0.75f, true) {
 
             private static final long serialVersionUID = 5981678679620794224L;
-            private static final int MAX_ENTRIES = 100;
 
             @Override
             @SuppressWarnings("rawtypes")
@@ -59,18 +89,14 @@ public final class JIThumbnailCache {
     }
 
     public synchronized void invalidate() {
+        queue.clear();
+        pending.clear();
         this.cachedThumbnails.clear();
     }
 
     public void removeInQueue(ImageElement imgElement) {
-        Runnable r = null;
-        for (Runnable runnable : queue) {
-            if (Objects.equals(imgElement, ((ThumbnailRunnable) runnable).getDiskObject())) {
-                r = runnable;
-            }
-        }
-        if (r != null && !queue.remove(r)) {
-            LOGGER.error("Cannot remove thumbnail from the queue"); //$NON-NLS-1$
+        if (imgElement != null && queue.removeIf(r -> imgElement.equals(((ThumbnailRunnable) r).getDiskObject()))) {
+            pending.remove(imgElement.getMediaURI());
         }
     }
 
@@ -93,27 +119,97 @@ public final class JIThumbnailCache {
 
     private void loadThumbnail(final ImageElement diskObject, final ThumbnailList<? extends MediaElement> thumbnailList,
         final int index) {
-        if ((index > thumbnailList.getLastVisibleIndex()) || (index < thumbnailList.getFirstVisibleIndex())) {
+        int first = thumbnailList.getFirstVisibleIndex();
+        int last = thumbnailList.getLastVisibleIndex();
+        if (index > last || index < first) {
             return;
         }
-        for (Runnable runnable : queue) {
-            if (diskObject.equals(((ThumbnailRunnable) runnable).getDiskObject())) {
-                return;
+        if (first != firstVisible || last != lastVisible) {
+            updateVisibleRange(thumbnailList, first, last);
+        }
+        submit(diskObject, thumbnailList, index, false);
+    }
+
+    private void submit(ImageElement diskObject, ThumbnailList<? extends MediaElement> thumbnailList, int index,
+        boolean lookahead) {
+        URI uri = diskObject.getMediaURI();
+        if (!cachedThumbnails.containsKey(uri) && pending.add(uri)) {
+            qExecutor.execute(new ThumbnailRunnable(diskObject, thumbnailList, index, lookahead, generation.get()));
+        }
+    }
+
+    private void updateVisibleRange(ThumbnailList<? extends MediaElement> thumbnailList, int first, int last) {
+        boolean forward = first >= firstVisible;
+        firstVisible = first;
+        lastVisible = last;
+        generation.incrementAndGet();
+
+        // Drop the requests outside the new range
+        queue.removeIf(r -> {
+            ThumbnailRunnable t = (ThumbnailRunnable) r;
+            if (isOutOfRange(t.getIndex())) {
+                pending.remove(t.getDiskObject().getMediaURI());
+                nbDropped.incrementAndGet();
+                return true;
+            }
+            return false;
+        });
+
+        // Lookahead of one page in the direction of the scrolling
+        int page = last - first + 1;
+        int size = thumbnailList.getThumbnailListModel().getSize();
+        int start = forward ? last + 1 : Math.max(0, first - page);
+        int end = forward ? Math.min(size - 1, last + page) : first - 1;
+        for (int i = start; i <= end; i++) {
+            Object media = thumbnailList.getThumbnailListModel().getElementAt(i);
+            if (media instanceof ImageElement && !((ImageElement) media).isLoading()) {
+                submit((ImageElement) media, thumbnailList, i, true);
             }
         }
-        cleanPending();
-        ThumbnailRunnable runnable = new ThumbnailRunnable(diskObject, thumbnailList, index);
-        qExecutor.execute(runnable);
     }
 
-    private void cleanPending() {
-        for (Runnable runnable : queue) {
-            ThumbnailRunnable r = (ThumbnailRunnable) runnable;
-            int index = r.getIndex();
-            if ((index > r.getThumbnailList().getLastVisibleIndex())
-                || (index < r.getThumbnailList().getFirstVisibleIndex())) {
-                removeInQueue(r.getDiskObject());
+    private boolean isOutOfRange(int index) {
+        int page = lastVisible - firstVisible + 1;
+        return index < firstVisible - page || index > lastVisible + page;
+    }
+
+    private void taskDone(ThumbnailRunnable runnable, boolean dropped) {
+        if (dropped) {
+            nbDropped.incrementAndGet();
+        } else {
+            long latency = System.nanoTime() - runnable.getSubmitTime();
+            nbLoaded.incrementAndGet();
+            totalLatency.addAndGet(latency);
+            maxLatency.accumulateAndGet(latency, Math::max);
+        }
+        if (queue.isEmpty() && LOGGER.isDebugEnabled()) {
+            long loaded = nbLoaded.getAndSet(0);
+            long avg = loaded == 0 ? 0 : totalLatency.getAndSet(0) / loaded;
+            LOGGER.debug("Thumbnails: {} loaded, {} dropped, queue latency avg {} ms, max {} ms", loaded, //$NON-NLS-1$
+                nbDropped.getAndSet(0), TimeUnit.NANOSECONDS.toMillis(avg),
+                TimeUnit.NANOSECONDS.toMillis(maxLatency.getAndSet(0)));
+        }
+    }
+
+    /**
+     * The visible requests of the last scroll position first, then the lookahead, in the order of the list.
+     */
+    static class PriorityComparator implements Comparator<Runnable>, Serializable {
+        private static final long serialVersionUID = -2478123306541542640L;
+
+        @Override
+        public int compare(Runnable r1, Runnable r2) {
+            ThumbnailRunnable t1 = (ThumbnailRunnable) r1;
+            ThumbnailRunnable t2 = (ThumbnailRunnable) r2;
+            int rep = Boolean.compare(t1.isLookahead(), t2.isLookahead());
+            if (rep != 0) {
+                return rep;
             }
+            rep = Long.compare(t2.getGeneration(), t1.getGeneration());
+            if (rep != 0) {
+                return rep;
+            }
+            return Integer.compare(t1.getIndex(), t2.getIndex());
         }
     }
 
@@ -121,12 +217,18 @@ public final class JIThumbnailCache {
         final ImageElement diskObject;
         final ThumbnailList<? extends MediaElement> thumbnailList;
         final int index;
+        final boolean lookahead;
+        final long generation;
+        final long submitTime;
 
         public ThumbnailRunnable(ImageElement diskObject, ThumbnailList<? extends MediaElement> thumbnailList,
-            int index) {
+            int index, boolean lookahead, long generation) {
             this.diskObject = diskObject;
             this.thumbnailList = thumbnailList;
             this.index = index;
+            this.lookahead = lookahead;
+            this.generation = generation;
+            this.submitTime = System.nanoTime();
         }
 
         public ImageElement getDiskObject() {
@@ -141,8 +243,47 @@ public final class JIThumbnailCache {
             return index;
         }
 
+        public boolean isLookahead() {
+            return lookahead;
+        }
+
+        public long getGeneration() {
+            return generation;
+        }
+
+        public long getSubmitTime() {
+            return submitTime;
+        }
+
         @Override
         public void run() {
+            // The list has been scrolled since the submission
+            if (isOutOfRange(index)) {
+                pending.remove(diskObject.getMediaURI());
+                taskDone(this, true);
+                return;
+            }
+            BufferedImage icon = null;
+            try {
+                icon = buildIcon();
+            } finally {
+                taskDone(this, false);
+                if (icon == null) {
+                    // Not readable or failed, can be requested again
+                    pending.remove(diskObject.getMediaURI());
+                }
+            }
+            if (icon != null) {
+                final BufferedImage tIcon = icon;
+                GuiExecutor.instance().execute(() -> {
+                    cachedThumbnails.put(diskObject.getMediaURI(), new ThumbnailIcon(tIcon));
+                    pending.remove(diskObject.getMediaURI());
+                    thumbnailList.getThumbnailListModel().notifyAsUpdated(index);
+                });
+            }
+        }
+
+        private BufferedImage buildIcon() {
             PlanarImage img = null;
 
             // Get the final that contain the thumbnail when the uncompress mode is activated
@@ -155,27 +296,26 @@ public final class JIThumbnailCache {
             }
 
             if (img == null) {
-                img = diskObject.getRenderedImage(diskObject.getImage(null));
+                // Embedded thumbnail or reduced resolution decoding, avoid decoding the full image
+                img = Thumbnail.getReducedImage(diskObject,
+                    Math.max(ThumbnailRenderer.ICON_DIM.width, ThumbnailRenderer.ICON_DIM.height));
             }
 
             if (img == null) {
-                return;
+                img = diskObject.getRenderedImage(diskObject.getImage(null));
             }
 
-            final BufferedImage tIcon = ImageConversion
-                .toBufferedImage((PlanarImage) ImageProcessor.buildThumbnail(img, ThumbnailRenderer.ICON_DIM, true));
-
-            // Prevent to many files open on Linux (Ubuntu => 1024) and close image stream
-            diskObject.removeImageFromCache();
-
-            GuiExecutor.instance().execute(() -> {
-                if (tIcon != null) {
-                    cachedThumbnails.put(diskObject.getMediaURI(), new ThumbnailIcon(tIcon));
+            try {
+                if (img == null) {
+                    return null;
                 }
-                thumbnailList.getThumbnailListModel().notifyAsUpdated(index);
-            });
+                PlanarImage thumb = ImageProcessor.buildThumbnail(img, ThumbnailRenderer.ICON_DIM, true);
+                return thumb == null ? null : ImageConversion.toBufferedImage(thumb);
+            } finally {
+                // Prevent to many files open on Linux (Ubuntu => 1024) and close image stream
+                diskObject.removeImageFromCache();
+            }
         }
-
     }
 
 }
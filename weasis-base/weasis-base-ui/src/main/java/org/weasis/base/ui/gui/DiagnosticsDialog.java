@@ -0,0 +1,220 @@
+/*******************************************************************************
+ * Copyright (c) 2009-2018 Weasis Team and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ *     Nicolas Roduit - initial API and implementation
+ *******************************************************************************/
+package org.weasis.base.ui.gui;
+
+import java.awt.BorderLayout;
+import java.awt.Dimension;
+import java.awt.FlowLayout;
+import java.awt.Font;
+import java.awt.Frame;
+import java.awt.event.WindowEvent;
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+import javax.swing.JButton;
+import javax.swing.JDialog;
+import javax.swing.JFileChooser;
+import javax.swing.JOptionPane;
+import javax.swing.JPanel;
+import javax.swing.JScrollPane;
+import javax.swing.JTabbedPane;
+import javax.swing.JTable;
+import javax.swing.JTextArea;
+import javax.swing.SwingConstants;
+import javax.swing.Timer;
+import javax.swing.WindowConstants;
+import javax.swing.filechooser.FileFilter;
+import javax.swing.table.AbstractTableModel;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.weasis.base.ui.Messages;
+import org.weasis.core.api.gui.util.EdtWatchdog;
+import org.weasis.core.api.gui.util.FileFormatFilter;
+import org.weasis.core.api.gui.util.JMVUtils;
+import org.weasis.core.api.metrics.MetricRegistry;
+import org.weasis.core.api.metrics.MetricSnapshot;
+import org.weasis.core.api.service.BundleTools;
+
+/**
+ * Shows the runtime metrics (see {@link MetricRegistry}) and the stalls of the EDT (see {@link EdtWatchdog}), refreshed
+ * every second. The metrics can be exported in JSON or CSV.
+ */
+public class DiagnosticsDialog extends JDialog {
+    private static final Logger LOGGER = LoggerFactory.getLogger(DiagnosticsDialog.class);
+
+    private static final String LAST_DIR = "last.metrics.export.dir"; //$NON-NLS-1$
+
+    private final MetricTableModel model = new MetricTableModel();
+    private final JTextArea edtReport = new JTextArea();
+    private final Timer refreshTimer = new Timer(1000, e -> refresh());
+
+    public DiagnosticsDialog(Frame owner) {
+        super(owner, Messages.getString("DiagnosticsDialog.title"), false); //$NON-NLS-1$
+        init();
+        refresh();
+        pack();
+        refreshTimer.start();
+    }
+
+    private void init() {
+        setDefaultCloseOperation(WindowConstants.DO_NOTHING_ON_CLOSE);
+        JTable table = new JTable(model);
+        table.setAutoCreateRowSorter(true);
+        table.getColumnModel().setColumnMargin(5);
+        table.getColumnModel().getColumn(0).setPreferredWidth(300);
+        JMVUtils.formatTableHeaders(table, SwingConstants.CENTER);
+        JScrollPane scrollPane = new JScrollPane(table);
+        scrollPane.setPreferredSize(new Dimension(900, 400));
+        edtReport.setEditable(false);
+        edtReport.setFont(new Font(Font.MONOSPACED, Font.PLAIN, edtReport.getFont().getSize()));
+        JTabbedPane tabbedPane = new JTabbedPane();
+        tabbedPane.add(scrollPane, Messages.getString("DiagnosticsDialog.metrics")); //$NON-NLS-1$
+        tabbedPane.add(new JScrollPane(edtReport), Messages.getString("DiagnosticsDialog.edt")); //$NON-NLS-1$
+
+        JButton resetButton = new JButton(Messages.getString("DiagnosticsDialog.reset")); //$NON-NLS-1$
+        resetButton.addActionListener(e -> {
+            MetricRegistry.getInstance().reset();
+            EdtWatchdog.getInstance().reset();
+            refresh();
+        });
+        JButton exportButton = new JButton(Messages.getString("DiagnosticsDialog.export")); //$NON-NLS-1$
+        exportButton.addActionListener(e -> export());
+        JButton closeButton = new JButton(Messages.getString("WeasisAboutBox.close")); //$NON-NLS-1$
+        closeButton.addActionListener(e -> cancel());
+
+        JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT, 15, 10));
+        buttonPanel.add(resetButton);
+        buttonPanel.add(exportButton);
+        buttonPanel.add(closeButton);
+
+        JPanel root = new JPanel(new BorderLayout());
+        root.add(tabbedPane, BorderLayout.CENTER);
+        root.add(buttonPanel, BorderLayout.SOUTH);
+        getContentPane().add(root);
+    }
+
+    private void refresh() {
+        model.setSnapshots(MetricRegistry.getInstance().snapshot(null));
+        String report = EdtWatchdog.getInstance().getReport(20);
+        if (!report.equals(edtReport.getText())) {
+            // Do not reset the scroll position when nothing has changed
+            edtReport.setText(report);
+        }
+    }
+
+    private void export() {
+        String directory = BundleTools.LOCAL_PERSISTENCE.getProperty(LAST_DIR, ""); //$NON-NLS-1$
+        JFileChooser fileChooser = new JFileChooser(directory);
+        fileChooser.setFileSelectionMode(JFileChooser.FILES_ONLY);
+        fileChooser.setAcceptAllFileFilterUsed(false);
+        FileFormatFilter json = new FileFormatFilter("json", "JSON"); //$NON-NLS-1$ //$NON-NLS-2$
+        fileChooser.addChoosableFileFilter(json);
+        fileChooser.addChoosableFileFilter(new FileFormatFilter("csv", "CSV")); //$NON-NLS-1$ //$NON-NLS-2$
+        fileChooser.setFileFilter(json);
+        fileChooser.setSelectedFile(new File("weasis-metrics.json")); //$NON-NLS-1$
+        if (fileChooser.showSaveDialog(this) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        File file = fileChooser.getSelectedFile();
+        FileFilter filter = fileChooser.getFileFilter();
+        if (filter instanceof FileFormatFilter) {
+            String ext = "." + ((FileFormatFilter) filter).getDefaultExtension(); //$NON-NLS-1$
+            if (!file.getName().toLowerCase(Locale.ENGLISH).endsWith(ext)) {
+                file = new File(file.getParentFile(), file.getName() + ext);
+            }
+        }
+        try {
+            MetricRegistry.getInstance().export(file);
+            BundleTools.LOCAL_PERSISTENCE.setProperty(LAST_DIR, file.getParent());
+        } catch (IOException e) {
+            LOGGER.error("Cannot export the metrics", e); //$NON-NLS-1$
+            JOptionPane.showMessageDialog(this, e.getMessage(), getTitle(), JOptionPane.ERROR_MESSAGE);
+        }
+    }
+
+    @Override
+    protected void processWindowEvent(WindowEvent e) {
+        if (e.getID() == WindowEvent.WINDOW_CLOSING) {
+            cancel();
+        }
+        super.processWindowEvent(e);
+    }
+
+    void cancel() {
+        refreshTimer.stop();
+        dispose();
+    }
+
+    static class MetricTableModel extends AbstractTableModel {
+        private static final int FIXED_COLUMNS = 3;
+
+        private List<MetricSnapshot> snapshots = Collections.emptyList();
+
+        void setSnapshots(List<MetricSnapshot> snapshots) {
+            boolean sameRows = snapshots.size() == this.snapshots.size();
+            this.snapshots = snapshots;
+            if (sameRows) {
+                // Keep the selection and the sorting
+                fireTableRowsUpdated(0, snapshots.size() - 1);
+            } else {
+                fireTableDataChanged();
+            }
+        }
+
+        @Override
+        public int getRowCount() {
+            return snapshots.size();
+        }
+
+        @Override
+        public int getColumnCount() {
+            return FIXED_COLUMNS + MetricSnapshot.KEYS.length;
+        }
+
+        @Override
+        public String getColumnName(int col) {
+            switch (col) {
+                case 0:
+                    return Messages.getString("DiagnosticsDialog.name"); //$NON-NLS-1$
+                case 1:
+                    return Messages.getString("DiagnosticsDialog.type"); //$NON-NLS-1$
+                case 2:
+                    return Messages.getString("DiagnosticsDialog.unit"); //$NON-NLS-1$
+                default:
+                    return MetricSnapshot.KEYS[col - FIXED_COLUMNS];
+            }
+        }
+
+        @Override
+        public Class<?> getColumnClass(int col) {
+            return col < FIXED_COLUMNS ? String.class : Number.class;
+        }
+
+        @Override
+        public Object getValueAt(int row, int col) {
+            MetricSnapshot s = snapshots.get(row);
+            switch (col) {
+                case 0:
+                    return s.getName();
+                case 1:
+                    return s.getType().name().toLowerCase(Locale.ENGLISH);
+                case 2:
+                    return s.getUnit();
+                default:
+                    return s.get(MetricSnapshot.KEYS[col - FIXED_COLUMNS]);
+            }
+        }
+    }
+}
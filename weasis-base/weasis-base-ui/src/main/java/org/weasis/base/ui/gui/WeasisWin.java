@@ -706,6 +706,12 @@ public class WeasisWin {
             }
         });
         helpMenuItem.add(websiteMenuItem);
+        final JMenuItem diagnosticItem = new JMenuItem(Messages.getString("DiagnosticsDialog.title")); //$NON-NLS-1$
+        diagnosticItem.addActionListener(e -> {
+            DiagnosticsDialog dialog = new DiagnosticsDialog(getFrame());
+            JMVUtils.showCenterScreen(dialog, getFrame());
+        });
+        helpMenuItem.add(diagnosticItem);
         final JMenuItem aboutMenuItem =
             new JMenuItem(String.format(Messages.getString("WeasisAboutBox.about"), AppProperties.WEASIS_NAME)); //$NON-NLS-1$
         aboutMenuItem.addActionListener(e -> {
@@ -0,0 +1,57 @@
+/*******************************************************************************
+ * Copyright (c) 2009-2018 Weasis Team and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ *     Nicolas Roduit - initial API and implementation
+ *******************************************************************************/
+package org.weasis.benchmarks;
+
+import java.io.File;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks and writes the results in JSON.
+ * <p>
+ * The usual JMH options are accepted (e.g. a regular expression for selecting the benchmarks). The results are written
+ * in {@code <weasis.bench.dir>/<weasis.bench.label>.json}, by default {@code target/jmh-results/current.json}. Using
+ * the commit id as label gives one result file by commit, which can be compared with any JMH result viewer.
+ * <p>
+ * The OpenCV native library is loaded in the forked JVMs from {@code weasis.bench.native} (by default
+ * {@code target/native}, where the build copies the library of the current platform).
+ */
+public class BenchmarkRunner {
+
+    public static final String P_RESULT_DIR = "weasis.bench.dir"; //$NON-NLS-1$
+    public static final String P_LABEL = "weasis.bench.label"; //$NON-NLS-1$
+    public static final String P_NATIVE_DIR = "weasis.bench.native"; //$NON-NLS-1$
+
+    private BenchmarkRunner() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions cmdOptions = new CommandLineOptions(args);
+        File resultDir = new File(System.getProperty(P_RESULT_DIR, "target/jmh-results")); //$NON-NLS-1$
+        if (!resultDir.exists() && !resultDir.mkdirs()) {
+            throw new IllegalStateException("Cannot create " + resultDir); //$NON-NLS-1$
+        }
+        File result = new File(resultDir, System.getProperty(P_LABEL, "current") + ".json"); //$NON-NLS-1$ //$NON-NLS-2$
+        File nativeDir = new File(System.getProperty(P_NATIVE_DIR, "target/native")); //$NON-NLS-1$
+
+        ChainedOptionsBuilder options = new OptionsBuilder().parent(cmdOptions);
+        if (!cmdOptions.getResult().hasValue()) {
+            options.result(result.getPath()).resultFormat(ResultFormatType.JSON);
+        }
+        options.jvmArgsAppend("-Djava.library.path=" + nativeDir.getAbsolutePath(), //$NON-NLS-1$
+            "-Djava.awt.headless=true"); //$NON-NLS-1$
+        new Runner(options.build()).run();
+    }
+}
@@ -0,0 +1,65 @@
+/*******************************************************************************
+ * Copyright (c) 2009-2018 Weasis Team and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ *     Nicolas Roduit - initial API and implementation
+ *******************************************************************************/
+package org.weasis.benchmarks;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+import org.dcm4che3.data.UID;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.weasis.dicom.codec.DicomMediaIO;
+
+/**
+ * Parsing of the DICOM header (the meta-data up to the pixel data) and building of the Weasis tags.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DicomHeaderBenchmark {
+
+    @Param({ UID.ImplicitVRLittleEndian, UID.ExplicitVRLittleEndian })
+    public String transferSyntax;
+
+    private File file;
+
+    @Setup
+    public void setup() throws Exception {
+        Natives.loadOpenCV();
+        File dir = SyntheticData.createTempDirectory("bench_header"); //$NON-NLS-1$
+        file = SyntheticData.writeSeries(dir, transferSyntax, 512, 1).get(0);
+    }
+
+    @Benchmark
+    public String readMetaData() {
+        DicomMediaIO reader = new DicomMediaIO(file);
+        try {
+            if (!reader.isReadableDicom()) {
+                throw new IllegalStateException("Cannot read " + file); //$NON-NLS-1$
+            }
+            return reader.getMimeType();
+        } finally {
+            reader.close();
+        }
+    }
+}
@@ -0,0 +1,76 @@
+/*******************************************************************************
+ * Copyright (c) 2009-2018 Weasis Team and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ *     Nicolas Roduit - initial API and implementation
+ *******************************************************************************/
+package org.weasis.benchmarks;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+import org.dcm4che3.data.UID;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.weasis.core.api.media.data.MediaElement;
+import org.weasis.dicom.codec.DicomMediaIO;
+import org.weasis.opencv.data.PlanarImage;
+
+/**
+ * Decoding of a 512x512 frame (12 bits, 8 bits for JPEG baseline) by transfer syntax. The header is already read, the
+ * frame is read again from the file at each call.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FrameDecodeBenchmark {
+
+    @Param({ UID.ImplicitVRLittleEndian, UID.ExplicitVRLittleEndian, UID.ExplicitVRBigEndianRetired,
+        UID.RLELossless, UID.JPEGBaseline1 })
+    public String transferSyntax;
+
+    private DicomMediaIO reader;
+    private MediaElement media;
+
+    @Setup
+    public void setup() throws Exception {
+        Natives.loadOpenCV();
+        File dir = SyntheticData.createTempDirectory("bench_decode"); //$NON-NLS-1$
+        File file = SyntheticData.writeSeries(dir, transferSyntax, 512, 1).get(0);
+        reader = new DicomMediaIO(file);
+        if (!reader.isReadableDicom()) {
+            throw new IllegalStateException("Cannot read " + file); //$NON-NLS-1$
+        }
+        media = reader.getMediaElement()[0];
+    }
+
+    @TearDown
+    public void tearDown() {
+        reader.close();
+    }
+
+    @Benchmark
+    public int decodeFrame() throws Exception {
+        PlanarImage img = reader.getImageFragment(media);
+        int width = img.width();
+        img.release();
+        return width;
+    }
+}
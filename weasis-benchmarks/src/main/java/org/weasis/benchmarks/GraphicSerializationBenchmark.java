@@ -0,0 +1,104 @@
+/*******************************************************************************
+ * Copyright (c) 2009-2018 Weasis Team and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ *     Nicolas Roduit - initial API and implementation
+ *******************************************************************************/
+package org.weasis.benchmarks;
+
+import java.awt.geom.Point2D;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.weasis.core.ui.model.GraphicModel;
+import org.weasis.core.ui.model.graphic.AbstractGraphic;
+import org.weasis.core.ui.model.graphic.imp.PointGraphic;
+import org.weasis.core.ui.model.graphic.imp.line.LineGraphic;
+import org.weasis.core.ui.model.imp.XmlGraphicModel;
+import org.weasis.core.ui.model.layer.LayerType;
+import org.weasis.core.ui.serialize.GraphicBinarySerializer;
+import org.weasis.core.ui.serialize.XmlSerializer;
+
+/**
+ * Writing and reading a graphic model (lines and points on two layers) in XML and in the binary format.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class GraphicSerializationBenchmark {
+
+    @Param({ "10", "1000" })
+    public int nbGraphics;
+
+    private XmlGraphicModel model;
+    private String xml;
+    private byte[] binary;
+
+    @Setup
+    public void setup() throws Exception {
+        Random random = new Random(SyntheticData.SEED);
+        model = new XmlGraphicModel();
+        for (int i = 0; i < nbGraphics; i++) {
+            AbstractGraphic graphic;
+            if (i % 2 == 0) {
+                graphic = new LineGraphic();
+                graphic.buildGraphic(Arrays.asList(point(random), point(random)));
+                graphic.setLayerType(LayerType.MEASURE);
+            } else {
+                graphic = new PointGraphic();
+                graphic.buildGraphic(Arrays.asList(point(random)));
+                graphic.setLayerType(LayerType.DRAW);
+            }
+            model.addGraphic(graphic);
+        }
+        xml = writeXml();
+        binary = GraphicBinarySerializer.toByteArray(model);
+    }
+
+    private static Point2D.Double point(Random random) {
+        return new Point2D.Double(random.nextDouble() * 512.0, random.nextDouble() * 512.0);
+    }
+
+    @Benchmark
+    public String writeXml() {
+        StringWriter writer = new StringWriter();
+        XmlSerializer.writePresentation(model, writer);
+        return writer.toString();
+    }
+
+    @Benchmark
+    public GraphicModel readXml() throws Exception {
+        return XmlSerializer.deserialize(new StringReader(xml), XmlGraphicModel.class);
+    }
+
+    @Benchmark
+    public byte[] writeBinary() throws Exception {
+        return GraphicBinarySerializer.toByteArray(model);
+    }
+
+    @Benchmark
+    public GraphicModel readBinary() throws Exception {
+        return GraphicBinarySerializer.fromByteArray(binary);
+    }
+}
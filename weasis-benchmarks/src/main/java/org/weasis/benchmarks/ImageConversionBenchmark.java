@@ -0,0 +1,71 @@
+/*******************************************************************************
+ * Copyright (c) 2009-2018 Weasis Team and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ *     Nicolas Roduit - initial API and implementation
+ *******************************************************************************/
+package org.weasis.benchmarks;
+
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+
+import org.opencv.core.CvType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.weasis.opencv.data.ImageCV;
+import org.weasis.opencv.op.ImageConversion;
+
+/**
+ * Conversion of a 1024x1024 image to a BufferedImage for painting.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ImageConversionBenchmark {
+
+    @Param({ "8UC1", "8UC3", "16UC1" })
+    public String imageType;
+
+    private ImageCV source;
+
+    @Setup
+    public void setup() {
+        Natives.loadOpenCV();
+        int type;
+        if ("8UC3".equals(imageType)) { //$NON-NLS-1$
+            type = CvType.CV_8UC3;
+        } else if ("16UC1".equals(imageType)) { //$NON-NLS-1$
+            type = CvType.CV_16UC1;
+        } else {
+            type = CvType.CV_8UC1;
+        }
+        source = SyntheticData.image(1024, 1024, type);
+    }
+
+    @TearDown
+    public void tearDown() {
+        source.release();
+    }
+
+    @Benchmark
+    public BufferedImage toBufferedImage() {
+        return ImageConversion.toBufferedImage(source);
+    }
+}
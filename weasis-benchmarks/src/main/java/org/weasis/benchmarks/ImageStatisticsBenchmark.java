@@ -0,0 +1,77 @@
+/*******************************************************************************
+ * Copyright (c) 2009-2018 Weasis Team and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ *     Nicolas Roduit - initial API and implementation
+ *******************************************************************************/
+package org.weasis.benchmarks;
+
+import java.awt.Shape;
+import java.awt.geom.Ellipse2D;
+import java.util.concurrent.TimeUnit;
+
+import org.opencv.core.CvType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.weasis.opencv.data.ImageCV;
+import org.weasis.opencv.op.ImageProcessor;
+
+/**
+ * Min/max values (with and without padding values) and statistics in an elliptic ROI of a 2048x2048 image.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ImageStatisticsBenchmark {
+
+    @Param({ "16U", "16S" })
+    public String dataType;
+
+    private ImageCV source;
+    private Shape roi;
+
+    @Setup
+    public void setup() {
+        Natives.loadOpenCV();
+        int type = "16S".equals(dataType) ? CvType.CV_16SC1 : CvType.CV_16UC1; //$NON-NLS-1$
+        source = SyntheticData.image(2048, 2048, type);
+        roi = new Ellipse2D.Double(256, 256, 1536, 1024);
+    }
+
+    @TearDown
+    public void tearDown() {
+        source.release();
+    }
+
+    @Benchmark
+    public double[] findMinMaxValues() {
+        return ImageProcessor.findMinMaxValues(source);
+    }
+
+    @Benchmark
+    public double[] findMinMaxValuesWithPadding() {
+        return ImageProcessor.findMinMaxValues(source, 0, 100);
+    }
+
+    @Benchmark
+    public double[][] meanStdDev() {
+        return ImageProcessor.meanStdDev(source, roi);
+    }
+}
@@ -0,0 +1,89 @@
+/*******************************************************************************
+ * Copyright (c) 2009-2018 Weasis Team and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ *     Nicolas Roduit - initial API and implementation
+ *******************************************************************************/
+package org.weasis.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.opencv.core.CvType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.weasis.opencv.data.ImageCV;
+import org.weasis.opencv.data.LookupTableCV;
+
+/**
+ * Application of a byte lookup table (as for the window/level) on a 2048x2048 image by source data type.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LookupTableBenchmark {
+
+    @Param({ "8U", "16U", "16S" })
+    public String dataType;
+
+    private ImageCV source;
+    private LookupTableCV lut;
+
+    @Setup
+    public void setup() {
+        Natives.loadOpenCV();
+        int type;
+        int offset;
+        int entries;
+        if ("8U".equals(dataType)) { //$NON-NLS-1$
+            type = CvType.CV_8UC1;
+            offset = 0;
+            entries = 256;
+        } else if ("16U".equals(dataType)) { //$NON-NLS-1$
+            type = CvType.CV_16UC1;
+            offset = 0;
+            entries = 65536;
+        } else {
+            type = CvType.CV_16SC1;
+            offset = Short.MIN_VALUE;
+            entries = 65536;
+        }
+        source = SyntheticData.image(2048, 2048, type);
+        // Linear window on the 12-bit range
+        byte[] table = new byte[entries];
+        for (int i = 0; i < entries; i++) {
+            int value = (i + offset) * 256 / 4096;
+            table[i] = (byte) Math.max(0, Math.min(255, value));
+        }
+        lut = new LookupTableCV(table, offset);
+    }
+
+    @TearDown
+    public void tearDown() {
+        source.release();
+    }
+
+    @Benchmark
+    public int lookup() {
+        ImageCV result = lut.lookup(source);
+        int rows = result.rows();
+        result.release();
+        return rows;
+    }
+}
@@ -0,0 +1,85 @@
+/*******************************************************************************
+ * Copyright (c) 2009-2018 Weasis Team and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ *     Nicolas Roduit - initial API and implementation
+ *******************************************************************************/
+package org.weasis.benchmarks;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.opencv.core.CvType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.weasis.core.api.media.data.NativeCache;
+import org.weasis.opencv.data.ImageCV;
+
+/**
+ * Contention on a NativeCache shared by several readers and writers, the cache holds half of the images so the writers
+ * trigger evictions.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Group)
+public class NativeCacheBenchmark {
+
+    private static final int NB_IMAGES = 256;
+
+    private ImageCV[] images;
+    private NativeCache<Integer, ImageCV> cache;
+
+    @Setup
+    public void setup() {
+        Natives.loadOpenCV();
+        images = new ImageCV[NB_IMAGES];
+        for (int i = 0; i < NB_IMAGES; i++) {
+            images[i] = new ImageCV(64, 64, CvType.CV_16UC1);
+        }
+        cache = new NativeCache<>(images[0].physicalBytes() * NB_IMAGES / 2);
+        for (int i = 0; i < NB_IMAGES / 2; i++) {
+            cache.put(i, images[i]);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        cache.clear();
+        for (ImageCV img : images) {
+            img.release();
+        }
+    }
+
+    @Benchmark
+    @Group("readWrite")
+    @GroupThreads(6)
+    public ImageCV get() {
+        return cache.get(ThreadLocalRandom.current().nextInt(NB_IMAGES));
+    }
+
+    @Benchmark
+    @Group("readWrite")
+    @GroupThreads(2)
+    public ImageCV put() {
+        int key = ThreadLocalRandom.current().nextInt(NB_IMAGES);
+        return cache.put(key, images[key]);
+    }
+}
@@ -0,0 +1,31 @@
+/*******************************************************************************
+ * Copyright (c) 2009-2018 Weasis Team and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ *     Nicolas Roduit - initial API and implementation
+ *******************************************************************************/
+package org.weasis.benchmarks;
+
+import org.opencv.core.Core;
+
+/**
+ * Loads the OpenCV native library from java.library.path (set by {@link BenchmarkRunner} for the forked JVMs).
+ */
+final class Natives {
+
+    private static boolean loaded = false;
+
+    private Natives() {
+    }
+
+    static synchronized void loadOpenCV() {
+        if (!loaded) {
+            System.loadLibrary(Core.NATIVE_LIBRARY_NAME);
+            loaded = true;
+        }
+    }
+}
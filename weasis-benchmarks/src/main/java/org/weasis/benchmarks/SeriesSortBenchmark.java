@@ -0,0 +1,82 @@
+/*******************************************************************************
+ * Copyright (c) 2009-2018 Weasis Team and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ *     Nicolas Roduit - initial API and implementation
+ *******************************************************************************/
+package org.weasis.benchmarks;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.dcm4che3.data.UID;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.weasis.dicom.codec.DicomImageElement;
+import org.weasis.dicom.codec.DicomSeries;
+import org.weasis.dicom.codec.SortSeriesStack;
+
+/**
+ * Sorting the images of a series (shuffled with a fixed seed) and building a series with its sorted view.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SeriesSortBenchmark {
+
+    @Param({ "100", "1000" })
+    public int nbImages;
+
+    private List<DicomImageElement> shuffled;
+
+    @Setup
+    public void setup() throws Exception {
+        Natives.loadOpenCV();
+        File dir = SyntheticData.createTempDirectory("bench_sort"); //$NON-NLS-1$
+        // Small images, only the headers are read
+        List<File> files = SyntheticData.writeSeries(dir, UID.ExplicitVRLittleEndian, 16, nbImages);
+        shuffled = SyntheticData.readImages(files);
+        Collections.shuffle(shuffled, new Random(SyntheticData.SEED));
+    }
+
+    @Benchmark
+    public List<DicomImageElement> sortByInstanceNumber() {
+        List<DicomImageElement> list = new ArrayList<>(shuffled);
+        list.sort(SortSeriesStack.instanceNumber);
+        return list;
+    }
+
+    @Benchmark
+    public List<DicomImageElement> sortBySlicePosition() {
+        List<DicomImageElement> list = new ArrayList<>(shuffled);
+        list.sort(SortSeriesStack.slicePosition);
+        return list;
+    }
+
+    @Benchmark
+    public List<DicomImageElement> buildSeries() {
+        DicomSeries series = new DicomSeries("2.25.20180101.2"); //$NON-NLS-1$
+        series.addAll(shuffled);
+        return series.getSortedMedias(SortSeriesStack.slicePosition);
+    }
+}
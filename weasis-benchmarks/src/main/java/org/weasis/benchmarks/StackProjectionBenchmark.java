@@ -0,0 +1,87 @@
+/*******************************************************************************
+ * Copyright (c) 2009-2018 Weasis Team and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ *     Nicolas Roduit - initial API and implementation
+ *******************************************************************************/
+package org.weasis.benchmarks;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.dcm4che3.data.UID;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.weasis.core.api.image.CvUtil;
+import org.weasis.core.api.media.data.ImageElement;
+import org.weasis.opencv.data.ImageCV;
+
+/**
+ * Mean, minimum and maximum projections of a stack of 512x512 images (12 bits). The images are in the image cache
+ * after the first call.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class StackProjectionBenchmark {
+
+    @Param({ "8", "32" })
+    public int nbImages;
+
+    private List<ImageElement> images;
+
+    @Setup
+    public void setup() throws Exception {
+        Natives.loadOpenCV();
+        File dir = SyntheticData.createTempDirectory("bench_stack"); //$NON-NLS-1$
+        List<File> files = SyntheticData.writeSeries(dir, UID.ExplicitVRLittleEndian, 512, nbImages);
+        images = new ArrayList<>(SyntheticData.readImages(files));
+    }
+
+    @TearDown
+    public void tearDown() {
+        for (ImageElement img : images) {
+            img.dispose();
+        }
+    }
+
+    @Benchmark
+    public int meanStack() {
+        return release(CvUtil.meanStack(images));
+    }
+
+    @Benchmark
+    public int minStack() {
+        return release(CvUtil.minStack(images));
+    }
+
+    @Benchmark
+    public int maxStack() {
+        return release(CvUtil.maxStack(images));
+    }
+
+    private static int release(ImageCV img) {
+        int rows = img.rows();
+        img.release();
+        return rows;
+    }
+}
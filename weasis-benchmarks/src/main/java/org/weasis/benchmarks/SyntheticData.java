@@ -0,0 +1,326 @@
+/*******************************************************************************
+ * Copyright (c) 2009-2018 Weasis Team and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ *     Nicolas Roduit - initial API and implementation
+ *******************************************************************************/
+package org.weasis.benchmarks;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+
+import org.dcm4che3.data.Attributes;
+import org.dcm4che3.data.Fragments;
+import org.dcm4che3.data.Tag;
+import org.dcm4che3.data.UID;
+import org.dcm4che3.data.VR;
+import org.dcm4che3.io.DicomOutputStream;
+import org.opencv.core.CvType;
+import org.weasis.core.api.media.data.MediaElement;
+import org.weasis.dicom.codec.DicomImageElement;
+import org.weasis.dicom.codec.DicomMediaIO;
+import org.weasis.opencv.data.ImageCV;
+
+/**
+ * Deterministic datasets: the same seed always produces the same images and DICOM files, so the results can be
+ * compared between commits without any external data.
+ */
+final class SyntheticData {
+
+    static final long SEED = 20180101L;
+
+    private static final String UID_ROOT = "2.25.20180101"; //$NON-NLS-1$
+
+    private SyntheticData() {
+    }
+
+    /**
+     * Builds a phantom: a disc with an inner disc, a horizontal gradient and some noise.
+     *
+     * @param width
+     * @param height
+     * @param bits
+     *            the number of bits of the values (unsigned)
+     * @param seed
+     * @return the values in row order
+     */
+    static int[] phantom(int width, int height, int bits, long seed) {
+        Random random = new Random(seed);
+        int max = (1 << bits) - 1;
+        int[] values = new int[width * height];
+        double cx = width / 2.0;
+        double cy = height / 2.0;
+        double radius = Math.min(width, height) / 2.0;
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                double r = Math.hypot(x - cx, y - cy) / radius;
+                double v = 0.1;
+                if (r < 0.9) {
+                    v += 0.4;
+                }
+                if (r < 0.3) {
+                    v += 0.3;
+                }
+                v += 0.1 * x / width + 0.01 * random.nextGaussian();
+                values[y * width + x] = (int) Math.max(0, Math.min(max, Math.round(v * max)));
+            }
+        }
+        return values;
+    }
+
+    /**
+     * @param width
+     * @param height
+     * @param cvType
+     *            CV_8UC1, CV_8UC3, CV_16UC1 or CV_16SC1
+     * @return a phantom image
+     */
+    static ImageCV image(int width, int height, int cvType) {
+        int channels = CvType.channels(cvType);
+        int depth = CvType.depth(cvType);
+        ImageCV img = new ImageCV(height, width, cvType);
+        if (depth == CvType.CV_8U) {
+            int[] values = phantom(width, height, 8, SEED);
+            byte[] data = new byte[values.length * channels];
+            for (int i = 0; i < values.length; i++) {
+                for (int c = 0; c < channels; c++) {
+                    // Shift the values of each channel for having a color image
+                    data[i * channels + c] = (byte) (values[i] + c * 40);
+                }
+            }
+            img.put(0, 0, data);
+        } else if (depth == CvType.CV_16U || depth == CvType.CV_16S) {
+            int[] values = phantom(width, height, 12, SEED);
+            short[] data = new short[values.length];
+            // Signed values are centered on 0 like a CT image
+            int offset = depth == CvType.CV_16S ? 2048 : 0;
+            for (int i = 0; i < values.length; i++) {
+                data[i] = (short) (values[i] - offset);
+            }
+            img.put(0, 0, data);
+        } else {
+            throw new IllegalArgumentException("Not supported type: " + CvType.typeToString(cvType)); //$NON-NLS-1$
+        }
+        return img;
+    }
+
+    static File createTempDirectory(String prefix) throws IOException {
+        File dir = Files.createTempDirectory(prefix).toFile();
+        dir.deleteOnExit();
+        return dir;
+    }
+
+    /**
+     * Writes a CT series with the slices along the z axis.
+     *
+     * @param dir
+     * @param tsuid
+     *            ImplicitVRLittleEndian, ExplicitVRLittleEndian, ExplicitVRBigEndianRetired, RLELossless or
+     *            JPEGBaseline1 (8 bits)
+     * @param size
+     *            the number of rows and columns
+     * @param nbSlices
+     * @return the files ordered by instance number
+     */
+    static List<File> writeSeries(File dir, String tsuid, int size, int nbSlices) throws IOException {
+        boolean jpeg = UID.JPEGBaseline1.equals(tsuid);
+        int bits = jpeg ? 8 : 12;
+        List<File> files = new ArrayList<>(nbSlices);
+        for (int i = 0; i < nbSlices; i++) {
+            Attributes attrs = buildHeader(i + 1, size, bits);
+            int[] values = phantom(size, size, bits, SEED + i);
+            if (jpeg) {
+                setFragments(attrs, encodeJpeg(values, size, size));
+            } else if (UID.RLELossless.equals(tsuid)) {
+                setFragments(attrs, encodeRLE(values, size, size));
+            } else {
+                byte[] data = new byte[values.length * 2];
+                for (int k = 0; k < values.length; k++) {
+                    // Little endian, converted by the stream when writing big endian
+                    data[2 * k] = (byte) values[k];
+                    data[2 * k + 1] = (byte) (values[k] >> 8);
+                }
+                attrs.setBytes(Tag.PixelData, VR.OW, data);
+            }
+
+            File file = new File(dir, String.format("img%05d.dcm", i + 1)); //$NON-NLS-1$
+            file.deleteOnExit();
+            try (DicomOutputStream out = new DicomOutputStream(file)) {
+                out.writeDataset(attrs.createFileMetaInformation(tsuid), attrs);
+            }
+            files.add(file);
+        }
+        return files;
+    }
+
+    /**
+     * @param files
+     * @return the image elements after reading the header of the files
+     */
+    static List<DicomImageElement> readImages(List<File> files) {
+        List<DicomImageElement> images = new ArrayList<>(files.size());
+        for (File file : files) {
+            DicomMediaIO reader = new DicomMediaIO(file);
+            if (!reader.isReadableDicom()) {
+                throw new IllegalStateException("Cannot read " + file); //$NON-NLS-1$
+            }
+            MediaElement[] elements = reader.getMediaElement();
+            images.add((DicomImageElement) elements[0]);
+        }
+        return images;
+    }
+
+    private static Attributes buildHeader(int instance, int size, int bits) {
+        Attributes attrs = new Attributes();
+        attrs.setString(Tag.SpecificCharacterSet, VR.CS, "ISO_IR 100"); //$NON-NLS-1$
+        attrs.setString(Tag.SOPClassUID, VR.UI, UID.CTImageStorage);
+        attrs.setString(Tag.SOPInstanceUID, VR.UI, UID_ROOT + ".3." + instance); //$NON-NLS-1$
+        attrs.setString(Tag.StudyDate, VR.DA, "20180101"); //$NON-NLS-1$
+        attrs.setString(Tag.StudyTime, VR.TM, "080000"); //$NON-NLS-1$
+        attrs.setString(Tag.AcquisitionTime, VR.TM, String.format("0800%02d.%03d", instance / 1000 % 60, //$NON-NLS-1$
+            instance % 1000));
+        attrs.setString(Tag.ContentTime, VR.TM, String.format("0801%02d.%03d", instance / 1000 % 60, //$NON-NLS-1$
+            instance % 1000));
+        attrs.setString(Tag.AccessionNumber, VR.SH, "BENCH0001"); //$NON-NLS-1$
+        attrs.setString(Tag.Modality, VR.CS, "CT"); //$NON-NLS-1$
+        attrs.setString(Tag.Manufacturer, VR.LO, "Weasis"); //$NON-NLS-1$
+        attrs.setString(Tag.InstitutionName, VR.LO, "Synthetic"); //$NON-NLS-1$
+        attrs.setString(Tag.ReferringPhysicianName, VR.PN, "Doe^John"); //$NON-NLS-1$
+        attrs.setString(Tag.StudyDescription, VR.LO, "Benchmark study"); //$NON-NLS-1$
+        attrs.setString(Tag.SeriesDescription, VR.LO, "Benchmark series"); //$NON-NLS-1$
+        attrs.setString(Tag.PatientName, VR.PN, "Bench^Patient"); //$NON-NLS-1$
+        attrs.setString(Tag.PatientID, VR.LO, "BENCH"); //$NON-NLS-1$
+        attrs.setString(Tag.PatientBirthDate, VR.DA, "19700101"); //$NON-NLS-1$
+        attrs.setString(Tag.PatientSex, VR.CS, "O"); //$NON-NLS-1$
+        attrs.setString(Tag.BodyPartExamined, VR.CS, "CHEST"); //$NON-NLS-1$
+        attrs.setDouble(Tag.SliceThickness, VR.DS, 1.0);
+        attrs.setDouble(Tag.KVP, VR.DS, 120.0);
+        attrs.setString(Tag.StudyInstanceUID, VR.UI, UID_ROOT + ".1"); //$NON-NLS-1$
+        attrs.setString(Tag.SeriesInstanceUID, VR.UI, UID_ROOT + ".2"); //$NON-NLS-1$
+        attrs.setString(Tag.StudyID, VR.SH, "1"); //$NON-NLS-1$
+        attrs.setInt(Tag.SeriesNumber, VR.IS, 1);
+        attrs.setInt(Tag.InstanceNumber, VR.IS, instance);
+        attrs.setDouble(Tag.ImagePositionPatient, VR.DS, -125.0, -125.0, instance * 1.0);
+        attrs.setDouble(Tag.ImageOrientationPatient, VR.DS, 1.0, 0.0, 0.0, 0.0, 1.0, 0.0);
+        attrs.setString(Tag.FrameOfReferenceUID, VR.UI, UID_ROOT + ".4"); //$NON-NLS-1$
+        attrs.setDouble(Tag.SliceLocation, VR.DS, instance * 1.0);
+        attrs.setInt(Tag.SamplesPerPixel, VR.US, 1);
+        attrs.setString(Tag.PhotometricInterpretation, VR.CS, "MONOCHROME2"); //$NON-NLS-1$
+        attrs.setInt(Tag.Rows, VR.US, size);
+        attrs.setInt(Tag.Columns, VR.US, size);
+        attrs.setDouble(Tag.PixelSpacing, VR.DS, 0.5, 0.5);
+        attrs.setInt(Tag.BitsAllocated, VR.US, bits > 8 ? 16 : 8);
+        attrs.setInt(Tag.BitsStored, VR.US, bits);
+        attrs.setInt(Tag.HighBit, VR.US, bits - 1);
+        attrs.setInt(Tag.PixelRepresentation, VR.US, 0);
+        attrs.setDouble(Tag.WindowCenter, VR.DS, (1 << bits) / 2.0);
+        attrs.setDouble(Tag.WindowWidth, VR.DS, (1 << bits) / 2.0);
+        attrs.setDouble(Tag.RescaleIntercept, VR.DS, bits > 8 ? -1024.0 : 0.0);
+        attrs.setDouble(Tag.RescaleSlope, VR.DS, 1.0);
+        return attrs;
+    }
+
+    private static void setFragments(Attributes attrs, byte[] frame) {
+        Fragments fragments = attrs.newFragments(Tag.PixelData, VR.OB, 2);
+        // Empty basic offset table
+        fragments.add(new byte[0]);
+        fragments.add(frame.length % 2 == 0 ? frame : Arrays.copyOf(frame, frame.length + 1));
+    }
+
+    private static byte[] encodeJpeg(int[] values, int width, int height) throws IOException {
+        BufferedImage img = new BufferedImage(width, height, BufferedImage.TYPE_BYTE_GRAY);
+        img.getRaster().setPixels(0, 0, width, height, values);
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next(); //$NON-NLS-1$
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ImageOutputStream ios = ImageIO.createImageOutputStream(out)) {
+            writer.setOutput(ios);
+            writer.write(img);
+        } finally {
+            writer.dispose();
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Encodes a 16-bit frame with the DICOM RLE (PS3.5 Annex G): one segment for the most significant bytes and one
+     * for the least significant bytes, each row is encoded separately.
+     */
+    static byte[] encodeRLE(int[] values, int width, int height) {
+        ByteArrayOutputStream[] segments = { new ByteArrayOutputStream(), new ByteArrayOutputStream() };
+        byte[] row = new byte[width];
+        for (int s = 0; s < segments.length; s++) {
+            int shift = s == 0 ? 8 : 0;
+            for (int y = 0; y < height; y++) {
+                for (int x = 0; x < width; x++) {
+                    row[x] = (byte) (values[y * width + x] >> shift);
+                }
+                packBits(row, segments[s]);
+            }
+            if (segments[s].size() % 2 != 0) {
+                segments[s].write(0);
+            }
+        }
+
+        byte[] header = new byte[64];
+        writeIntLE(header, 0, segments.length);
+        int offset = header.length;
+        for (int s = 0; s < segments.length; s++) {
+            writeIntLE(header, 4 * (s + 1), offset);
+            offset += segments[s].size();
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream(offset);
+        out.write(header, 0, header.length);
+        for (ByteArrayOutputStream segment : segments) {
+            byte[] b = segment.toByteArray();
+            out.write(b, 0, b.length);
+        }
+        return out.toByteArray();
+    }
+
+    private static void packBits(byte[] src, ByteArrayOutputStream out) {
+        int i = 0;
+        while (i < src.length) {
+            int run = 1;
+            while (i + run < src.length && run < 128 && src[i + run] == src[i]) {
+                run++;
+            }
+            if (run > 1) {
+                out.write(1 - run);
+                out.write(src[i]);
+                i += run;
+            } else {
+                // Literal sequence up to the next run of two identical bytes
+                int start = i;
+                int length = 0;
+                while (i < src.length && length < 128 && (i + 1 >= src.length || src[i] != src[i + 1])) {
+                    i++;
+                    length++;
+                }
+                out.write(length - 1);
+                out.write(src, start, length);
+            }
+        }
+    }
+
+    private static void writeIntLE(byte[] b, int off, int val) {
+        b[off] = (byte) val;
+        b[off + 1] = (byte) (val >> 8);
+        b[off + 2] = (byte) (val >> 16);
+        b[off + 3] = (byte) (val >> 24);
+    }
+}
@@ -0,0 +1,87 @@
+/*******************************************************************************
+ * Copyright (c) 2009-2018 Weasis Team and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ *     Nicolas Roduit - initial API and implementation
+ *******************************************************************************/
+package org.weasis.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.opencv.core.Core;
+import org.opencv.core.CvType;
+import org.opencv.core.Mat;
+import org.opencv.imgproc.Imgproc;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.weasis.core.api.image.util.KernelData;
+import org.weasis.opencv.data.ImageCV;
+import org.weasis.opencv.op.tile.TiledAlgorithm;
+
+/**
+ * Gaussian 5x5 filter on a 4096x4096 image (16 bits) by tiles of different sizes. A tile size of 0 applies the filter
+ * directly on the whole image.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TiledFilterBenchmark {
+
+    @Param({ "0", "128", "256", "512", "1024" })
+    public int tileSize;
+
+    private ImageCV source;
+    private Mat kernel;
+    private TiledAlgorithm tiles;
+
+    @Setup
+    public void setup() {
+        Natives.loadOpenCV();
+        source = SyntheticData.image(4096, 4096, CvType.CV_16UC1);
+        KernelData data = KernelData.GAUSSIAN5;
+        kernel = new Mat(data.getHeight(), data.getWidth(), CvType.CV_32F);
+        kernel.put(0, 0, data.getData());
+        if (tileSize > 0) {
+            int padding = Math.max(data.getWidth(), data.getHeight()) / 2;
+            tiles = new TiledAlgorithm(tileSize, padding, Core.BORDER_DEFAULT,
+                (in, out) -> Imgproc.filter2D(in, out, -1, kernel));
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        source.release();
+        kernel.release();
+    }
+
+    @Benchmark
+    public int filter() {
+        ImageCV result;
+        if (tiles == null) {
+            result = new ImageCV();
+            Imgproc.filter2D(source, result, -1, kernel);
+        } else {
+            result = tiles.process(source, source.type());
+        }
+        int rows = result.rows();
+        result.release();
+        return rows;
+    }
+}
@@ -0,0 +1,96 @@
+/*******************************************************************************
+ * Copyright (c) 2009-2018 Weasis Team and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ *     Nicolas Roduit - initial API and implementation
+ *******************************************************************************/
+package org.weasis.core.api.explorer;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+import javax.swing.Timer;
+
+import org.weasis.core.api.service.BundleTools;
+
+/**
+ * Merges the bursts of model events (e.g. an image added to a series during a download) and dispatches them in the
+ * EDT at a limited rate.
+ * <p>
+ * The events are posted with a key: a pending event is replaced by a new one with the same key, and keeps its position
+ * in the dispatching order. Posting never waits for the EDT.
+ */
+public class ObservableEventCoalescer {
+
+    public static final String P_EVENT_DELAY = "weasis.model.event.delay"; //$NON-NLS-1$
+
+    private final Consumer<ObservableEvent> dispatcher;
+    private final Map<Object, ObservableEvent> pending = new LinkedHashMap<>();
+    private final Timer timer;
+    private boolean scheduled = false;
+
+    /**
+     * @param dispatcher
+     *            delivers the events to the listeners, called in the EDT
+     */
+    public ObservableEventCoalescer(Consumer<ObservableEvent> dispatcher) {
+        this(dispatcher, BundleTools.SYSTEM_PREFERENCES.getIntProperty(P_EVENT_DELAY, 40));
+    }
+
+    /**
+     * @param dispatcher
+     *            delivers the events to the listeners, called in the EDT
+     * @param delay
+     *            the maximum delay in milliseconds between the first posted event and the dispatching
+     */
+    public ObservableEventCoalescer(Consumer<ObservableEvent> dispatcher, int delay) {
+        this.dispatcher = Objects.requireNonNull(dispatcher);
+        this.timer = new Timer(Math.max(0, delay), e -> flush());
+        this.timer.setRepeats(false);
+    }
+
+    /**
+     * @param key
+     *            the key of the event, the pending event with the same key is replaced
+     * @param event
+     */
+    public void post(Object key, ObservableEvent event) {
+        Objects.requireNonNull(event);
+        boolean start;
+        synchronized (pending) {
+            pending.put(key, event);
+            start = !scheduled;
+            scheduled = true;
+        }
+        if (start) {
+            timer.restart();
+        }
+    }
+
+    public int getPendingCount() {
+        synchronized (pending) {
+            return pending.size();
+        }
+    }
+
+    /**
+     * Dispatch the pending events now. Must be called in the EDT.
+     */
+    public void flush() {
+        List<ObservableEvent> events;
+        synchronized (pending) {
+            events = new ArrayList<>(pending.values());
+            pending.clear();
+            scheduled = false;
+        }
+        events.forEach(dispatcher);
+    }
+}
@@ -25,6 +25,7 @@ import org.slf4j.LoggerFactory;
 import org.weasis.core.api.command.Option;
 import org.weasis.core.api.command.Options;
 import org.weasis.core.api.explorer.ObservableEvent;
+import org.weasis.core.api.explorer.ObservableEventCoalescer;
 import org.weasis.core.api.gui.util.GuiExecutor;
 import org.weasis.core.api.media.data.Codec;
 import org.weasis.core.api.media.data.MediaElement;
@@ -50,6 +51,7 @@ public abstract class AbstractFileModel implements TreeModel, DataExplorerModel
 
     private final Tree<MediaSeriesGroup> model;
     private PropertyChangeSupport propertyChange = null;
+    private final ObservableEventCoalescer eventCoalescer = new ObservableEventCoalescer(this::firePropertyChange);
 
     public AbstractFileModel() {
         model = new Tree<>(MediaSeriesGroupNode.rootNode);
@@ -169,6 +171,13 @@ public abstract class AbstractFileModel implements TreeModel, DataExplorerModel
         }
     }
 
+    @Override
+    public void fireCoalescedPropertyChange(Object key, ObservableEvent event) {
+        if (propertyChange != null) {
+            eventCoalescer.post(key, event);
+        }
+    }
+
     public void removeTopGroup(MediaSeriesGroup topGroup) {
         if (topGroup != null) {
             firePropertyChange(
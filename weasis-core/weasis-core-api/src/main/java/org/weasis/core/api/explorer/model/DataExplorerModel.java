@@ -28,6 +28,18 @@ public interface DataExplorerModel {
 
     void firePropertyChange(ObservableEvent event);
 
+    /**
+     * Fire an event which can be merged with the next ones having the same key, only the last one is dispatched. This
+     * is intended for the frequent changes like adding images to a series.
+     *
+     * @param key
+     *            the key to merge the events
+     * @param event
+     */
+    default void fireCoalescedPropertyChange(Object key, ObservableEvent event) {
+        firePropertyChange(event);
+    }
+
     TreeModelNode getTreeModelNodeForNewPlugin();
 
     boolean applySplittingRules(Series<?> original, MediaElement media);
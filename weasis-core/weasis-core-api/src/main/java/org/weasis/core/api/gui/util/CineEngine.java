@@ -0,0 +1,488 @@
+/*******************************************************************************
+ * Copyright (c) 2009-2018 Weasis Team and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ *     Nicolas Roduit - initial API and implementation
+ *******************************************************************************/
+package org.weasis.core.api.gui.util;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.weasis.core.api.metrics.Counter;
+import org.weasis.core.api.metrics.Histogram;
+import org.weasis.core.api.metrics.Metric;
+import org.weasis.core.api.metrics.MetricRegistry;
+import org.weasis.core.api.service.BundleTools;
+import org.weasis.core.api.util.ThreadUtil;
+
+/**
+ * Plays a sequence of frames at a fixed frame rate.
+ * <p>
+ * The frames following the current one are decoded ahead in a background thread and kept in a bounded queue
+ * ({@value #P_BUFFER_SIZE} frames, 8 by default). The display time of each frame is given by the wall clock from the
+ * start of the playback: when the decoding or the display cannot keep up, the late frames are skipped (and not
+ * decoded) instead of slowing down the playback.
+ * <p>
+ * When the current frame has been changed by another way than the playback (e.g. the slider), the playback continues
+ * from this frame.
+ * <p>
+ * The frame times are recorded in the {@link MetricRegistry} ("cine.*" metrics).
+ */
+public class CineEngine {
+    private static final Logger LOGGER = LoggerFactory.getLogger(CineEngine.class);
+
+    public static final String P_BUFFER_SIZE = "weasis.cine.buffer.size"; //$NON-NLS-1$
+
+    private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    /**
+     * The frames to play. The frames are identified by an index between {@link #getFirstFrame()} and
+     * {@link #getLastFrame()} and the playback loops over this range.
+     * <p>
+     * The range and the current frame are read from the EDT, at the start of the playback and before displaying each
+     * frame.
+     */
+    public interface FrameSource {
+
+        int getFirstFrame();
+
+        int getLastFrame();
+
+        /**
+         * @return the index of the displayed frame
+         */
+        int getCurrentFrame();
+
+        /**
+         * Decode the frame. Called from the decoding thread.
+         *
+         * @param frame
+         *            the index of the frame
+         * @return false if the frame cannot be displayed
+         */
+        boolean prepareFrame(int frame);
+
+        /**
+         * Display the frame. Called from the EDT.
+         *
+         * @param frame
+         *            the index of the frame
+         */
+        void showFrame(int frame);
+    }
+
+    /**
+     * The time source of the playback, can be replaced for testing.
+     */
+    interface Clock {
+
+        long nanoTime();
+
+        void parkNanos(Object blocker, long nanos);
+    }
+
+    static final Clock SYSTEM_CLOCK = new Clock() {
+
+        @Override
+        public long nanoTime() {
+            return System.nanoTime();
+        }
+
+        @Override
+        public void parkNanos(Object blocker, long nanos) {
+            LockSupport.parkNanos(blocker, nanos);
+        }
+    };
+
+    private final FrameSource source;
+    private final int bufferSize;
+    private final Clock clock;
+
+    private final Histogram frameInterval;
+    private final Histogram frameLateness;
+    private final Histogram decodeTime;
+    private final Counter displayedFrames;
+    private final Counter droppedFrames;
+
+    private volatile long periodNanos;
+    private volatile double achievedRate;
+    private volatile Player player;
+
+    public CineEngine(FrameSource source) {
+        this(source, BundleTools.SYSTEM_PREFERENCES.getIntProperty(P_BUFFER_SIZE, 8));
+    }
+
+    public CineEngine(FrameSource source, int bufferSize) {
+        this(source, bufferSize, SYSTEM_CLOCK);
+    }
+
+    CineEngine(FrameSource source, int bufferSize, Clock clock) {
+        this.source = source;
+        this.bufferSize = Math.max(1, bufferSize);
+        this.clock = clock;
+        this.periodNanos = NANOS_PER_SECOND / 25;
+        MetricRegistry registry = MetricRegistry.getInstance();
+        this.frameInterval = registry.histogram("cine.frame.interval", Metric.UNIT_MICROSECONDS); //$NON-NLS-1$
+        this.frameLateness = registry.histogram("cine.frame.lateness", Metric.UNIT_MICROSECONDS); //$NON-NLS-1$
+        this.decodeTime = registry.histogram("cine.frame.decode", Metric.UNIT_MICROSECONDS); //$NON-NLS-1$
+        this.displayedFrames = registry.counter("cine.frames.displayed"); //$NON-NLS-1$
+        this.droppedFrames = registry.counter("cine.frames.dropped"); //$NON-NLS-1$
+    }
+
+    /**
+     * Start the playback from the frame following the current one.
+     *
+     * @param framesPerSecond
+     *            the target frame rate
+     */
+    public synchronized void start(double framesPerSecond) {
+        stop();
+        setFrameRate(framesPerSecond);
+        if (source.getLastFrame() > source.getFirstFrame()) {
+            // The gauges report the engine playing the last
+            MetricRegistry registry = MetricRegistry.getInstance();
+            registry.remove("cine.fps.target"); //$NON-NLS-1$
+            registry.remove("cine.fps.achieved"); //$NON-NLS-1$
+            registry.gauge("cine.fps.target", Metric.UNIT_NONE, () -> Math.round(getFrameRate())); //$NON-NLS-1$
+            registry.gauge("cine.fps.achieved", Metric.UNIT_NONE, () -> Math.round(getAchievedFrameRate())); //$NON-NLS-1$
+            player = new Player();
+            player.start();
+        }
+    }
+
+    public synchronized void stop() {
+        Player moribund = player;
+        player = null;
+        if (moribund != null) {
+            moribund.running = false;
+            moribund.interrupt();
+        }
+    }
+
+    public boolean isRunning() {
+        return player != null;
+    }
+
+    private synchronized void playerStopped(Player stopped) {
+        if (player == stopped) {
+            player = null;
+        }
+    }
+
+    /**
+     * @param framesPerSecond
+     *            the target frame rate, applied from the next frame when playing
+     */
+    public void setFrameRate(double framesPerSecond) {
+        if (framesPerSecond <= 0.0) {
+            throw new IllegalArgumentException("The frame rate must be positive"); //$NON-NLS-1$
+        }
+        periodNanos = Math.max(1L, Math.round(NANOS_PER_SECOND / framesPerSecond));
+        achievedRate = framesPerSecond;
+    }
+
+    public double getFrameRate() {
+        return (double) NANOS_PER_SECOND / periodNanos;
+    }
+
+    /**
+     * @return the number of frames displayed by second, averaged on the last frames
+     */
+    public double getAchievedFrameRate() {
+        return player == null ? 0.0 : achievedRate;
+    }
+
+    private static final class Frame {
+        private final long number;
+        private final int index;
+        private final AtomicBoolean started = new AtomicBoolean();
+        private Future<Boolean> decoding;
+
+        Frame(long number, int index) {
+            this.number = number;
+            this.index = index;
+        }
+
+        boolean isReady() {
+            if (!decoding.isDone()) {
+                return false;
+            }
+            try {
+                return decoding.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Exception e) {
+                // Cancelled, considered as not available
+            }
+            return false;
+        }
+
+        /**
+         * @return true if the frame has been removed from the decoding queue before its decoding
+         */
+        boolean drop() {
+            return started.compareAndSet(false, true) && decoding.cancel(false);
+        }
+    }
+
+    /**
+     * The frame numbers count the frames from the start of the playback, and the display time of a frame is given by
+     * its number. The frames are queued in the display order.
+     */
+    private final class Player extends Thread {
+        private final ArrayDeque<Frame> queue = new ArrayDeque<>();
+        private final ExecutorService decoder = ThreadUtil.buildNewSingleThreadExecutor("Cine Decoder"); //$NON-NLS-1$
+        private volatile boolean running = true;
+
+        private long period;
+        // Range of the frames, read from the EDT
+        private int rangeFirst;
+        private int rangeLast;
+        // Time and number of the frame starting the current schedule
+        private long anchorTime;
+        private long anchorNumber;
+        private long lastNumber;
+        private int lastIndex;
+        private long lastDisplayTime;
+        private double averageInterval;
+        private long dropped;
+        private long displayed;
+
+        Player() {
+            super("Cine Player"); //$NON-NLS-1$
+        }
+
+        @Override
+        public void run() {
+            try {
+                period = periodNanos;
+                int[] current = new int[1];
+                GuiExecutor.instance().invokeAndWait(() -> current[0] = readFrames());
+                lastIndex = current[0];
+                anchorTime = clock.nanoTime();
+                while (running) {
+                    if (period != periodNanos) {
+                        // The speed has changed, restart the schedule from the last displayed frame
+                        period = periodNanos;
+                        restartSchedule();
+                    }
+                    playNextFrame();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Exception e) {
+                LOGGER.error("Cine playback", e); //$NON-NLS-1$
+            } finally {
+                // Stopped also when the playback fails
+                playerStopped(this);
+                decoder.shutdownNow();
+                LOGGER.debug("Cine stopped: {} frames displayed, {} dropped, {} fps achieved for {} fps", //$NON-NLS-1$
+                    displayed, dropped, Math.round(achievedRate), Math.round(getFrameRate()));
+            }
+        }
+
+        /**
+         * Read the range and the current frame of the source, called from the EDT.
+         *
+         * @return the index of the current frame
+         */
+        private int readFrames() {
+            rangeFirst = source.getFirstFrame();
+            rangeLast = source.getLastFrame();
+            return source.getCurrentFrame();
+        }
+
+        private void restartSchedule() {
+            anchorTime = clock.nanoTime();
+            anchorNumber = lastNumber;
+        }
+
+        private long getDisplayTime(long number) {
+            return anchorTime + (number - anchorNumber) * period;
+        }
+
+        private void playNextFrame() throws InterruptedException {
+            long now = clock.nanoTime();
+            // The number of the frame to display now
+            long dueNumber = anchorNumber + (now - anchorTime) / period;
+            fillQueue(dueNumber);
+
+            Frame head = queue.peekFirst();
+            if (head == null) {
+                return;
+            }
+            if (head.number > dueNumber) {
+                waitUntil(getDisplayTime(head.number));
+                return;
+            }
+
+            // Display the latest decoded frame among the frames to display now
+            Frame last = null;
+            for (Frame f : queue) {
+                if (f.number > dueNumber) {
+                    break;
+                }
+                if (f.isReady()) {
+                    last = f;
+                }
+            }
+            if (last == null) {
+                dropLateFrames(dueNumber);
+                Frame first = queue.peekFirst();
+                if (first != null) {
+                    waitForDecoding(first);
+                }
+                return;
+            }
+            Frame f;
+            while ((f = queue.pollFirst()) != last) {
+                f.drop();
+                dropFrame();
+            }
+            display(last, now);
+        }
+
+        private void fillQueue(long dueNumber) {
+            Frame tail = queue.peekLast();
+            long number = tail == null ? lastNumber : tail.number;
+            int index = tail == null ? lastIndex : tail.index;
+            while (queue.size() < bufferSize) {
+                number++;
+                index = nextIndex(index);
+                if (number < dueNumber) {
+                    // Already too late, do not decode it
+                    dropFrame();
+                    continue;
+                }
+                Frame frame = new Frame(number, index);
+                frame.decoding = decoder.submit(() -> decode(frame));
+                queue.addLast(frame);
+            }
+        }
+
+        private int nextIndex(int index) {
+            return index >= rangeLast || index < rangeFirst ? rangeFirst : index + 1;
+        }
+
+        private Boolean decode(Frame frame) {
+            if (!frame.started.compareAndSet(false, true)) {
+                return Boolean.FALSE;
+            }
+            long start = System.nanoTime();
+            try {
+                return source.prepareFrame(frame.index);
+            } catch (Exception e) {
+                LOGGER.error("Cannot decode the frame {}", frame.index, e); //$NON-NLS-1$
+                return Boolean.FALSE;
+            } finally {
+                decodeTime.updateSince(start);
+            }
+        }
+
+        private void dropLateFrames(long dueNumber) {
+            // Remove the late frames waiting for decoding, so the decoder works on the next frames to display
+            Iterator<Frame> it = queue.iterator();
+            while (it.hasNext()) {
+                Frame f = it.next();
+                if (f.number >= dueNumber) {
+                    break;
+                }
+                if (f.drop()) {
+                    it.remove();
+                    dropFrame();
+                }
+            }
+        }
+
+        private void dropFrame() {
+            dropped++;
+            droppedFrames.inc();
+        }
+
+        private void waitForDecoding(Frame frame) throws InterruptedException {
+            try {
+                frame.decoding.get(period, TimeUnit.NANOSECONDS);
+            } catch (TimeoutException | ExecutionException e) {
+                // Check again the schedule
+            }
+            if (frame.decoding.isDone() && !frame.isReady()) {
+                // Cannot be displayed
+                queue.remove(frame);
+                dropFrame();
+            }
+        }
+
+        private void waitUntil(long time) throws InterruptedException {
+            long delay = time - clock.nanoTime();
+            if (delay > 0) {
+                clock.parkNanos(this, delay);
+            }
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+        }
+
+        /**
+         * Continue the playback from the current frame of the source, the queued frames are discarded.
+         */
+        private void moveTo(int index) {
+            for (Frame f : queue) {
+                f.drop();
+            }
+            queue.clear();
+            lastIndex = index;
+            restartSchedule();
+        }
+
+        private void display(Frame frame, long now) {
+            frameLateness.update(TimeUnit.NANOSECONDS.toMicros(now - getDisplayTime(frame.number)));
+            // Check the current frame and display the next one in the same EDT task, so a frame selected by the user
+            // between two frames cannot be overwritten
+            int[] current = { lastIndex };
+            GuiExecutor.instance().invokeAndWait(() -> {
+                if (running) {
+                    current[0] = readFrames();
+                    if (current[0] == lastIndex) {
+                        source.showFrame(frame.index);
+                    }
+                }
+            });
+            if (current[0] != lastIndex) {
+                moveTo(current[0]);
+                return;
+            }
+            lastNumber = frame.number;
+            lastIndex = frame.index;
+            displayedFrames.inc();
+
+            long time = clock.nanoTime();
+            if (displayed++ == 0) {
+                // Start the schedule from the first frame, its decoding can be much longer than the next ones
+                anchorTime = time;
+                anchorNumber = frame.number;
+            }
+            if (lastDisplayTime != 0L) {
+                long interval = time - lastDisplayTime;
+                frameInterval.update(TimeUnit.NANOSECONDS.toMicros(interval));
+                // Moving average of the interval on about the last 10 frames
+                averageInterval = averageInterval == 0.0 ? interval : averageInterval * 0.9 + interval * 0.1;
+                achievedRate = NANOS_PER_SECOND / Math.max(1.0, averageInterval);
+            }
+            lastDisplayTime = time;
+        }
+    }
+}
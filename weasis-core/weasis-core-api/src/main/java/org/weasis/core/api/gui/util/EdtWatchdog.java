@@ -0,0 +1,384 @@
+/*******************************************************************************
+ * Copyright (c) 2009-2018 Weasis Team and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ *     Nicolas Roduit - initial API and implementation
+ *******************************************************************************/
+package org.weasis.core.api.gui.util;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.swing.SwingUtilities;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.weasis.core.api.metrics.Counter;
+import org.weasis.core.api.metrics.Histogram;
+import org.weasis.core.api.metrics.Metric;
+import org.weasis.core.api.metrics.MetricRegistry;
+import org.weasis.core.api.service.BundleTools;
+
+/**
+ * Detects the stalls of the Event Dispatch Thread (EDT).
+ * <p>
+ * A watchdog thread posts a heartbeat in the event queue and samples the stack of the EDT when the heartbeat is not
+ * processed after the threshold ({@value #P_THRESHOLD}, 500 ms by default). The stalls are aggregated by the first
+ * application frame of the sampled stack, so the report gives the code responsible for the longest freezes. The stall
+ * time is recorded in the "edt.stall" histogram of the {@link MetricRegistry}.
+ * <p>
+ * In strict mode ({@value #P_STRICT}), the blocking operations (image decoding, file reading) calling
+ * {@link #checkBlockingCall(String)} on the EDT are reported as well.
+ */
+public final class EdtWatchdog {
+    private static final Logger LOGGER = LoggerFactory.getLogger(EdtWatchdog.class);
+
+    public static final String P_ENABLED = "weasis.edt.watchdog"; //$NON-NLS-1$
+    public static final String P_THRESHOLD = "weasis.edt.stall.threshold"; //$NON-NLS-1$
+    public static final String P_STRICT = "weasis.edt.strict"; //$NON-NLS-1$
+
+    // Limit the number of aggregated locations, the other ones are counted together
+    private static final int MAX_LOCATIONS = 200;
+    private static final String OTHER_LOCATIONS = "<other>"; //$NON-NLS-1$
+    private static final int MAX_STACK_DEPTH = 20;
+    private static final String[] FRAMEWORK_PACKAGES = { "java.", "javax.", "sun.", //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+        "com.sun.", "jdk." }; //$NON-NLS-1$ //$NON-NLS-2$
+    private static final String STACK_SEPARATOR = "\n\tat "; //$NON-NLS-1$
+    private static final String REPORT_SEPARATOR = "\n       at "; //$NON-NLS-1$
+
+    /**
+     * Aggregated stalls or blocking calls at the same location.
+     */
+    public static final class Offender {
+        private final String location;
+        private final StackTraceElement[] stack;
+        private long count;
+        private long totalTime;
+        private long maxTime;
+
+        Offender(String location, StackTraceElement[] stack) {
+            this.location = location;
+            this.stack = stack;
+        }
+
+        synchronized void add(long time) {
+            count++;
+            totalTime += time;
+            maxTime = Math.max(maxTime, time);
+        }
+
+        public String getLocation() {
+            return location;
+        }
+
+        /**
+         * @return the first stack sampled at this location
+         */
+        public StackTraceElement[] getStack() {
+            return stack.clone();
+        }
+
+        public synchronized long getCount() {
+            return count;
+        }
+
+        /**
+         * @return the total time in milliseconds
+         */
+        public synchronized long getTotalTime() {
+            return totalTime;
+        }
+
+        /**
+         * @return the maximum time in milliseconds
+         */
+        public synchronized long getMaxTime() {
+            return maxTime;
+        }
+    }
+
+    private static final class Sample {
+        private final long posted;
+        private final StackTraceElement[] stack;
+
+        Sample(long posted, StackTraceElement[] stack) {
+            this.posted = posted;
+            this.stack = stack;
+        }
+    }
+
+    private static final class Holder {
+        private static final EdtWatchdog INSTANCE =
+            new EdtWatchdog(BundleTools.SYSTEM_PREFERENCES.getIntProperty(P_THRESHOLD, 500),
+                BundleTools.SYSTEM_PREFERENCES.getBooleanProperty(P_STRICT, false));
+    }
+
+    private final long thresholdMs;
+    private final Map<String, Offender> stalls = new ConcurrentHashMap<>();
+    private final Map<String, Offender> blockingCalls = new ConcurrentHashMap<>();
+    private final AtomicLong pendingSince = new AtomicLong();
+    private final AtomicReference<Sample> sample = new AtomicReference<>();
+    private final Histogram stallTime;
+    private final Counter blockingCounter;
+    private volatile boolean strict;
+    private volatile Thread edtThread;
+    private ScheduledExecutorService scheduler;
+    private ScheduledFuture<?> task;
+
+    EdtWatchdog(long thresholdMs, boolean strict) {
+        this.thresholdMs = Math.max(50L, thresholdMs);
+        this.strict = strict;
+        MetricRegistry registry = MetricRegistry.getInstance();
+        this.stallTime = registry.histogram("edt.stall", Metric.UNIT_MICROSECONDS); //$NON-NLS-1$
+        this.blockingCounter = registry.counter("edt.blocking.calls"); //$NON-NLS-1$
+    }
+
+    public static EdtWatchdog getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    /**
+     * Start the watchdog when enabled with {@value #P_ENABLED} (true by default).
+     */
+    public static void startFromPreferences() {
+        if (BundleTools.SYSTEM_PREFERENCES.getBooleanProperty(P_ENABLED, true)) {
+            getInstance().start();
+        }
+    }
+
+    public synchronized void start() {
+        if (task == null) {
+            scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "EDT Watchdog"); //$NON-NLS-1$
+                t.setDaemon(true);
+                return t;
+            });
+            long period = Math.max(10L, thresholdMs / 4);
+            task = scheduler.scheduleWithFixedDelay(this::check, period, period, TimeUnit.MILLISECONDS);
+            LOGGER.info("EDT watchdog started with a threshold of {} ms, strict mode: {}", //$NON-NLS-1$
+                thresholdMs, strict);
+        }
+    }
+
+    public synchronized void stop() {
+        if (task != null) {
+            task.cancel(false);
+            scheduler.shutdownNow();
+            task = null;
+            scheduler = null;
+        }
+    }
+
+    public synchronized boolean isRunning() {
+        return task != null;
+    }
+
+    public long getThreshold() {
+        return thresholdMs;
+    }
+
+    public boolean isStrict() {
+        return strict;
+    }
+
+    public void setStrict(boolean strict) {
+        this.strict = strict;
+    }
+
+    /**
+     * Report the blocking operations called on the EDT when the strict mode is enabled. This method must be called at
+     * the beginning of the operations that can take a long time (decoding, file reading...).
+     *
+     * @param operation
+     *            the name of the operation
+     */
+    public static void checkBlockingCall(String operation) {
+        EdtWatchdog watchdog = getInstance();
+        if (watchdog.strict && SwingUtilities.isEventDispatchThread()) {
+            watchdog.recordBlockingCall(operation, Thread.currentThread().getStackTrace());
+        }
+    }
+
+    void recordBlockingCall(String operation, StackTraceElement[] stack) {
+        blockingCounter.inc();
+        StackTraceElement[] trimmed = trimStack(stack);
+        String location = operation + " @ " + getLocation(trimmed); //$NON-NLS-1$
+        boolean first = !blockingCalls.containsKey(location);
+        getOffender(blockingCalls, location, trimmed).add(0L);
+        if (first) {
+            LOGGER.warn("Blocking operation on the EDT: {}{}", location, //$NON-NLS-1$
+                formatStack(trimmed, STACK_SEPARATOR));
+        }
+    }
+
+    private void check() {
+        try {
+            long now = System.nanoTime();
+            long posted = pendingSince.get();
+            if (posted == 0L) {
+                pendingSince.set(now);
+                SwingUtilities.invokeLater(() -> heartbeat(now));
+            } else if (sample.get() == null && now - posted >= TimeUnit.MILLISECONDS.toNanos(thresholdMs)) {
+                Thread edt = edtThread;
+                if (edt != null) {
+                    sample.compareAndSet(null, new Sample(posted, edt.getStackTrace()));
+                }
+            }
+        } catch (Exception e) {
+            LOGGER.error("EDT watchdog", e); //$NON-NLS-1$
+        }
+    }
+
+    private void heartbeat(long posted) {
+        edtThread = Thread.currentThread();
+        long duration = System.nanoTime() - posted;
+        Sample s = sample.getAndSet(null);
+        pendingSince.set(0L);
+        if (duration >= TimeUnit.MILLISECONDS.toNanos(thresholdMs)) {
+            // A sample taken during another stall cannot be attributed to this one
+            recordStall(duration, s != null && s.posted == posted ? s.stack : null);
+        }
+    }
+
+    void recordStall(long durationNanos, StackTraceElement[] stack) {
+        stallTime.update(TimeUnit.NANOSECONDS.toMicros(durationNanos));
+        long ms = TimeUnit.NANOSECONDS.toMillis(durationNanos);
+        StackTraceElement[] trimmed = stack == null ? new StackTraceElement[0] : trimStack(stack);
+        String location = stack == null ? "<not sampled>" : getLocation(trimmed); //$NON-NLS-1$
+        getOffender(stalls, location, trimmed).add(ms);
+        LOGGER.warn("The EDT was blocked during {} ms at {}{}", ms, location, //$NON-NLS-1$
+            formatStack(trimmed, STACK_SEPARATOR));
+    }
+
+    private static Offender getOffender(Map<String, Offender> map, String location, StackTraceElement[] stack) {
+        Offender offender = map.get(location);
+        if (offender == null) {
+            String key = map.size() >= MAX_LOCATIONS ? OTHER_LOCATIONS : location;
+            offender = map.computeIfAbsent(key, k -> new Offender(k, stack));
+        }
+        return offender;
+    }
+
+    /**
+     * @return the stalls aggregated by location, the longest total time first
+     */
+    public List<Offender> getStalls() {
+        return sortByTotalTime(stalls);
+    }
+
+    /**
+     * @return the blocking calls on the EDT aggregated by location, the most frequent first
+     */
+    public List<Offender> getBlockingCalls() {
+        List<Offender> list = new ArrayList<>(blockingCalls.values());
+        list.sort(Comparator.comparingLong(Offender::getCount).reversed());
+        return list;
+    }
+
+    private static List<Offender> sortByTotalTime(Map<String, Offender> map) {
+        List<Offender> list = new ArrayList<>(map.values());
+        list.sort(Comparator.comparingLong(Offender::getTotalTime).reversed());
+        return list;
+    }
+
+    public void reset() {
+        stalls.clear();
+        blockingCalls.clear();
+    }
+
+    /**
+     * @param maxEntries
+     *            the maximum number of locations of each section
+     * @return the report of the worst offenders
+     */
+    public String getReport(int maxEntries) {
+        StringBuilder buf = new StringBuilder();
+        List<Offender> list = getStalls();
+        buf.append(String.format(Locale.ENGLISH, "EDT stalls longer than %d ms (watchdog %s):\n", //$NON-NLS-1$
+            thresholdMs, isRunning() ? "running" : "stopped")); //$NON-NLS-1$ //$NON-NLS-2$
+        if (list.isEmpty()) {
+            buf.append("  none\n"); //$NON-NLS-1$
+        }
+        for (int i = 0; i < list.size() && i < maxEntries; i++) {
+            Offender o = list.get(i);
+            buf.append(String.format(Locale.ENGLISH, "  %d. total %d ms, %d times, max %d ms: %s", i + 1, //$NON-NLS-1$
+                o.getTotalTime(), o.getCount(), o.getMaxTime(), o.getLocation()));
+            buf.append(formatStack(o.stack, REPORT_SEPARATOR));
+            buf.append('\n');
+        }
+
+        list = getBlockingCalls();
+        buf.append(String.format(Locale.ENGLISH, "\nBlocking calls on the EDT (strict mode %s):\n", //$NON-NLS-1$
+            strict ? "on" : "off")); //$NON-NLS-1$ //$NON-NLS-2$
+        if (list.isEmpty()) {
+            buf.append("  none\n"); //$NON-NLS-1$
+        }
+        for (int i = 0; i < list.size() && i < maxEntries; i++) {
+            Offender o = list.get(i);
+            buf.append(String.format(Locale.ENGLISH, "  %d. %d times: %s", i + 1, o.getCount(), //$NON-NLS-1$
+                o.getLocation()));
+            buf.append(formatStack(o.stack, REPORT_SEPARATOR));
+            buf.append('\n');
+        }
+        return buf.toString();
+    }
+
+    private static boolean isFrameworkFrame(StackTraceElement e) {
+        String c = e.getClassName();
+        for (String prefix : FRAMEWORK_PACKAGES) {
+            if (c.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return c.equals(EdtWatchdog.class.getName());
+    }
+
+    private static StackTraceElement[] trimStack(StackTraceElement[] stack) {
+        // Remove the frames of getStackTrace() and of this class at the top
+        int start = 0;
+        while (start < stack.length && (stack[start].getClassName().equals(Thread.class.getName())
+            || stack[start].getClassName().equals(EdtWatchdog.class.getName()))) {
+            start++;
+        }
+        int end = Math.min(stack.length, start + MAX_STACK_DEPTH);
+        StackTraceElement[] trimmed = new StackTraceElement[end - start];
+        System.arraycopy(stack, start, trimmed, 0, trimmed.length);
+        return trimmed;
+    }
+
+    /**
+     * @param stack
+     * @return the first frame of the application code, otherwise the top frame
+     */
+    static String getLocation(StackTraceElement[] stack) {
+        for (StackTraceElement e : stack) {
+            if (!isFrameworkFrame(e)) {
+                return e.toString();
+            }
+        }
+        return stack.length == 0 ? "<unknown>" : stack[0].toString(); //$NON-NLS-1$
+    }
+
+    private static String formatStack(StackTraceElement[] stack, String separator) {
+        StringBuilder buf = new StringBuilder();
+        for (StackTraceElement e : stack) {
+            buf.append(separator);
+            buf.append(e);
+        }
+        return buf.toString();
+    }
+}
@@ -19,6 +19,16 @@ import java.util.NoSuchElementException;
 public abstract class Filter<T> {
     public abstract boolean passes(T item);
 
+    /**
+     * The version must change when {@link #passes(Object)} can give another result for the same item. It is used to
+     * invalidate the results of the filter kept by the series.
+     *
+     * @return the version of the filter criteria
+     */
+    public int getVersion() {
+        return 0;
+    }
+
     public Iterator<T> filter(Iterator<T> iterator) {
         return new FilterIterator(iterator);
     }
@@ -19,6 +19,8 @@ import javax.swing.SwingUtilities;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.weasis.core.api.metrics.Metric;
+import org.weasis.core.api.metrics.MetricRegistry;
 
 public class GuiExecutor extends AbstractExecutorService {
     private static final Logger LOGGER = LoggerFactory.getLogger(GuiExecutor.class);
@@ -45,8 +47,12 @@ public class GuiExecutor extends AbstractExecutorService {
         if (SwingUtilities.isEventDispatchThread()) {
             r.run();
         } else {
+            long start = System.nanoTime();
             try {
                 SwingUtilities.invokeAndWait(r);
+                // Time waited by the worker threads, including the events queued before
+                MetricRegistry.getInstance().histogram("edt.invokeAndWait", Metric.UNIT_MICROSECONDS) //$NON-NLS-1$
+                    .updateSince(start);
             } catch (InterruptedException e) {
                 LOGGER.warn("Interrupted Exception of {}", r); //$NON-NLS-1$
                 Thread.currentThread().interrupt();
@@ -0,0 +1,351 @@
+/*******************************************************************************
+ * Copyright (c) 2009-2018 Weasis Team and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ *     Nicolas Roduit - initial API and implementation
+ *******************************************************************************/
+package org.weasis.core.api.gui.util;
+
+import java.awt.geom.Rectangle2D;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * R-tree (quadratic split) indexing items by their bounding rectangle. The items are compared by identity.
+ * <p>
+ * This class is not thread-safe.
+ *
+ * @param <T>
+ *            the type of the items
+ */
+public class RTree<T> {
+
+    private static final int MAX_ENTRIES = 16;
+    private static final int MIN_ENTRIES = 6;
+
+    private static class Box {
+        double minX;
+        double minY;
+        double maxX;
+        double maxY;
+
+        void set(Box b) {
+            minX = b.minX;
+            minY = b.minY;
+            maxX = b.maxX;
+            maxY = b.maxY;
+        }
+
+        void union(Box b) {
+            minX = Math.min(minX, b.minX);
+            minY = Math.min(minY, b.minY);
+            maxX = Math.max(maxX, b.maxX);
+            maxY = Math.max(maxY, b.maxY);
+        }
+
+        double area() {
+            return (maxX - minX) * (maxY - minY);
+        }
+
+        double unionArea(Box b) {
+            return (Math.max(maxX, b.maxX) - Math.min(minX, b.minX))
+                * (Math.max(maxY, b.maxY) - Math.min(minY, b.minY));
+        }
+
+        boolean intersects(double x1, double y1, double x2, double y2) {
+            return minX <= x2 && maxX >= x1 && minY <= y2 && maxY >= y1;
+        }
+    }
+
+    private static final class Entry<T> extends Box {
+        final T item;
+        Node node;
+
+        Entry(T item, Rectangle2D r) {
+            this.item = item;
+            this.minX = r.getMinX();
+            this.minY = r.getMinY();
+            this.maxX = r.getMaxX();
+            this.maxY = r.getMaxY();
+        }
+    }
+
+    private static final class Node extends Box {
+        final boolean leaf;
+        final List<Box> children = new ArrayList<>(MAX_ENTRIES + 1);
+        Node parent;
+
+        Node(boolean leaf) {
+            this.leaf = leaf;
+        }
+
+        void add(Box child) {
+            children.add(child);
+            setParent(child);
+        }
+
+        void setParent(Box child) {
+            if (child instanceof Node) {
+                ((Node) child).parent = this;
+            } else {
+                ((Entry<?>) child).node = this;
+            }
+        }
+
+        void updateBounds() {
+            if (children.isEmpty()) {
+                minX = minY = maxX = maxY = 0.0;
+                return;
+            }
+            set(children.get(0));
+            for (int i = 1; i < children.size(); i++) {
+                union(children.get(i));
+            }
+        }
+    }
+
+    private final Map<T, Entry<T>> entries = new IdentityHashMap<>();
+    private Node root = new Node(true);
+
+    public int size() {
+        return entries.size();
+    }
+
+    public boolean contains(T item) {
+        return entries.containsKey(item);
+    }
+
+    public void clear() {
+        entries.clear();
+        root = new Node(true);
+    }
+
+    /**
+     * Add an item or update its bounds when it is already in the tree.
+     *
+     * @param item
+     * @param bounds
+     */
+    public void insert(T item, Rectangle2D bounds) {
+        remove(item);
+        Entry<T> entry = new Entry<>(item, bounds);
+        entries.put(item, entry);
+        insertEntry(entry);
+    }
+
+    /**
+     * @param item
+     * @return true if the item was in the tree
+     */
+    public boolean remove(T item) {
+        Entry<T> entry = entries.remove(item);
+        if (entry == null) {
+            return false;
+        }
+        Node leaf = entry.node;
+        leaf.children.remove(entry);
+        condenseTree(leaf);
+        return true;
+    }
+
+    /**
+     * @param area
+     * @param action
+     *            receives the items which bounds intersect the area
+     */
+    public void search(Rectangle2D area, Consumer<? super T> action) {
+        double x1 = area.getMinX();
+        double y1 = area.getMinY();
+        double x2 = area.getMaxX();
+        double y2 = area.getMaxY();
+        if (entries.isEmpty() || !root.intersects(x1, y1, x2, y2)) {
+            return;
+        }
+        Deque<Node> stack = new ArrayDeque<>();
+        stack.push(root);
+        while (!stack.isEmpty()) {
+            Node node = stack.pop();
+            for (Box b : node.children) {
+                if (b.intersects(x1, y1, x2, y2)) {
+                    if (node.leaf) {
+                        @SuppressWarnings("unchecked")
+                        Entry<T> e = (Entry<T>) b;
+                        action.accept(e.item);
+                    } else {
+                        stack.push((Node) b);
+                    }
+                }
+            }
+        }
+    }
+
+    private void insertEntry(Entry<T> entry) {
+        Node node = root;
+        while (!node.leaf) {
+            node = chooseChild(node, entry);
+        }
+        node.add(entry);
+        adjustTree(node);
+    }
+
+    private static Node chooseChild(Node node, Box box) {
+        Node best = null;
+        double bestEnlargement = Double.MAX_VALUE;
+        double bestArea = Double.MAX_VALUE;
+        for (Box b : node.children) {
+            double area = b.area();
+            double enlargement = b.unionArea(box) - area;
+            if (enlargement < bestEnlargement || (enlargement == bestEnlargement && area < bestArea)) {
+                best = (Node) b;
+                bestEnlargement = enlargement;
+                bestArea = area;
+            }
+        }
+        return best;
+    }
+
+    private void adjustTree(Node start) {
+        Node node = start;
+        while (node != null) {
+            Node sibling = node.children.size() > MAX_ENTRIES ? split(node) : null;
+            node.updateBounds();
+            if (sibling != null) {
+                sibling.updateBounds();
+                if (node == root) {
+                    Node newRoot = new Node(false);
+                    newRoot.add(node);
+                    newRoot.add(sibling);
+                    newRoot.updateBounds();
+                    root = newRoot;
+                    return;
+                }
+                node.parent.add(sibling);
+            }
+            node = node.parent;
+        }
+    }
+
+    /**
+     * Quadratic split: the node keeps one group and the returned sibling gets the other one.
+     */
+    private static Node split(Node node) {
+        List<Box> boxes = new ArrayList<>(node.children);
+        node.children.clear();
+        Node sibling = new Node(node.leaf);
+
+        // Pick the two seeds which would waste the most area in the same node
+        int seed1 = 0;
+        int seed2 = 1;
+        double worst = -Double.MAX_VALUE;
+        for (int i = 0; i < boxes.size(); i++) {
+            for (int j = i + 1; j < boxes.size(); j++) {
+                double d = boxes.get(i).unionArea(boxes.get(j)) - boxes.get(i).area() - boxes.get(j).area();
+                if (d > worst) {
+                    worst = d;
+                    seed1 = i;
+                    seed2 = j;
+                }
+            }
+        }
+        Box b1 = boxes.get(seed1);
+        Box b2 = boxes.get(seed2);
+        boxes.remove(seed2);
+        boxes.remove(seed1);
+        node.add(b1);
+        sibling.add(b2);
+        Box bounds1 = new Box();
+        bounds1.set(b1);
+        Box bounds2 = new Box();
+        bounds2.set(b2);
+
+        while (!boxes.isEmpty()) {
+            // Assign all the remaining boxes to a group when it needs them to reach the minimum
+            if (node.children.size() + boxes.size() <= MIN_ENTRIES) {
+                boxes.forEach(node::add);
+                break;
+            }
+            if (sibling.children.size() + boxes.size() <= MIN_ENTRIES) {
+                boxes.forEach(sibling::add);
+                break;
+            }
+            // Pick the box with the greatest preference for one group
+            int next = 0;
+            double maxDiff = -1.0;
+            for (int i = 0; i < boxes.size(); i++) {
+                Box b = boxes.get(i);
+                double d1 = bounds1.unionArea(b) - bounds1.area();
+                double d2 = bounds2.unionArea(b) - bounds2.area();
+                double diff = Math.abs(d1 - d2);
+                if (diff > maxDiff) {
+                    maxDiff = diff;
+                    next = i;
+                }
+            }
+            Box b = boxes.remove(next);
+            double d1 = bounds1.unionArea(b) - bounds1.area();
+            double d2 = bounds2.unionArea(b) - bounds2.area();
+            boolean first;
+            if (d1 != d2) {
+                first = d1 < d2;
+            } else if (bounds1.area() != bounds2.area()) {
+                first = bounds1.area() < bounds2.area();
+            } else {
+                first = node.children.size() <= sibling.children.size();
+            }
+            if (first) {
+                node.add(b);
+                bounds1.union(b);
+            } else {
+                sibling.add(b);
+                bounds2.union(b);
+            }
+        }
+        return sibling;
+    }
+
+    private void condenseTree(Node leaf) {
+        List<Entry<T>> orphans = new ArrayList<>();
+        Node node = leaf;
+        while (node != root) {
+            Node parent = node.parent;
+            if (node.children.size() < MIN_ENTRIES) {
+                parent.children.remove(node);
+                collectEntries(node, orphans);
+            } else {
+                node.updateBounds();
+            }
+            node = parent;
+        }
+        root.updateBounds();
+        while (!root.leaf && root.children.size() == 1) {
+            root = (Node) root.children.get(0);
+            root.parent = null;
+        }
+        if (!root.leaf && root.children.isEmpty()) {
+            root = new Node(true);
+        }
+        for (Entry<T> e : orphans) {
+            insertEntry(e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> void collectEntries(Node node, List<Entry<T>> list) {
+        for (Box b : node.children) {
+            if (node.leaf) {
+                list.add((Entry<T>) b);
+            } else {
+                collectEntries((Node) b, list);
+            }
+        }
+    }
+}
@@ -51,6 +51,18 @@ public abstract class SliderCineListener extends SliderChangeListener {
         return (Integer) speedModel.getValue();
     }
 
+    /**
+     * @return the speed converted in frames per second
+     */
+    public double getFramesPerSecond() {
+        if (TIME.MINUTE.equals(time)) {
+            return getSpeed() / 60.0;
+        } else if (TIME.HOUR.equals(time)) {
+            return getSpeed() / 3600.0;
+        }
+        return getSpeed();
+    }
+
     @Override
     public void updateSliderProoperties(JSliderW slider) {
         JPanel panel = (JPanel) slider.getParent();
@@ -23,6 +23,7 @@ import org.weasis.core.api.image.util.KernelData;
 import org.weasis.core.api.media.data.ImageElement;
 import org.weasis.opencv.data.ImageCV;
 import org.weasis.opencv.data.PlanarImage;
+import org.weasis.opencv.op.tile.TiledAlgorithm;
 
 public class CvUtil {
     
@@ -46,6 +47,13 @@ public class CvUtil {
         Mat srcImg = Objects.requireNonNull(source);
         Mat k = new Mat(kernel.getHeight(), kernel.getWidth(), CvType.CV_32F);
         k.put(0, 0, kernel.getData());
+        if (TiledAlgorithm.isParallelEfficient(srcImg)) {
+            // The padding covers the kernel anchored at its center
+            int padding = Math.max(kernel.getWidth(), kernel.getHeight()) / 2;
+            TiledAlgorithm tiles = new TiledAlgorithm(TiledAlgorithm.DEFAULT_TILE_SIZE, padding, Core.BORDER_DEFAULT,
+                (in, out) -> Imgproc.filter2D(in, out, -1, k));
+            return tiles.process(srcImg, srcImg.type());
+        }
         ImageCV dstImg = new ImageCV();
         Imgproc.filter2D(srcImg, dstImg, -1, k);
         // TODO improve speed with dedicated call
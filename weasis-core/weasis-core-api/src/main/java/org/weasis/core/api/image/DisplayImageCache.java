@@ -0,0 +1,204 @@
+/*******************************************************************************
+ * Copyright (c) 2009-2018 Weasis Team and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ *     Nicolas Roduit - initial API and implementation
+ *******************************************************************************/
+package org.weasis.core.api.image;
+
+import java.awt.geom.RectangularShape;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Array;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.weasis.core.api.image.ImageOpNode.Param;
+import org.weasis.core.api.media.data.MemoryGovernor;
+import org.weasis.core.api.media.data.NativeCache;
+import org.weasis.core.api.service.BundleTools;
+import org.weasis.opencv.data.PlanarImage;
+
+/**
+ * Cache of the images produced by the display operations, keyed by the source image and the parameters of all the
+ * operations. Showing again an image with the same display state (e.g. scrolling back to a slice with the same
+ * window/level and zoom) does not process the operations.
+ * <p>
+ * The source image is weakly referenced. The entries of a source are removed when it is released from the cache of
+ * the images (see {@link #removeSource(PlanarImage)}).
+ * <p>
+ * The size in MB is defined by {@link #P_CACHE_SIZE}, 0 disables the cache.
+ */
+public final class DisplayImageCache {
+
+    public static final String P_CACHE_SIZE = "weasis.display.cache.size"; //$NON-NLS-1$
+
+    private static class Holder {
+        static final DisplayImageCache INSTANCE = build();
+
+        private static DisplayImageCache build() {
+            long size = BundleTools.SYSTEM_PREFERENCES.getIntProperty(P_CACHE_SIZE, 64) * 1024L * 1024L;
+            if (size <= 0) {
+                return new DisplayImageCache(null);
+            }
+            // Lowest eviction priority, the images can be built again from the source
+            return new DisplayImageCache(
+                new NativeCache<>("Display images", MemoryGovernor.LOW_PRIORITY, size)); //$NON-NLS-1$
+        }
+    }
+
+    private final NativeCache<Key, PlanarImage> cache;
+
+    DisplayImageCache(NativeCache<Key, PlanarImage> cache) {
+        this.cache = cache;
+    }
+
+    public static DisplayImageCache getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    public boolean isEnabled() {
+        return cache != null;
+    }
+
+    /**
+     * Process the operations or get the result from the cache. With a cached result, the intermediate images of the
+     * operations are cleared and the output of the last operation is the cached image.
+     *
+     * @param manager
+     * @return the output image of the last operation
+     */
+    public PlanarImage process(SimpleOpManager manager) {
+        Key key = cache == null ? null : Key.build(manager);
+        if (key == null) {
+            return manager.process();
+        }
+        PlanarImage source = manager.getFirstNodeInputImage();
+        PlanarImage img = cache.get(key);
+        if (img == null) {
+            img = manager.process();
+            // Do not hold the source image when no operation has changed it
+            if (img != null && img != source) {
+                cache.put(key, img);
+            }
+        } else {
+            manager.clearNodeIOCache();
+            manager.setFirstNode(source);
+            manager.getLastNode().setParam(Param.OUTPUT_IMG, img);
+        }
+        return img;
+    }
+
+    /**
+     * Remove the images built from the source, must be called when the source image is released.
+     *
+     * @param source
+     */
+    public void removeSource(PlanarImage source) {
+        if (cache != null && source != null) {
+            // Also the entries of the sources already garbage collected
+            cache.removeKeys(k -> {
+                PlanarImage img = k.source.get();
+                return img == null || img == source;
+            });
+        }
+    }
+
+    public void clear() {
+        if (cache != null) {
+            cache.clear();
+        }
+    }
+
+    int size() {
+        return cache == null ? 0 : cache.size();
+    }
+
+    static final class Key {
+        private final WeakReference<PlanarImage> source;
+        private final Object[] values;
+        private final int hash;
+
+        private Key(PlanarImage source, Object[] values) {
+            this.source = new WeakReference<>(source);
+            this.values = values;
+            this.hash = 31 * System.identityHashCode(source) + Arrays.deepHashCode(values);
+        }
+
+        /**
+         * @param manager
+         * @return the key of the current state of the operations or null when it cannot be cached
+         */
+        static Key build(SimpleOpManager manager) {
+            PlanarImage source = manager.getFirstNodeInputImage();
+            List<ImageOpNode> ops = manager.getOperations();
+            if (source == null || ops.isEmpty()) {
+                return null;
+            }
+            List<Object> values = new ArrayList<>();
+            for (ImageOpNode op : ops) {
+                if (!(op instanceof AbstractOp)) {
+                    // Unknown parameters
+                    return null;
+                }
+                values.add(op.getName());
+                values.add(op.isEnabled());
+                // Not sorted, a different iteration order of the same parameters only gives a cache miss
+                for (Map.Entry<String, Object> p : ((AbstractOp) op).params.entrySet()) {
+                    String name = p.getKey();
+                    if (!name.startsWith("op.input") && !name.startsWith("op.output")) { //$NON-NLS-1$ //$NON-NLS-2$
+                        values.add(name);
+                        values.add(snapshot(p.getValue()));
+                    }
+                }
+            }
+            return new Key(source, values.toArray());
+        }
+
+        private static Object snapshot(Object val) {
+            // Copy the values that can be modified after being set as parameter
+            if (val != null && val.getClass().isArray()) {
+                Class<?> type = val.getClass().getComponentType();
+                int length = Array.getLength(val);
+                Object copy = Array.newInstance(type, length);
+                if (type.isPrimitive()) {
+                    System.arraycopy(val, 0, copy, 0, length);
+                } else {
+                    // Deep copy, e.g. the byte[][] of a lookup table
+                    for (int i = 0; i < length; i++) {
+                        Array.set(copy, i, snapshot(Array.get(val, i)));
+                    }
+                }
+                return copy;
+            }
+            if (val instanceof RectangularShape) {
+                return ((RectangularShape) val).clone();
+            }
+            return val;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) obj;
+            PlanarImage img = source.get();
+            return img != null && img == other.source.get() && hash == other.hash
+                && Arrays.deepEquals(values, other.values);
+        }
+    }
+}
@@ -0,0 +1,233 @@
+/*******************************************************************************
+ * Copyright (c) 2009-2018 Weasis Team and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ *     Nicolas Roduit - initial API and implementation
+ *******************************************************************************/
+package org.weasis.core.api.image.util;
+
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Reads the markers of a JPEG file until the first scan, without decoding the image: the frame size, the number of
+ * components and the EXIF thumbnail with the orientation of the image.
+ */
+public final class JpegHeader {
+
+    private static final int TAG_ORIENTATION = 0x0112;
+    private static final int TAG_COMPRESSION = 0x0103;
+    private static final int TAG_JPEG_OFFSET = 0x0201;
+    private static final int TAG_JPEG_LENGTH = 0x0202;
+
+    private int width;
+    private int height;
+    private int components;
+    private int orientation = 1;
+    private byte[] thumbnail;
+
+    private JpegHeader() {
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public int getComponents() {
+        return components;
+    }
+
+    /**
+     * @return the EXIF orientation (1 to 8), 1 when not defined
+     */
+    public int getOrientation() {
+        return orientation;
+    }
+
+    /**
+     * @return the JPEG stream of the EXIF thumbnail or null
+     */
+    public byte[] getThumbnail() {
+        return thumbnail;
+    }
+
+    /**
+     * @param input
+     *            the JPEG stream, it is not closed
+     * @return the header or null when the stream is not a JPEG
+     * @throws IOException
+     */
+    public static JpegHeader read(InputStream input) throws IOException {
+        DataInputStream in = new DataInputStream(input);
+        if (in.readUnsignedByte() != 0xFF || in.readUnsignedByte() != 0xD8) {
+            return null;
+        }
+        JpegHeader header = new JpegHeader();
+        while (true) {
+            int marker = readMarker(in);
+            if (marker == 0xD9 || marker == 0xDA) {
+                // End of image or start of scan
+                break;
+            }
+            if (marker == 0x01 || (marker >= 0xD0 && marker <= 0xD7)) {
+                // Markers without segment
+                continue;
+            }
+            int length = in.readUnsignedShort() - 2;
+            if (length < 0) {
+                throw new IOException("Invalid JPEG segment length"); //$NON-NLS-1$
+            }
+            if (marker == 0xE1 && header.thumbnail == null) {
+                byte[] data = new byte[length];
+                in.readFully(data);
+                header.readExif(data);
+            } else if (isStartOfFrame(marker)) {
+                in.readUnsignedByte(); // precision
+                header.height = in.readUnsignedShort();
+                header.width = in.readUnsignedShort();
+                header.components = in.readUnsignedByte();
+                // The EXIF segment is before the frame
+                break;
+            } else {
+                skipFully(in, length);
+            }
+        }
+        return header;
+    }
+
+    private static int readMarker(DataInputStream in) throws IOException {
+        int b = in.readUnsignedByte();
+        if (b != 0xFF) {
+            throw new IOException("Invalid JPEG marker"); //$NON-NLS-1$
+        }
+        // Skip the fill bytes
+        while (b == 0xFF) {
+            b = in.readUnsignedByte();
+        }
+        return b;
+    }
+
+    private static boolean isStartOfFrame(int marker) {
+        // DHT (C4), JPG (C8) and DAC (CC) are not frame markers
+        return marker >= 0xC0 && marker <= 0xCF && marker != 0xC4 && marker != 0xC8 && marker != 0xCC;
+    }
+
+    private static void skipFully(DataInputStream in, int length) throws IOException {
+        int remaining = length;
+        while (remaining > 0) {
+            int skipped = in.skipBytes(remaining);
+            if (skipped <= 0) {
+                throw new EOFException();
+            }
+            remaining -= skipped;
+        }
+    }
+
+    private void readExif(byte[] data) {
+        byte[] exifId = "Exif\0\0".getBytes(StandardCharsets.US_ASCII); //$NON-NLS-1$
+        if (data.length < 14 || !Arrays.equals(Arrays.copyOf(data, 6), exifId)) {
+            return;
+        }
+        Tiff tiff = new Tiff(data, 6);
+        if (!tiff.isValid()) {
+            return;
+        }
+        int ifd0 = tiff.getInt(4);
+        int nextIfd = -1;
+        if (tiff.isValidIfd(ifd0)) {
+            int count = tiff.getShort(ifd0);
+            for (int i = 0; i < count; i++) {
+                int entry = ifd0 + 2 + i * 12;
+                if (tiff.getShort(entry) == TAG_ORIENTATION) {
+                    int val = tiff.getShort(entry + 8);
+                    if (val >= 1 && val <= 8) {
+                        orientation = val;
+                    }
+                }
+            }
+            nextIfd = tiff.getInt(ifd0 + 2 + count * 12);
+        }
+        // The thumbnail is described in IFD1
+        if (nextIfd > 0 && tiff.isValidIfd(nextIfd)) {
+            int count = tiff.getShort(nextIfd);
+            int offset = -1;
+            int length = -1;
+            int compression = 6;
+            for (int i = 0; i < count; i++) {
+                int entry = nextIfd + 2 + i * 12;
+                int tag = tiff.getShort(entry);
+                if (tag == TAG_JPEG_OFFSET) {
+                    offset = tiff.getValue(entry);
+                } else if (tag == TAG_JPEG_LENGTH) {
+                    length = tiff.getValue(entry);
+                } else if (tag == TAG_COMPRESSION) {
+                    compression = tiff.getValue(entry);
+                }
+            }
+            // Only the JPEG thumbnails (compression 6) are supported
+            if (compression == 6 && offset > 0 && length > 2 && tiff.contains(offset, length)) {
+                int start = tiff.start + offset;
+                if ((data[start] & 0xFF) == 0xFF && (data[start + 1] & 0xFF) == 0xD8) {
+                    thumbnail = Arrays.copyOfRange(data, start, start + length);
+                }
+            }
+        }
+    }
+
+    private static class Tiff {
+        private final byte[] data;
+        private final int start;
+        private final boolean littleEndian;
+
+        Tiff(byte[] data, int start) {
+            this.data = data;
+            this.start = start;
+            this.littleEndian = data[start] == 'I' && data[start + 1] == 'I';
+        }
+
+        boolean isValid() {
+            boolean bigEndian = data[start] == 'M' && data[start + 1] == 'M';
+            return (littleEndian || bigEndian) && getShort(2) == 42;
+        }
+
+        boolean contains(int offset, int length) {
+            return offset >= 0 && length >= 0 && (long) start + offset + length <= data.length;
+        }
+
+        boolean isValidIfd(int offset) {
+            return contains(offset, 2) && contains(offset, 2 + getShort(offset) * 12 + 4);
+        }
+
+        int getShort(int offset) {
+            int b1 = data[start + offset] & 0xFF;
+            int b2 = data[start + offset + 1] & 0xFF;
+            return littleEndian ? (b2 << 8) | b1 : (b1 << 8) | b2;
+        }
+
+        /**
+         * @return the first value of an IFD entry of type SHORT or LONG
+         */
+        int getValue(int entry) {
+            // Type 3 is SHORT, 4 is LONG
+            return getShort(entry + 2) == 3 ? getShort(entry + 8) : getInt(entry + 8);
+        }
+
+        int getInt(int offset) {
+            int s1 = getShort(offset);
+            int s2 = getShort(offset + 2);
+            return littleEndian ? (s2 << 16) | s1 : (s1 << 16) | s2;
+        }
+    }
+}
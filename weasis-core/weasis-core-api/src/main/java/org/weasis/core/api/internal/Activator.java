@@ -16,6 +16,7 @@ import java.util.Dictionary;
 import java.util.Hashtable;
 
 import org.apache.felix.prefs.BackingStore;
+import org.apache.felix.service.command.CommandProcessor;
 import org.osgi.framework.BundleActivator;
 import org.osgi.framework.BundleContext;
 import org.osgi.framework.Constants;
@@ -27,7 +28,11 @@ import org.osgi.service.cm.ConfigurationAdmin;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.weasis.core.api.gui.util.AppProperties;
+import org.weasis.core.api.gui.util.EdtWatchdog;
 import org.weasis.core.api.media.data.Codec;
+import org.weasis.core.api.media.data.MemoryGovernor;
+import org.weasis.core.api.metrics.Metric;
+import org.weasis.core.api.metrics.MetricRegistry;
 import org.weasis.core.api.service.AuditLog;
 import org.weasis.core.api.service.BundleTools;
 import org.weasis.core.api.service.DataFileBackingStoreImpl;
@@ -51,10 +56,13 @@ public class Activator implements BundleActivator, ServiceListener {
         ProxyDetector.setProxyFromJavaWebStart();
 
         initLoggerAndAudit(bundleContext);
+        registerMetrics(bundleContext);
+        EdtWatchdog.startFromPreferences();
     }
 
     @Override
     public void stop(BundleContext bundleContext) throws Exception {
+        EdtWatchdog.getInstance().stop();
         // TODO should be stop in after all bundles implementing preferences
     }
 
@@ -94,6 +102,24 @@ public class Activator implements BundleActivator, ServiceListener {
         }
     }
 
+    private static void registerMetrics(BundleContext bundleContext) {
+        MetricRegistry registry = MetricRegistry.getInstance();
+        MemoryGovernor governor = MemoryGovernor.getInstance();
+        registry.gauge("memory.native.used", Metric.UNIT_BYTES, governor::getNativeMemory); //$NON-NLS-1$
+        registry.gauge("memory.native.peak", Metric.UNIT_BYTES, governor::getPeakNativeMemory); //$NON-NLS-1$
+        registry.gauge("memory.native.budget", Metric.UNIT_BYTES, governor::getNativeBudget); //$NON-NLS-1$
+        registry.gauge("memory.native.evicted", Metric.UNIT_BYTES, governor::getEvictedMemory); //$NON-NLS-1$
+        registry.gauge("memory.heap.caches", Metric.UNIT_BYTES, governor::getHeapMemory); //$NON-NLS-1$
+        registry.gauge("memory.heap.used", Metric.UNIT_BYTES, //$NON-NLS-1$
+            () -> Runtime.getRuntime().totalMemory() - Runtime.getRuntime().freeMemory());
+        registry.gauge("memory.heap.max", Metric.UNIT_BYTES, () -> Runtime.getRuntime().maxMemory()); //$NON-NLS-1$
+
+        Dictionary<String, Object> dict = new Hashtable<>();
+        dict.put(CommandProcessor.COMMAND_SCOPE, "metrics"); //$NON-NLS-1$
+        dict.put(CommandProcessor.COMMAND_FUNCTION, MetricsCommand.functions);
+        bundleContext.registerService(MetricsCommand.class.getName(), new MetricsCommand(), dict);
+    }
+
     private static void initLoggerAndAudit(BundleContext bundleContext) throws IOException {
         // Audit log for giving statistics about usage of Weasis
         String loggerKey = "audit.log"; //$NON-NLS-1$
@@ -0,0 +1,104 @@
+/*******************************************************************************
+ * Copyright (c) 2009-2018 Weasis Team and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ *     Nicolas Roduit - initial API and implementation
+ *******************************************************************************/
+package org.weasis.core.api.internal;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.List;
+
+import org.weasis.core.api.command.Option;
+import org.weasis.core.api.command.Options;
+import org.weasis.core.api.gui.util.EdtWatchdog;
+import org.weasis.core.api.metrics.MetricRegistry;
+import org.weasis.core.api.metrics.MetricSnapshot;
+
+/**
+ * Commands of the "metrics" scope for querying the runtime metrics from the shell.
+ */
+public class MetricsCommand {
+
+    public static final String[] functions =
+        { "list", "export", "reset", "edt" }; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+
+    public void list(String[] argv) throws IOException {
+        final String[] usage = { "Show the runtime metrics", //$NON-NLS-1$
+            "Usage: metrics:list [-f FILTER]", //$NON-NLS-1$
+            "  -f --filter=FILTER   show only the metrics containing FILTER in their name", //$NON-NLS-1$
+            "  -? --help            show help" }; //$NON-NLS-1$
+
+        Option opt = Options.compile(usage).parse(argv);
+        if (opt.isSet("help")) { //$NON-NLS-1$
+            opt.usage();
+            return;
+        }
+        List<MetricSnapshot> list = MetricRegistry.getInstance().snapshot(opt.get("filter")); //$NON-NLS-1$
+        PrintStream out = System.out;
+        for (MetricSnapshot s : list) {
+            out.println(s);
+        }
+    }
+
+    public void export(String[] argv) throws IOException {
+        final String[] usage = { "Write the runtime metrics in a file", //$NON-NLS-1$
+            "Usage: metrics:export FILE", //$NON-NLS-1$
+            "  FILE           the output file, in CSV when the extension is .csv, otherwise in JSON", //$NON-NLS-1$
+            "  -? --help      show help" }; //$NON-NLS-1$
+
+        Option opt = Options.compile(usage).parse(argv);
+        List<String> args = opt.args();
+        if (opt.isSet("help") || args.isEmpty()) { //$NON-NLS-1$
+            opt.usage();
+            return;
+        }
+        File file = new File(args.get(0));
+        MetricRegistry.getInstance().export(file);
+        System.out.println("Metrics written in " + file.getAbsolutePath()); //$NON-NLS-1$
+    }
+
+    public void reset(String[] argv) throws IOException {
+        final String[] usage = { "Reset the counters and the histograms", //$NON-NLS-1$
+            "Usage: metrics:reset", //$NON-NLS-1$
+            "  -? --help      show help" }; //$NON-NLS-1$
+
+        Option opt = Options.compile(usage).parse(argv);
+        if (opt.isSet("help")) { //$NON-NLS-1$
+            opt.usage();
+            return;
+        }
+        MetricRegistry.getInstance().reset();
+    }
+
+    public void edt(String[] argv) throws IOException {
+        final String[] usage = { "Show the worst stalls of the Event Dispatch Thread", //$NON-NLS-1$
+            "Usage: metrics:edt [-n NUMBER] [-s MODE] [-c]", //$NON-NLS-1$
+            "  -n --number=NUMBER   number of locations to show, 10 by default", //$NON-NLS-1$
+            "  -s --strict=MODE     report the blocking calls on the EDT (on or off)", //$NON-NLS-1$
+            "  -c --clear           clear the stalls and the blocking calls", //$NON-NLS-1$
+            "  -? --help            show help" }; //$NON-NLS-1$
+
+        Option opt = Options.compile(usage).parse(argv);
+        if (opt.isSet("help")) { //$NON-NLS-1$
+            opt.usage();
+            return;
+        }
+        EdtWatchdog watchdog = EdtWatchdog.getInstance();
+        if (opt.isSet("strict")) { //$NON-NLS-1$
+            watchdog.setStrict("on".equalsIgnoreCase(opt.get("strict"))); //$NON-NLS-1$ //$NON-NLS-2$
+        }
+        if (opt.isSet("clear")) { //$NON-NLS-1$
+            watchdog.reset();
+            return;
+        }
+        int number = opt.isSet("number") ? opt.getNumber("number") : 10; //$NON-NLS-1$ //$NON-NLS-2$
+        System.out.print(watchdog.getReport(number));
+    }
+}
@@ -10,7 +10,10 @@
  *******************************************************************************/
 package org.weasis.core.api.internal.cv;
 
+import java.io.BufferedInputStream;
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
 import java.net.URI;
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -23,6 +26,10 @@ import java.util.Objects;
 import javax.imageio.ImageIO;
 import javax.imageio.ImageReader;
 
+import org.opencv.core.Core;
+import org.opencv.core.Mat;
+import org.opencv.core.MatOfByte;
+import org.opencv.imgcodecs.Imgcodecs;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.weasis.core.api.explorer.ObservableEvent;
@@ -30,6 +37,7 @@ import org.weasis.core.api.explorer.model.AbstractFileModel;
 import org.weasis.core.api.explorer.model.DataExplorerModel;
 import org.weasis.core.api.gui.util.AppProperties;
 import org.weasis.core.api.image.util.ImageFiler;
+import org.weasis.core.api.image.util.JpegHeader;
 import org.weasis.core.api.media.MimeInspector;
 import org.weasis.core.api.media.data.Codec;
 import org.weasis.core.api.media.data.FileCache;
@@ -44,6 +52,7 @@ import org.weasis.core.api.media.data.Thumbnail;
 import org.weasis.core.api.util.FileUtil;
 import org.weasis.core.api.util.StringUtil;
 import org.weasis.opencv.data.FileRawImage;
+import org.weasis.opencv.data.ImageCV;
 import org.weasis.opencv.data.PlanarImage;
 import org.weasis.opencv.op.ImageProcessor;
 
@@ -111,6 +120,76 @@ public class ImageCVIO implements MediaReader {
         return null;
     }
 
+    @Override
+    public PlanarImage getThumbnailImage(MediaElement media, int size) throws Exception {
+        Objects.requireNonNull(media);
+        File file = media.getFileCache().getOriginalFile().orElse(null);
+        if (file == null || !"image/jpeg".equals(mimeType)) { //$NON-NLS-1$
+            return null;
+        }
+        JpegHeader header;
+        try (InputStream in = new BufferedInputStream(new FileInputStream(file))) {
+            header = JpegHeader.read(in);
+        }
+        if (header == null) {
+            return null;
+        }
+
+        // EXIF thumbnail
+        byte[] thumbnail = header.getThumbnail();
+        if (thumbnail != null) {
+            Mat buf = new MatOfByte(thumbnail);
+            Mat img = Imgcodecs.imdecode(buf, Imgcodecs.IMREAD_COLOR);
+            buf.release();
+            if (img.width() > 0 && Math.max(img.width(), img.height()) >= size) {
+                // Unlike the main image, the orientation is not applied by the decoder
+                return applyOrientation(img, header.getOrientation());
+            }
+            img.release();
+        }
+
+        // DCT scaling of the JPEG decoder
+        int max = Math.max(header.getWidth(), header.getHeight());
+        boolean gray = header.getComponents() == 1;
+        int flag = -1;
+        if (max >= size * 8) {
+            flag = gray ? Imgcodecs.IMREAD_REDUCED_GRAYSCALE_8 : Imgcodecs.IMREAD_REDUCED_COLOR_8;
+        } else if (max >= size * 4) {
+            flag = gray ? Imgcodecs.IMREAD_REDUCED_GRAYSCALE_4 : Imgcodecs.IMREAD_REDUCED_COLOR_4;
+        } else if (max >= size * 2) {
+            flag = gray ? Imgcodecs.IMREAD_REDUCED_GRAYSCALE_2 : Imgcodecs.IMREAD_REDUCED_COLOR_2;
+        }
+        if (flag != -1) {
+            Mat img = Imgcodecs.imread(file.getPath(), flag);
+            if (img.width() > 0) {
+                return ImageCV.toImageCV(img);
+            }
+            img.release();
+        }
+        return null;
+    }
+
+    private static PlanarImage applyOrientation(Mat img, int orientation) {
+        switch (orientation) {
+            case 2:
+                return ImageProcessor.flip(img, 1);
+            case 3:
+                return ImageProcessor.getRotatedImage(img, Core.ROTATE_180);
+            case 4:
+                return ImageProcessor.flip(img, 0);
+            case 5:
+                return ImageProcessor.flip(ImageProcessor.getRotatedImage(img, Core.ROTATE_90_CLOCKWISE), 1);
+            case 6:
+                return ImageProcessor.getRotatedImage(img, Core.ROTATE_90_CLOCKWISE);
+            case 7:
+                return ImageProcessor.flip(ImageProcessor.getRotatedImage(img, Core.ROTATE_90_CLOCKWISE), 0);
+            case 8:
+                return ImageProcessor.getRotatedImage(img, Core.ROTATE_90_COUNTERCLOCKWISE);
+            default:
+                return ImageCV.toImageCV(img);
+        }
+    }
+
     private PlanarImage readImage(File file, boolean createTiledLayout) throws Exception {
         PlanarImage img = null;
         if (file.getPath().endsWith(".wcv")) { //$NON-NLS-1$
@@ -187,8 +266,9 @@ public class ImageCVIO implements MediaReader {
                         this.add(media);
                         DataExplorerModel model = (DataExplorerModel) getTagValue(TagW.ExplorerModel);
                         if (model != null) {
-                            model.firePropertyChange(new ObservableEvent(ObservableEvent.BasicAction.ADD, model, null,
-                                new SeriesEvent(SeriesEvent.Action.ADD_IMAGE, this, media)));
+                            SeriesEvent event = new SeriesEvent(SeriesEvent.Action.ADD_IMAGE, this, media);
+                            model.fireCoalescedPropertyChange(event.getMergeKey(),
+                                new ObservableEvent(ObservableEvent.BasicAction.ADD, model, null, event));
                         }
                     }
                 }
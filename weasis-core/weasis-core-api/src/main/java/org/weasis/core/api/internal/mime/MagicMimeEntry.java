@@ -252,19 +252,32 @@ public class MagicMimeEntry {
 
         ByteBuffer buf;
 
+        // The content can be only the beginning of the file, do not read outside
         if (STRING_TYPE == type) {
             int len = getContent().length();
+            if (startPos + len > content.length) {
+                return null;
+            }
             buf = ByteBuffer.allocate(len + 1);
             buf.put(content, startPos, len);
         } else if (SHORT_TYPE == type || LESHORT_TYPE == type || BESHORT_TYPE == type) {
+            if (startPos + 2 > content.length) {
+                return null;
+            }
             buf = ByteBuffer.allocate(2);
             buf.put(content, startPos, 2);
         } else if (LELONG_TYPE == type || BELONG_TYPE == type) {
+            if (startPos + 4 > content.length) {
+                return null;
+            }
             buf = ByteBuffer.allocate(4);
             buf.put(content, startPos, 4);
         } else if (BYTE_TYPE == type) {
+            if (startPos + 1 > content.length) {
+                return null;
+            }
             buf = ByteBuffer.allocate(1);
-            buf.put(buf.array(), startPos, 1);
+            buf.put(content, startPos, 1);
         } else {
             buf = null;
         }
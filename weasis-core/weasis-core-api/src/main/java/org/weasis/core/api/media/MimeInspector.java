@@ -12,11 +12,13 @@ package org.weasis.core.api.media;
 
 import java.io.BufferedReader;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.RandomAccessFile;
 import java.io.Reader;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -56,6 +58,15 @@ public class MimeInspector {
     public static final Icon dicomVideo = new ImageIcon(MimeInspector.class.getResource("/icon/22x22/dicom-video.png")); //$NON-NLS-1$
     public static final Icon pdfIcon = new ImageIcon(MimeInspector.class.getResource("/icon/22x22/pdf.png")); //$NON-NLS-1$
 
+    /**
+     * Size of the file prefix read by {@link #readPrefix(File)}. It covers the DICOM preamble and the magic number of
+     * the most common formats, and it corresponds to one disk block.
+     */
+    public static final int PREFIX_LENGTH = 4096;
+
+    private static final byte[] DICM = "DICM".getBytes(StandardCharsets.US_ASCII); //$NON-NLS-1$
+    public static final int DICM_OFFSET = 128;
+
     private static final Properties mimeTypes = new Properties();
     private static final ArrayList<MagicMimeEntry> mMagicMimeEntries = new ArrayList<>();
 
@@ -123,6 +134,62 @@ public class MimeInspector {
         return false;
     }
 
+    /**
+     * Read the beginning of the file with a single open and a single read. The returned array can be shorter than
+     * {@link #PREFIX_LENGTH} when the file is smaller.
+     *
+     * @param file
+     * @return the first bytes of the file or null if the file cannot be read
+     */
+    public static byte[] readPrefix(final File file) {
+        return readPrefix(file, PREFIX_LENGTH);
+    }
+
+    /**
+     * @param file
+     * @param maxLength
+     *            the maximum number of bytes to read
+     * @return the first bytes of the file or null if the file cannot be read
+     */
+    public static byte[] readPrefix(final File file, int maxLength) {
+        if (file == null || !file.isFile() || !file.canRead()) {
+            return null;
+        }
+        try (FileInputStream in = new FileInputStream(file)) {
+            byte[] buf = new byte[maxLength];
+            int length = 0;
+            int n;
+            while (length < buf.length && (n = in.read(buf, length, buf.length - length)) > 0) {
+                length += n;
+            }
+            return length == buf.length ? buf : Arrays.copyOf(buf, length);
+        } catch (IOException e) {
+            LOGGER.error("Cannot read the beginning of {}", file, e); //$NON-NLS-1$
+        }
+        return null;
+    }
+
+    /**
+     * @param prefix
+     *            the beginning of a file (see {@link #readPrefix(File)})
+     * @return true if the DICM marker is present after the 128 bytes preamble
+     */
+    public static boolean isDicomPrefix(final byte[] prefix) {
+        return startsWith(prefix, DICM_OFFSET, DICM);
+    }
+
+    private static boolean startsWith(byte[] content, int offset, byte[] signature) {
+        if (content == null || content.length < offset + signature.length) {
+            return false;
+        }
+        for (int i = 0; i < signature.length; i++) {
+            if (content[offset + i] != signature[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     public static String getMimeTypeFromMagicNumber(final File file) {
         if (file == null || !file.canRead()) {
             return null;
@@ -0,0 +1,89 @@
+/*******************************************************************************
+ * Copyright (c) 2009-2018 Weasis Team and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ *     Nicolas Roduit - initial API and implementation
+ *******************************************************************************/
+package org.weasis.core.api.media.data;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.weasis.core.api.gui.util.Filter;
+
+/**
+ * Media of a sorted list which pass a filter, built once for random access, size and index of a media.
+ * <p>
+ * The result is valid as long as the source list, the version of the series and the version of the filter (see
+ * {@link Filter#getVersion()}) do not change.
+ *
+ * @param <E>
+ *            the type of the media
+ */
+final class FilteredMedias<E> {
+
+    private final List<E> source;
+    private final int seriesVersion;
+    private final int filterVersion;
+    private final List<E> items;
+    private Map<E, Integer> positions;
+
+    /**
+     * @param source
+     *            the sorted list
+     * @param filter
+     *            the filter or null to keep all the media
+     * @param seriesVersion
+     */
+    FilteredMedias(List<E> source, Filter<E> filter, int seriesVersion) {
+        this.source = source;
+        this.seriesVersion = seriesVersion;
+        this.filterVersion = filter == null ? 0 : filter.getVersion();
+        // Copy first to not hold the lock of a synchronized list while filtering
+        List<E> list = new ArrayList<>(source);
+        if (filter != null) {
+            list.removeIf(e -> e == null || !filter.passes(e));
+        }
+        this.items = Collections.unmodifiableList(list);
+    }
+
+    boolean isValid(List<E> source, Filter<E> filter, int seriesVersion) {
+        return this.source == source && this.seriesVersion == seriesVersion
+            && this.filterVersion == (filter == null ? 0 : filter.getVersion());
+    }
+
+    List<E> getItems() {
+        return items;
+    }
+
+    int size() {
+        return items.size();
+    }
+
+    E get(int index) {
+        return index >= 0 && index < items.size() ? items.get(index) : null;
+    }
+
+    /**
+     * @param media
+     * @return the position of the media (compared by identity) or -1 when not found
+     */
+    synchronized int indexOf(E media) {
+        if (positions == null) {
+            positions = new IdentityHashMap<>(items.size() * 4 / 3 + 1);
+            for (int i = items.size() - 1; i >= 0; i--) {
+                // Keep the first position of a duplicate
+                positions.put(items.get(i), i);
+            }
+        }
+        Integer index = positions.get(media);
+        return index == null ? -1 : index;
+    }
+}
@@ -24,8 +24,9 @@ import java.util.concurrent.Future;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.weasis.core.api.gui.util.ActionW;
+import org.weasis.core.api.gui.util.EdtWatchdog;
 import org.weasis.core.api.gui.util.MathUtil;
-import org.weasis.core.api.image.CvUtil;
+import org.weasis.core.api.image.DisplayImageCache;
 import org.weasis.core.api.image.LutShape;
 import org.weasis.core.api.image.OpManager;
 import org.weasis.core.api.image.ZoomOp;
@@ -42,7 +43,8 @@ public class ImageElement extends MediaElement {
     public static final ExecutorService IMAGE_LOADER = ThreadUtil.buildNewSingleThreadExecutor("Image Loader"); //$NON-NLS-1$
 
     private static final NativeCache<ImageElement, PlanarImage> mCache =
-        new NativeCache<ImageElement, PlanarImage>(Runtime.getRuntime().maxMemory() / 2) {
+        new NativeCache<ImageElement, PlanarImage>("Images", MemoryGovernor.NORMAL_PRIORITY, //$NON-NLS-1$
+            Runtime.getRuntime().maxMemory() / 2) {
 
             @Override
             protected void afterEntryRemove(ImageElement key, PlanarImage img) {
@@ -55,6 +57,7 @@ public class ImageElement extends MediaElement {
                     }
                 }
                 if (img != null) {
+                    DisplayImageCache.getInstance().removeSource(img);
                     img.release();
                 }
             }
@@ -355,8 +358,7 @@ public class ImageElement extends MediaElement {
         } catch (OutOfMemoryError e1) {
             LOGGER.warn("Out of MemoryError: {}", this, e1); //$NON-NLS-1$
             
-            mCache.expungeStaleEntries();
-            CvUtil.runGarbageCollectorAndWait(100);
+            MemoryGovernor.getInstance().handleOutOfMemory(100);
 
             return getCacheImage(startImageLoading(), manager, findMinMax);
         }
@@ -394,6 +396,8 @@ public class ImageElement extends MediaElement {
         PlanarImage cacheImage;
         if ((cacheImage = mCache.get(this)) == null && readable && setAsLoading()) {
             LOGGER.debug("Asking for reading image: {}", this); //$NON-NLS-1$
+            // The caller waits for the decoding
+            EdtWatchdog.checkBlockingCall("Image decoding"); //$NON-NLS-1$
             Load ref = new Load();
             Future<PlanarImage> future = IMAGE_LOADER.submit(ref);
             PlanarImage img = null;
@@ -32,6 +32,8 @@ public class MediaElement implements Tagable {
     protected final Object key;
 
     private volatile boolean loading = false;
+    // Keys extracted by the SortKeyComparator instances
+    private volatile MediaSortKeys sortKeys;
 
     public <E> MediaElement(MediaReader mediaIO, Object key) {
         this.mediaIO = Objects.requireNonNull(mediaIO);
@@ -47,6 +49,7 @@ public class MediaElement implements Tagable {
     public void setTag(TagW tag, Object value) {
         if (tag != null) {
             tags.put(tag, value);
+            sortKeys = null;
         }
     }
 
@@ -85,6 +88,15 @@ public class MediaElement implements Tagable {
 
     public void clearAllTags() {
         tags.clear();
+        sortKeys = null;
+    }
+
+    MediaSortKeys getSortKeys() {
+        return sortKeys;
+    }
+
+    void setSortKeys(MediaSortKeys sortKeys) {
+        this.sortKeys = sortKeys;
     }
 
     public void dispose() {
@@ -35,6 +35,20 @@ public interface MediaReader extends Tagable {
 
     PlanarImage getImageFragment(MediaElement media) throws Exception;
 
+    /**
+     * Gets a displayable image for building the thumbnail of the media without decoding the full resolution image: an
+     * icon embedded in the file or a reduced resolution decoding.
+     *
+     * @param media
+     * @param size
+     *            the expected size of the larger side, the reader returns null when the embedded icon is smaller
+     * @return the image or null when not available
+     * @throws Exception
+     */
+    default PlanarImage getThumbnailImage(MediaElement media, int size) throws Exception {
+        return null;
+    }
+
     int getMediaElementNumber();
 
     String getMediaFragmentMimeType();
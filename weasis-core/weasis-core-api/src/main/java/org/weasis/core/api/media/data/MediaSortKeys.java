@@ -0,0 +1,50 @@
+/*******************************************************************************
+ * Copyright (c) 2009-2018 Weasis Team and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ *     Nicolas Roduit - initial API and implementation
+ *******************************************************************************/
+package org.weasis.core.api.media.data;
+
+import java.util.Arrays;
+
+/**
+ * Immutable set of the sort keys of a media, indexed by the slot of each {@link SortKeyComparator}.
+ */
+final class MediaSortKeys {
+    static final int MAX_SLOTS = Long.SIZE;
+
+    private final double[] keys;
+    private final long mask;
+
+    private MediaSortKeys(double[] keys, long mask) {
+        this.keys = keys;
+        this.mask = mask;
+    }
+
+    boolean contains(int slot) {
+        return (mask & (1L << slot)) != 0;
+    }
+
+    double get(int slot) {
+        return keys[slot];
+    }
+
+    static MediaSortKeys with(MediaSortKeys current, int slot, double value) {
+        double[] k;
+        long m;
+        if (current == null) {
+            k = new double[slot + 1];
+            m = 0L;
+        } else {
+            k = Arrays.copyOf(current.keys, Math.max(current.keys.length, slot + 1));
+            m = current.mask;
+        }
+        k[slot] = value;
+        return new MediaSortKeys(k, m | (1L << slot));
+    }
+}
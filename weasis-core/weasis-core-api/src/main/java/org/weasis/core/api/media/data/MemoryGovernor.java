@@ -0,0 +1,294 @@
+/*******************************************************************************
+ * Copyright (c) 2009-2018 Weasis Team and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ *     Nicolas Roduit - initial API and implementation
+ *******************************************************************************/
+package org.weasis.core.api.media.data;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.weasis.core.api.image.CvUtil;
+import org.weasis.core.api.service.BundleTools;
+
+/**
+ * Global accounting of the memory held by the caches. Each cache registers itself with an eviction priority and the
+ * governor evicts entries from the caches having the lowest priority first when the native memory budget is exceeded
+ * or when an OutOfMemoryError occurs.
+ * <p>
+ * The budget can be configured with the property {@value #P_NATIVE_BUDGET} (in MB). The current usage (native memory
+ * and estimated heap memory of each cache) and the peak usage are available for sizing the workstations.
+ */
+public final class MemoryGovernor {
+    private static final Logger LOGGER = LoggerFactory.getLogger(MemoryGovernor.class);
+
+    public static final String P_NATIVE_BUDGET = "weasis.memory.native.budget"; //$NON-NLS-1$
+
+    public static final int LOW_PRIORITY = 10;
+    public static final int NORMAL_PRIORITY = 50;
+    public static final int HIGH_PRIORITY = 90;
+
+    private static final long MB = 1024L * 1024L;
+
+    /**
+     * A cache managed by the governor.
+     */
+    public interface ManagedCache {
+
+        String getName();
+
+        /**
+         * @return the eviction priority, the caches with the lowest value are evicted first
+         */
+        int getEvictionPriority();
+
+        /**
+         * @return the native memory (outside the Java heap) held by the cache in bytes
+         */
+        long getNativeMemory();
+
+        /**
+         * @return the estimated heap memory held by the cache in bytes
+         */
+        long getHeapMemory();
+
+        int getEntryCount();
+
+        /**
+         * Remove the least recently used entries.
+         *
+         * @param bytes
+         *            the amount of memory to release
+         * @return the amount of memory released in bytes
+         */
+        long evict(long bytes);
+    }
+
+    public static final class Usage {
+        private final String name;
+        private final int priority;
+        private final long nativeMemory;
+        private final long heapMemory;
+        private final int entries;
+
+        Usage(ManagedCache cache) {
+            this.name = cache.getName();
+            this.priority = cache.getEvictionPriority();
+            this.nativeMemory = cache.getNativeMemory();
+            this.heapMemory = cache.getHeapMemory();
+            this.entries = cache.getEntryCount();
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public int getPriority() {
+            return priority;
+        }
+
+        public long getNativeMemory() {
+            return nativeMemory;
+        }
+
+        public long getHeapMemory() {
+            return heapMemory;
+        }
+
+        public int getEntries() {
+            return entries;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s: %d entries, native %d MB, heap %d MB", name, entries, nativeMemory / MB, //$NON-NLS-1$
+                heapMemory / MB);
+        }
+    }
+
+    private static final class Holder {
+        private static final MemoryGovernor INSTANCE = new MemoryGovernor(BundleTools.SYSTEM_PREFERENCES
+            .getLongProperty(P_NATIVE_BUDGET, (Runtime.getRuntime().maxMemory() / 2 + 30_000_000) / MB) * MB);
+    }
+
+    private final List<ManagedCache> caches = new CopyOnWriteArrayList<>();
+    private final long nativeBudget;
+    private final AtomicLong peakNativeMemory = new AtomicLong();
+    private final AtomicLong evictedMemory = new AtomicLong();
+
+    /**
+     * @param nativeBudget
+     *            the maximum native memory in bytes for all the caches
+     */
+    MemoryGovernor(long nativeBudget) {
+        this.nativeBudget = Math.max(MB, nativeBudget);
+    }
+
+    public static MemoryGovernor getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    public void register(ManagedCache cache) {
+        caches.add(Objects.requireNonNull(cache));
+    }
+
+    public void unregister(ManagedCache cache) {
+        caches.remove(cache);
+    }
+
+    /**
+     * Register a heap cache. Its entries are only removed when an OutOfMemoryError occurs, through
+     * {@link SoftHashMap#removeAll()} so that the map can release its keys.
+     *
+     * @param name
+     * @param priority
+     * @param map
+     * @param entrySize
+     *            the estimated heap size of an entry in bytes, multiplied by the number of entries for the heap memory
+     *            of the cache
+     * @return the registered cache
+     */
+    public ManagedCache register(String name, int priority, SoftHashMap<?, ?> map, long entrySize) {
+        Objects.requireNonNull(map);
+        ManagedCache cache = new ManagedCache() {
+
+            @Override
+            public String getName() {
+                return name;
+            }
+
+            @Override
+            public int getEvictionPriority() {
+                return priority;
+            }
+
+            @Override
+            public long getNativeMemory() {
+                return 0;
+            }
+
+            @Override
+            public long getHeapMemory() {
+                return map.size() * entrySize;
+            }
+
+            @Override
+            public int getEntryCount() {
+                return map.size();
+            }
+
+            @Override
+            public long evict(long bytes) {
+                map.removeAll();
+                return 0;
+            }
+        };
+        register(cache);
+        return cache;
+    }
+
+    public long getNativeBudget() {
+        return nativeBudget;
+    }
+
+    public long getNativeMemory() {
+        long total = 0;
+        for (ManagedCache c : caches) {
+            total += c.getNativeMemory();
+        }
+        return total;
+    }
+
+    /**
+     * @return the estimated heap memory held by all the caches
+     */
+    public long getHeapMemory() {
+        long total = 0;
+        for (ManagedCache c : caches) {
+            total += c.getHeapMemory();
+        }
+        return total;
+    }
+
+    /**
+     * @return the highest native memory usage since the start
+     */
+    public long getPeakNativeMemory() {
+        return peakNativeMemory.get();
+    }
+
+    /**
+     * @return the cumulated amount of memory released by the governor
+     */
+    public long getEvictedMemory() {
+        return evictedMemory.get();
+    }
+
+    public List<Usage> getUsage() {
+        List<Usage> list = new ArrayList<>(caches.size());
+        for (ManagedCache c : caches) {
+            list.add(new Usage(c));
+        }
+        return list;
+    }
+
+    /**
+     * Must be called by the caches after adding a new entry. When the budget is exceeded, the least recently used
+     * entries are removed from the caches having the lowest priority until 5% of the budget is available.
+     */
+    public void checkBudget() {
+        long used = getNativeMemory();
+        peakNativeMemory.accumulateAndGet(used, Math::max);
+        if (used > nativeBudget) {
+            evict(used - nativeBudget + nativeBudget / 20, false);
+        }
+    }
+
+    /**
+     * Release the memory of all the caches as much as possible, to be called when an OutOfMemoryError occurs.
+     *
+     * @param waitMs
+     *            the time to wait after running the garbage collector
+     */
+    public void handleOutOfMemory(long waitMs) {
+        evict(getNativeMemory() / 2, true);
+        CvUtil.runGarbageCollectorAndWait(waitMs);
+    }
+
+    private synchronized void evict(long bytes, boolean clearHeapCaches) {
+        List<ManagedCache> list = new ArrayList<>(caches);
+        list.sort(Comparator.comparingInt(ManagedCache::getEvictionPriority));
+        long freed = 0;
+        for (ManagedCache c : list) {
+            if (c.getNativeMemory() > 0) {
+                if (freed < bytes) {
+                    freed += c.evict(bytes - freed);
+                }
+            } else if (clearHeapCaches) {
+                freed += c.evict(Long.MAX_VALUE);
+            }
+        }
+        evictedMemory.addAndGet(freed);
+        if (LOGGER.isInfoEnabled()) {
+            LOGGER.info("Memory eviction: {} MB released, native memory {}/{} MB {}", freed / MB, //$NON-NLS-1$
+                getNativeMemory() / MB, nativeBudget / MB, getUsage());
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Native memory %d/%d MB (peak %d MB), heap memory %d MB %s", getNativeMemory() / MB, //$NON-NLS-1$
+            nativeBudget / MB, peakNativeMemory.get() / MB, getHeapMemory() / MB, getUsage());
+    }
+}
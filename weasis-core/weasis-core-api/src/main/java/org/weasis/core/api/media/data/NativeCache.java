@@ -17,53 +17,108 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
 
+import org.weasis.core.api.media.data.MemoryGovernor.ManagedCache;
+import org.weasis.core.api.metrics.Counter;
+import org.weasis.core.api.metrics.Metric;
+import org.weasis.core.api.metrics.MetricRegistry;
 import org.weasis.opencv.data.PlanarImage;
 
-public class NativeCache<K, V extends PlanarImage> extends AbstractMap<K, V> {
+public class NativeCache<K, V extends PlanarImage> extends AbstractMap<K, V> implements ManagedCache {
 
     protected final Map<K, V> hash;
     private final long maxNativeMemory;
-    private volatile long useNativeMemory;
+    private final AtomicLong useNativeMemory;
+    private final String name;
+    private final int priority;
+    private final MemoryGovernor governor;
+    private final Counter hits;
+    private final Counter misses;
 
     public NativeCache(long maxNativeMemory) {
+        this(NativeCache.class.getSimpleName(), MemoryGovernor.NORMAL_PRIORITY, maxNativeMemory, null);
+    }
+
+    /**
+     * Build a cache registered in the global {@link MemoryGovernor}.
+     *
+     * @param name
+     * @param priority
+     *            the eviction priority (see {@link MemoryGovernor#NORMAL_PRIORITY})
+     * @param maxNativeMemory
+     *            the maximum native memory of this cache
+     */
+    public NativeCache(String name, int priority, long maxNativeMemory) {
+        this(name, priority, maxNativeMemory, MemoryGovernor.getInstance());
+    }
+
+    NativeCache(String name, int priority, long maxNativeMemory, MemoryGovernor governor) {
+        this.name = name;
+        this.priority = priority;
         this.maxNativeMemory = maxNativeMemory;
-        this.useNativeMemory = 0;
+        this.useNativeMemory = new AtomicLong(0);
         this.hash = Collections.synchronizedMap(new LinkedHashMap<>(64, 0.75f, true));
+        this.governor = governor;
+        // The caches having the same name share their metrics
+        MetricRegistry registry = MetricRegistry.getInstance();
+        this.hits = registry.counter(MetricRegistry.name("cache", name, "hits")); //$NON-NLS-1$ //$NON-NLS-2$
+        this.misses = registry.counter(MetricRegistry.name("cache", name, "misses")); //$NON-NLS-1$ //$NON-NLS-2$
+        Counter h = hits;
+        Counter m = misses;
+        String ratio = MetricRegistry.name("cache", name, "hitRatio"); //$NON-NLS-1$ //$NON-NLS-2$
+        registry.gauge(ratio, Metric.UNIT_PERCENT, () -> {
+            long total = h.getCount() + m.getCount();
+            return total == 0 ? 0 : h.getCount() * 100 / total;
+        });
+        if (governor != null) {
+            governor.register(this);
+        }
     }
 
     @Override
     public V get(Object key) {
-        return hash.get(key);
+        V val = hash.get(key);
+        if (val == null) {
+            misses.inc();
+        } else {
+            hits.inc();
+        }
+        return val;
     }
 
     public boolean isMemoryAvailable() {
-        return useNativeMemory < maxNativeMemory;
+        return useNativeMemory.get() < maxNativeMemory;
     }
 
     public void expungeStaleEntries() {
         if (!isMemoryAvailable()) {
-            synchronized (hash) {
-                List<K> remKeys = new ArrayList<>();
-                // 5% of max memory + diff
-                long maxfreeSize = maxNativeMemory / 20 + (useNativeMemory - maxNativeMemory);
-                long freeSize = 0;
-                
-                for (Map.Entry<K, V> e : hash.entrySet()) {
-                    freeSize += physicalBytes(e.getValue());
-                    if (freeSize > maxfreeSize) {
-                        break;
-                    }
-                    remKeys.add(e.getKey());
-                }
+            // 5% of max memory + diff
+            evict(maxNativeMemory / 20 + (useNativeMemory.get() - maxNativeMemory));
+        }
+    }
 
-                for (K key : remKeys) {
-                    V val = hash.remove(key);
-                    useNativeMemory -= physicalBytes(val);
-                    afterEntryRemove(key, val);
+    @Override
+    public long evict(long bytes) {
+        long freeSize = 0;
+        synchronized (hash) {
+            List<K> remKeys = new ArrayList<>();
+            for (Map.Entry<K, V> e : hash.entrySet()) {
+                if (freeSize >= bytes) {
+                    break;
                 }
+                freeSize += physicalBytes(e.getValue());
+                remKeys.add(e.getKey());
+            }
+
+            for (K key : remKeys) {
+                V val = hash.remove(key);
+                useNativeMemory.addAndGet(-physicalBytes(val));
+                afterEntryRemove(key, val);
             }
         }
+        return freeSize;
     }
 
     private long physicalBytes(V val) {
@@ -80,23 +135,46 @@ public class NativeCache<K, V extends PlanarImage> extends AbstractMap<K, V> {
     public V put(K key, V value) {
         expungeStaleEntries();
         V result = hash.put(key, value);
-        useNativeMemory += physicalBytes(value);
-        useNativeMemory -= physicalBytes(result);
+        useNativeMemory.addAndGet(physicalBytes(value) - physicalBytes(result));
+        if (governor != null) {
+            governor.checkBudget();
+        }
         return result;
     }
 
     @Override
     public V remove(Object key) {
         V val = hash.remove(key);
-        useNativeMemory -= physicalBytes(val);
+        useNativeMemory.addAndGet(-physicalBytes(val));
         afterEntryRemove((K) key, val);
         return val;
     }
 
+    /**
+     * Remove the entries of the keys matching the filter.
+     *
+     * @param filter
+     * @return the number of removed entries
+     */
+    public int removeKeys(Predicate<? super K> filter) {
+        synchronized (hash) {
+            List<K> remKeys = new ArrayList<>();
+            for (K key : hash.keySet()) {
+                if (filter.test(key)) {
+                    remKeys.add(key);
+                }
+            }
+            for (K key : remKeys) {
+                remove(key);
+            }
+            return remKeys.size();
+        }
+    }
+
     @Override
     public void clear() {
         hash.clear();
-        useNativeMemory = 0;
+        useNativeMemory.set(0);
     }
 
     @Override
@@ -104,6 +182,31 @@ public class NativeCache<K, V extends PlanarImage> extends AbstractMap<K, V> {
         return hash.size();
     }
 
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public int getEvictionPriority() {
+        return priority;
+    }
+
+    @Override
+    public long getNativeMemory() {
+        return useNativeMemory.get();
+    }
+
+    @Override
+    public long getHeapMemory() {
+        return 0;
+    }
+
+    @Override
+    public int getEntryCount() {
+        return hash.size();
+    }
+
     @Override
     public Set<Entry<K, V>> entrySet() {
         return hash.entrySet();
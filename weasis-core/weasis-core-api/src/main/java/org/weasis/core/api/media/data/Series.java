@@ -21,7 +21,7 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
-import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -50,6 +50,18 @@ public abstract class Series<E extends MediaElement> extends MediaSeriesGroupNod
     private PropertyChangeSupport propertyChange = null;
     protected final List<E> medias;
     protected final Map<Comparator<E>, List<E>> sortedMedias = new HashMap<>(6);
+    // Filtered media by filter and sort order, the most recently used are kept
+    private final Map<List<Object>, FilteredMedias<E>> filteredMedias =
+        new LinkedHashMap<List<Object>, FilteredMedias<E>>(8, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<List<Object>, FilteredMedias<E>> eldest) {
+                return size() > 6;
+            }
+        };
+    // Incremented at each change of the media list, protected by the lock of sortedMedias
+    private volatile int mediasVersion = 0;
     protected final Comparator<E> mediaOrder;
     protected SeriesImporter seriesLoader;
     private double fileSize;
@@ -89,98 +101,153 @@ public abstract class Series<E extends MediaElement> extends MediaSeriesGroupNod
     }
 
     protected void resetSortedMediasMap() {
-        if (!sortedMedias.isEmpty()) {
-            sortedMedias.clear();
+        synchronized (sortedMedias) {
+            mediasVersion++;
+            if (!sortedMedias.isEmpty()) {
+                sortedMedias.clear();
+            }
         }
     }
 
+    /**
+     * Insert the new media in the sorted lists already built. A list is replaced by a new one, so the lists returned
+     * before are not modified.
+     *
+     * @param added
+     *            the new media, in the order they have been added at the end of the series
+     */
+    protected void insertInSortedMedias(List<? extends E> added) {
+        synchronized (sortedMedias) {
+            mediasVersion++;
+            for (Map.Entry<Comparator<E>, List<E>> entry : sortedMedias.entrySet()) {
+                entry.setValue(mergeSorted(entry.getValue(), added, entry.getKey()));
+            }
+        }
+    }
+
+    /**
+     * Give the same result as a stable sort of the list followed by the new media, only when the comparator is a total
+     * order. A comparator that considers a missing value as equal to all the others is not transitive and the result
+     * depends on the existing order.
+     */
+    static <E> List<E> mergeSorted(List<E> sorted, List<? extends E> added, Comparator<E> comparator) {
+        List<E> items = new ArrayList<>(added);
+        Collections.sort(items, comparator);
+        List<E> result = new ArrayList<>(sorted.size() + items.size());
+        int start = 0;
+        for (E item : items) {
+            // After the equal elements, as they have been added before
+            int low = start;
+            int high = sorted.size();
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (comparator.compare(sorted.get(mid), item) <= 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            result.addAll(sorted.subList(start, low));
+            result.add(item);
+            start = low;
+        }
+        result.addAll(sorted.subList(start, sorted.size()));
+        return result;
+    }
+
     @Override
     public List<E> getSortedMedias(Comparator<E> comparator) {
         // Do not sort when it is the default order.
         if (comparator != null && !comparator.equals(mediaOrder)) {
-            List<E> sorted = sortedMedias.get(comparator);
-            if (sorted == null) {
-                sorted = new ArrayList<>(medias);
-                Collections.sort(sorted, comparator);
-                sortedMedias.put(comparator, sorted);
+            synchronized (sortedMedias) {
+                List<E> sorted = sortedMedias.get(comparator);
+                if (sorted == null) {
+                    sorted = new ArrayList<>(medias);
+                    Collections.sort(sorted, comparator);
+                    sortedMedias.put(comparator, sorted);
+                }
+                return sorted;
             }
-            return sorted;
         }
         return medias;
     }
 
     @Override
     public void add(E media) {
-        medias.add(media);
-        resetSortedMediasMap();
+        synchronized (sortedMedias) {
+            medias.add(media);
+            insertInSortedMedias(Collections.singletonList(media));
+        }
     }
 
     @Override
     public void add(int index, E media) {
-        medias.add(index, media);
-        resetSortedMediasMap();
+        synchronized (sortedMedias) {
+            medias.add(index, media);
+            // Only the order of the equal elements can differ from a new sort
+            insertInSortedMedias(Collections.singletonList(media));
+        }
     }
 
     @Override
     public void addAll(Collection<? extends E> c) {
-        medias.addAll(c);
-        resetSortedMediasMap();
+        synchronized (sortedMedias) {
+            medias.addAll(c);
+            insertInSortedMedias(new ArrayList<>(c));
+        }
     }
 
     @Override
     public void addAll(int index, Collection<? extends E> c) {
-        medias.addAll(index, c);
-        resetSortedMediasMap();
+        synchronized (sortedMedias) {
+            medias.addAll(index, c);
+            insertInSortedMedias(new ArrayList<>(c));
+        }
+    }
+
+    /**
+     * @param filter
+     *            the filter or null to keep all the media
+     * @param sort
+     * @return the filtered media, built once until the series or the filter (see {@link Filter#getVersion()}) changes
+     */
+    private FilteredMedias<E> getFilteredMedias(Filter<E> filter, Comparator<E> sort) {
+        // Read the version first, a change after this line makes the result obsolete for the next call
+        int version = mediasVersion;
+        List<E> sortedList = getSortedMedias(sort);
+        List<Object> key = Arrays.asList(filter, sort);
+        synchronized (filteredMedias) {
+            FilteredMedias<E> result = filteredMedias.get(key);
+            if (result != null && result.isValid(sortedList, filter, version)) {
+                return result;
+            }
+        }
+        FilteredMedias<E> result = new FilteredMedias<>(sortedList, filter, version);
+        synchronized (filteredMedias) {
+            filteredMedias.put(key, result);
+        }
+        return result;
     }
 
     @Override
     public final E getMedia(MEDIA_POSITION position, Filter<E> filter, Comparator<E> sort) {
-        List<E> sortedList = getSortedMedias(sort);
+        List<E> list = filter == null ? getSortedMedias(sort) : getFilteredMedias(filter, sort).getItems();
         synchronized (this) {
-            if (filter == null) {
-                int size = sortedList.size();
-                if (size == 0) {
-                    return null;
-                }
-                int pos = 0;
-                if (MEDIA_POSITION.FIRST.equals(position)) {
-                    pos = 0;
-                } else if (MEDIA_POSITION.MIDDLE.equals(position)) {
-                    pos = size / 2;
-                } else if (MEDIA_POSITION.LAST.equals(position)) {
-                    pos = size - 1;
-                } else if (MEDIA_POSITION.RANDOM.equals(position)) {
-                    pos = RANDOM.nextInt(size);
-                }
-                return sortedList.get(pos);
-            } else {
-                Iterable<E> iter = filter.filter(sortedList);
-                Iterator<E> list = iter.iterator();
-                if (list.hasNext()) {
-                    E val = list.next();
-                    if (MEDIA_POSITION.FIRST.equals(position)) {
-                        return val;
-                    }
-                    int pos = 0;
-                    int size = Filter.size(iter);
-                    if (MEDIA_POSITION.MIDDLE.equals(position)) {
-                        pos = size / 2;
-                    } else if (MEDIA_POSITION.LAST.equals(position)) {
-                        pos = size - 1;
-                    } else if (MEDIA_POSITION.RANDOM.equals(position)) {
-                        pos = RANDOM.nextInt(size);
-                    }
-                    int k = 0;
-                    for (E elem : iter) {
-                        if (k == pos) {
-                            return elem;
-                        }
-                    }
-                    return val;
-                } else {
-                    return null;
-                }
+            int size = list.size();
+            if (size == 0) {
+                return null;
             }
+            int pos = 0;
+            if (MEDIA_POSITION.FIRST.equals(position)) {
+                pos = 0;
+            } else if (MEDIA_POSITION.MIDDLE.equals(position)) {
+                pos = size / 2;
+            } else if (MEDIA_POSITION.LAST.equals(position)) {
+                pos = size - 1;
+            } else if (MEDIA_POSITION.RANDOM.equals(position)) {
+                pos = RANDOM.nextInt(size);
+            }
+            return list.get(pos);
         }
     }
 
@@ -188,50 +255,28 @@ public abstract class Series<E extends MediaElement> extends MediaSeriesGroupNod
         if (source == null) {
             return -1;
         }
-        Iterable<E> list = getMedias(filter, sort);
-        synchronized (this) {
-            int index = 0;
-            for (E e : list) {
-                if (e == source) {
-                    return index;
-                }
-                index++;
-            }
-        }
-        return -1;
+        return getFilteredMedias(filter, sort).indexOf(source);
     }
 
     @Override
     public final Iterable<E> getMedias(Filter<E> filter, Comparator<E> sort) {
-        List<E> sortedList = getSortedMedias(sort);
-        return filter == null ? sortedList : filter.filter(sortedList);
+        return filter == null ? getSortedMedias(sort) : getFilteredMedias(filter, sort).getItems();
     }
 
     @Override
     public final List<E> copyOfMedias(Filter<E> filter, Comparator<E> sort) {
-        List<E> sortedList = getSortedMedias(sort);
-        return filter == null ? new ArrayList<>(sortedList) : Filter.makeList(filter.filter(sortedList));
+        return new ArrayList<>(filter == null ? getSortedMedias(sort) : getFilteredMedias(filter, sort).getItems());
     }
 
     @Override
     public final E getMedia(int index, Filter<E> filter, Comparator<E> sort) {
+        if (filter != null) {
+            return getFilteredMedias(filter, sort).get(index);
+        }
         List<E> sortedList = getSortedMedias(sort);
         synchronized (this) {
-            if (filter == null) {
-                if (index >= 0 && index < sortedList.size()) {
-                    return sortedList.get(index);
-                }
-            } else {
-                if (index >= 0) {
-                    Iterable<E> iter = filter.filter(sortedList);
-                    int k = 0;
-                    for (E elem : iter) {
-                        if (k == index) {
-                            return elem;
-                        }
-                        k++;
-                    }
-                }
+            if (index >= 0 && index < sortedList.size()) {
+                return sortedList.get(index);
             }
         }
         return null;
@@ -316,9 +361,7 @@ public abstract class Series<E extends MediaElement> extends MediaSeriesGroupNod
 
     @Override
     public int size(Filter<E> filter) {
-        synchronized (this) {
-            return filter == null ? medias.size() : Filter.size(filter.filter(medias));
-        }
+        return filter == null ? medias.size() : getFilteredMedias(filter, null).size();
     }
 
     @Override
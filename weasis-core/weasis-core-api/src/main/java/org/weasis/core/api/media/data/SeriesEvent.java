@@ -10,6 +10,8 @@
  *******************************************************************************/
 package org.weasis.core.api.media.data;
 
+import java.util.Arrays;
+
 public class SeriesEvent {
 
     public enum Action {
@@ -38,4 +40,12 @@ public class SeriesEvent {
         return param;
     }
 
+    /**
+     * @return the key of the same action on the same source, for merging the events (see
+     *         DataExplorerModel#fireCoalescedPropertyChange)
+     */
+    public Object getMergeKey() {
+        return Arrays.asList(actionCommand, source);
+    }
+
 }
@@ -0,0 +1,137 @@
+/*******************************************************************************
+ * Copyright (c) 2009-2018 Weasis Team and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ *     Nicolas Roduit - initial API and implementation
+ *******************************************************************************/
+package org.weasis.core.api.media.data;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Sorted index of the slice locations (see {@link TagW#SlicePosition}) of an ordered list of media. The nearest slice
+ * of a location is found by a binary search.
+ * <p>
+ * The index is an immutable snapshot, it must be rebuilt when the list changes.
+ */
+public final class SlicePositionIndex<E extends TagReadable> {
+
+    // Distinct locations in ascending order
+    private final double[] locations;
+    // Position in the source list of the first media having the location
+    private final int[] indexes;
+    private final List<E> medias;
+
+    /**
+     * @param list
+     *            the media in the display order (sorted and filtered)
+     */
+    public SlicePositionIndex(Iterable<E> list) {
+        List<double[]> entries = new ArrayList<>();
+        List<E> elements = new ArrayList<>();
+        int index = 0;
+        for (E media : list) {
+            double location = getLocation(media);
+            if (!Double.isNaN(location)) {
+                entries.add(new double[] { location, index });
+                elements.add(media);
+            }
+            index++;
+        }
+
+        Integer[] order = new Integer[entries.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        // Stable sort: for the same location, the first media of the list comes first
+        Arrays.sort(order, (a, b) -> Double.compare(entries.get(a)[0], entries.get(b)[0]));
+
+        double[] locs = new double[order.length];
+        int[] idx = new int[order.length];
+        List<E> sortedMedias = new ArrayList<>(order.length);
+        int size = 0;
+        for (Integer k : order) {
+            double location = entries.get(k)[0];
+            if (size == 0 || locs[size - 1] != location) {
+                locs[size] = location;
+                idx[size] = (int) entries.get(k)[1];
+                sortedMedias.add(elements.get(k));
+                size++;
+            }
+        }
+        this.locations = Arrays.copyOf(locs, size);
+        this.indexes = Arrays.copyOf(idx, size);
+        this.medias = sortedMedias;
+    }
+
+    /**
+     * @param media
+     * @return the location of the slice along the normal of the plane or NaN when not available
+     */
+    public static double getLocation(TagReadable media) {
+        double[] val = (double[]) media.getTagValue(TagW.SlicePosition);
+        if (val == null || val.length < 3) {
+            return Double.NaN;
+        }
+        return val[0] + val[1] + val[2];
+    }
+
+    /**
+     * @return the number of distinct locations
+     */
+    public int size() {
+        return locations.length;
+    }
+
+    /**
+     * @param location
+     * @return the position in the list of the nearest media, or -1 when no media has a location. When several media
+     *         have the same distance, the first one of the list is returned.
+     */
+    public int getNearestIndex(double location) {
+        int k = getNearest(location);
+        return k < 0 ? -1 : indexes[k];
+    }
+
+    /**
+     * @param location
+     * @return the nearest media or null when no media has a location
+     */
+    public E getNearestMedia(double location) {
+        int k = getNearest(location);
+        return k < 0 ? null : medias.get(k);
+    }
+
+    private int getNearest(double location) {
+        if (locations.length == 0 || Double.isNaN(location)) {
+            return -1;
+        }
+        int k = Arrays.binarySearch(locations, location);
+        if (k >= 0) {
+            return k;
+        }
+        int high = -(k + 1);
+        int low = high - 1;
+        if (low < 0) {
+            return high;
+        }
+        if (high >= locations.length) {
+            return low;
+        }
+        double diffLow = location - locations[low];
+        double diffHigh = locations[high] - location;
+        if (diffLow < diffHigh) {
+            return low;
+        }
+        if (diffHigh < diffLow) {
+            return high;
+        }
+        return indexes[low] < indexes[high] ? low : high;
+    }
+}
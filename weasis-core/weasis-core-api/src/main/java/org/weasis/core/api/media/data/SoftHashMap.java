@@ -15,6 +15,7 @@ import java.lang.ref.Reference;
 import java.lang.ref.ReferenceQueue;
 import java.lang.ref.SoftReference;
 import java.util.AbstractMap;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.LinkedHashSet;
 import java.util.Map;
@@ -56,6 +57,16 @@ public class SoftHashMap<K, V> extends AbstractMap<K, V> implements Serializable
         }
     }
 
+    /**
+     * Remove all the entries through {@link #removeElement(Reference)}, unlike {@link #clear()} the subclasses can
+     * release the resources associated to each entry.
+     */
+    public void removeAll() {
+        for (Reference<? extends V> soft : new ArrayList<>(reverseLookup.keySet())) {
+            removeElement(soft);
+        }
+    }
+
     public void expungeStaleEntries() {
         Reference<? extends V> sv;
         while ((sv = queue.poll()) != null) {
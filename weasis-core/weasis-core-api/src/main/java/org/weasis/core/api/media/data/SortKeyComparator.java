@@ -0,0 +1,55 @@
+/*******************************************************************************
+ * Copyright (c) 2009-2018 Weasis Team and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ *     Nicolas Roduit - initial API and implementation
+ *******************************************************************************/
+package org.weasis.core.api.media.data;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Comparator on a numeric key of the media. The key is extracted once from the tags and kept in the media, so the
+ * comparisons do not read the tags again.
+ * <p>
+ * The media without value are after all the others, so the order remains transitive and the sorted views of a series
+ * can be updated by insertion (see {@link Series#add(MediaElement)}).
+ *
+ * @param <E>
+ *            the type of the media
+ */
+public abstract class SortKeyComparator<E extends MediaElement> extends SeriesComparator<E> {
+    private static final AtomicInteger SLOTS = new AtomicInteger();
+
+    private final int slot = SLOTS.getAndIncrement();
+
+    /**
+     * @param media
+     * @return the sort key, or Double.NaN when the media has no value
+     */
+    protected abstract double extractSortKey(E media);
+
+    public final double getSortKey(E media) {
+        if (slot >= MediaSortKeys.MAX_SLOTS) {
+            return extractSortKey(media);
+        }
+        MediaSortKeys keys = media.getSortKeys();
+        if (keys != null && keys.contains(slot)) {
+            return keys.get(slot);
+        }
+        double val = extractSortKey(media);
+        // When another thread sets a key at the same time, one of them is lost and will be extracted again
+        media.setSortKeys(MediaSortKeys.with(keys, slot, val));
+        return val;
+    }
+
+    @Override
+    public int compare(E m1, E m2) {
+        // Double.NaN is greater than all the other values and equal to itself
+        return Double.compare(getSortKey(m1), getSortKey(m2));
+    }
+}
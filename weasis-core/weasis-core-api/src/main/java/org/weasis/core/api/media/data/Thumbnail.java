@@ -66,7 +66,7 @@ public class Thumbnail extends JLabel implements Thumbnailable {
     public static final int MAX_SIZE = 256;
 
     private static final NativeCache<Thumbnail, PlanarImage> mCache =
-        new NativeCache<Thumbnail, PlanarImage>(30_000_000) {
+        new NativeCache<Thumbnail, PlanarImage>("Thumbnails", MemoryGovernor.HIGH_PRIORITY, 30_000_000) { //$NON-NLS-1$
 
             @Override
             protected void afterEntryRemove(Thumbnail key, PlanarImage img) {
@@ -117,6 +117,27 @@ public class Thumbnail extends JLabel implements Thumbnailable {
         return ImageProcessor.buildThumbnail(source, new Dimension(Thumbnail.MAX_SIZE, Thumbnail.MAX_SIZE), true);
     }
 
+    /**
+     * Gets the image provided by the reader for building a thumbnail without decoding the full resolution image (see
+     * {@link MediaReader#getThumbnailImage(MediaElement, int)}).
+     *
+     * @param media
+     * @param size
+     *            the expected size of the larger side
+     * @return the displayable image or null when not available
+     */
+    public static PlanarImage getReducedImage(MediaElement media, int size) {
+        MediaReader reader = media == null ? null : media.getMediaReader();
+        if (reader != null) {
+            try {
+                return reader.getThumbnailImage(media, size);
+            } catch (Exception e) {
+                LOGGER.warn("Cannot read the reduced image of {}", media.getMediaURI(), e); //$NON-NLS-1$
+            }
+        }
+        return null;
+    }
+
     protected synchronized void buildThumbnail(MediaElement media, boolean keepMediaCache, OpManager opManager) {
         Icon icon = MimeInspector.unknownIcon;
         String type = Messages.getString("Thumbnail.unknown"); //$NON-NLS-1$
@@ -250,10 +271,18 @@ public class Thumbnail extends JLabel implements Thumbnailable {
             if (noPath) {
                 if (media instanceof ImageElement) {
                     final ImageElement image = (ImageElement) media;
-                    PlanarImage imgPl = image.getImage(opManager);
-                    if (imgPl != null) {
-                        PlanarImage img = image.getRenderedImage(imgPl);
-                        final PlanarImage thumb = createThumbnail(img);
+                    // Embedded icon or reduced resolution decoding, otherwise the full resolution image is decoded
+                    PlanarImage thumb = getReducedImage(image, MAX_SIZE);
+                    if (thumb != null && (thumb.width() > MAX_SIZE || thumb.height() > MAX_SIZE)) {
+                        PlanarImage reduced = thumb;
+                        thumb = createThumbnail(reduced);
+                        reduced.release();
+                    }
+                    PlanarImage imgPl = thumb == null ? image.getImage(opManager) : null;
+                    if (thumb != null || imgPl != null) {
+                        if (thumb == null) {
+                            thumb = createThumbnail(image.getRenderedImage(imgPl));
+                        }
                         if (thumb != null) {
                             try {
                                 file = File.createTempFile("tumb_", ".jpg", Thumbnail.THUMBNAIL_CACHE_DIR); //$NON-NLS-1$ //$NON-NLS-2$
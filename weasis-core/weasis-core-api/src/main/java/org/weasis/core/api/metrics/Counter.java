@@ -0,0 +1,75 @@
+/*******************************************************************************
+ * Copyright (c) 2009-2018 Weasis Team and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ *     Nicolas Roduit - initial API and implementation
+ *******************************************************************************/
+package org.weasis.core.api.metrics;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A monotonic counter. The snapshot gives the total and the average rate by second since the last reset.
+ */
+public final class Counter implements Metric {
+
+    private final String name;
+    private final String unit;
+    private final LongAdder count = new LongAdder();
+    private volatile long startTime = System.nanoTime();
+
+    Counter(String name, String unit) {
+        this.name = Objects.requireNonNull(name);
+        this.unit = unit == null ? UNIT_NONE : unit;
+    }
+
+    public void inc() {
+        count.increment();
+    }
+
+    public void add(long value) {
+        count.add(value);
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Type getType() {
+        return Type.COUNTER;
+    }
+
+    @Override
+    public String getUnit() {
+        return unit;
+    }
+
+    @Override
+    public MetricSnapshot snapshot() {
+        long total = count.sum();
+        double seconds = (System.nanoTime() - startTime) / 1_000_000_000.0;
+        Map<String, Number> values = new LinkedHashMap<>();
+        values.put(MetricSnapshot.COUNT, total);
+        values.put(MetricSnapshot.RATE, seconds > 0.0 ? total / seconds : 0.0);
+        return new MetricSnapshot(name, getType(), unit, values);
+    }
+
+    @Override
+    public void reset() {
+        count.reset();
+        startTime = System.nanoTime();
+    }
+}
@@ -0,0 +1,61 @@
+/*******************************************************************************
+ * Copyright (c) 2009-2018 Weasis Team and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ *     Nicolas Roduit - initial API and implementation
+ *******************************************************************************/
+package org.weasis.core.api.metrics;
+
+import java.util.Collections;
+import java.util.Objects;
+import java.util.function.LongSupplier;
+
+/**
+ * A value read on demand (e.g. the memory in use).
+ */
+public final class Gauge implements Metric {
+
+    private final String name;
+    private final String unit;
+    private final LongSupplier supplier;
+
+    Gauge(String name, String unit, LongSupplier supplier) {
+        this.name = Objects.requireNonNull(name);
+        this.unit = unit == null ? UNIT_NONE : unit;
+        this.supplier = Objects.requireNonNull(supplier);
+    }
+
+    public long getValue() {
+        return supplier.getAsLong();
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Type getType() {
+        return Type.GAUGE;
+    }
+
+    @Override
+    public String getUnit() {
+        return unit;
+    }
+
+    @Override
+    public MetricSnapshot snapshot() {
+        return new MetricSnapshot(name, getType(), unit,
+            Collections.<String, Number> singletonMap(MetricSnapshot.VALUE, getValue()));
+    }
+
+    @Override
+    public void reset() {
+        // Nothing to reset, the value is read from its source
+    }
+}
@@ -0,0 +1,156 @@
+/*******************************************************************************
+ * Copyright (c) 2009-2018 Weasis Team and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ *     Nicolas Roduit - initial API and implementation
+ *******************************************************************************/
+package org.weasis.core.api.metrics;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Distribution of positive values (e.g. latencies) with a fixed memory footprint.
+ * <p>
+ * The values are counted in logarithmic buckets, each power of two is split into 4 buckets. The percentiles are the
+ * upper bound of their bucket, so their relative error is below 25%. The minimum, the maximum and the mean are exact.
+ */
+public final class Histogram implements Metric {
+
+    // 4 buckets by power of two for the positive longs
+    static final int NB_BUCKETS = 62 * 4;
+
+    private final String name;
+    private final String unit;
+    private final AtomicLongArray buckets = new AtomicLongArray(NB_BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator min = new LongAccumulator(Math::min, Long.MAX_VALUE);
+    private final LongAccumulator max = new LongAccumulator(Math::max, Long.MIN_VALUE);
+
+    Histogram(String name, String unit) {
+        this.name = Objects.requireNonNull(name);
+        this.unit = unit == null ? UNIT_NONE : unit;
+    }
+
+    /**
+     * @param value
+     *            the value to record, the negative values are recorded as 0
+     */
+    public void update(long value) {
+        long val = Math.max(0L, value);
+        buckets.incrementAndGet(bucketIndex(val));
+        count.increment();
+        sum.add(val);
+        min.accumulate(val);
+        max.accumulate(val);
+    }
+
+    /**
+     * Record the time elapsed since the start time in microseconds (see {@link Metric#UNIT_MICROSECONDS}).
+     *
+     * @param startNanos
+     *            the start time given by System.nanoTime()
+     */
+    public void updateSince(long startNanos) {
+        update(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startNanos));
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * @param quantile
+     *            the quantile between 0.0 and 1.0
+     * @return the estimated value of the quantile, 0 when there is no value
+     */
+    public long getQuantile(double quantile) {
+        long total = 0;
+        long[] counts = new long[NB_BUCKETS];
+        for (int i = 0; i < NB_BUCKETS; i++) {
+            counts[i] = buckets.get(i);
+            total += counts[i];
+        }
+        if (total == 0) {
+            return 0L;
+        }
+        long rank = Math.max(1L, (long) Math.ceil(Math.min(1.0, Math.max(0.0, quantile)) * total));
+        long cumul = 0;
+        for (int i = 0; i < NB_BUCKETS; i++) {
+            cumul += counts[i];
+            if (cumul >= rank) {
+                return Math.max(min.get(), Math.min(bucketUpperBound(i), max.get()));
+            }
+        }
+        return max.get();
+    }
+
+    static int bucketIndex(long value) {
+        if (value < 4) {
+            return (int) value;
+        }
+        int exp = 63 - Long.numberOfLeadingZeros(value);
+        int sub = (int) ((value >>> (exp - 2)) & 3);
+        return (exp - 1) * 4 + sub;
+    }
+
+    static long bucketUpperBound(int index) {
+        if (index < 4) {
+            return index;
+        }
+        int exp = index / 4 + 1;
+        long width = 1L << (exp - 2);
+        long lower = (4L + index % 4) * width;
+        return lower + width - 1;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Type getType() {
+        return Type.HISTOGRAM;
+    }
+
+    @Override
+    public String getUnit() {
+        return unit;
+    }
+
+    @Override
+    public MetricSnapshot snapshot() {
+        long n = count.sum();
+        Map<String, Number> values = new LinkedHashMap<>();
+        values.put(MetricSnapshot.COUNT, n);
+        values.put(MetricSnapshot.MIN, n == 0 ? 0L : min.get());
+        values.put(MetricSnapshot.MAX, n == 0 ? 0L : max.get());
+        values.put(MetricSnapshot.MEAN, n == 0 ? 0.0 : sum.sum() / (double) n);
+        values.put(MetricSnapshot.P50, getQuantile(0.5));
+        values.put(MetricSnapshot.P95, getQuantile(0.95));
+        values.put(MetricSnapshot.P99, getQuantile(0.99));
+        return new MetricSnapshot(name, getType(), unit, values);
+    }
+
+    @Override
+    public void reset() {
+        for (int i = 0; i < NB_BUCKETS; i++) {
+            buckets.set(i, 0L);
+        }
+        count.reset();
+        sum.reset();
+        min.reset();
+        max.reset();
+    }
+}
@@ -0,0 +1,43 @@
+/*******************************************************************************
+ * Copyright (c) 2009-2018 Weasis Team and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ *     Nicolas Roduit - initial API and implementation
+ *******************************************************************************/
+package org.weasis.core.api.metrics;
+
+/**
+ * A runtime measurement registered in the {@link MetricRegistry}.
+ */
+public interface Metric {
+
+    String UNIT_NONE = ""; //$NON-NLS-1$
+    String UNIT_BYTES = "bytes"; //$NON-NLS-1$
+    String UNIT_BYTES_PER_SECOND = "bytes/s"; //$NON-NLS-1$
+    String UNIT_MICROSECONDS = "us"; //$NON-NLS-1$
+    String UNIT_PERCENT = "%"; //$NON-NLS-1$
+
+    enum Type {
+        COUNTER, GAUGE, HISTOGRAM
+    }
+
+    String getName();
+
+    Type getType();
+
+    String getUnit();
+
+    /**
+     * @return the current values of the metric
+     */
+    MetricSnapshot snapshot();
+
+    /**
+     * Reset the accumulated values (no effect on a gauge).
+     */
+    void reset();
+}
@@ -0,0 +1,233 @@
+/*******************************************************************************
+ * Copyright (c) 2009-2018 Weasis Team and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ *     Nicolas Roduit - initial API and implementation
+ *******************************************************************************/
+package org.weasis.core.api.metrics;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+import org.weasis.core.api.util.StringUtil;
+
+/**
+ * Registry of the runtime metrics (counters, gauges and histograms) for diagnosing the performance of a workstation.
+ * <p>
+ * The metrics are identified by a dotted name (e.g. "dicom.decode.1.2.840.10008.1.2.4.50"). Getting a metric creates
+ * it when it does not exist, so the instrumented code can keep the reference or get it again at each call. The
+ * snapshots can be exported in JSON or in CSV.
+ */
+public final class MetricRegistry {
+
+    private static final class Holder {
+        private static final MetricRegistry INSTANCE = new MetricRegistry();
+    }
+
+    private final Map<String, Metric> metrics = new ConcurrentHashMap<>();
+
+    MetricRegistry() {
+    }
+
+    public static MetricRegistry getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    /**
+     * Build a metric name from its parts, the white spaces are replaced by underscores.
+     *
+     * @param parts
+     * @return the dotted name
+     */
+    public static String name(String... parts) {
+        StringBuilder buf = new StringBuilder();
+        for (String part : parts) {
+            if (StringUtil.hasText(part)) {
+                if (buf.length() > 0) {
+                    buf.append('.');
+                }
+                buf.append(part.trim().replaceAll("\\s+", "_")); //$NON-NLS-1$ //$NON-NLS-2$
+            }
+        }
+        return buf.toString();
+    }
+
+    public Counter counter(String name) {
+        return counter(name, Metric.UNIT_NONE);
+    }
+
+    public Counter counter(String name, String unit) {
+        return getOrCreate(name, Counter.class, n -> new Counter(n, unit));
+    }
+
+    public Histogram histogram(String name, String unit) {
+        return getOrCreate(name, Histogram.class, n -> new Histogram(n, unit));
+    }
+
+    /**
+     * Register a gauge, the existing gauge is returned when the name is already registered.
+     *
+     * @param name
+     * @param unit
+     * @param supplier
+     *            the source of the value, called when taking a snapshot
+     * @return the gauge
+     */
+    public Gauge gauge(String name, String unit, LongSupplier supplier) {
+        return getOrCreate(name, Gauge.class, n -> new Gauge(n, unit, supplier));
+    }
+
+    private <T extends Metric> T getOrCreate(String name, Class<T> clazz, Function<String, T> factory) {
+        Metric metric = metrics.computeIfAbsent(Objects.requireNonNull(name), factory);
+        if (!clazz.isInstance(metric)) {
+            throw new IllegalStateException(
+                String.format("The metric %s is already registered as a %s", name, metric.getType())); //$NON-NLS-1$
+        }
+        return clazz.cast(metric);
+    }
+
+    public Metric get(String name) {
+        return metrics.get(name);
+    }
+
+    public Metric remove(String name) {
+        return metrics.remove(name);
+    }
+
+    /**
+     * @param filter
+     *            the part of the names to select (case insensitive), null for all the metrics
+     * @return the snapshots of the metrics sorted by name
+     */
+    public List<MetricSnapshot> snapshot(String filter) {
+        String f = StringUtil.hasText(filter) ? filter.toLowerCase(Locale.ENGLISH) : null;
+        List<MetricSnapshot> list = new ArrayList<>();
+        for (Metric metric : metrics.values()) {
+            if (f == null || metric.getName().toLowerCase(Locale.ENGLISH).contains(f)) {
+                list.add(metric.snapshot());
+            }
+        }
+        list.sort(Comparator.comparing(MetricSnapshot::getName));
+        return list;
+    }
+
+    /**
+     * Reset the values of all the metrics.
+     */
+    public void reset() {
+        for (Metric metric : metrics.values()) {
+            metric.reset();
+        }
+    }
+
+    /**
+     * Write the snapshot of all the metrics, in CSV when the file extension is ".csv" and otherwise in JSON.
+     *
+     * @param file
+     * @throws IOException
+     */
+    public void export(File file) throws IOException {
+        List<MetricSnapshot> list = snapshot(null);
+        try (Writer writer = new OutputStreamWriter(Files.newOutputStream(file.toPath()), StandardCharsets.UTF_8)) {
+            if (file.getName().toLowerCase(Locale.ENGLISH).endsWith(".csv")) { //$NON-NLS-1$
+                writeCsv(list, writer);
+            } else {
+                writeJson(list, writer);
+            }
+        }
+    }
+
+    public static void writeJson(Collection<MetricSnapshot> snapshots, Writer writer) throws IOException {
+        writer.write("{\n  \"timestamp\": "); //$NON-NLS-1$
+        writer.write(String.valueOf(System.currentTimeMillis()));
+        writer.write(",\n  \"metrics\": ["); //$NON-NLS-1$
+        boolean first = true;
+        for (MetricSnapshot s : snapshots) {
+            writer.write(first ? "\n    {" : ",\n    {"); //$NON-NLS-1$ //$NON-NLS-2$
+            first = false;
+            writer.write("\"name\": "); //$NON-NLS-1$
+            writer.write(jsonString(s.getName()));
+            writer.write(", \"type\": "); //$NON-NLS-1$
+            writer.write(jsonString(s.getType().name().toLowerCase(Locale.ENGLISH)));
+            writer.write(", \"unit\": "); //$NON-NLS-1$
+            writer.write(jsonString(s.getUnit()));
+            for (Entry<String, Number> entry : s.getValues().entrySet()) {
+                writer.write(", "); //$NON-NLS-1$
+                writer.write(jsonString(entry.getKey()));
+                writer.write(": "); //$NON-NLS-1$
+                writer.write(MetricSnapshot.format(entry.getValue()));
+            }
+            writer.write('}');
+        }
+        writer.write("\n  ]\n}\n"); //$NON-NLS-1$
+        writer.flush();
+    }
+
+    public static void writeCsv(Collection<MetricSnapshot> snapshots, Writer writer) throws IOException {
+        writer.write("name,type,unit"); //$NON-NLS-1$
+        for (String key : MetricSnapshot.KEYS) {
+            writer.write(',');
+            writer.write(key);
+        }
+        writer.write('\n');
+        for (MetricSnapshot s : snapshots) {
+            writer.write(csvString(s.getName()));
+            writer.write(',');
+            writer.write(s.getType().name().toLowerCase(Locale.ENGLISH));
+            writer.write(',');
+            writer.write(csvString(s.getUnit()));
+            for (String key : MetricSnapshot.KEYS) {
+                writer.write(',');
+                Number val = s.get(key);
+                if (val != null) {
+                    writer.write(MetricSnapshot.format(val));
+                }
+            }
+            writer.write('\n');
+        }
+        writer.flush();
+    }
+
+    private static String jsonString(String value) {
+        StringBuilder buf = new StringBuilder(value.length() + 2);
+        buf.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                buf.append('\\').append(c);
+            } else if (c < 0x20) {
+                buf.append(String.format("\\u%04x", (int) c)); //$NON-NLS-1$
+            } else {
+                buf.append(c);
+            }
+        }
+        buf.append('"');
+        return buf.toString();
+    }
+
+    private static String csvString(String value) {
+        if (value.indexOf(',') >= 0 || value.indexOf('"') >= 0 || value.indexOf('\n') >= 0) {
+            return '"' + value.replace("\"", "\"\"") + '"'; //$NON-NLS-1$ //$NON-NLS-2$
+        }
+        return value;
+    }
+}
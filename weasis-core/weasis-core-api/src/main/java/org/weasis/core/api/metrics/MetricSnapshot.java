@@ -0,0 +1,102 @@
+/*******************************************************************************
+ * Copyright (c) 2009-2018 Weasis Team and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ *     Nicolas Roduit - initial API and implementation
+ *******************************************************************************/
+package org.weasis.core.api.metrics;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Objects;
+
+/**
+ * Immutable values of a metric at a given time.
+ */
+public final class MetricSnapshot {
+
+    public static final String COUNT = "count"; //$NON-NLS-1$
+    public static final String RATE = "rate"; //$NON-NLS-1$
+    public static final String VALUE = "value"; //$NON-NLS-1$
+    public static final String MIN = "min"; //$NON-NLS-1$
+    public static final String MAX = "max"; //$NON-NLS-1$
+    public static final String MEAN = "mean"; //$NON-NLS-1$
+    public static final String P50 = "p50"; //$NON-NLS-1$
+    public static final String P95 = "p95"; //$NON-NLS-1$
+    public static final String P99 = "p99"; //$NON-NLS-1$
+
+    /**
+     * All the value keys in the order of the CSV columns
+     */
+    public static final String[] KEYS = { COUNT, RATE, VALUE, MIN, MAX, MEAN, P50, P95, P99 };
+
+    private final String name;
+    private final Metric.Type type;
+    private final String unit;
+    private final Map<String, Number> values;
+
+    public MetricSnapshot(String name, Metric.Type type, String unit, Map<String, Number> values) {
+        this.name = Objects.requireNonNull(name);
+        this.type = Objects.requireNonNull(type);
+        this.unit = unit == null ? Metric.UNIT_NONE : unit;
+        this.values = Collections.unmodifiableMap(new LinkedHashMap<>(values));
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Metric.Type getType() {
+        return type;
+    }
+
+    public String getUnit() {
+        return unit;
+    }
+
+    public Map<String, Number> getValues() {
+        return values;
+    }
+
+    /**
+     * @param key
+     *            a key of {@link #KEYS}
+     * @return the value or null when the metric has no value for this key
+     */
+    public Number get(String key) {
+        return values.get(key);
+    }
+
+    static String format(Number value) {
+        if (value instanceof Double || value instanceof Float) {
+            return String.format(Locale.US, "%.2f", value.doubleValue()); //$NON-NLS-1$
+        }
+        return String.valueOf(value);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder buf = new StringBuilder(name);
+        buf.append(" ["); //$NON-NLS-1$
+        buf.append(type.name().toLowerCase(Locale.ENGLISH));
+        if (!unit.isEmpty()) {
+            buf.append(", "); //$NON-NLS-1$
+            buf.append(unit);
+        }
+        buf.append("]"); //$NON-NLS-1$
+        for (Entry<String, Number> entry : values.entrySet()) {
+            buf.append(' ');
+            buf.append(entry.getKey());
+            buf.append('=');
+            buf.append(format(entry.getValue()));
+        }
+        return buf.toString();
+    }
+}
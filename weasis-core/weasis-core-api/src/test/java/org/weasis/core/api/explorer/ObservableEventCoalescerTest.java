@@ -0,0 +1,50 @@
+/*******************************************************************************
+ * Copyright (c) 2009-2018 Weasis Team and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ *     Nicolas Roduit - initial API and implementation
+ *******************************************************************************/
+package org.weasis.core.api.explorer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+public class ObservableEventCoalescerTest {
+
+    private static ObservableEvent event(Object source, Object value) {
+        return new ObservableEvent(ObservableEvent.BasicAction.ADD, source, null, value);
+    }
+
+    @Test
+    public void test_merge() throws Exception {
+        List<ObservableEvent> received = new ArrayList<>();
+        // Long delay, the events are dispatched by calling flush()
+        ObservableEventCoalescer coalescer = new ObservableEventCoalescer(received::add, 60000);
+        Object model = new Object();
+
+        ObservableEvent e1 = event(model, 1);
+        ObservableEvent e2 = event(model, 2);
+        ObservableEvent e3 = event(model, 3);
+        coalescer.post("series1", e1); //$NON-NLS-1$
+        coalescer.post("series2", e2); //$NON-NLS-1$
+        coalescer.post("series1", e3); //$NON-NLS-1$
+        assertThat(coalescer.getPendingCount()).isEqualTo(2);
+        assertThat(received).isEmpty();
+
+        coalescer.flush();
+        // The last event of a key at the position of the first one
+        assertThat(received).containsExactly(e3, e2);
+        assertThat(coalescer.getPendingCount()).isZero();
+
+        coalescer.flush();
+        assertThat(received).hasSize(2);
+    }
+}
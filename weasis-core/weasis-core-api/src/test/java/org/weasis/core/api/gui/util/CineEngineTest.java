@@ -0,0 +1,162 @@
+/*******************************************************************************
+ * Copyright (c) 2009-2018 Weasis Team and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ *     Nicolas Roduit - initial API and implementation
+ *******************************************************************************/
+package org.weasis.core.api.gui.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Test;
+
+public class CineEngineTest {
+
+    private static final long TIMEOUT_SECONDS = 20;
+
+    /**
+     * Virtual time: waiting advances the time immediately, so the playback does not depend on the speed of the machine.
+     */
+    static class TestClock implements CineEngine.Clock {
+        private final AtomicLong time = new AtomicLong();
+
+        @Override
+        public long nanoTime() {
+            return time.get();
+        }
+
+        @Override
+        public void parkNanos(Object blocker, long nanos) {
+            advance(nanos);
+        }
+
+        void advance(long nanos) {
+            time.addAndGet(nanos);
+        }
+    }
+
+    static class TestSource implements CineEngine.FrameSource {
+        private final int last;
+        private final TestClock clock;
+        private final long decodeNanos;
+        private final List<Integer> shown = new CopyOnWriteArrayList<>();
+        private final CountDownLatch done;
+        volatile int current = 1;
+
+        TestSource(int last, TestClock clock, long decodeMillis, int nbFrames) {
+            this.last = last;
+            this.clock = clock;
+            this.decodeNanos = TimeUnit.MILLISECONDS.toNanos(decodeMillis);
+            this.done = new CountDownLatch(nbFrames);
+        }
+
+        @Override
+        public int getFirstFrame() {
+            return 1;
+        }
+
+        @Override
+        public int getLastFrame() {
+            return last;
+        }
+
+        @Override
+        public int getCurrentFrame() {
+            return current;
+        }
+
+        @Override
+        public boolean prepareFrame(int frame) {
+            clock.advance(decodeNanos);
+            return true;
+        }
+
+        @Override
+        public void showFrame(int frame) {
+            current = frame;
+            shown.add(frame);
+            done.countDown();
+        }
+    }
+
+    private static List<Integer> play(CineEngine engine, TestSource source, double fps) throws Exception {
+        engine.start(fps);
+        assertThat(engine.isRunning()).isTrue();
+        assertThat(source.done.await(TIMEOUT_SECONDS, TimeUnit.SECONDS)).isTrue();
+        engine.stop();
+        assertThat(engine.isRunning()).isFalse();
+        assertThat(engine.getAchievedFrameRate()).isZero();
+        return source.shown;
+    }
+
+    @Test
+    public void test_loop_without_dropping() throws Exception {
+        TestClock clock = new TestClock();
+        TestSource source = new TestSource(4, clock, 0, 20);
+        List<Integer> shown = play(new CineEngine(source, 8, clock), source, 50);
+        assertThat(shown.get(0)).isEqualTo(2);
+        for (int i = 1; i < shown.size(); i++) {
+            int expected = shown.get(i - 1) == 4 ? 1 : shown.get(i - 1) + 1;
+            assertThat(shown.get(i)).isEqualTo(expected);
+        }
+    }
+
+    @Test
+    public void test_drop_frames_when_decoding_is_slow() throws Exception {
+        // Decoding at 25 fps cannot reach 100 fps, the playback must skip frames to keep the speed
+        TestClock clock = new TestClock();
+        TestSource source = new TestSource(10_000, clock, 40, 10);
+        List<Integer> shown = play(new CineEngine(source, 8, clock), source, 100);
+        int last = shown.get(shown.size() - 1);
+        assertThat(last).isGreaterThan(2 * shown.size());
+    }
+
+    @Test
+    public void test_continue_from_the_selected_frame() throws Exception {
+        TestClock clock = new TestClock();
+        TestSource source = new TestSource(100, clock, 0, 10) {
+            @Override
+            public void showFrame(int frame) {
+                super.showFrame(frame);
+                if (frame == 5) {
+                    // The user selects another frame between two frames of the playback
+                    current = 50;
+                }
+            }
+        };
+        List<Integer> shown = play(new CineEngine(source, 8, clock), source, 50);
+        assertThat(shown.subList(0, 6)).containsExactly(2, 3, 4, 5, 51, 52);
+        for (int i = 5; i < shown.size(); i++) {
+            assertThat(shown.get(i)).isEqualTo(shown.get(i - 1) + 1);
+        }
+    }
+
+    @Test
+    public void test_not_running_after_failure() throws Exception {
+        TestClock clock = new TestClock() {
+            @Override
+            public void parkNanos(Object blocker, long nanos) {
+                throw new IllegalStateException("Broken clock"); //$NON-NLS-1$
+            }
+        };
+        TestSource source = new TestSource(4, clock, 0, 1);
+        CineEngine engine = new CineEngine(source, 8, clock);
+        engine.start(25);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(TIMEOUT_SECONDS);
+        while (engine.isRunning() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(engine.isRunning()).isFalse();
+        assertThat(engine.getAchievedFrameRate()).isZero();
+    }
+}
@@ -0,0 +1,72 @@
+/*******************************************************************************
+ * Copyright (c) 2009-2018 Weasis Team and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ *     Nicolas Roduit - initial API and implementation
+ *******************************************************************************/
+package org.weasis.core.api.gui.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+import org.weasis.core.api.gui.util.EdtWatchdog.Offender;
+
+public class EdtWatchdogTest {
+
+    private static StackTraceElement[] stack(String appClass, String method) {
+        return new StackTraceElement[] { new StackTraceElement("java.lang.Thread", "getStackTrace", "Thread.java", 1), //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+            new StackTraceElement("java.io.FileInputStream", "read", "FileInputStream.java", 10), //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+            new StackTraceElement(appClass, method, "App.java", 42), //$NON-NLS-1$
+            new StackTraceElement("java.awt.EventDispatchThread", "run", "EventDispatchThread.java", 5) }; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+    }
+
+    @Test
+    public void test_location() {
+        assertThat(EdtWatchdog.getLocation(stack("org.weasis.App", "load"))) //$NON-NLS-1$ //$NON-NLS-2$
+            .isEqualTo("org.weasis.App.load(App.java:42)"); //$NON-NLS-1$
+        assertThat(EdtWatchdog.getLocation(new StackTraceElement[0])).isEqualTo("<unknown>"); //$NON-NLS-1$
+    }
+
+    @Test
+    public void test_stalls_by_location() {
+        EdtWatchdog watchdog = new EdtWatchdog(100, false);
+        watchdog.recordStall(TimeUnit.MILLISECONDS.toNanos(200), stack("org.weasis.A", "slow")); //$NON-NLS-1$ //$NON-NLS-2$
+        watchdog.recordStall(TimeUnit.MILLISECONDS.toNanos(300), stack("org.weasis.A", "slow")); //$NON-NLS-1$ //$NON-NLS-2$
+        watchdog.recordStall(TimeUnit.MILLISECONDS.toNanos(1000), stack("org.weasis.B", "slower")); //$NON-NLS-1$ //$NON-NLS-2$
+
+        List<Offender> stalls = watchdog.getStalls();
+        assertThat(stalls).hasSize(2);
+        assertThat(stalls.get(0).getLocation()).isEqualTo("org.weasis.B.slower(App.java:42)"); //$NON-NLS-1$
+        Offender a = stalls.get(1);
+        assertThat(a.getCount()).isEqualTo(2L);
+        assertThat(a.getTotalTime()).isEqualTo(500L);
+        assertThat(a.getMaxTime()).isEqualTo(300L);
+        // The frame of getStackTrace() is removed
+        assertThat(a.getStack()[0].getClassName()).isEqualTo("java.io.FileInputStream"); //$NON-NLS-1$
+
+        String report = watchdog.getReport(1);
+        assertThat(report).contains("total 1000 ms, 1 times").doesNotContain("org.weasis.A.slow"); //$NON-NLS-1$ //$NON-NLS-2$
+
+        watchdog.reset();
+        assertThat(watchdog.getStalls()).isEmpty();
+    }
+
+    @Test
+    public void test_blocking_calls() {
+        EdtWatchdog watchdog = new EdtWatchdog(100, true);
+        watchdog.recordBlockingCall("Image decoding", stack("org.weasis.View", "paint")); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+        watchdog.recordBlockingCall("Image decoding", stack("org.weasis.View", "paint")); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+
+        List<Offender> calls = watchdog.getBlockingCalls();
+        assertThat(calls).hasSize(1);
+        assertThat(calls.get(0).getLocation()).isEqualTo("Image decoding @ org.weasis.View.paint(App.java:42)"); //$NON-NLS-1$
+        assertThat(calls.get(0).getCount()).isEqualTo(2L);
+    }
+}
@@ -0,0 +1,103 @@
+/*******************************************************************************
+ * Copyright (c) 2009-2018 Weasis Team and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ *     Nicolas Roduit - initial API and implementation
+ *******************************************************************************/
+package org.weasis.core.api.gui.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.awt.geom.Rectangle2D;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+
+public class RTreeTest {
+
+    private static <T> Set<T> search(RTree<T> tree, Rectangle2D area) {
+        Set<T> result = new HashSet<>();
+        tree.search(area, result::add);
+        return result;
+    }
+
+    private static Set<Object> bruteForce(List<Object> items, List<Rectangle2D> rects, Rectangle2D area) {
+        Set<Object> result = new HashSet<>();
+        for (int i = 0; i < rects.size(); i++) {
+            Rectangle2D r = rects.get(i);
+            if (r != null && r.getMinX() <= area.getMaxX() && r.getMaxX() >= area.getMinX()
+                && r.getMinY() <= area.getMaxY() && r.getMaxY() >= area.getMinY()) {
+                result.add(items.get(i));
+            }
+        }
+        return result;
+    }
+
+    @Test
+    public void test_search() throws Exception {
+        RTree<String> tree = new RTree<>();
+        String a = "a"; //$NON-NLS-1$
+        String b = "b"; //$NON-NLS-1$
+        tree.insert(a, new Rectangle2D.Double(0, 0, 10, 10));
+        tree.insert(b, new Rectangle2D.Double(100, 100, 0, 0));
+
+        assertThat(tree.size()).isEqualTo(2);
+        assertThat(search(tree, new Rectangle2D.Double(5, 5, 1, 1))).containsOnly(a);
+        assertThat(search(tree, new Rectangle2D.Double(90, 90, 10, 10))).containsOnly(b);
+        assertThat(search(tree, new Rectangle2D.Double(20, 20, 10, 10))).isEmpty();
+
+        // Update the bounds
+        tree.insert(a, new Rectangle2D.Double(200, 200, 10, 10));
+        assertThat(tree.size()).isEqualTo(2);
+        assertThat(search(tree, new Rectangle2D.Double(5, 5, 1, 1))).isEmpty();
+
+        assertThat(tree.remove(b)).isTrue();
+        assertThat(tree.remove(b)).isFalse();
+        assertThat(tree.contains(a)).isTrue();
+        assertThat(search(tree, new Rectangle2D.Double(0, 0, 500, 500))).containsOnly(a);
+    }
+
+    @Test
+    public void test_random() throws Exception {
+        Random random = new Random(7);
+        RTree<Object> tree = new RTree<>();
+        List<Object> items = new ArrayList<>();
+        List<Rectangle2D> rects = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            items.add(new Object());
+            Rectangle2D r = new Rectangle2D.Double(random.nextDouble() * 1000, random.nextDouble() * 1000,
+                random.nextDouble() * 50, random.nextDouble() * 50);
+            rects.add(r);
+            tree.insert(items.get(i), r);
+        }
+        // Remove and move some items
+        for (int i = 0; i < 2000; i += 3) {
+            tree.remove(items.get(i));
+            rects.set(i, null);
+        }
+        for (int i = 1; i < 2000; i += 7) {
+            Rectangle2D r = new Rectangle2D.Double(random.nextDouble() * 1000, random.nextDouble() * 1000, 5, 5);
+            rects.set(i, r);
+            tree.insert(items.get(i), r);
+        }
+
+        assertThat(tree.size()).isEqualTo((int) rects.stream().filter(r -> r != null).count());
+        for (int k = 0; k < 100; k++) {
+            Rectangle2D area = new Rectangle2D.Double(random.nextDouble() * 1000, random.nextDouble() * 1000,
+                random.nextDouble() * 200, random.nextDouble() * 200);
+            assertThat(search(tree, area)).isEqualTo(bruteForce(items, rects, area));
+        }
+
+        tree.clear();
+        assertThat(tree.size()).isZero();
+        assertThat(search(tree, new Rectangle2D.Double(0, 0, 1000, 1000))).isEmpty();
+    }
+}
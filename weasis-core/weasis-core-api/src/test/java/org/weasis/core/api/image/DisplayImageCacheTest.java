@@ -0,0 +1,143 @@
+/*******************************************************************************
+ * Copyright (c) 2009-2018 Weasis Team and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ *     Nicolas Roduit - initial API and implementation
+ *******************************************************************************/
+package org.weasis.core.api.image;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.lang.reflect.Proxy;
+
+import org.junit.Test;
+import org.weasis.core.api.media.data.NativeCache;
+import org.weasis.opencv.data.PlanarImage;
+
+public class DisplayImageCacheTest {
+
+    private static PlanarImage image() {
+        return (PlanarImage) Proxy.newProxyInstance(PlanarImage.class.getClassLoader(),
+            new Class<?>[] { PlanarImage.class }, (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "physicalBytes": //$NON-NLS-1$
+                        return 100L;
+                    case "width": //$NON-NLS-1$
+                    case "height": //$NON-NLS-1$
+                        return 10;
+                    case "hashCode": //$NON-NLS-1$
+                        return System.identityHashCode(proxy);
+                    case "equals": //$NON-NLS-1$
+                        return proxy == args[0];
+                    default:
+                        return 0;
+                }
+            });
+    }
+
+    private static class CountOp extends AbstractOp {
+        int count = 0;
+
+        CountOp() {
+            setName("count"); //$NON-NLS-1$
+        }
+
+        @Override
+        public CountOp copy() {
+            return new CountOp();
+        }
+
+        @Override
+        public void process() throws Exception {
+            count++;
+            params.put(Param.OUTPUT_IMG, image());
+        }
+    }
+
+    @Test
+    public void test_cached_result() throws Exception {
+        DisplayImageCache cache = new DisplayImageCache(new NativeCache<>(10_000));
+        CountOp op = new CountOp();
+        double[] matrix = { 1.0, 0.0, 0.0 };
+        op.setParam("matrix", matrix); //$NON-NLS-1$
+        SimpleOpManager manager = new SimpleOpManager();
+        manager.addImageOperationAction(op);
+        PlanarImage source1 = image();
+        PlanarImage source2 = image();
+
+        manager.setFirstNode(source1);
+        PlanarImage result1 = cache.process(manager);
+        assertThat(op.count).isEqualTo(1);
+        manager.setFirstNode(source2);
+        cache.process(manager);
+        assertThat(op.count).isEqualTo(2);
+
+        // Back to the first image
+        manager.setFirstNode(source1);
+        assertThat(cache.process(manager)).isSameAs(result1);
+        assertThat(op.count).isEqualTo(2);
+        assertThat(manager.getLastNodeOutputImage()).isSameAs(result1);
+        assertThat(manager.getFirstNodeInputImage()).isSameAs(source1);
+
+        // A parameter array modified in place
+        matrix[0] = 2.0;
+        assertThat(cache.process(manager)).isNotSameAs(result1);
+        assertThat(op.count).isEqualTo(3);
+        assertThat(cache.size()).isEqualTo(3);
+
+        op.setEnabled(false);
+        // The source image is not cached
+        assertThat(cache.process(manager)).isSameAs(source1);
+        assertThat(cache.size()).isEqualTo(3);
+    }
+
+    @Test
+    public void test_nested_array_parameter() throws Exception {
+        DisplayImageCache cache = new DisplayImageCache(new NativeCache<>(10_000));
+        CountOp op = new CountOp();
+        byte[][] lut = { { 0, 1 }, { 2, 3 } };
+        op.setParam("lut", lut); //$NON-NLS-1$
+        SimpleOpManager manager = new SimpleOpManager();
+        manager.addImageOperationAction(op);
+        manager.setFirstNode(image());
+
+        PlanarImage result = cache.process(manager);
+        assertThat(cache.process(manager)).isSameAs(result);
+        assertThat(op.count).isEqualTo(1);
+
+        // The inner array modified in place
+        lut[1][0] = 5;
+        assertThat(cache.process(manager)).isNotSameAs(result);
+        assertThat(op.count).isEqualTo(2);
+    }
+
+    @Test
+    public void test_remove_source() throws Exception {
+        DisplayImageCache cache = new DisplayImageCache(new NativeCache<>(10_000));
+        CountOp op = new CountOp();
+        SimpleOpManager manager = new SimpleOpManager();
+        manager.addImageOperationAction(op);
+        PlanarImage source1 = image();
+        PlanarImage source2 = image();
+
+        manager.setFirstNode(source1);
+        cache.process(manager);
+        manager.setFirstNode(source2);
+        cache.process(manager);
+        assertThat(cache.size()).isEqualTo(2);
+
+        // The source has been released from the image cache
+        cache.removeSource(source1);
+        assertThat(cache.size()).isEqualTo(1);
+        manager.setFirstNode(source2);
+        cache.process(manager);
+        assertThat(op.count).isEqualTo(2);
+        manager.setFirstNode(source1);
+        cache.process(manager);
+        assertThat(op.count).isEqualTo(3);
+    }
+}
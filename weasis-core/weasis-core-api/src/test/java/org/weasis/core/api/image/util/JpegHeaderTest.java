@@ -0,0 +1,109 @@
+/*******************************************************************************
+ * Copyright (c) 2009-2018 Weasis Team and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ *     Nicolas Roduit - initial API and implementation
+ *******************************************************************************/
+package org.weasis.core.api.image.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Test;
+
+public class JpegHeaderTest {
+
+    private static final byte[] THUMBNAIL = { (byte) 0xFF, (byte) 0xD8, 1, 2, 3, (byte) 0xFF, (byte) 0xD9 };
+
+    private static byte[] buildExif(ByteOrder order) {
+        // TIFF header (8) + IFD0 with one entry (2 + 12 + 4) + IFD1 with two entries (2 + 24 + 4) + thumbnail
+        ByteBuffer tiff = ByteBuffer.allocate(8 + 18 + 30 + THUMBNAIL.length).order(order);
+        tiff.put(order == ByteOrder.LITTLE_ENDIAN ? (byte) 'I' : (byte) 'M');
+        tiff.put(order == ByteOrder.LITTLE_ENDIAN ? (byte) 'I' : (byte) 'M');
+        tiff.putShort((short) 42);
+        tiff.putInt(8);
+        // IFD0: orientation = 6
+        tiff.putShort((short) 1);
+        tiff.putShort((short) 0x0112).putShort((short) 3).putInt(1).putShort((short) 6).putShort((short) 0);
+        tiff.putInt(26);
+        // IFD1: thumbnail offset and length
+        tiff.putShort((short) 2);
+        tiff.putShort((short) 0x0201).putShort((short) 4).putInt(1).putInt(56);
+        tiff.putShort((short) 0x0202).putShort((short) 4).putInt(1).putInt(THUMBNAIL.length);
+        tiff.putInt(0);
+        tiff.put(THUMBNAIL);
+        return tiff.array();
+    }
+
+    private static byte[] buildJpeg(byte[] tiff) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeShort(0xFFD8);
+        if (tiff != null) {
+            byte[] id = "Exif\0\0".getBytes(StandardCharsets.US_ASCII); //$NON-NLS-1$
+            out.writeShort(0xFFE1);
+            out.writeShort(2 + id.length + tiff.length);
+            out.write(id);
+            out.write(tiff);
+        }
+        // Quantization table segment to skip
+        out.writeShort(0xFFDB);
+        out.writeShort(2 + 3);
+        out.write(new byte[3]);
+        // Baseline frame: 8 bits, 100 x 200, 3 components
+        out.writeShort(0xFFC0);
+        out.writeShort(2 + 6 + 9);
+        out.writeByte(8);
+        out.writeShort(100);
+        out.writeShort(200);
+        out.writeByte(3);
+        out.write(new byte[9]);
+        out.writeShort(0xFFDA);
+        return bytes.toByteArray();
+    }
+
+    @Test
+    public void test_exifLittleEndian() throws Exception {
+        JpegHeader header = JpegHeader.read(new ByteArrayInputStream(buildJpeg(buildExif(ByteOrder.LITTLE_ENDIAN))));
+
+        assertThat(header).isNotNull();
+        assertThat(header.getWidth()).isEqualTo(200);
+        assertThat(header.getHeight()).isEqualTo(100);
+        assertThat(header.getComponents()).isEqualTo(3);
+        assertThat(header.getOrientation()).isEqualTo(6);
+        assertThat(header.getThumbnail()).containsExactly(THUMBNAIL);
+    }
+
+    @Test
+    public void test_exifBigEndian() throws Exception {
+        JpegHeader header = JpegHeader.read(new ByteArrayInputStream(buildJpeg(buildExif(ByteOrder.BIG_ENDIAN))));
+
+        assertThat(header.getOrientation()).isEqualTo(6);
+        assertThat(header.getThumbnail()).containsExactly(THUMBNAIL);
+    }
+
+    @Test
+    public void test_noExif() throws Exception {
+        JpegHeader header = JpegHeader.read(new ByteArrayInputStream(buildJpeg(null)));
+
+        assertThat(header.getWidth()).isEqualTo(200);
+        assertThat(header.getOrientation()).isEqualTo(1);
+        assertThat(header.getThumbnail()).isNull();
+    }
+
+    @Test
+    public void test_notJpeg() throws Exception {
+        assertThat(JpegHeader.read(new ByteArrayInputStream(new byte[] { (byte) 0x89, 'P', 'N', 'G' }))).isNull();
+    }
+}
@@ -0,0 +1,60 @@
+/*******************************************************************************
+ * Copyright (c) 2009-2018 Weasis Team and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ *     Nicolas Roduit - initial API and implementation
+ *******************************************************************************/
+package org.weasis.core.api.media;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.junit.Test;
+
+public class MimeInspectorTest {
+
+    private static byte[] dicomPrefix() {
+        byte[] b = new byte[200];
+        System.arraycopy("DICM".getBytes(StandardCharsets.US_ASCII), 0, b, MimeInspector.DICM_OFFSET, 4); //$NON-NLS-1$
+        return b;
+    }
+
+    @Test
+    public void test_signatures() throws Exception {
+        assertThat(MimeInspector.isDicomPrefix(dicomPrefix())).isTrue();
+        byte[] jpeg = new byte[200];
+        jpeg[0] = (byte) 0xff;
+        jpeg[1] = (byte) 0xd8;
+        assertThat(MimeInspector.isDicomPrefix(jpeg)).isFalse();
+    }
+
+    @Test
+    public void test_shortPrefix() throws Exception {
+        // Must not read outside the buffer
+        assertThat(MimeInspector.isDicomPrefix(new byte[130])).isFalse();
+        assertThat(MimeInspector.isDicomPrefix(new byte[0])).isFalse();
+        assertThat(MimeInspector.isDicomPrefix(null)).isFalse();
+    }
+
+    @Test
+    public void test_readPrefix() throws Exception {
+        File file = File.createTempFile("prefix", ".tmp"); //$NON-NLS-1$ //$NON-NLS-2$
+        try {
+            Files.write(file.toPath(), dicomPrefix());
+            byte[] prefix = MimeInspector.readPrefix(file);
+            assertThat(prefix).hasSize(200);
+            assertThat(MimeInspector.isDicomPrefix(prefix)).isTrue();
+            assertThat(MimeInspector.readPrefix(file, 132)).hasSize(132);
+        } finally {
+            file.delete();
+        }
+        assertThat(MimeInspector.readPrefix(file)).isNull();
+    }
+}
@@ -0,0 +1,91 @@
+/*******************************************************************************
+ * Copyright (c) 2009-2018 Weasis Team and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ *     Nicolas Roduit - initial API and implementation
+ *******************************************************************************/
+package org.weasis.core.api.media.data;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Test;
+import org.weasis.core.api.gui.util.Filter;
+
+public class FilteredMediasTest {
+
+    private static class SelectionFilter extends Filter<String> {
+        private final Set<String> selection = new HashSet<>();
+        private int version = 0;
+
+        void select(String item) {
+            selection.add(item);
+            version++;
+        }
+
+        @Override
+        public boolean passes(String item) {
+            return selection.contains(item);
+        }
+
+        @Override
+        public int getVersion() {
+            return version;
+        }
+    }
+
+    @Test
+    public void test_filtered_access() throws Exception {
+        List<String> source = new ArrayList<>();
+        for (char c = 'a'; c <= 'e'; c++) {
+            source.add(String.valueOf(c));
+        }
+        SelectionFilter filter = new SelectionFilter();
+        filter.select("b"); //$NON-NLS-1$
+        filter.select("d"); //$NON-NLS-1$
+        FilteredMedias<String> medias = new FilteredMedias<>(source, filter, 3);
+
+        assertThat(medias.size()).isEqualTo(2);
+        assertThat(medias.getItems()).containsExactly("b", "d"); //$NON-NLS-1$ //$NON-NLS-2$
+        assertThat(medias.get(1)).isSameAs(source.get(3));
+        assertThat(medias.get(2)).isNull();
+        assertThat(medias.get(-1)).isNull();
+        assertThat(medias.indexOf(source.get(3))).isEqualTo(1);
+        assertThat(medias.indexOf(source.get(0))).isEqualTo(-1);
+    }
+
+    @Test
+    public void test_validity() throws Exception {
+        List<String> source = new ArrayList<>(Arrays.asList("a", "b", "c")); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+        SelectionFilter filter = new SelectionFilter();
+        FilteredMedias<String> medias = new FilteredMedias<>(source, filter, 1);
+
+        assertThat(medias.size()).isZero();
+        assertThat(medias.isValid(source, filter, 1)).isTrue();
+        assertThat(medias.isValid(source, filter, 2)).isFalse();
+        assertThat(medias.isValid(new ArrayList<>(source), filter, 1)).isFalse();
+
+        filter.select("c"); //$NON-NLS-1$
+        assertThat(medias.isValid(source, filter, 1)).isFalse();
+        assertThat(new FilteredMedias<>(source, filter, 1).getItems()).containsExactly("c"); //$NON-NLS-1$
+    }
+
+    @Test
+    public void test_without_filter() throws Exception {
+        List<String> source = Arrays.asList("a", "b"); //$NON-NLS-1$ //$NON-NLS-2$
+        FilteredMedias<String> medias = new FilteredMedias<>(source, null, 0);
+
+        assertThat(medias.getItems()).containsExactly("a", "b"); //$NON-NLS-1$ //$NON-NLS-2$
+        assertThat(medias.indexOf(source.get(1))).isEqualTo(1);
+        assertThat(medias.isValid(source, null, 0)).isTrue();
+    }
+}
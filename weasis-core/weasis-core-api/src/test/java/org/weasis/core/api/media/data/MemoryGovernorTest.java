@@ -0,0 +1,153 @@
+/*******************************************************************************
+ * Copyright (c) 2009-2018 Weasis Team and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ *     Nicolas Roduit - initial API and implementation
+ *******************************************************************************/
+package org.weasis.core.api.media.data;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.lang.ref.Reference;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+import org.weasis.core.api.media.data.MemoryGovernor.ManagedCache;
+
+public class MemoryGovernorTest {
+
+    private static final long MB = 1024L * 1024L;
+
+    private static class FakeCache implements ManagedCache {
+        private final String name;
+        private final int priority;
+        private long used;
+
+        FakeCache(String name, int priority, long used) {
+            this.name = name;
+            this.priority = priority;
+            this.used = used;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public int getEvictionPriority() {
+            return priority;
+        }
+
+        @Override
+        public long getNativeMemory() {
+            return used;
+        }
+
+        @Override
+        public long getHeapMemory() {
+            return 0;
+        }
+
+        @Override
+        public int getEntryCount() {
+            return (int) (used / MB);
+        }
+
+        @Override
+        public long evict(long bytes) {
+            // Remove by blocks of 1 MB
+            long freed = 0;
+            while (freed < bytes && used > 0) {
+                used -= MB;
+                freed += MB;
+            }
+            return freed;
+        }
+    }
+
+    @Test
+    public void test_underBudget() throws Exception {
+        MemoryGovernor governor = new MemoryGovernor(100 * MB);
+        FakeCache images = new FakeCache("images", MemoryGovernor.NORMAL_PRIORITY, 60 * MB); //$NON-NLS-1$
+        governor.register(images);
+        governor.checkBudget();
+
+        assertThat(images.getNativeMemory()).isEqualTo(60 * MB);
+        assertThat(governor.getPeakNativeMemory()).isEqualTo(60 * MB);
+        assertThat(governor.getEvictedMemory()).isZero();
+    }
+
+    @Test
+    public void test_evictionByPriority() throws Exception {
+        MemoryGovernor governor = new MemoryGovernor(100 * MB);
+        FakeCache thumbnails = new FakeCache("thumbnails", MemoryGovernor.HIGH_PRIORITY, 20 * MB); //$NON-NLS-1$
+        FakeCache images = new FakeCache("images", MemoryGovernor.NORMAL_PRIORITY, 90 * MB); //$NON-NLS-1$
+        governor.register(thumbnails);
+        governor.register(images);
+
+        governor.checkBudget();
+
+        // 10 MB over the budget + 5% of the budget, only from the lowest priority
+        assertThat(images.getNativeMemory()).isEqualTo(75 * MB);
+        assertThat(thumbnails.getNativeMemory()).isEqualTo(20 * MB);
+        assertThat(governor.getNativeMemory()).isLessThanOrEqualTo(95 * MB);
+        assertThat(governor.getPeakNativeMemory()).isEqualTo(110 * MB);
+        assertThat(governor.getEvictedMemory()).isEqualTo(15 * MB);
+        assertThat(governor.getUsage()).hasSize(2);
+    }
+
+    @Test
+    public void test_evictionCascade() throws Exception {
+        MemoryGovernor governor = new MemoryGovernor(100 * MB);
+        FakeCache thumbnails = new FakeCache("thumbnails", MemoryGovernor.HIGH_PRIORITY, 100 * MB); //$NON-NLS-1$
+        FakeCache luts = new FakeCache("luts", MemoryGovernor.LOW_PRIORITY, 10 * MB); //$NON-NLS-1$
+        governor.register(thumbnails);
+        governor.register(luts);
+
+        governor.checkBudget();
+
+        assertThat(luts.getNativeMemory()).isZero();
+        assertThat(thumbnails.getNativeMemory()).isEqualTo(95 * MB);
+
+        governor.unregister(luts);
+        assertThat(governor.getUsage()).hasSize(1);
+    }
+
+    @Test
+    public void test_heapCacheEviction() throws Exception {
+        List<String> released = new ArrayList<>();
+        SoftHashMap<String, Object> map = new SoftHashMap<String, Object>() {
+
+            @Override
+            public void removeElement(Reference<? extends Object> soft) {
+                String key = reverseLookup.remove(soft);
+                if (key != null) {
+                    hash.remove(key);
+                    released.add(key);
+                }
+            }
+        };
+        map.put("a", new Object()); //$NON-NLS-1$
+        map.put("b", new Object()); //$NON-NLS-1$
+
+        MemoryGovernor governor = new MemoryGovernor(100 * MB);
+        ManagedCache cache = governor.register("headers", MemoryGovernor.HIGH_PRIORITY, map, 1000); //$NON-NLS-1$
+        assertThat(cache.getEntryCount()).isEqualTo(2);
+        assertThat(cache.getNativeMemory()).isZero();
+        assertThat(cache.getHeapMemory()).isEqualTo(2000);
+        assertThat(governor.getHeapMemory()).isEqualTo(2000);
+        assertThat(governor.getUsage().get(0).getHeapMemory()).isEqualTo(2000);
+
+        // The entries are removed through removeElement() for releasing the keys
+        cache.evict(Long.MAX_VALUE);
+        assertThat(map).isEmpty();
+        assertThat(released).containsOnly("a", "b"); //$NON-NLS-1$ //$NON-NLS-2$
+        assertThat(governor.getHeapMemory()).isZero();
+    }
+}
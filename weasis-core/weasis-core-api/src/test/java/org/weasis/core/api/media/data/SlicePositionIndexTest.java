@@ -0,0 +1,87 @@
+/*******************************************************************************
+ * Copyright (c) 2009-2018 Weasis Team and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ *     Nicolas Roduit - initial API and implementation
+ *******************************************************************************/
+package org.weasis.core.api.media.data;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.junit.Test;
+
+public class SlicePositionIndexTest {
+
+    private static class Slice implements TagReadable {
+        private final Map<TagW, Object> tags = new HashMap<>();
+
+        Slice(Double location) {
+            if (location != null) {
+                tags.put(TagW.SlicePosition, new double[] { 0.0, 0.0, location });
+            }
+        }
+
+        @Override
+        public boolean containTagKey(TagW tag) {
+            return tags.containsKey(tag);
+        }
+
+        @Override
+        public Object getTagValue(TagW tag) {
+            return tags.get(tag);
+        }
+
+        @Override
+        public Iterator<Entry<TagW, Object>> getTagEntrySetIterator() {
+            return tags.entrySet().iterator();
+        }
+    }
+
+    @Test
+    public void test_nearest() throws Exception {
+        // Decreasing order, as with an inverse stack
+        List<Slice> slices = Arrays.asList(new Slice(40.0), new Slice(30.0), new Slice(null), new Slice(20.0),
+            new Slice(10.0));
+        SlicePositionIndex<Slice> index = new SlicePositionIndex<>(slices);
+
+        assertThat(index.size()).isEqualTo(4);
+        assertThat(index.getNearestIndex(30.0)).isEqualTo(1);
+        assertThat(index.getNearestIndex(21.0)).isEqualTo(3);
+        assertThat(index.getNearestIndex(-100.0)).isEqualTo(4);
+        assertThat(index.getNearestIndex(100.0)).isZero();
+        assertThat(index.getNearestMedia(12.0)).isSameAs(slices.get(4));
+        // Same distance: the first one of the list
+        assertThat(index.getNearestIndex(25.0)).isEqualTo(1);
+    }
+
+    @Test
+    public void test_duplicateLocations() throws Exception {
+        List<Slice> slices = Arrays.asList(new Slice(10.0), new Slice(20.0), new Slice(10.0), new Slice(20.0));
+        SlicePositionIndex<Slice> index = new SlicePositionIndex<>(slices);
+
+        assertThat(index.size()).isEqualTo(2);
+        assertThat(index.getNearestIndex(11.0)).isZero();
+        assertThat(index.getNearestIndex(19.0)).isEqualTo(1);
+    }
+
+    @Test
+    public void test_empty() throws Exception {
+        SlicePositionIndex<Slice> index = new SlicePositionIndex<>(Collections.singletonList(new Slice(null)));
+
+        assertThat(index.size()).isZero();
+        assertThat(index.getNearestIndex(0.0)).isEqualTo(-1);
+        assertThat(index.getNearestMedia(0.0)).isNull();
+    }
+}
@@ -0,0 +1,90 @@
+/*******************************************************************************
+ * Copyright (c) 2009-2018 Weasis Team and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ *     Nicolas Roduit - initial API and implementation
+ *******************************************************************************/
+package org.weasis.core.api.media.data;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class SortKeyComparatorTest {
+
+    private static final MediaReader READER = (MediaReader) Proxy.newProxyInstance(
+        SortKeyComparatorTest.class.getClassLoader(), new Class<?>[] { MediaReader.class }, (p, m, args) -> null);
+
+    // The key of the media is the sort value, null when the media has no value
+    private static final SortKeyComparator<MediaElement> ORDER = new SortKeyComparator<MediaElement>() {
+
+        @Override
+        protected double extractSortKey(MediaElement media) {
+            Integer val = (Integer) media.getKey();
+            return val == null ? Double.NaN : val;
+        }
+    };
+
+    private static MediaElement media(Integer value) {
+        return new MediaElement(READER, value);
+    }
+
+    private static List<MediaElement> randomMedias(Random random, int size) {
+        List<MediaElement> list = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            // Some equal values and some missing values
+            list.add(media(random.nextInt(4) == 0 ? null : random.nextInt(10)));
+        }
+        return list;
+    }
+
+    @Test
+    public void test_missing_values_are_last() throws Exception {
+        MediaElement m1 = media(1);
+        MediaElement m2 = media(2);
+        MediaElement none = media(null);
+
+        assertThat(ORDER.compare(m1, m2)).isNegative();
+        assertThat(ORDER.compare(m1, none)).isNegative();
+        assertThat(ORDER.compare(none, m2)).isPositive();
+        assertThat(ORDER.compare(none, media(null))).isZero();
+
+        List<MediaElement> list = new ArrayList<>();
+        list.add(m2);
+        list.add(none);
+        list.add(m1);
+        Collections.sort(list, ORDER);
+        assertThat(list).containsExactly(m1, m2, none);
+    }
+
+    @Test
+    public void test_merge_same_as_stable_sort() throws Exception {
+        Random random = new Random(7);
+        for (int i = 0; i < 200; i++) {
+            List<MediaElement> sorted = randomMedias(random, random.nextInt(20));
+            Collections.sort(sorted, ORDER);
+            List<MediaElement> added = randomMedias(random, 1 + random.nextInt(5));
+
+            List<MediaElement> expected = new ArrayList<>(sorted);
+            expected.addAll(added);
+            Collections.sort(expected, ORDER);
+
+            List<MediaElement> result = Series.mergeSorted(sorted, added, ORDER);
+            // Same instances at the same positions
+            assertThat(result).hasSize(expected.size());
+            for (int k = 0; k < expected.size(); k++) {
+                assertThat(result.get(k)).isSameAs(expected.get(k));
+            }
+        }
+    }
+}
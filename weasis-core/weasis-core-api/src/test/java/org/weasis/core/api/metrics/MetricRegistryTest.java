@@ -0,0 +1,98 @@
+/*******************************************************************************
+ * Copyright (c) 2009-2018 Weasis Team and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ *     Nicolas Roduit - initial API and implementation
+ *******************************************************************************/
+package org.weasis.core.api.metrics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.fail;
+
+import java.io.StringWriter;
+import java.util.List;
+
+import org.junit.Test;
+
+public class MetricRegistryTest {
+
+    @Test
+    public void test_bucket_bounds() {
+        for (long v : new long[] { 0, 1, 3, 4, 7, 8, 9, 15, 16, 1000, 123_456_789L, Long.MAX_VALUE }) {
+            int index = Histogram.bucketIndex(v);
+            assertThat(index).isBetween(0, Histogram.NB_BUCKETS - 1);
+            assertThat(Histogram.bucketUpperBound(index)).isGreaterThanOrEqualTo(v);
+            if (index > 0) {
+                assertThat(Histogram.bucketUpperBound(index - 1)).isLessThan(v);
+            }
+        }
+    }
+
+    @Test
+    public void test_histogram() {
+        Histogram histogram = new MetricRegistry().histogram("test.latency", Metric.UNIT_MICROSECONDS); //$NON-NLS-1$
+        for (int i = 1; i <= 1000; i++) {
+            histogram.update(i);
+        }
+        MetricSnapshot s = histogram.snapshot();
+        assertThat(s.get(MetricSnapshot.COUNT)).isEqualTo(1000L);
+        assertThat(s.get(MetricSnapshot.MIN)).isEqualTo(1L);
+        assertThat(s.get(MetricSnapshot.MAX)).isEqualTo(1000L);
+        assertThat(s.get(MetricSnapshot.MEAN).doubleValue()).isEqualTo(500.5);
+        // Relative error below 25%
+        assertThat(histogram.getQuantile(0.5)).isBetween(500L, 625L);
+        assertThat(histogram.getQuantile(0.99)).isBetween(990L, 1000L);
+
+        histogram.reset();
+        assertThat(histogram.getCount()).isZero();
+        assertThat(histogram.getQuantile(0.5)).isZero();
+    }
+
+    @Test
+    public void test_registry() {
+        MetricRegistry registry = new MetricRegistry();
+        String name = MetricRegistry.name("cache", "Display images", "hits"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+        Counter counter = registry.counter(name);
+        assertThat(counter.getName()).isEqualTo("cache.Display_images.hits"); //$NON-NLS-1$
+        assertThat(registry.counter("cache.Display_images.hits")).isSameAs(counter); //$NON-NLS-1$
+        counter.add(3);
+        registry.gauge("memory", Metric.UNIT_BYTES, () -> 42L); //$NON-NLS-1$
+
+        List<MetricSnapshot> list = registry.snapshot(null);
+        assertThat(list).extracting(MetricSnapshot::getName).containsExactly(name, "memory"); //$NON-NLS-1$
+        assertThat(list.get(1).get(MetricSnapshot.VALUE)).isEqualTo(42L);
+        assertThat(registry.snapshot("MEM")).hasSize(1); //$NON-NLS-1$
+
+        try {
+            registry.histogram("memory", Metric.UNIT_BYTES); //$NON-NLS-1$
+            fail("Must throws an exception"); //$NON-NLS-1$
+        } catch (IllegalStateException e) {
+            assertThat(e).hasMessageContaining("memory"); //$NON-NLS-1$
+        }
+    }
+
+    @Test
+    public void test_export() throws Exception {
+        MetricRegistry registry = new MetricRegistry();
+        registry.counter("download.bytes", Metric.UNIT_BYTES).add(10); //$NON-NLS-1$
+        registry.histogram("a,\"b\"", Metric.UNIT_NONE).update(5); //$NON-NLS-1$
+
+        StringWriter json = new StringWriter();
+        MetricRegistry.writeJson(registry.snapshot(null), json);
+        assertThat(json.toString()).contains("\"name\": \"a,\\\"b\\\"\"") //$NON-NLS-1$
+            .contains("\"name\": \"download.bytes\", \"type\": \"counter\", \"unit\": \"bytes\"") //$NON-NLS-1$
+            .contains("\"count\": 10"); //$NON-NLS-1$
+
+        StringWriter csv = new StringWriter();
+        MetricRegistry.writeCsv(registry.snapshot(null), csv);
+        String[] lines = csv.toString().split("\n"); //$NON-NLS-1$
+        assertThat(lines).hasSize(3);
+        assertThat(lines[0]).isEqualTo("name,type,unit,count,rate,value,min,max,mean,p50,p95,p99"); //$NON-NLS-1$
+        assertThat(lines[1]).startsWith("\"a,\"\"b\"\"\",histogram,,1,,,5,5,5.00,5,5,5"); //$NON-NLS-1$
+        assertThat(lines[2]).startsWith("download.bytes,counter,bytes,10,"); //$NON-NLS-1$
+    }
+}
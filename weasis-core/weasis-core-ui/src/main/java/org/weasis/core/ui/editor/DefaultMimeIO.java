@@ -106,8 +106,9 @@ public class DefaultMimeIO implements MediaReader {
                         this.add(media);
                         DataExplorerModel model = (DataExplorerModel) this.getTagValue(TagW.ExplorerModel);
                         if (model != null) {
-                            model.firePropertyChange(new ObservableEvent(ObservableEvent.BasicAction.ADD, model, null,
-                                new SeriesEvent(SeriesEvent.Action.ADD_IMAGE, this, media)));
+                            SeriesEvent event = new SeriesEvent(SeriesEvent.Action.ADD_IMAGE, this, media);
+                            model.fireCoalescedPropertyChange(event.getMergeKey(),
+                                new ObservableEvent(ObservableEvent.BasicAction.ADD, model, null, event));
                         }
                     }
                 }
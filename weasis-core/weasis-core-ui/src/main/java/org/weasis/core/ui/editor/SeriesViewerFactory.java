@@ -21,6 +21,13 @@ import org.weasis.core.api.media.data.MediaElement;
 
 public interface SeriesViewerFactory extends GUIEntry {
 
+    /**
+     * Service properties of the readable MIME types and of the level (see {@link #getLevel()}). When both are
+     * declared, the factory is only activated when it is used for the first time.
+     */
+    String P_MIME_TYPES = "weasis.viewer.mimetypes"; //$NON-NLS-1$
+    String P_LEVEL = "weasis.viewer.level"; //$NON-NLS-1$
+
     SeriesViewer<?> createSeriesViewer(Map<String, Object> properties);
 
     boolean canReadMimeType(String mimeType);
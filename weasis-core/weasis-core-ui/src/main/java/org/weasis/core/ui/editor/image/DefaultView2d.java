@@ -50,6 +50,7 @@ import java.util.List;
 import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.swing.AbstractAction;
 import javax.swing.Action;
@@ -95,6 +96,9 @@ import org.weasis.core.api.media.data.MediaSeries;
 import org.weasis.core.api.media.data.Series;
 import org.weasis.core.api.media.data.SeriesComparator;
 import org.weasis.core.api.media.data.TagW;
+import org.weasis.core.api.metrics.Histogram;
+import org.weasis.core.api.metrics.Metric;
+import org.weasis.core.api.metrics.MetricRegistry;
 import org.weasis.core.api.service.AuditLog;
 import org.weasis.core.api.util.FontTools;
 import org.weasis.core.api.util.LangUtil;
@@ -161,6 +165,8 @@ public abstract class DefaultView2d<E extends ImageElement> extends GraphicsPane
     public static final Cursor MOVE_CURSOR = DefaultView2d.getNewCursor(Cursor.MOVE_CURSOR);
     public static final Cursor DEFAULT_CURSOR = DefaultView2d.getNewCursor(Cursor.DEFAULT_CURSOR);
 
+    private static final AtomicInteger VIEW_COUNTER = new AtomicInteger();
+
     protected final FocusHandler focusHandler = new FocusHandler();
     protected GraphicMouseHandler<E> graphicMouseHandler;
 
@@ -185,6 +191,8 @@ public abstract class DefaultView2d<E extends ImageElement> extends GraphicsPane
     protected int tileOffset;
 
     protected final ImageViewerEventManager<E> eventManager;
+    // Painting time of this view, registered at the first painting and removed when the view is disposed
+    private transient Histogram renderTime;
 
     public DefaultView2d(ImageViewerEventManager<E> eventManager) {
         this(eventManager, null);
@@ -833,7 +841,14 @@ public abstract class DefaultView2d<E extends ImageElement> extends GraphicsPane
     @Override
     public void paintComponent(Graphics g) {
         if (g instanceof Graphics2D) {
+            if (renderTime == null) {
+                renderTime = MetricRegistry.getInstance().histogram(MetricRegistry.name("render", //$NON-NLS-1$
+                    getClass().getSimpleName(), String.valueOf(VIEW_COUNTER.incrementAndGet())),
+                    Metric.UNIT_MICROSECONDS);
+            }
+            long start = System.nanoTime();
             draw((Graphics2D) g);
+            renderTime.updateSince(start);
         }
     }
 
@@ -1222,6 +1237,10 @@ public abstract class DefaultView2d<E extends ImageElement> extends GraphicsPane
             closingSeries(series);
             series = null;
         }
+        if (renderTime != null) {
+            MetricRegistry.getInstance().remove(renderTime.getName());
+            renderTime = null;
+        }
         super.disposeView();
     }
 
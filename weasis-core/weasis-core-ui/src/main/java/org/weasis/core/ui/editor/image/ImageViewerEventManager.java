@@ -17,10 +17,12 @@ import java.awt.geom.Point2D;
 import java.beans.PropertyChangeListener;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.function.IntFunction;
 import java.util.stream.Collectors;
 
 import javax.swing.BoundedRangeModel;
@@ -30,10 +32,10 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.weasis.core.api.gui.util.ActionState;
 import org.weasis.core.api.gui.util.ActionW;
+import org.weasis.core.api.gui.util.CineEngine;
 import org.weasis.core.api.gui.util.ComboItemListener;
 import org.weasis.core.api.gui.util.DecFormater;
 import org.weasis.core.api.gui.util.Filter;
-import org.weasis.core.api.gui.util.GuiExecutor;
 import org.weasis.core.api.gui.util.SliderChangeListener;
 import org.weasis.core.api.gui.util.SliderCineListener;
 import org.weasis.core.api.gui.util.SliderCineListener.TIME;
@@ -89,9 +91,7 @@ public abstract class ImageViewerEventManager<E extends ImageElement> implements
     protected SliderCineListener getMoveTroughSliceAction(int speed, final TIME time, double mouseSensivity) {
         return new SliderCineListener(ActionW.SCROLL_SERIES, 1, 2, 1, speed, time, mouseSensivity) {
 
-            private volatile boolean cining = true;
-
-            protected CineThread currentCine;
+            private final CineEngine cineEngine = buildCineEngine(this);
 
             @Override
             public void stateChanged(BoundedRangeModel model) {
@@ -131,101 +131,28 @@ public abstract class ImageViewerEventManager<E extends ImageElement> implements
             @Override
             public void setSpeed(int speed) {
                 super.setSpeed(speed);
-                if (currentCine != null) {
-                    currentCine.iniSpeed();
+                if (cineEngine.isRunning()) {
+                    cineEngine.setFrameRate(getFramesPerSecond());
                 }
             }
 
-            /** Create a thread to cine the images. */
-
-            class CineThread extends Thread {
-
-                private volatile int iteration;
-                private volatile int wait;
-                private volatile int currentCineRate;
-                private volatile long start;
-                private final int timeDiv =
-                    TIME.SECOND.equals(time) ? 1000 : TIME.MINUTE.equals(time) ? 60000 : 3600000;
-
-                @Override
-                public void run() {
-                    iniSpeed();
-
-                    while (cining) {
-                        GuiExecutor.instance().execute(() -> {
-                            int frameIndex = getSliderValue() + 1;
-                            frameIndex = frameIndex > getSliderMax() ? 0 : frameIndex;
-                            setSliderValue(frameIndex);
-                        });
-                        iteration++;
-
-                        // adjust the delay time based on the current performance
-                        long elapsed = (System.currentTimeMillis() - start) / 1000;
-                        if (elapsed > 0) {
-                            currentCineRate = (int) (iteration / elapsed);
-
-                            if (currentCineRate < getSpeed()) {
-                                wait--;
-                            } else {
-                                wait++;
-                            }
-                            if (wait < 0) {
-                                wait = 0;
-                            }
-                        }
-
-                        // wait
-                        if (wait > 0) {
-                            try {
-                                Thread.sleep(wait);
-                            } catch (Exception e) {
-                            }
-                        }
-                    }
-                }
-
-                public void iniSpeed() {
-                    iteration = 0;
-                    wait = timeDiv / getSpeed();
-                    currentCineRate = getSpeed();
-                    start = System.currentTimeMillis();
-                }
-
-                public int getCurrentCineRate() {
-                    return currentCineRate;
-                }
-
-            }
-
             /** Start the cining. */
 
             @Override
             public synchronized void start() {
-                if (currentCine != null) {
-                    stop();
-                }
-                if (getSliderMax() - getSliderMin() > 0) {
-                    cining = true;
-                    currentCine = new CineThread();
-                    currentCine.start();
-                }
+                cineEngine.start(getFramesPerSecond());
             }
 
             /** Stop the cining. */
 
             @Override
             public synchronized void stop() {
-                CineThread moribund = currentCine;
-                currentCine = null;
-                if (moribund != null) {
-                    cining = false;
-                    moribund.interrupt();
-                }
+                cineEngine.stop();
             }
 
             @Override
             public boolean isCining() {
-                return cining;
+                return cineEngine.isRunning();
             }
 
             @Override
@@ -235,15 +162,70 @@ public abstract class ImageViewerEventManager<E extends ImageElement> implements
 
             @Override
             public int getCurrentCineRate() {
-                if (currentCine != null) {
-                    return currentCine.getCurrentCineRate();
-                }
-                return 0;
+                return (int) Math.round(cineEngine.getAchievedFrameRate());
             }
 
         };
     }
 
+    /**
+     * Build the engine playing the images of the selected view. The images are decoded ahead and displayed by setting
+     * the value of the cine action.
+     *
+     * @param cineAction
+     *            the action scrolling the images
+     * @return the cine engine
+     */
+    protected CineEngine buildCineEngine(SliderCineListener cineAction) {
+        return new CineEngine(new CineEngine.FrameSource() {
+            // Images of the selected view, taken from the EDT for the decoding thread
+            private volatile IntFunction<E> frames;
+
+            @Override
+            public int getFirstFrame() {
+                return cineAction.getSliderMin();
+            }
+
+            @Override
+            public int getLastFrame() {
+                return cineAction.getSliderMax();
+            }
+
+            @Override
+            public int getCurrentFrame() {
+                // Called from the EDT before displaying each frame, follows the changes of the selected view
+                ImageViewerPlugin<E> container = selectedView2dContainer;
+                ViewCanvas<E> view2d = container == null ? null : container.getSelectedImagePane();
+                if (view2d != null && view2d.getSeries() instanceof Series) {
+                    Series<E> series = (Series<E>) view2d.getSeries();
+                    Filter<E> filter = (Filter<E>) view2d.getActionValue(ActionW.FILTERED_SERIES.cmd());
+                    Comparator<E> sort = view2d.getCurrentSortComparator();
+                    // Slider value-1 is the index value of a sequence
+                    frames = index -> series.getMedia(index - 1, filter, sort);
+                } else {
+                    frames = null;
+                }
+                return cineAction.getSliderValue();
+            }
+
+            @Override
+            public boolean prepareFrame(int frame) {
+                IntFunction<E> images = frames;
+                if (images != null) {
+                    E image = images.apply(frame);
+                    // Load the image in the cache, with its min and max values
+                    return image != null && image.getImage() != null;
+                }
+                return false;
+            }
+
+            @Override
+            public void showFrame(int frame) {
+                cineAction.setSliderValue(frame);
+            }
+        });
+    }
+
     protected SliderChangeListener newWindowAction() {
 
         return new SliderChangeListener(ActionW.WINDOW, WINDOW_SMALLEST, WINDOW_LARGEST, WINDOW_DEFAULT, true, 1.25) {
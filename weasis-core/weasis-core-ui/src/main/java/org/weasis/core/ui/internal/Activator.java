@@ -12,12 +12,15 @@ package org.weasis.core.ui.internal;
 
 import java.io.File;
 import java.util.Dictionary;
+import java.util.HashMap;
 import java.util.Hashtable;
+import java.util.Map;
 
 import org.apache.felix.service.command.CommandProcessor;
 import org.osgi.framework.BundleActivator;
 import org.osgi.framework.BundleContext;
 import org.osgi.framework.Constants;
+import org.osgi.framework.FrameworkUtil;
 import org.osgi.framework.InvalidSyntaxException;
 import org.osgi.framework.ServiceEvent;
 import org.osgi.framework.ServiceListener;
@@ -41,6 +44,10 @@ import org.weasis.core.ui.model.layer.AbstractInfoLayer;
 public class Activator implements BundleActivator, ServiceListener {
     private static final Logger LOGGER = LoggerFactory.getLogger(Activator.class);
 
+    // Accessed only from the EDT
+    private static final Map<ServiceReference<SeriesViewerFactory>, LazySeriesViewerFactory> LAZY_FACTORIES =
+        new HashMap<>();
+
     @Override
     public void start(final BundleContext bundleContext) throws Exception {
         registerCommands(bundleContext);
@@ -58,7 +65,7 @@ public class Activator implements BundleActivator, ServiceListener {
             try {
                 for (ServiceReference<SeriesViewerFactory> service : bundleContext
                     .getServiceReferences(SeriesViewerFactory.class, null)) {
-                    registerSeriesViewerFactory(bundleContext.getService(service));
+                    registerSeriesViewerFactory(bundleContext, service);
                 }
             } catch (InvalidSyntaxException e) {
                 LOGGER.error("", e); //$NON-NLS-1$
@@ -88,27 +95,51 @@ public class Activator implements BundleActivator, ServiceListener {
 
         // Must be instantiate in EDT
         GuiExecutor.instance().execute(() -> {
-            ServiceReference<?> service = event.getServiceReference();
+            ServiceReference<SeriesViewerFactory> service =
+                (ServiceReference<SeriesViewerFactory>) event.getServiceReference();
             BundleContext context = AppProperties.getBundleContext(service);
-            SeriesViewerFactory viewerFactory = (SeriesViewerFactory) context.getService(service);
-            if (viewerFactory != null) {
-                if (event.getType() == ServiceEvent.REGISTERED) {
-                    registerSeriesViewerFactory(viewerFactory);
-                } else if (event.getType() == ServiceEvent.UNREGISTERING) {
-                    if (UIManager.SERIES_VIEWER_FACTORIES.contains(viewerFactory)) {
-                        LOGGER.info("Unregister series viewer plug-in: {}", viewerFactory.getDescription()); //$NON-NLS-1$
-                        UIManager.SERIES_VIEWER_FACTORIES.remove(viewerFactory);
-                    }
-                    context.ungetService(service);
-                }
+            if (event.getType() == ServiceEvent.REGISTERED) {
+                registerSeriesViewerFactory(context, service);
+            } else if (event.getType() == ServiceEvent.UNREGISTERING) {
+                unregisterSeriesViewerFactory(context, service);
             }
         });
     }
 
-    private static void registerSeriesViewerFactory(SeriesViewerFactory factory) {
+    private static void registerSeriesViewerFactory(BundleContext context,
+        ServiceReference<SeriesViewerFactory> service) {
+        // Do not get the service when declaring its properties, for not activating its bundle at startup
+        SeriesViewerFactory factory =
+            LazySeriesViewerFactory.build(FrameworkUtil.getBundle(Activator.class).getBundleContext(), service);
+        if (factory == null) {
+            factory = context.getService(service);
+        } else {
+            LAZY_FACTORIES.put(service, (LazySeriesViewerFactory) factory);
+        }
         if (factory != null && !UIManager.SERIES_VIEWER_FACTORIES.contains(factory)) {
             UIManager.SERIES_VIEWER_FACTORIES.add(factory);
-            LOGGER.info("Register series viewer plug-in: {}", factory.getDescription()); //$NON-NLS-1$
+            LOGGER.info("Register series viewer plug-in: {}", //$NON-NLS-1$
+                factory instanceof LazySeriesViewerFactory ? factory : factory.getDescription());
+        }
+    }
+
+    private static void unregisterSeriesViewerFactory(BundleContext context,
+        ServiceReference<SeriesViewerFactory> service) {
+        LazySeriesViewerFactory lazy = LAZY_FACTORIES.remove(service);
+        if (lazy != null) {
+            if (UIManager.SERIES_VIEWER_FACTORIES.remove(lazy)) {
+                LOGGER.info("Unregister series viewer plug-in: {}", lazy); //$NON-NLS-1$
+            }
+            lazy.release();
+            return;
+        }
+        SeriesViewerFactory viewerFactory = context.getService(service);
+        if (viewerFactory != null) {
+            if (UIManager.SERIES_VIEWER_FACTORIES.contains(viewerFactory)) {
+                LOGGER.info("Unregister series viewer plug-in: {}", viewerFactory.getDescription()); //$NON-NLS-1$
+                UIManager.SERIES_VIEWER_FACTORIES.remove(viewerFactory);
+            }
+            context.ungetService(service);
         }
     }
 
@@ -0,0 +1,155 @@
+/*******************************************************************************
+ * Copyright (c) 2009-2018 Weasis Team and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ *     Nicolas Roduit - initial API and implementation
+ *******************************************************************************/
+package org.weasis.core.ui.internal;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import javax.swing.Action;
+import javax.swing.Icon;
+
+import org.osgi.framework.BundleContext;
+import org.osgi.framework.ServiceReference;
+import org.weasis.core.api.media.data.MediaElement;
+import org.weasis.core.ui.editor.SeriesViewer;
+import org.weasis.core.ui.editor.SeriesViewerFactory;
+
+/**
+ * Viewer factory built from the service properties (see {@link SeriesViewerFactory#P_MIME_TYPES}). The service, and
+ * its bundle when it has a lazy activation policy, is only activated when a viewer or a graphical element of the
+ * factory is required.
+ */
+class LazySeriesViewerFactory implements SeriesViewerFactory {
+
+    private final BundleContext context;
+    private final ServiceReference<SeriesViewerFactory> reference;
+    private final List<String> mimeTypes;
+    private final int level;
+    private volatile SeriesViewerFactory factory;
+
+    private LazySeriesViewerFactory(BundleContext context, ServiceReference<SeriesViewerFactory> reference,
+        List<String> mimeTypes, int level) {
+        this.context = context;
+        this.reference = reference;
+        this.mimeTypes = mimeTypes;
+        this.level = level;
+    }
+
+    /**
+     * @return the lazy factory or null when the service does not declare its MIME types and its level
+     */
+    static LazySeriesViewerFactory build(BundleContext context, ServiceReference<SeriesViewerFactory> reference) {
+        Object mimes = reference.getProperty(P_MIME_TYPES);
+        Object lev = reference.getProperty(P_LEVEL);
+        if (mimes == null || lev == null) {
+            return null;
+        }
+        List<String> list = mimes instanceof String[] ? Arrays.asList((String[]) mimes)
+            : Collections.singletonList(mimes.toString());
+        try {
+            int level = lev instanceof Number ? ((Number) lev).intValue() : Integer.parseInt(lev.toString().trim());
+            return new LazySeriesViewerFactory(context, reference, list, level);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    ServiceReference<SeriesViewerFactory> getReference() {
+        return reference;
+    }
+
+    private SeriesViewerFactory getFactory() {
+        SeriesViewerFactory f = factory;
+        if (f == null) {
+            synchronized (this) {
+                f = factory;
+                if (f == null) {
+                    f = context.getService(reference);
+                    if (f == null) {
+                        throw new IllegalStateException("Service not available: " + reference); //$NON-NLS-1$
+                    }
+                    factory = f;
+                }
+            }
+        }
+        return f;
+    }
+
+    void release() {
+        synchronized (this) {
+            if (factory != null) {
+                factory = null;
+                context.ungetService(reference);
+            }
+        }
+    }
+
+    @Override
+    public Icon getIcon() {
+        return getFactory().getIcon();
+    }
+
+    @Override
+    public String getUIName() {
+        return getFactory().getUIName();
+    }
+
+    @Override
+    public String getDescription() {
+        return getFactory().getDescription();
+    }
+
+    @Override
+    public SeriesViewer<?> createSeriesViewer(Map<String, Object> properties) {
+        return getFactory().createSeriesViewer(properties);
+    }
+
+    @Override
+    public boolean canReadMimeType(String mimeType) {
+        return mimeTypes.contains(mimeType);
+    }
+
+    @Override
+    public boolean isViewerCreatedByThisFactory(SeriesViewer<? extends MediaElement> viewer) {
+        // No viewer can exist before the activation of the factory
+        SeriesViewerFactory f = factory;
+        return f != null && f.isViewerCreatedByThisFactory(viewer);
+    }
+
+    @Override
+    public int getLevel() {
+        return level;
+    }
+
+    @Override
+    public boolean canAddSeries() {
+        return getFactory().canAddSeries();
+    }
+
+    @Override
+    public boolean canExternalizeSeries() {
+        return getFactory().canExternalizeSeries();
+    }
+
+    @Override
+    public List<Action> getOpenActions() {
+        // A factory providing open actions must not declare the lazy properties
+        SeriesViewerFactory f = factory;
+        return f == null ? Collections.emptyList() : f.getOpenActions();
+    }
+
+    @Override
+    public String toString() {
+        return String.valueOf(reference.getProperty("component.name")); //$NON-NLS-1$
+    }
+}
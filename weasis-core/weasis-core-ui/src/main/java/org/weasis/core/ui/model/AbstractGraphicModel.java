@@ -24,6 +24,7 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
@@ -89,6 +90,7 @@ public abstract class AbstractGraphicModel extends DefaultUUID implements Graphi
     private final List<GraphicModelChangeListener> modelListeners = new ArrayList<>();
     private final List<PropertyChangeListener> graphicsListeners = new ArrayList<>();
     private Boolean changeFireingSuspended = Boolean.FALSE;
+    private transient GraphicIndex graphicIndex;
 
     private Function<Graphic, GraphicLayer> getLayer = g -> g.getLayer();
     private Function<Graphic, DragGraphic> castToDragGraphic = DragGraphic.class::cast;
@@ -204,6 +206,28 @@ public abstract class AbstractGraphicModel extends DefaultUUID implements Graphi
         return models.parallelStream().map(getLayer).distinct().collect(Collectors.toList());
     }
 
+    /**
+     * @param area
+     *            the area in the image coordinates
+     * @param transform
+     * @return the graphics which shape may be in the area, or null when all the graphics must be checked (no area or no
+     *         transform). The list of graphics must be locked by the caller.
+     */
+    private Set<Graphic> getCandidates(Rectangle2D area, AffineTransform transform) {
+        if (area == null || transform == null) {
+            return null;
+        }
+        if (graphicIndex == null) {
+            graphicIndex = new GraphicIndex();
+        }
+        graphicIndex.update(models);
+        return graphicIndex.getCandidates(area, transform);
+    }
+
+    private static boolean isCandidate(Set<Graphic> candidates, Graphic graphic) {
+        return candidates == null || candidates.contains(graphic);
+    }
+
     @Override
     public void addGraphicChangeHandler(PropertyChangeListener graphicsChangeHandler) {
         if (Objects.nonNull(graphicsChangeHandler) && !graphicsListeners.contains(graphicsChangeHandler)) {
@@ -345,12 +369,14 @@ public abstract class AbstractGraphicModel extends DefaultUUID implements Graphi
         ArrayList<Graphic> selectedGraphicList = new ArrayList<>();
         if (rectangle != null) {
             synchronized (models) {
+                // Like the bounds of the graphics, the rectangle is in the image coordinates (see getBounds(transform))
+                Set<Graphic> candidates = getCandidates(rectangle, transform);
                 for (int i = models.size() - 1; i >= 0; i--) {
                     Graphic graphic = models.get(i);
                     GraphicLayer layer = graphic.getLayer();
                     if (layer.getVisible() && layer.getSelectable()) {
 
-                        Rectangle graphBounds = graphic.getBounds(transform);
+                        Rectangle graphBounds = isCandidate(candidates, graphic) ? graphic.getBounds(transform) : null;
 
                         if (graphBounds != null && graphBounds.intersects(rectangle)) {
                             Area selectionArea = graphic.getArea(transform);
@@ -382,6 +408,8 @@ public abstract class AbstractGraphicModel extends DefaultUUID implements Graphi
         ArrayList<Graphic> selectedGraphicList = new ArrayList<>();
         if (rectangle != null) {
             synchronized (models) {
+                // Like the bounds of the graphics, the rectangle is in the image coordinates (see getBounds(transform))
+                Set<Graphic> candidates = getCandidates(rectangle, transform);
                 for (int i = models.size() - 1; i >= 0; i--) {
                     Graphic graphic = models.get(i);
                     GraphicLayer layer = graphic.getLayer();
@@ -391,7 +419,8 @@ public abstract class AbstractGraphicModel extends DefaultUUID implements Graphi
 
                         Area selectedArea = null;
 
-                        Rectangle selectionBounds = graphic.getRepaintBounds(transform);
+                        Rectangle selectionBounds =
+                            isCandidate(candidates, graphic) ? graphic.getRepaintBounds(transform) : null;
                         if (selectionBounds != null && selectionBounds.intersects(rectangle)) {
                             selectedArea = graphic.getArea(transform);
                         }
@@ -437,6 +466,8 @@ public abstract class AbstractGraphicModel extends DefaultUUID implements Graphi
         final Point2D mousePt = mouseEvent.getImageCoordinates();
         Graphic firstSelectedGraph = null;
         synchronized (models) {
+            Set<Graphic> candidates = getCandidates(new Rectangle2D.Double(mousePt.getX(), mousePt.getY(), 0, 0),
+                DefaultView2d.getAffineTransform(mouseEvent));
             for (int i = models.size() - 1; i >= 0; i--) {
                 Graphic g = models.get(i);
                 GraphicLayer l = g.getLayer();
@@ -450,7 +481,7 @@ public abstract class AbstractGraphicModel extends DefaultUUID implements Graphi
                     }
 
                     // Improve speed by checking if mousePoint is inside repaintBound before checking if inside Area
-                    Rectangle2D repaintBound = g.getRepaintBounds(mouseEvent);
+                    Rectangle2D repaintBound = isCandidate(candidates, g) ? g.getRepaintBounds(mouseEvent) : null;
                     if (repaintBound != null && repaintBound.contains(mousePt)) {
                         if ((g.getHandlePointIndex(mouseEvent) >= 0) || (g.getArea(mouseEvent).contains(mousePt))) {
                             if (g.getSelected()) {
@@ -583,15 +614,19 @@ public abstract class AbstractGraphicModel extends DefaultUUID implements Graphi
 
         g2d.translate(0.5, 0.5);
         g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, DefaultView2d.antialiasingOn);
-        models.forEach(g -> applyPaint(g, g2d, transform, bound));
+        synchronized (models) {
+            Set<Graphic> candidates = getCandidates(bound, transform);
+            models.forEach(g -> applyPaint(g, g2d, transform, bound, candidates));
+        }
         g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, DefaultView2d.antialiasingOff);
         g2d.translate(-0.5, -0.5);
     }
 
-    private static void applyPaint(Graphic graphic, Graphics2D g2d, AffineTransform transform, Rectangle2D bounds) {
+    private static void applyPaint(Graphic graphic, Graphics2D g2d, AffineTransform transform, Rectangle2D bounds,
+        Set<Graphic> candidates) {
         if (graphic.getLayer().getVisible()) {
             if (bounds != null) {
-                Rectangle repaintBounds = graphic.getRepaintBounds(transform);
+                Rectangle repaintBounds = isCandidate(candidates, graphic) ? graphic.getRepaintBounds(transform) : null;
                 if (repaintBounds != null && repaintBounds.intersects(bounds)) {
                     graphic.paint(g2d, transform);
                 } else {
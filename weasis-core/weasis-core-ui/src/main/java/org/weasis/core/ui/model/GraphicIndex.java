@@ -0,0 +1,117 @@
+/*******************************************************************************
+ * Copyright (c) 2009-2018 Weasis Team and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ *     Nicolas Roduit - initial API and implementation
+ *******************************************************************************/
+package org.weasis.core.ui.model;
+
+import java.awt.Shape;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Rectangle2D;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.weasis.core.api.gui.util.GeomUtil;
+import org.weasis.core.api.gui.util.RTree;
+import org.weasis.core.ui.model.graphic.Graphic;
+import org.weasis.core.ui.model.utils.bean.AdvancedShape;
+
+/**
+ * Spatial index of the graphics of a model by the bounds of their shape in the image coordinates.
+ * <p>
+ * The index is synchronized with the list of graphics before each query: only the graphics which have a new shape are
+ * indexed again. The graphics with an {@link AdvancedShape} are not indexed because some parts have a size in the view
+ * coordinates, they are always returned as candidates like the graphics without shape.
+ */
+final class GraphicIndex {
+
+    private static final class Record {
+        Shape shape;
+        int generation;
+    }
+
+    private final RTree<Graphic> tree = new RTree<>();
+    private final Map<Graphic, Record> records = new IdentityHashMap<>();
+    private final Set<Graphic> unindexed = Collections.newSetFromMap(new IdentityHashMap<>());
+    private int generation;
+    private double maxLineThickness;
+
+    /**
+     * Update the index with the current graphics. The list must be locked by the caller.
+     *
+     * @param graphics
+     */
+    synchronized void update(List<Graphic> graphics) {
+        generation++;
+        double thickness = 0.0;
+        for (Graphic g : graphics) {
+            Record r = records.get(g);
+            Shape shape = g.getShape();
+            if (r == null) {
+                r = new Record();
+                records.put(g, r);
+                index(g, shape);
+            } else if (r.shape != shape) {
+                index(g, shape);
+            }
+            r.shape = shape;
+            r.generation = generation;
+            Float t = g.getLineThickness();
+            if (t != null && t > thickness) {
+                thickness = t;
+            }
+        }
+        maxLineThickness = thickness;
+
+        if (records.size() > graphics.size() || records.size() != tree.size() + unindexed.size()) {
+            for (Iterator<Map.Entry<Graphic, Record>> it = records.entrySet().iterator(); it.hasNext();) {
+                Map.Entry<Graphic, Record> e = it.next();
+                if (e.getValue().generation != generation) {
+                    tree.remove(e.getKey());
+                    unindexed.remove(e.getKey());
+                    it.remove();
+                }
+            }
+        }
+    }
+
+    private void index(Graphic g, Shape shape) {
+        // Without shape, only the label can be visible
+        if (shape == null || shape instanceof AdvancedShape) {
+            tree.remove(g);
+            unindexed.add(g);
+        } else {
+            unindexed.remove(g);
+            tree.insert(g, shape.getBounds2D());
+        }
+    }
+
+    /**
+     * @param area
+     *            the area in the image coordinates
+     * @param transform
+     *            the transform from the image to the view coordinates
+     * @return the graphics which repaint bounds (see {@link Graphic#getRepaintBounds(AffineTransform)}) may intersect
+     *         the area
+     */
+    synchronized Set<Graphic> getCandidates(Rectangle2D area, AffineTransform transform) {
+        Set<Graphic> candidates = Collections.newSetFromMap(new IdentityHashMap<>());
+        candidates.addAll(unindexed);
+        // Same growing size as the repaint bounds, plus one for rounding to the integer bounds
+        double margin = Math.max(Graphic.HANDLE_SIZE * 1.5 / 2.0, maxLineThickness / 2.0) + 2;
+        margin = margin / GeomUtil.extractScalingFactor(transform) + 1.0;
+        Rectangle2D query = new Rectangle2D.Double(area.getX() - margin, area.getY() - margin,
+            area.getWidth() + 2 * margin, area.getHeight() + 2 * margin);
+        tree.search(query, candidates::add);
+        return candidates;
+    }
+}
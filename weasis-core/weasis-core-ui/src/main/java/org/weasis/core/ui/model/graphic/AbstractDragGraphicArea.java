@@ -21,10 +21,12 @@ import java.util.Objects;
 
 import org.weasis.core.api.image.util.MeasurableLayer;
 import org.weasis.core.api.media.data.TagW;
+import org.weasis.core.ui.model.utils.algo.IntegralImageCache;
 import org.weasis.core.ui.model.utils.bean.MeasureItem;
 import org.weasis.core.ui.model.utils.bean.Measurement;
 import org.weasis.opencv.data.PlanarImage;
 import org.weasis.opencv.op.ImageProcessor;
+import org.weasis.opencv.op.IntegralImage;
 
 public abstract class AbstractDragGraphicArea extends AbstractDragGraphic implements GraphicArea {
     private static final long serialVersionUID = -3042328664891626708L;
@@ -61,53 +63,50 @@ public abstract class AbstractDragGraphicArea extends AbstractDragGraphic implem
                     Double[] mean = null;
                     Double[] stdv = null;
 
-                    if (releaseEvent && shape != null) {
+                    if (shape != null) {
                         PlanarImage image = layer.getSourceRenderedImage();
                         if (image == null) {
                             return null;
                         }
-                        AffineTransform transform = layer.getShapeTransform();
-                        Point offset = layer.getOffset();
-                        if (offset != null) {
-                            if (transform == null) {
-                                transform = AffineTransform.getTranslateInstance(-offset.getX(), -offset.getY());
-                            } else {
-                                transform.translate(-offset.getX(), -offset.getY());
-                            }
-                        }
-                        Shape roi;
-                        if (transform != null) {
-                            // Rescale ROI, if needed
-                            roi = transform.createTransformedShape(shape);
-                        } else {
-                            roi = shape;
-                        }
-                        
+                        Shape roi = getImageShape(layer);
                         Integer paddingValue = (Integer) layer.getSourceTagValue(TagW.get("PixelPaddingValue")); //$NON-NLS-1$
                         Integer paddingLimit = (Integer) layer.getSourceTagValue(TagW.get("PixelPaddingRangeLimit")); //$NON-NLS-1$
-                        double[][] extrema = ImageProcessor.meanStdDev(image.toMat(), roi ,paddingValue, paddingLimit);
-                        
-                        
-                        if (extrema == null || extrema.length < 1 || extrema[0].length < 1) {
-                            return Collections.emptyList();
-                        }
-                        min = new Double[extrema[0].length];
-                        max = new Double[extrema[0].length];
-                        mean = new Double[extrema[0].length];
-                        stdv = new Double[extrema[0].length];
 
-                        // LOGGER.error("Basic stats [ms]: {}", System.currentTimeMillis() - startTime);
                         // unit = pixelValue * rescale slope + rescale intercept
                         // FIXME do not handle modality lookup table!
                         Double slopeVal = (Double) layer.getSourceTagValue(TagW.get("RescaleSlope")); //$NON-NLS-1$
                         Double interceptVal = (Double) layer.getSourceTagValue(TagW.get("RescaleIntercept")); //$NON-NLS-1$
                         double slope = slopeVal == null ? 1.0f : slopeVal.doubleValue();
                         double intercept = interceptVal == null ? 0.0f : interceptVal.doubleValue();
-                        for (int i = 0; i < extrema[0].length; i++) {
-                            min[i] = extrema[0][i] * slope + intercept;
-                            max[i] = extrema[1][i] * slope + intercept;
-                            mean[i] = extrema[2][i] * slope + intercept;
-                            stdv[i] = extrema[3][i];
+
+                        if (releaseEvent) {
+                            double[][] extrema =
+                                ImageProcessor.meanStdDev(image.toMat(), roi, paddingValue, paddingLimit);
+
+                            if (extrema == null || extrema.length < 1 || extrema[0].length < 1) {
+                                return Collections.emptyList();
+                            }
+                            min = new Double[extrema[0].length];
+                            max = new Double[extrema[0].length];
+                            mean = new Double[extrema[0].length];
+                            stdv = new Double[extrema[0].length];
+
+                            for (int i = 0; i < extrema[0].length; i++) {
+                                min[i] = extrema[0][i] * slope + intercept;
+                                max[i] = extrema[1][i] * slope + intercept;
+                                mean[i] = extrema[2][i] * slope + intercept;
+                                stdv[i] = extrema[3][i];
+                            }
+                        } else {
+                            // While drawing, only mean and standard deviation from the integral images. Until the
+                            // integral image is built in background, the values are only computed on release.
+                            IntegralImage integral =
+                                IntegralImageCache.getInstance().get(image, paddingValue, paddingLimit);
+                            double[] stats = integral == null ? null : integral.meanStdDev(roi);
+                            if (stats != null) {
+                                mean = new Double[] { stats[0] * slope + intercept };
+                                stdv = new Double[] { stats[1] };
+                            }
                         }
                     }
 
@@ -148,6 +147,27 @@ public abstract class AbstractDragGraphicArea extends AbstractDragGraphic implem
         return Collections.emptyList();
     }
 
+    /**
+     * @param layer
+     * @return the shape in the coordinates of the source image
+     */
+    public Shape getImageShape(MeasurableLayer layer) {
+        AffineTransform transform = layer.getShapeTransform();
+        Point offset = layer.getOffset();
+        if (offset != null) {
+            if (transform == null) {
+                transform = AffineTransform.getTranslateInstance(-offset.getX(), -offset.getY());
+            } else {
+                transform.translate(-offset.getX(), -offset.getY());
+            }
+        }
+        if (transform != null) {
+            // Rescale ROI, if needed
+            return transform.createTransformedShape(shape);
+        }
+        return shape;
+    }
+
     private static void addMeasure(ArrayList<MeasureItem> measVal, Measurement measure, Double[] val, String unit) {
         if (val == null) {
             measVal.add(new MeasureItem(measure, null, unit));
@@ -0,0 +1,144 @@
+/*******************************************************************************
+ * Copyright (c) 2009-2018 Weasis Team and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ *     Nicolas Roduit - initial API and implementation
+ *******************************************************************************/
+package org.weasis.core.ui.model.layer;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+import org.weasis.core.ui.model.graphic.AbstractGraphicLabel;
+
+/**
+ * Lines of text painted with an outline (see {@link AbstractGraphicLabel#paintColorFontOutline}), which are rendered
+ * once into an image and then copied at each paint.
+ * <p>
+ * The image is rendered again when the font, the rendering hints, the line height or the sub-pixel position change.
+ * The lines are painted directly when the graphics has a scaling or a rotation (e.g. printing).
+ */
+public final class OutlinedTextBlock {
+
+    // Space for the outline of the text
+    private static final int PAD = 2;
+
+    private final List<String> lines;
+    private final boolean rightAligned;
+    private final Color color;
+
+    private BufferedImage image;
+    private Font imageFont;
+    private RenderingHints imageHints;
+    private float imageLineHeight;
+    private float imageFracX;
+    private float imageFracY;
+    private int imageAscent;
+    private int imageWidth;
+
+    /**
+     * @param lines
+     *            the lines from top to bottom
+     * @param rightAligned
+     *            true to align the lines on the right
+     * @param color
+     */
+    public OutlinedTextBlock(List<String> lines, boolean rightAligned, Color color) {
+        this.lines = Collections.unmodifiableList(new ArrayList<>(lines));
+        this.rightAligned = rightAligned;
+        this.color = Objects.requireNonNull(color);
+    }
+
+    public List<String> getLines() {
+        return lines;
+    }
+
+    public int getLineCount() {
+        return lines.size();
+    }
+
+    /**
+     * @param g2
+     * @param x
+     *            the left position, or the right position when the lines are aligned on the right
+     * @param y
+     *            the baseline of the first line
+     * @param lineHeight
+     */
+    public void paint(Graphics2D g2, float x, float y, float lineHeight) {
+        if (lines.isEmpty()) {
+            return;
+        }
+        AffineTransform at = g2.getTransform();
+        if ((at.getType() & ~AffineTransform.TYPE_TRANSLATION) != 0) {
+            paintLines(g2, x, y, lineHeight);
+            return;
+        }
+
+        FontMetrics fm = g2.getFontMetrics();
+        float fracX = x - (float) Math.floor(x);
+        float fracY = y - (float) Math.floor(y);
+        if (image == null || !g2.getFont().equals(imageFont) || !g2.getRenderingHints().equals(imageHints)
+            || lineHeight != imageLineHeight || fracX != imageFracX || fracY != imageFracY) {
+            render(g2, fm, fracX, fracY, lineHeight);
+        }
+
+        int left = (int) Math.floor(x) - PAD;
+        if (rightAligned) {
+            left -= imageWidth;
+        }
+        g2.drawImage(image, left, (int) Math.floor(y) - imageAscent - PAD, null);
+    }
+
+    private void render(Graphics2D g2, FontMetrics fm, float fracX, float fracY, float lineHeight) {
+        int width = 0;
+        for (String str : lines) {
+            width = Math.max(width, fm.stringWidth(str));
+        }
+        int ascent = fm.getAscent();
+        int height = (int) Math.ceil(ascent + fm.getDescent() + (lines.size() - 1) * lineHeight) + 1;
+
+        BufferedImage img = new BufferedImage(width + 2 * PAD + 1, height + 2 * PAD, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = img.createGraphics();
+        try {
+            g.setRenderingHints(g2.getRenderingHints());
+            g.setFont(g2.getFont());
+            float x = PAD + fracX;
+            paintLines(g, rightAligned ? x + width : x, PAD + ascent + fracY, lineHeight);
+        } finally {
+            g.dispose();
+        }
+
+        this.image = img;
+        this.imageFont = g2.getFont();
+        this.imageHints = (RenderingHints) g2.getRenderingHints().clone();
+        this.imageLineHeight = lineHeight;
+        this.imageFracX = fracX;
+        this.imageFracY = fracY;
+        this.imageAscent = ascent;
+        this.imageWidth = width;
+    }
+
+    private void paintLines(Graphics2D g2, float x, float y, float lineHeight) {
+        FontMetrics fm = g2.getFontMetrics();
+        float drawY = y;
+        for (String str : lines) {
+            float drawX = rightAligned ? x - fm.stringWidth(str) : x;
+            AbstractGraphicLabel.paintColorFontOutline(g2, str, drawX, drawY, color);
+            drawY += lineHeight;
+        }
+    }
+}
@@ -23,7 +23,7 @@ import java.util.Optional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.weasis.core.api.image.AffineTransformOp;
-import org.weasis.core.api.image.CvUtil;
+import org.weasis.core.api.image.DisplayImageCache;
 import org.weasis.core.api.image.ImageOpEvent;
 import org.weasis.core.api.image.ImageOpNode;
 import org.weasis.core.api.image.OpEventListener;
@@ -34,6 +34,7 @@ import org.weasis.core.api.image.measure.MeasurementsAdapter;
 import org.weasis.core.api.image.util.ImageLayer;
 import org.weasis.core.api.image.util.Unit;
 import org.weasis.core.api.media.data.ImageElement;
+import org.weasis.core.api.media.data.MemoryGovernor;
 import org.weasis.core.api.media.data.TagW;
 import org.weasis.core.ui.editor.image.Canvas;
 import org.weasis.core.ui.model.layer.Layer;
@@ -242,7 +243,7 @@ public class RenderedImageLayer<E extends ImageElement> extends DefaultUUID impl
         }
         catch (OutOfMemoryError e) {
             LOGGER.error("Cannot draw the image", e);//$NON-NLS-1$
-            CvUtil.runGarbageCollectorAndWait(100);
+            MemoryGovernor.getInstance().handleOutOfMemory(100);
         }
         g2d.setClip(clip);
 
@@ -429,7 +430,7 @@ public class RenderedImageLayer<E extends ImageElement> extends DefaultUUID impl
     @Override
     public void updateDisplayOperations() {
         if (isEnableDispOperations()) {
-            displayImage = disOpManager.process();
+            displayImage = DisplayImageCache.getInstance().process(disOpManager);
             fireImageChanged();
         }
     }
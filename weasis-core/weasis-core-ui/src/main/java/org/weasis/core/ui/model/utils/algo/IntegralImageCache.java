@@ -0,0 +1,203 @@
+/*******************************************************************************
+ * Copyright (c) 2009-2018 Weasis Team and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ *     Nicolas Roduit - initial API and implementation
+ *******************************************************************************/
+package org.weasis.core.ui.model.utils.algo;
+
+import java.lang.ref.WeakReference;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+
+import org.opencv.core.Mat;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.weasis.core.api.media.data.MemoryGovernor;
+import org.weasis.core.api.media.data.MemoryGovernor.ManagedCache;
+import org.weasis.core.api.service.BundleTools;
+import org.weasis.core.api.util.ThreadUtil;
+import org.weasis.opencv.data.PlanarImage;
+import org.weasis.opencv.op.IntegralImage;
+
+/**
+ * Keeps the integral images of the last measured images for computing the ROI statistics while drawing. The source
+ * images are weakly referenced and the integral images are released when evicted.
+ * <p>
+ * The integral images are built in a background thread, {@link #get(PlanarImage, Integer, Integer)} never blocks the
+ * drawing. The size of the supported images can be configured with the property {@value #P_MAX_PIXELS}, by default the
+ * integral images can use a quarter of the native memory budget.
+ */
+public final class IntegralImageCache implements ManagedCache {
+    private static final Logger LOGGER = LoggerFactory.getLogger(IntegralImageCache.class);
+
+    public static final String P_MAX_PIXELS = "weasis.roi.live.max.pixels"; //$NON-NLS-1$
+
+    private static final int MAX_ENTRIES = 2;
+    // Sum and squared sum in double, and the count of the valid pixels when there is a padding value
+    private static final int BYTES_PER_PIXEL = 20;
+
+    private static final class Holder {
+        private static final IntegralImageCache INSTANCE =
+            new IntegralImageCache(BundleTools.SYSTEM_PREFERENCES.getLongProperty(P_MAX_PIXELS, getDefaultMaxPixels()));
+        static {
+            MemoryGovernor.getInstance().register(INSTANCE);
+        }
+    }
+
+    private static final class Entry {
+        private final WeakReference<PlanarImage> source;
+        private final Integer paddingValue;
+        private final Integer paddingLimit;
+        private final IntegralImage integral;
+
+        Entry(PlanarImage source, Integer paddingValue, Integer paddingLimit, IntegralImage integral) {
+            this.source = new WeakReference<>(source);
+            this.paddingValue = paddingValue;
+            this.paddingLimit = paddingLimit;
+            this.integral = integral;
+        }
+
+        boolean isStale() {
+            return source.get() == null;
+        }
+
+        boolean matches(PlanarImage image, Integer paddingValue, Integer paddingLimit) {
+            return source.get() == image && Objects.equals(this.paddingValue, paddingValue)
+                && Objects.equals(this.paddingLimit, paddingLimit);
+        }
+    }
+
+    private final long maxPixels;
+    private final LinkedList<Entry> entries = new LinkedList<>();
+    private final ExecutorService builder = ThreadUtil.buildNewSingleThreadExecutor("ROI Integral Image"); //$NON-NLS-1$
+    // Last image submitted to the builder, kept after a failure for not building it again
+    private Entry requested;
+
+    private IntegralImageCache(long maxPixels) {
+        this.maxPixels = maxPixels;
+    }
+
+    public static IntegralImageCache getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    private static long getDefaultMaxPixels() {
+        return MemoryGovernor.getInstance().getNativeBudget() / 4 / MAX_ENTRIES / BYTES_PER_PIXEL;
+    }
+
+    /**
+     * @param image
+     * @param paddingValue
+     * @param paddingLimit
+     * @return the integral image, or null if the image is not supported (multi-channel or too large) or if the integral
+     *         image is not built yet
+     */
+    public IntegralImage get(PlanarImage image, Integer paddingValue, Integer paddingLimit) {
+        if (image == null || image.channels() != 1 || (long) image.width() * image.height() > maxPixels) {
+            return null;
+        }
+        synchronized (this) {
+            removeStaleEntries();
+            for (Entry e : entries) {
+                if (e.matches(image, paddingValue, paddingLimit)) {
+                    // Move to the last position (most recently used)
+                    entries.remove(e);
+                    entries.addLast(e);
+                    return e.integral;
+                }
+            }
+            if (requested == null || !requested.matches(image, paddingValue, paddingLimit)) {
+                final Entry request = new Entry(image, paddingValue, paddingLimit, null);
+                requested = request;
+                // The source image can be released by the image cache while building
+                final Mat source = image.toMat().clone();
+                builder.execute(() -> build(request, source));
+            }
+        }
+        return null;
+    }
+
+    private void build(Entry request, Mat source) {
+        PlanarImage image = request.source.get();
+        if (image == null) {
+            source.release();
+            return;
+        }
+        IntegralImage integral;
+        try {
+            integral = new IntegralImage(source, request.paddingValue, request.paddingLimit);
+        } catch (Exception e) {
+            LOGGER.error("Cannot build integral image", e); //$NON-NLS-1$
+            return;
+        } finally {
+            source.release();
+        }
+        synchronized (this) {
+            if (requested == request) {
+                requested = null;
+            }
+            entries.addLast(new Entry(image, request.paddingValue, request.paddingLimit, integral));
+            while (entries.size() > MAX_ENTRIES) {
+                entries.removeFirst().integral.release();
+            }
+        }
+        MemoryGovernor.getInstance().checkBudget();
+    }
+
+    private void removeStaleEntries() {
+        for (Iterator<Entry> it = entries.iterator(); it.hasNext();) {
+            Entry e = it.next();
+            if (e.isStale()) {
+                e.integral.release();
+                it.remove();
+            }
+        }
+    }
+
+    @Override
+    public String getName() {
+        return "ROI integral images"; //$NON-NLS-1$
+    }
+
+    @Override
+    public int getEvictionPriority() {
+        return MemoryGovernor.LOW_PRIORITY;
+    }
+
+    @Override
+    public synchronized long getNativeMemory() {
+        long size = 0;
+        for (Entry e : entries) {
+            size += e.integral.physicalBytes();
+        }
+        return size;
+    }
+
+    @Override
+    public long getHeapMemory() {
+        return 0;
+    }
+
+    @Override
+    public synchronized int getEntryCount() {
+        return entries.size();
+    }
+
+    @Override
+    public synchronized long evict(long bytes) {
+        long freed = 0;
+        while (freed < bytes && !entries.isEmpty()) {
+            IntegralImage integral = entries.removeFirst().integral;
+            freed += integral.physicalBytes();
+            integral.release();
+        }
+        return freed;
+    }
+}
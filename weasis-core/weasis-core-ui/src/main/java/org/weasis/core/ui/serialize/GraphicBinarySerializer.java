@@ -0,0 +1,427 @@
+/*******************************************************************************
+ * Copyright (c) 2009-2018 Weasis Team and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ *     Nicolas Roduit - initial API and implementation
+ *******************************************************************************/
+package org.weasis.core.ui.serialize;
+
+import java.awt.Color;
+import java.awt.Paint;
+import java.awt.geom.Point2D;
+import java.awt.geom.Rectangle2D;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.weasis.core.ui.model.GraphicModel;
+import org.weasis.core.ui.model.ReferencedImage;
+import org.weasis.core.ui.model.ReferencedSeries;
+import org.weasis.core.ui.model.graphic.AbstractGraphic;
+import org.weasis.core.ui.model.graphic.Graphic;
+import org.weasis.core.ui.model.graphic.GraphicLabel;
+import org.weasis.core.ui.model.graphic.imp.AnnotationGraphic;
+import org.weasis.core.ui.model.graphic.imp.PixelInfoGraphic;
+import org.weasis.core.ui.model.graphic.imp.PointGraphic;
+import org.weasis.core.ui.model.graphic.imp.angle.AngleToolGraphic;
+import org.weasis.core.ui.model.graphic.imp.angle.CobbAngleToolGraphic;
+import org.weasis.core.ui.model.graphic.imp.angle.FourPointsAngleToolGraphic;
+import org.weasis.core.ui.model.graphic.imp.angle.OpenAngleToolGraphic;
+import org.weasis.core.ui.model.graphic.imp.area.EllipseGraphic;
+import org.weasis.core.ui.model.graphic.imp.area.PolygonGraphic;
+import org.weasis.core.ui.model.graphic.imp.area.RectangleGraphic;
+import org.weasis.core.ui.model.graphic.imp.area.ThreePointsCircleGraphic;
+import org.weasis.core.ui.model.graphic.imp.line.LineGraphic;
+import org.weasis.core.ui.model.graphic.imp.line.LineWithGapGraphic;
+import org.weasis.core.ui.model.graphic.imp.line.ParallelLineGraphic;
+import org.weasis.core.ui.model.graphic.imp.line.PerpendicularLineGraphic;
+import org.weasis.core.ui.model.graphic.imp.line.PolylineGraphic;
+import org.weasis.core.ui.model.imp.XmlGraphicModel;
+import org.weasis.core.ui.model.layer.GraphicLayer;
+import org.weasis.core.ui.model.layer.LayerType;
+import org.weasis.core.ui.model.layer.imp.DefaultLayer;
+import org.weasis.core.ui.model.utils.exceptions.InvalidShapeException;
+import org.weasis.core.ui.model.utils.imp.DefaultGraphicLabel;
+
+/**
+ * Compact binary form of a {@link GraphicModel}, with the same content as the XML form (see {@link XmlSerializer}).
+ * It is intended for the internal storage, the XML form remains the format for the interchange.
+ * <p>
+ * The layers are written once in a table and referenced by their index, the points are written as pairs of doubles.
+ * Only the graphic types of this bundle are supported, see {@link #isSupported(GraphicModel)}. Like in the XML form,
+ * only a paint which is a {@link Color} is kept.
+ */
+public final class GraphicBinarySerializer {
+
+    private static final int MAGIC = 0x57475250; // "WGRP"
+    private static final int VERSION = 1;
+
+    // The index of a type is written in the stream, new types must be added at the end
+    private static final List<Class<? extends AbstractGraphic>> TYPES = Collections.unmodifiableList(
+        Arrays.asList(PointGraphic.class, AngleToolGraphic.class, AnnotationGraphic.class,
+            PixelInfoGraphic.class, OpenAngleToolGraphic.class, CobbAngleToolGraphic.class, RectangleGraphic.class,
+            EllipseGraphic.class, FourPointsAngleToolGraphic.class, LineGraphic.class, LineWithGapGraphic.class,
+            PerpendicularLineGraphic.class, ParallelLineGraphic.class, PolygonGraphic.class, PolylineGraphic.class,
+            ThreePointsCircleGraphic.class));
+
+    private static final byte NULL_VALUE = -1;
+
+    private GraphicBinarySerializer() {
+    }
+
+    /**
+     * @param model
+     * @return true if all the graphics can be written in the binary form, otherwise the XML form must be used (e.g. for
+     *         the graphics provided by the plugins)
+     */
+    public static boolean isSupported(GraphicModel model) {
+        for (Graphic graphic : model.getModels()) {
+            if (!TYPES.contains(graphic.getClass())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public static byte[] toByteArray(GraphicModel model) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        write(model, out);
+        return out.toByteArray();
+    }
+
+    public static GraphicModel fromByteArray(byte[] data) throws IOException {
+        return read(new ByteArrayInputStream(data));
+    }
+
+    /**
+     * @param model
+     * @param output
+     *            the stream is flushed but not closed
+     * @throws IOException
+     *             when a graphic cannot be written, see {@link #isSupported(GraphicModel)}
+     */
+    public static void write(GraphicModel model, OutputStream output) throws IOException {
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(output));
+        out.writeInt(MAGIC);
+        out.writeByte(VERSION);
+        out.writeUTF(model.getUuid());
+
+        List<ReferencedSeries> series = model.getReferencedSeries();
+        out.writeInt(series.size());
+        for (ReferencedSeries s : series) {
+            out.writeUTF(s.getUuid());
+            List<ReferencedImage> images = s.getImages();
+            out.writeInt(images == null ? 0 : images.size());
+            if (images != null) {
+                for (ReferencedImage img : images) {
+                    out.writeUTF(img.getUuid());
+                    List<Integer> frames = img.getFrames();
+                    out.writeInt(frames == null ? 0 : frames.size());
+                    if (frames != null) {
+                        for (Integer f : frames) {
+                            out.writeInt(f);
+                        }
+                    }
+                }
+            }
+        }
+
+        List<GraphicLayer> layers = new ArrayList<>(model.getLayers());
+        out.writeInt(layers.size());
+        for (GraphicLayer layer : layers) {
+            out.writeUTF(layer.getUuid());
+            out.writeUTF(layer.getType().name());
+            writeString(out, layer.getName());
+            writeInteger(out, layer.getLevel());
+            writeBoolean(out, layer.getLocked());
+            writeBoolean(out, layer.getVisible());
+            writeBoolean(out, layer.getSelectable());
+        }
+
+        List<Graphic> graphics = new ArrayList<>(model.getModels());
+        out.writeInt(graphics.size());
+        for (Graphic graphic : graphics) {
+            int type = TYPES.indexOf(graphic.getClass());
+            if (type < 0) {
+                throw new IOException("Cannot write the graphic type " + graphic.getClass().getName()); //$NON-NLS-1$
+            }
+            out.writeByte(type);
+            writeGraphic(out, (AbstractGraphic) graphic, layers.indexOf(graphic.getLayer()));
+        }
+        out.flush();
+    }
+
+    /**
+     * @param input
+     *            the stream is not closed
+     * @return the model, the graphics without layer are removed like in {@link XmlSerializer}
+     * @throws IOException
+     *             when the stream is not a valid graphic model
+     */
+    public static GraphicModel read(InputStream input) throws IOException {
+        DataInputStream in = new DataInputStream(input);
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Not a graphic model stream"); //$NON-NLS-1$
+        }
+        int version = in.readUnsignedByte();
+        if (version != VERSION) {
+            throw new IOException("Unsupported graphic model version: " + version); //$NON-NLS-1$
+        }
+        XmlGraphicModel model = new XmlGraphicModel();
+        model.setUuid(in.readUTF());
+
+        int nbSeries = in.readInt();
+        List<ReferencedSeries> series = new ArrayList<>(nbSeries);
+        for (int i = 0; i < nbSeries; i++) {
+            String uuid = in.readUTF();
+            int nbImages = in.readInt();
+            List<ReferencedImage> images = new ArrayList<>(nbImages);
+            for (int j = 0; j < nbImages; j++) {
+                String imgUuid = in.readUTF();
+                int nbFrames = in.readInt();
+                List<Integer> frames = new ArrayList<>(nbFrames);
+                for (int k = 0; k < nbFrames; k++) {
+                    frames.add(in.readInt());
+                }
+                images.add(new ReferencedImage(imgUuid, frames));
+            }
+            series.add(new ReferencedSeries(uuid, images));
+        }
+        model.setReferencedSeries(series);
+
+        int nbLayers = in.readInt();
+        List<GraphicLayer> layers = new ArrayList<>(nbLayers);
+        for (int i = 0; i < nbLayers; i++) {
+            String uuid = in.readUTF();
+            DefaultLayer layer = new DefaultLayer(LayerType.valueOf(in.readUTF()));
+            layer.setUuid(uuid);
+            layer.setName(readString(in));
+            layer.setLevel(readInteger(in));
+            layer.setLocked(readBoolean(in));
+            layer.setVisible(readBoolean(in));
+            layer.setSelectable(readBoolean(in));
+            layers.add(layer);
+        }
+
+        int nbGraphics = in.readInt();
+        List<Graphic> graphics = new ArrayList<>(nbGraphics);
+        for (int i = 0; i < nbGraphics; i++) {
+            int type = in.readUnsignedByte();
+            if (type >= TYPES.size()) {
+                throw new IOException("Unknown graphic type: " + type); //$NON-NLS-1$
+            }
+            Graphic graphic = readGraphic(in, TYPES.get(type), layers);
+            if (graphic != null) {
+                graphics.add(graphic);
+            }
+        }
+        model.setModels(graphics);
+        // Keep all the layers in the same order
+        model.getLayers().clear();
+        model.getLayers().addAll(layers);
+        return model;
+    }
+
+    private static void writeGraphic(DataOutputStream out, AbstractGraphic graphic, int layerIndex)
+        throws IOException {
+        out.writeUTF(graphic.getUuid());
+        out.writeInt(layerIndex);
+
+        List<Point2D.Double> pts = graphic.getPts();
+        out.writeInt(pts.size());
+        for (Point2D.Double p : pts) {
+            writePoint(out, p);
+        }
+
+        Paint paint = graphic.getColorPaint();
+        out.writeBoolean(paint instanceof Color);
+        if (paint instanceof Color) {
+            out.writeInt(((Color) paint).getRGB());
+        }
+        out.writeFloat(graphic.getLineThickness());
+        writeBoolean(out, graphic.getLabelVisible());
+        writeBoolean(out, graphic.getFilled());
+        writeInteger(out, graphic.getClassID());
+
+        GraphicLabel label = graphic.getGraphicLabel();
+        out.writeBoolean(label != null);
+        if (label != null) {
+            writeStrings(out, label.getLabels());
+            writeDouble(out, label.getOffsetX());
+            writeDouble(out, label.getOffsetY());
+        }
+
+        // Specific fields, see the XML attributes and elements of the subclasses
+        if (graphic instanceof AnnotationGraphic) {
+            AnnotationGraphic g = (AnnotationGraphic) graphic;
+            writeStrings(out, g.getLabels());
+            Rectangle2D bounds = g.getLabelBounds();
+            out.writeBoolean(bounds != null);
+            if (bounds != null) {
+                out.writeDouble(bounds.getX());
+                out.writeDouble(bounds.getY());
+                out.writeDouble(bounds.getWidth());
+                out.writeDouble(bounds.getHeight());
+            }
+            writeDouble(out, g.getLabelWidth());
+            writeDouble(out, g.getLabelHeight());
+        } else if (graphic instanceof PointGraphic) {
+            writeInteger(out, ((PointGraphic) graphic).getPointSize());
+        } else if (graphic instanceof LineWithGapGraphic) {
+            LineWithGapGraphic g = (LineWithGapGraphic) graphic;
+            Point2D center = g.getCenterGap();
+            writePoint(out, center == null ? null : new Point2D.Double(center.getX(), center.getY()));
+            writeInteger(out, g.getGapSize());
+        }
+    }
+
+    private static Graphic readGraphic(DataInputStream in, Class<? extends AbstractGraphic> type,
+        List<GraphicLayer> layers) throws IOException {
+        AbstractGraphic graphic;
+        try {
+            graphic = type.getConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new IOException("Cannot build the graphic " + type.getName(), e); //$NON-NLS-1$
+        }
+        graphic.setUuid(in.readUTF());
+        int layerIndex = in.readInt();
+
+        int nbPts = in.readInt();
+        List<Point2D.Double> pts = new ArrayList<>(nbPts);
+        for (int i = 0; i < nbPts; i++) {
+            pts.add(readPoint(in));
+        }
+
+        if (in.readBoolean()) {
+            graphic.setColorPaint(new Color(in.readInt(), true));
+        }
+        graphic.setLineThickness(in.readFloat());
+        graphic.setLabelVisible(readBoolean(in));
+        graphic.setFilled(readBoolean(in));
+        graphic.setClassID(readInteger(in));
+
+        if (in.readBoolean()) {
+            DefaultGraphicLabel label = new DefaultGraphicLabel();
+            label.setLabels(readStrings(in));
+            label.setOffsetX(readDouble(in));
+            label.setOffsetY(readDouble(in));
+            graphic.setGraphicLabel(label);
+        }
+
+        if (graphic instanceof AnnotationGraphic) {
+            AnnotationGraphic g = (AnnotationGraphic) graphic;
+            g.setLabels(readStrings(in));
+            if (in.readBoolean()) {
+                g.setLabelBounds(
+                    new Rectangle2D.Double(in.readDouble(), in.readDouble(), in.readDouble(), in.readDouble()));
+            }
+            g.setLabelWidth(readDouble(in));
+            g.setLabelHeight(readDouble(in));
+        } else if (graphic instanceof PointGraphic) {
+            ((PointGraphic) graphic).setPointSize(readInteger(in));
+        } else if (graphic instanceof LineWithGapGraphic) {
+            LineWithGapGraphic g = (LineWithGapGraphic) graphic;
+            g.setCenterGap(readPoint(in));
+            g.setGapSize(readInteger(in));
+        }
+
+        if (layerIndex < 0 || layerIndex >= layers.size()) {
+            // Like in the XML form, a graphic without layer is not kept
+            return null;
+        }
+        graphic.setLayer(layers.get(layerIndex));
+        try {
+            return graphic.buildGraphic(pts);
+        } catch (InvalidShapeException e) {
+            throw new IOException("Cannot build the shape of " + graphic.getUuid(), e); //$NON-NLS-1$
+        }
+    }
+
+    private static void writePoint(DataOutputStream out, Point2D.Double p) throws IOException {
+        // NaN for a point not defined yet
+        out.writeDouble(p == null ? Double.NaN : p.x);
+        out.writeDouble(p == null ? Double.NaN : p.y);
+    }
+
+    private static Point2D.Double readPoint(DataInputStream in) throws IOException {
+        double x = in.readDouble();
+        double y = in.readDouble();
+        return Double.isNaN(x) ? null : new Point2D.Double(x, y);
+    }
+
+    private static void writeString(DataOutputStream out, String val) throws IOException {
+        out.writeBoolean(val != null);
+        if (val != null) {
+            out.writeUTF(val);
+        }
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    private static void writeStrings(DataOutputStream out, String[] val) throws IOException {
+        out.writeInt(val == null ? -1 : val.length);
+        if (val != null) {
+            for (String s : val) {
+                writeString(out, s);
+            }
+        }
+    }
+
+    private static String[] readStrings(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        String[] val = new String[length];
+        for (int i = 0; i < length; i++) {
+            val[i] = readString(in);
+        }
+        return val;
+    }
+
+    private static void writeInteger(DataOutputStream out, Integer val) throws IOException {
+        out.writeBoolean(val != null);
+        if (val != null) {
+            out.writeInt(val);
+        }
+    }
+
+    private static Integer readInteger(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readInt() : null;
+    }
+
+    private static void writeDouble(DataOutputStream out, Double val) throws IOException {
+        out.writeBoolean(val != null);
+        if (val != null) {
+            out.writeDouble(val);
+        }
+    }
+
+    private static Double readDouble(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readDouble() : null;
+    }
+
+    private static void writeBoolean(DataOutputStream out, Boolean val) throws IOException {
+        out.writeByte(val == null ? NULL_VALUE : val ? 1 : 0);
+    }
+
+    private static Boolean readBoolean(DataInputStream in) throws IOException {
+        byte val = in.readByte();
+        return val == NULL_VALUE ? null : val == 1;
+    }
+}
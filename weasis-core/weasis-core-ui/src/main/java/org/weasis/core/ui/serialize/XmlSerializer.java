@@ -14,6 +14,8 @@ import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.Reader;
 import java.io.Writer;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.xml.bind.JAXBContext;
 import javax.xml.bind.JAXBElement;
@@ -33,10 +35,31 @@ import org.weasis.core.ui.model.imp.XmlGraphicModel;
 public class XmlSerializer {
     private static final Logger LOGGER = LoggerFactory.getLogger(XmlSerializer.class);
 
+    // JAXBContext is thread-safe and expensive to build, Marshaller and Unmarshaller are not thread-safe
+    private static final Map<Class<?>, JAXBContext> CONTEXTS = new ConcurrentHashMap<>();
+
+    /**
+     * @param clazz
+     *            the root class
+     * @return the shared context of the class, built at the first call
+     * @throws JAXBException
+     */
+    public static JAXBContext getContext(Class<?> clazz) throws JAXBException {
+        JAXBContext context = CONTEXTS.get(clazz);
+        if (context == null) {
+            context = JAXBContext.newInstance(clazz);
+            JAXBContext previous = CONTEXTS.putIfAbsent(clazz, context);
+            if (previous != null) {
+                context = previous;
+            }
+        }
+        return context;
+    }
+
     public static GraphicModel readPresentationModel(File gpxFile) {
         if (gpxFile.canRead()) {
             try {
-                JAXBContext jaxbContext = JAXBContext.newInstance(XmlGraphicModel.class);
+                JAXBContext jaxbContext = getContext(XmlGraphicModel.class);
                 Unmarshaller jaxbUnmarshaller = jaxbContext.createUnmarshaller();
                 GraphicModel model = (GraphicModel) jaxbUnmarshaller.unmarshal(gpxFile);
                 int length = model.getModels().size();
@@ -58,7 +81,7 @@ public class XmlSerializer {
             File gpxFile = new File(destinationFile.getParent(), destinationFile.getName() + ".xml"); //$NON-NLS-1$
 
             try {
-                JAXBContext jaxbContext = JAXBContext.newInstance(model.getClass());
+                JAXBContext jaxbContext = getContext(model.getClass());
                 Marshaller jaxbMarshaller = jaxbContext.createMarshaller();
 
                 // output pretty printed
@@ -80,7 +103,7 @@ public class XmlSerializer {
     public static void writePresentation(GraphicModel model, Writer writer) {
         if (model != null && model.hasSerializableGraphics()) {
             try {
-                JAXBContext jaxbContext = JAXBContext.newInstance(model.getClass());
+                JAXBContext jaxbContext = getContext(model.getClass());
                 Marshaller jaxbMarshaller = jaxbContext.createMarshaller();
                 // Remove the xml header tag
                 jaxbMarshaller.setProperty(Marshaller.JAXB_FRAGMENT, Boolean.TRUE);
@@ -93,7 +116,7 @@ public class XmlSerializer {
 
     public static GraphicModel readPresentation(XMLStreamReader xmler) {
         try {
-            JAXBContext jaxbContext = JAXBContext.newInstance(XmlGraphicModel.class);
+            JAXBContext jaxbContext = getContext(XmlGraphicModel.class);
             Unmarshaller jaxbUnmarshaller = jaxbContext.createUnmarshaller();
             JAXBElement<XmlGraphicModel> unmarshalledObj =
                 jaxbUnmarshaller.unmarshal(new NoNamespaceStreamReaderDelegate(xmler), XmlGraphicModel.class);
@@ -113,7 +136,7 @@ public class XmlSerializer {
 
     @SuppressWarnings("unchecked")
     public static <T> T deserialize(Reader reader, Class<T> clazz) throws JAXBException {
-        JAXBContext context = JAXBContext.newInstance(clazz);
+        JAXBContext context = getContext(clazz);
         Unmarshaller unmarshaller = context.createUnmarshaller();
 
         return (T) unmarshaller.unmarshal(reader);
@@ -121,7 +144,7 @@ public class XmlSerializer {
 
     public static GraphicModel buildPresentationModel(byte[] gzipData) {
         try {
-            JAXBContext jaxbContext = JAXBContext.newInstance(XmlGraphicModel.class);
+            JAXBContext jaxbContext = getContext(XmlGraphicModel.class);
             Unmarshaller jaxbUnmarshaller = jaxbContext.createUnmarshaller();
             ByteArrayInputStream inputStream = new ByteArrayInputStream(GzipManager.gzipUncompressToByte(gzipData));
             GraphicModel model = (GraphicModel) jaxbUnmarshaller.unmarshal(inputStream);
@@ -0,0 +1,84 @@
+/*******************************************************************************
+ * Copyright (c) 2009-2018 Weasis Team and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ *     Nicolas Roduit - initial API and implementation
+ *******************************************************************************/
+package org.weasis.core.ui.model;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.awt.Rectangle;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Point2D;
+import java.awt.geom.Rectangle2D;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Test;
+import org.weasis.core.ui.model.graphic.Graphic;
+import org.weasis.core.ui.model.graphic.imp.line.LineGraphic;
+import org.weasis.core.ui.model.imp.XmlGraphicModel;
+
+public class AbstractGraphicModelTest {
+
+    private static LineGraphic buildLine(double x1, double y1, double x2, double y2) throws Exception {
+        LineGraphic line = new LineGraphic();
+        line.buildGraphic(Arrays.asList(new Point2D.Double(x1, y1), new Point2D.Double(x2, y2)));
+        return line;
+    }
+
+    @Test
+    public void test_selection_with_transform() throws Exception {
+        XmlGraphicModel model = new XmlGraphicModel();
+        LineGraphic line = buildLine(100.0, 100.0, 120.0, 100.0);
+        LineGraphic other = buildLine(300.0, 300.0, 320.0, 300.0);
+        model.addGraphic(line);
+        model.addGraphic(other);
+
+        // Zoom x4 and pan, the line is between (410, 420) and (490, 420) in the view
+        AffineTransform transform = new AffineTransform(4.0, 0.0, 0.0, 4.0, 10.0, 20.0);
+
+        // Like the bounds of the selection graphic, the rectangle is in the image coordinates
+        assertThat(model.getSelectedAllGraphicsIntersecting(new Rectangle(95, 95, 30, 10), transform))
+            .containsExactly(line);
+        assertThat(model.getSelectedAllGraphicsIntersecting(new Rectangle(95, 95, 30, 10), transform, false))
+            .containsExactly(line);
+        // Around the line in the view coordinates
+        assertThat(model.getSelectedAllGraphicsIntersecting(new Rectangle(400, 410, 100, 20), transform)).isEmpty();
+    }
+
+    @Test
+    public void test_selection_without_transform() throws Exception {
+        XmlGraphicModel model = new XmlGraphicModel();
+        LineGraphic line = buildLine(100.0, 100.0, 120.0, 100.0);
+        model.addGraphic(line);
+
+        // Not indexed, all the graphics are checked
+        assertThat(model.getSelectedAllGraphicsIntersecting(new Rectangle(95, 95, 30, 10), null))
+            .containsExactly(line);
+        assertThat(model.getSelectedAllGraphicsIntersecting(new Rectangle(400, 410, 100, 20), null)).isEmpty();
+    }
+
+    @Test
+    public void test_index_graphic_without_shape() throws Exception {
+        LineGraphic line = buildLine(100.0, 100.0, 120.0, 100.0);
+        // Not completed, the shape is null
+        LineGraphic incomplete = new LineGraphic();
+        GraphicIndex index = new GraphicIndex();
+        index.update(Arrays.<Graphic> asList(line, incomplete));
+
+        AffineTransform transform = new AffineTransform();
+        assertThat(index.getCandidates(new Rectangle2D.Double(0, 0, 10, 10), transform)).containsOnly(incomplete);
+        assertThat(index.getCandidates(new Rectangle2D.Double(90, 90, 40, 20), transform))
+            .containsOnly(line, incomplete);
+
+        // Removed graphics are pruned
+        index.update(Collections.<Graphic> singletonList(line));
+        assertThat(index.getCandidates(new Rectangle2D.Double(0, 0, 10, 10), transform)).isEmpty();
+    }
+}
@@ -0,0 +1,179 @@
+/*******************************************************************************
+ * Copyright (c) 2009-2018 Weasis Team and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ *     Nicolas Roduit - initial API and implementation
+ *******************************************************************************/
+package org.weasis.core.ui.model.utils.algo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.awt.Rectangle;
+import java.awt.Shape;
+import java.awt.geom.Area;
+import java.awt.geom.Ellipse2D;
+import java.awt.geom.FlatteningPathIterator;
+import java.awt.geom.Path2D;
+import java.awt.geom.Rectangle2D;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+import org.weasis.opencv.op.IntegralImage;
+import org.weasis.opencv.op.IntegralImage.SumTable;
+
+public class IntegralImageTest {
+
+    private static final int WIDTH = 40;
+    private static final int HEIGHT = 30;
+    private static final Rectangle CLIP = new Rectangle(0, 0, WIDTH, HEIGHT);
+
+    private static boolean[][] toMask(List<int[]> spans) {
+        boolean[][] mask = new boolean[HEIGHT][WIDTH];
+        for (int[] span : spans) {
+            for (int x = span[1]; x < span[2]; x++) {
+                assertThat(mask[span[0]][x]).isFalse();
+                mask[span[0]][x] = true;
+            }
+        }
+        return mask;
+    }
+
+    private static Shape flatten(Shape shape) {
+        // The curves are approximated by segments with the same flatness as getSpans()
+        Path2D path = new Path2D.Double(shape.getPathIterator(null).getWindingRule());
+        path.append(new FlatteningPathIterator(shape.getPathIterator(null), 0.5), false);
+        return path;
+    }
+
+    private static void assertSpansMatchPixelCenters(Shape shape) {
+        boolean[][] mask = toMask(IntegralImage.getSpans(shape, CLIP));
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int x = 0; x < WIDTH; x++) {
+                assertThat(mask[y][x]).isEqualTo(shape.contains(x + 0.5, y + 0.5));
+            }
+        }
+    }
+
+    private static SumTable table(double[][] image, int power, double shift) {
+        // Brute force summed-area table with one more row and one more column
+        final double[][] t = new double[HEIGHT + 1][WIDTH + 1];
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int x = 0; x < WIDTH; x++) {
+                double v = Double.isNaN(image[y][x]) ? 0.0 : power == 0 ? 1.0 : Math.pow(image[y][x] - shift, power);
+                t[y + 1][x + 1] = v + t[y][x + 1] + t[y + 1][x] - t[y][x];
+            }
+        }
+        return (row, col) -> t[row][col];
+    }
+
+    private static double[] bruteForce(double[][] image, Shape shape) {
+        double sum = 0;
+        int n = 0;
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int x = 0; x < WIDTH; x++) {
+                if (!Double.isNaN(image[y][x]) && shape.contains(x + 0.5, y + 0.5)) {
+                    sum += image[y][x];
+                    n++;
+                }
+            }
+        }
+        double mean = sum / n;
+        double dev = 0;
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int x = 0; x < WIDTH; x++) {
+                if (!Double.isNaN(image[y][x]) && shape.contains(x + 0.5, y + 0.5)) {
+                    dev += (image[y][x] - mean) * (image[y][x] - mean);
+                }
+            }
+        }
+        return new double[] { mean, Math.sqrt(dev / n), n };
+    }
+
+    private static double[][] image(double base, double noise, boolean padding) {
+        Random random = new Random(42);
+        double[][] image = new double[HEIGHT][WIDTH];
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int x = 0; x < WIDTH; x++) {
+                // NaN stands for a padding value excluded from the statistics
+                image[y][x] = padding && x % 7 == 0 ? Double.NaN : base + noise * random.nextGaussian();
+            }
+        }
+        return image;
+    }
+
+    private static double globalMean(double[][] image) {
+        return bruteForce(image, CLIP)[0];
+    }
+
+    @Test
+    public void test_spans() throws Exception {
+        assertSpansMatchPixelCenters(new Rectangle2D.Double(3.2, 4.7, 10.4, 8.1));
+        assertSpansMatchPixelCenters(flatten(new Ellipse2D.Double(5.3, 2.1, 25.2, 20.6)));
+
+        // Concave polygon
+        Path2D path = new Path2D.Double();
+        path.moveTo(2.1, 2.3);
+        path.lineTo(30.4, 5.2);
+        path.lineTo(12.2, 12.7);
+        path.lineTo(35.6, 27.1);
+        path.lineTo(4.3, 25.8);
+        path.closePath();
+        assertSpansMatchPixelCenters(path);
+
+        // Hole with the even-odd rule
+        Area area = new Area(new Rectangle2D.Double(2.2, 2.2, 30.1, 20.1));
+        area.subtract(new Area(new Ellipse2D.Double(8.4, 6.3, 12.2, 9.1)));
+        assertSpansMatchPixelCenters(flatten(area));
+
+        // Clipped by the image
+        assertSpansMatchPixelCenters(new Rectangle2D.Double(-5.4, 20.2, 60.1, 30.3));
+        assertThat(IntegralImage.getSpans(new Rectangle2D.Double(50.2, 2.1, 5.2, 5.3), CLIP)).isEmpty();
+    }
+
+    @Test
+    public void test_meanStdDev() throws Exception {
+        double[][] image = image(100.0, 20.0, false);
+        double shift = globalMean(image);
+        Shape shape = flatten(new Ellipse2D.Double(5.3, 2.1, 25.2, 20.6));
+        double[] stats = IntegralImage.meanStdDev(IntegralImage.getSpans(shape, CLIP), table(image, 1, shift),
+            table(image, 2, shift), null, shift);
+        double[] expected = bruteForce(image, shape);
+        assertThat(stats[0]).isBetween(expected[0] - 1e-9, expected[0] + 1e-9);
+        assertThat(stats[1]).isBetween(expected[1] - 1e-9, expected[1] + 1e-9);
+        assertThat(stats[2]).isEqualTo(expected[2]);
+
+        assertThat(IntegralImage.meanStdDev(IntegralImage.getSpans(new Rectangle(50, 2, 5, 5), CLIP),
+            table(image, 1, shift), table(image, 2, shift), null, shift)).isNull();
+    }
+
+    @Test
+    public void test_meanStdDevWithPadding() throws Exception {
+        double[][] image = image(100.0, 20.0, true);
+        double shift = globalMean(image);
+        Shape shape = new Rectangle2D.Double(3.2, 4.7, 20.4, 8.1);
+        double[] stats = IntegralImage.meanStdDev(IntegralImage.getSpans(shape, CLIP), table(image, 1, shift),
+            table(image, 2, shift), table(image, 0, shift), shift);
+        double[] expected = bruteForce(image, shape);
+        assertThat(stats[0]).isBetween(expected[0] - 1e-9, expected[0] + 1e-9);
+        assertThat(stats[1]).isBetween(expected[1] - 1e-9, expected[1] + 1e-9);
+        assertThat(stats[2]).isEqualTo(expected[2]);
+    }
+
+    @Test
+    public void test_stableVariance() throws Exception {
+        // Large values with a small deviation: sumSq/n - mean^2 would lose all the significant digits
+        double[][] image = image(1.0e8, 0.5, false);
+        double shift = globalMean(image);
+        Shape shape = new Rectangle2D.Double(0, 0, WIDTH, HEIGHT);
+        double[] stats = IntegralImage.meanStdDev(IntegralImage.getSpans(shape, CLIP), table(image, 1, shift),
+            table(image, 2, shift), null, shift);
+        double[] expected = bruteForce(image, shape);
+        assertThat(stats[0]).isBetween(expected[0] - 1e-6, expected[0] + 1e-6);
+        assertThat(stats[1]).isBetween(expected[1] - 1e-6, expected[1] + 1e-6);
+    }
+}
@@ -0,0 +1,136 @@
+/*******************************************************************************
+ * Copyright (c) 2009-2018 Weasis Team and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ *     Nicolas Roduit - initial API and implementation
+ *******************************************************************************/
+package org.weasis.core.ui.serialize;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.fail;
+
+import java.awt.Color;
+import java.awt.geom.Point2D;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+import org.junit.Test;
+import org.weasis.core.ui.model.GraphicModel;
+import org.weasis.core.ui.model.graphic.Graphic;
+import org.weasis.core.ui.model.graphic.imp.PointGraphic;
+import org.weasis.core.ui.model.graphic.imp.line.LineGraphic;
+import org.weasis.core.ui.model.graphic.imp.line.LineWithGapGraphic;
+import org.weasis.core.ui.model.imp.XmlGraphicModel;
+import org.weasis.core.ui.model.layer.GraphicLayer;
+import org.weasis.core.ui.model.layer.LayerType;
+import org.weasis.core.ui.test.utils.ModelListHelper;
+
+public class GraphicBinarySerializerTest extends ModelListHelper {
+
+    @Test
+    public void test_same_content_as_xml() throws Exception {
+        InputStream xml = getClass().getResourceAsStream("/presentation/presentation.5.xml"); //$NON-NLS-1$
+        XmlGraphicModel expected = deserialize(xml, XmlGraphicModel.class);
+
+        GraphicModel result = GraphicBinarySerializer.fromByteArray(GraphicBinarySerializer.toByteArray(expected));
+
+        assertThat(result.getUuid()).isEqualTo(expected.getUuid());
+        assertThat(result.getReferencedSeries()).hasSize(1);
+        assertThat(result.getReferencedSeries().get(0).getUuid())
+            .isEqualTo(expected.getReferencedSeries().get(0).getUuid());
+        assertThat(result.getReferencedSeries().get(0).getImages().get(0).getUuid())
+            .isEqualTo(expected.getReferencedSeries().get(0).getImages().get(0).getUuid());
+
+        assertThat(result.getLayers()).hasSize(1);
+        GraphicLayer layer = result.getLayers().get(0);
+        GraphicLayer expectedLayer = expected.getLayers().get(0);
+        assertThat(layer.getUuid()).isEqualTo(expectedLayer.getUuid());
+        assertThat(layer.getType()).isEqualTo(expectedLayer.getType());
+        assertThat(layer.getLevel()).isEqualTo(expectedLayer.getLevel());
+        assertThat(layer.getName()).isNull();
+
+        assertThat(result.getModels()).hasSize(1);
+        Graphic graphic = result.getModels().get(0);
+        Graphic expectedGraphic = expected.getModels().get(0);
+        assertThat(graphic).isInstanceOf(PointGraphic.class);
+        assertThat(graphic.getUuid()).isEqualTo(expectedGraphic.getUuid());
+        assertThat(graphic.getLayer()).isSameAs(layer);
+        assertThat(graphic.getPts()).isEqualTo(expectedGraphic.getPts());
+        assertThat(graphic.getColorPaint()).isEqualTo(expectedGraphic.getColorPaint());
+        assertThat(graphic.getLineThickness()).isEqualTo(expectedGraphic.getLineThickness());
+        assertThat(graphic.getShape()).isNotNull();
+    }
+
+    @Test
+    public void test_graphics() throws Exception {
+        XmlGraphicModel model = new XmlGraphicModel();
+        LineGraphic line = new LineGraphic();
+        line.setColorPaint(Color.GREEN);
+        line.setClassID(3);
+        line.buildGraphic(Arrays.asList(new Point2D.Double(1.0, 2.0), new Point2D.Double(10.5, 20.5)));
+        line.setLayerType(LayerType.MEASURE);
+        model.addGraphic(line);
+
+        LineWithGapGraphic gap = new LineWithGapGraphic();
+        gap.setGapSize(7);
+        gap.buildGraphic(Arrays.asList(new Point2D.Double(5.0, 5.0), new Point2D.Double(50.0, 5.0)));
+        model.addGraphic(gap);
+
+        GraphicModel result = GraphicBinarySerializer.fromByteArray(GraphicBinarySerializer.toByteArray(model));
+
+        assertThat(result.getLayers()).hasSize(2);
+        assertThat(result.getLayers().get(0).getUuid()).isEqualTo(model.getLayers().get(0).getUuid());
+        assertThat(result.getLayers().get(1).getUuid()).isEqualTo(model.getLayers().get(1).getUuid());
+        assertThat(result.getModels()).hasSize(2);
+
+        Graphic g1 = result.getModels().get(0);
+        assertThat(g1).isInstanceOf(LineGraphic.class);
+        assertThat(g1.getUuid()).isEqualTo(line.getUuid());
+        assertThat(g1.getPts()).isEqualTo(line.getPts());
+        assertThat(g1.getColorPaint()).isEqualTo(Color.GREEN);
+        assertThat(g1.getClassID()).isEqualTo(3);
+        assertThat(g1.getLayer().getType()).isEqualTo(LayerType.MEASURE);
+
+        Graphic g2 = result.getModels().get(1);
+        assertThat(g2).isInstanceOf(LineWithGapGraphic.class);
+        assertThat(((LineWithGapGraphic) g2).getGapSize()).isEqualTo(7);
+        assertThat(g2.getShape()).isNotNull();
+    }
+
+    @Test
+    public void test_unsupported_graphic() throws Exception {
+        XmlGraphicModel model = new XmlGraphicModel();
+        LineGraphic line = new LineGraphic();
+        line.buildGraphic(Arrays.asList(new Point2D.Double(1.0, 2.0), new Point2D.Double(10.5, 20.5)));
+        model.addGraphic(line);
+        assertThat(GraphicBinarySerializer.isSupported(model)).isTrue();
+
+        // A graphic provided by a plugin
+        LineGraphic custom = new LineGraphic() {
+        };
+        custom.buildGraphic(Arrays.asList(new Point2D.Double(5.0, 5.0), new Point2D.Double(50.0, 5.0)));
+        model.addGraphic(custom);
+        assertThat(GraphicBinarySerializer.isSupported(model)).isFalse();
+        try {
+            GraphicBinarySerializer.toByteArray(model);
+            fail("Must throws an exception"); //$NON-NLS-1$
+        } catch (IOException e) {
+            assertThat(e).hasMessageContaining("Cannot write the graphic type"); //$NON-NLS-1$
+        }
+    }
+
+    @Test
+    public void test_invalid_stream() {
+        try {
+            GraphicBinarySerializer.fromByteArray(new byte[] { 1, 2, 3, 4, 5 });
+            fail("Must throws an exception"); //$NON-NLS-1$
+        } catch (IOException e) {
+            assertThat(e).hasMessageContaining("Not a graphic model"); //$NON-NLS-1$
+        }
+    }
+}
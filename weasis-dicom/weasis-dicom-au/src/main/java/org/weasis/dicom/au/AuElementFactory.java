@@ -14,7 +14,9 @@ import org.weasis.dicom.codec.DicomMediaIO;
 import org.weasis.dicom.codec.DicomSpecialElement;
 import org.weasis.dicom.codec.DicomSpecialElementFactory;
 
-@org.osgi.service.component.annotations.Component(service = DicomSpecialElementFactory.class, immediate = false)
+@org.osgi.service.component.annotations.Component(service = DicomSpecialElementFactory.class, immediate = false,
+    property = { DicomSpecialElementFactory.P_MODALITIES + "=AU", //$NON-NLS-1$
+        DicomSpecialElementFactory.P_SERIES_MIMETYPE + "=" + AuElementFactory.SERIES_AU_MIMETYPE }) //$NON-NLS-1$
 public class AuElementFactory implements DicomSpecialElementFactory {
     private static final String[] modalities = { "AU" }; //$NON-NLS-1$
 
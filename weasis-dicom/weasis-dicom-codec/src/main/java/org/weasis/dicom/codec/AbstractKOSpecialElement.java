@@ -97,6 +97,8 @@ public class AbstractKOSpecialElement extends DicomSpecialElement {
     protected Map<String, Map<String, SOPInstanceReferenceAndMAC>> sopInstanceReferenceMapBySeriesUID;
     protected Map<String, Map<String, SeriesAndInstanceReference>> seriesAndInstanceReferenceMapByStudyUID;
     protected Map<String, HierachicalSOPInstanceReference> hierachicalSOPInstanceReferenceByStudyUID;
+    // Incremented when the references change, see the version of the filter
+    private volatile int referenceVersion = 0;
 
     public AbstractKOSpecialElement(DicomMediaIO mediaIO) {
         super(mediaIO);
@@ -226,6 +228,7 @@ public class AbstractKOSpecialElement extends DicomSpecialElement {
      */
     protected void updateHierachicalSOPInstanceReference() {
         init();
+        referenceVersion++;
 
         Attributes dcmItems = getMediaReader().getDicomObject();
         if (dcmItems != null) {
@@ -315,6 +318,7 @@ public class AbstractKOSpecialElement extends DicomSpecialElement {
         if (hierachicalSOPInstanceReferenceByStudyUID == null) {
             updateHierachicalSOPInstanceReference();
         }
+        referenceVersion++;
 
         // Get the SOPInstanceReferenceMap for this seriesUID
         Map<String, SOPInstanceReferenceAndMAC> sopInstanceReferenceBySOPInstanceUID =
@@ -399,6 +403,7 @@ public class AbstractKOSpecialElement extends DicomSpecialElement {
         if (hierachicalSOPInstanceReferenceByStudyUID == null) {
             updateHierachicalSOPInstanceReference();
         }
+        referenceVersion++;
 
         // Get the SeriesAndInstanceReferenceMap for this studyUID
         Map<String, SeriesAndInstanceReference> seriesAndInstanceReferenceBySeriesUID =
@@ -480,6 +485,11 @@ public class AbstractKOSpecialElement extends DicomSpecialElement {
                     sopInstanceUID, frame);
 
             }
+
+            @Override
+            public int getVersion() {
+                return referenceVersion;
+            }
         };
     }
 
@@ -23,6 +23,8 @@ import org.dcm4che3.data.VR;
 import org.dcm4che3.io.BulkDataDescriptor;
 import org.dcm4che3.util.TagUtils;
 import org.dcm4che3.util.UIDUtils;
+import org.osgi.framework.FrameworkUtil;
+import org.osgi.framework.ServiceReference;
 import org.osgi.service.cm.Configuration;
 import org.osgi.service.cm.ConfigurationAdmin;
 import org.osgi.service.component.ComponentContext;
@@ -55,6 +57,10 @@ public class DicomCodec implements Codec {
 
         @Override
         public boolean isBulkData(List<ItemPointer> itemPointer, String privateCreator, int tag, VR vr, int length) {
+            if (!itemPointer.isEmpty() && itemPointer.get(0).sequenceTag == Tag.IconImageSequence) {
+                // The icon (pixel data and palette LUTs) is decoded from the header as the thumbnail
+                return false;
+            }
             switch (TagUtils.normalizeRepeatingGroup(tag)) {
                 case Tag.PixelDataProviderURL:
                 case Tag.AudioSampleData:
@@ -197,19 +203,33 @@ public class DicomCodec implements Codec {
     }
 
     @Reference(service = DicomSpecialElementFactory.class, cardinality = ReferenceCardinality.MULTIPLE, policy = ReferencePolicy.DYNAMIC, unbind = "removeDicomSpecialElementFactory")
-    void addDicomSpecialElementFactory(DicomSpecialElementFactory factory) {
-        String name = factory.getClass().getName();
+    void addDicomSpecialElementFactory(ServiceReference<DicomSpecialElementFactory> ref) {
+        // Do not get the service here for not activating the bundle of the factory at startup
+        LazyDicomSpecialElementFactory factory =
+            new LazyDicomSpecialElementFactory(FrameworkUtil.getBundle(DicomCodec.class).getBundleContext(), ref);
+        String name = factory.getName();
         for (String modality : factory.getModalities()) {
             DicomSpecialElementFactory prev = DicomMediaIO.DCM_ELEMENT_FACTORIES.put(modality, factory);
             if (prev != null) {
-                LOGGER.warn("{} factory has been replaced by {}", prev.getClass().getName(), name); //$NON-NLS-1$
+                LOGGER.warn("{} factory has been replaced by {}", getName(prev), name); //$NON-NLS-1$
             }
             LOGGER.info("Register DicomSpecialElementFactory: {} => {}", modality, name); //$NON-NLS-1$
         }
     }
 
-    void removeDicomSpecialElementFactory(DicomSpecialElementFactory factory) {
-        String name = factory.getClass().getName();
+    void removeDicomSpecialElementFactory(ServiceReference<DicomSpecialElementFactory> ref) {
+        LazyDicomSpecialElementFactory factory = null;
+        for (DicomSpecialElementFactory f : DicomMediaIO.DCM_ELEMENT_FACTORIES.values()) {
+            if (f instanceof LazyDicomSpecialElementFactory
+                && ref.equals(((LazyDicomSpecialElementFactory) f).getReference())) {
+                factory = (LazyDicomSpecialElementFactory) f;
+                break;
+            }
+        }
+        if (factory == null) {
+            return;
+        }
+        String name = factory.getName();
         for (String modality : factory.getModalities()) {
             DicomSpecialElementFactory f = DicomMediaIO.DCM_ELEMENT_FACTORIES.get(modality);
             if (factory.equals(f)) {
@@ -217,9 +237,17 @@ public class DicomCodec implements Codec {
                 LOGGER.info("Unregister DicomSpecialElementFactory: {} => {}", modality, name); //$NON-NLS-1$
             } else {
                 LOGGER.warn("{}: Unregistering {} has no effect, {} is registered instead", modality, name, //$NON-NLS-1$
-                    f.getClass().getName());
+                    getName(f));
             }
         }
+        factory.release();
+    }
+
+    private static String getName(DicomSpecialElementFactory factory) {
+        if (factory instanceof LazyDicomSpecialElementFactory) {
+            return ((LazyDicomSpecialElementFactory) factory).getName();
+        }
+        return factory == null ? null : factory.getClass().getName();
     }
 
 }
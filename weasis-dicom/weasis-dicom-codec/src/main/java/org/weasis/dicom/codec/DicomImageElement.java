@@ -30,6 +30,7 @@ import org.weasis.core.api.image.PseudoColorOp;
 import org.weasis.core.api.image.WindowOp;
 import org.weasis.core.api.image.util.Unit;
 import org.weasis.core.api.media.data.ImageElement;
+import org.weasis.core.api.media.data.MemoryGovernor;
 import org.weasis.core.api.media.data.SoftHashMap;
 import org.weasis.core.api.media.data.TagReadable;
 import org.weasis.core.api.media.data.TagW;
@@ -39,6 +40,7 @@ import org.weasis.dicom.codec.display.WindowAndPresetsOp;
 import org.weasis.dicom.codec.geometry.GeometryOfSlice;
 import org.weasis.dicom.codec.utils.DicomImageUtils;
 import org.weasis.dicom.codec.utils.LutParameters;
+import org.weasis.dicom.codec.utils.OverlayStore;
 import org.weasis.opencv.data.ImageCV;
 import org.weasis.opencv.data.LookupTableCV;
 import org.weasis.opencv.data.PlanarImage;
@@ -51,6 +53,11 @@ public class DicomImageElement extends ImageElement {
 
     private static final SoftHashMap<LutParameters, LookupTableCV> LUT_Cache = new SoftHashMap<>();
 
+    static {
+        // Estimated as a table of 4096 entries (12 bits stored) of 16-bit values
+        MemoryGovernor.getInstance().register("Modality LUTs", MemoryGovernor.LOW_PRIORITY, LUT_Cache, 8 * 1024); //$NON-NLS-1$
+    }
+
     private volatile List<PresetWindowLevel> windowingPresetCollection = null;
     private volatile Collection<LutShape> lutShapeCollection = null;
 
@@ -773,4 +780,10 @@ public class DicomImageElement extends ImageElement {
         return null;
     }
 
+    @Override
+    public void dispose() {
+        OverlayStore.getInstance().remove(this);
+        super.dispose();
+    }
+
 }
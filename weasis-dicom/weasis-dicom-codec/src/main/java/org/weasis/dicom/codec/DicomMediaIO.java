@@ -16,12 +16,12 @@ import java.awt.image.DataBuffer;
 import java.awt.image.Raster;
 import java.awt.image.RenderedImage;
 import java.awt.image.SampleModel;
+import java.io.ByteArrayInputStream;
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.ObjectOutput;
-import java.io.ObjectOutputStream;
+import java.io.InputStream;
 import java.io.RandomAccessFile;
+import java.io.SequenceInputStream;
 import java.lang.ref.Reference;
 import java.net.URI;
 import java.net.URISyntaxException;
@@ -70,17 +70,22 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.weasis.core.api.explorer.model.DataExplorerModel;
 import org.weasis.core.api.gui.util.AppProperties;
+import org.weasis.core.api.gui.util.EdtWatchdog;
 import org.weasis.core.api.image.util.ImageFiler;
+import org.weasis.core.api.media.MimeInspector;
 import org.weasis.core.api.media.data.Codec;
 import org.weasis.core.api.media.data.FileCache;
 import org.weasis.core.api.media.data.MediaElement;
 import org.weasis.core.api.media.data.MediaSeries;
 import org.weasis.core.api.media.data.MediaSeriesGroup;
+import org.weasis.core.api.media.data.MemoryGovernor;
 import org.weasis.core.api.media.data.Series;
 import org.weasis.core.api.media.data.SimpleTagable;
 import org.weasis.core.api.media.data.SoftHashMap;
 import org.weasis.core.api.media.data.TagView;
 import org.weasis.core.api.media.data.TagW;
+import org.weasis.core.api.metrics.Metric;
+import org.weasis.core.api.metrics.MetricRegistry;
 import org.weasis.core.api.service.BundleTools;
 import org.weasis.core.api.util.FileUtil;
 import org.weasis.dicom.codec.TagD.Level;
@@ -91,6 +96,7 @@ import org.weasis.dicom.codec.display.ModalityView;
 import org.weasis.dicom.codec.geometry.ImageOrientation;
 import org.weasis.dicom.codec.utils.DicomImageUtils;
 import org.weasis.dicom.codec.utils.DicomMediaUtils;
+import org.weasis.dicom.codec.utils.OverlayStore;
 import org.weasis.dicom.codec.utils.OverlayUtils;
 import org.weasis.dicom.codec.utils.PatientComparator;
 import org.weasis.opencv.data.ImageCV;
@@ -273,6 +279,11 @@ public class DicomMediaIO extends ImageReader implements DcmMediaReader {
             }
         };
 
+    static {
+        // Heap memory only (about 20 KB by header), released by the governor when an OutOfMemoryError occurs
+        MemoryGovernor.getInstance().register("DICOM headers", MemoryGovernor.HIGH_PRIORITY, HEADER_CACHE, 20 * 1024); //$NON-NLS-1$
+    }
+
     // The above softReference HEADER_CACHE shall be used instead of the following dcmMetadata variable to get access to
     // the current DicomObject unless it's virtual and then URI doesn't exit. This case appends when the dcmMetadata is
     // created within the application and is given to the ImageReader constructor
@@ -309,6 +320,8 @@ public class DicomMediaIO extends ImageReader implements DcmMediaReader {
     private boolean skipLargePrivate = true;
     private volatile boolean readingHeader = false;
     private volatile boolean readingImage = false;
+    /** Beginning of the file already read by the caller, reused for reading the header only once. */
+    private volatile byte[] headerPrefix;
 
     private final FileCache fileCache;
 
@@ -325,6 +338,18 @@ public class DicomMediaIO extends ImageReader implements DcmMediaReader {
         this(Objects.requireNonNull(source).toURI());
     }
 
+    /**
+     * @param source
+     *            the DICOM file
+     * @param prefix
+     *            the beginning of the file already read (see {@link MimeInspector#readPrefix(File)}), it avoids reading
+     *            again these bytes when parsing the header
+     */
+    public DicomMediaIO(File source, byte[] prefix) {
+        this(source);
+        this.headerPrefix = prefix;
+    }
+
     public DicomMediaIO(Path path) throws URISyntaxException {
         this(Objects.requireNonNull(path).toUri());
     }
@@ -699,49 +724,44 @@ public class DicomMediaIO extends ImageReader implements DcmMediaReader {
         return null;
     }
 
+    @Override
+    public PlanarImage getThumbnailImage(MediaElement media, int size) throws Exception {
+        if (isReadableDicom()) {
+            // Icon Image Sequence (0088,0200), representative of the image. Only a single Item is permitted.
+            Attributes ds = getDicomObject();
+            BufferedImage icon =
+                DicomImageUtils.getIconImage(ds == null ? null : ds.getNestedDataset(Tag.IconImageSequence));
+            if (icon != null && Math.max(icon.getWidth(), icon.getHeight()) >= size) {
+                return ImageConversion.toMat(icon);
+            }
+        }
+        return null;
+    }
+
     protected PlanarImage getImageFragment(MediaElement media, int frame) throws Exception {
         if (isReadableDicom()) {
             if (frame >= 0 && frame < numberOfFrame && hasPixel) {
                 LOGGER.debug("Start reading dicom image frame: {} sopUID: {}", //$NON-NLS-1$
                     frame, TagD.getTagValue(this, Tag.SOPInstanceUID));
 
+                long start = System.nanoTime();
                 PlanarImage img = getUncacheImage(media, frame);
+                if (img != null) {
+                    MetricRegistry.getInstance()
+                        .histogram(MetricRegistry.name("dicom.decode", tsuid), Metric.UNIT_MICROSECONDS) //$NON-NLS-1$
+                        .updateSince(start);
+                }
                 if (pmi == PhotometricInterpretation.PALETTE_COLOR) {
                     img = DicomImageUtils.getRGBImageFromPaletteColorModel(img, getDicomObject());
                 }
 
                 /*
-                 * Handle overlay in pixel data: extract the overlay, serialize it in a file and set all values to O in
-                 * the pixel data.
+                 * Handle overlay in pixel data: extract the overlay, keep it in the overlay store and set all values to
+                 * O in the pixel data.
                  */
                 Integer overlayBitMask = (Integer) getTagValue(TagW.OverlayBitMask);
                 if (overlayBitMask != null) {
-                    if (media.getTagValue(TagW.OverlayBurninDataPath) == null) {
-                        // Serialize overlay (from pixel data)
-                        Attributes ds = getDicomObject();
-                        int[] embeddedOverlayGroupOffsets = Overlays.getEmbeddedOverlayGroupOffsets(ds);
-                        if (embeddedOverlayGroupOffsets.length > 0) {
-                            FileOutputStream fileOut = null;
-                            ObjectOutput objOut = null;
-                            try {
-                                byte[][] overlayData = new byte[embeddedOverlayGroupOffsets.length][];
-                                for (int i = 0; i < embeddedOverlayGroupOffsets.length; i++) {
-                                    overlayData[i] = OverlayUtils.extractOverlay(embeddedOverlayGroupOffsets[i],
-                                        ImageConversion.toBufferedImage(img).getRaster(), ds);
-                                }
-                                File file = File.createTempFile("ovly_", "", AppProperties.FILE_CACHE_DIR); //$NON-NLS-1$ //$NON-NLS-2$
-                                fileOut = new FileOutputStream(file);
-                                objOut = new ObjectOutputStream(fileOut);
-                                objOut.writeObject(overlayData);
-                                media.setTag(TagW.OverlayBurninDataPath, file.getPath());
-                            } catch (Exception e) {
-                                LOGGER.error("Cannot serialize overlay", e); //$NON-NLS-1$
-                            } finally {
-                                FileUtil.safeClose(objOut);
-                                FileUtil.safeClose(fileOut);
-                            }
-                        }
-                    }
+                    extractEmbeddedOverlays(media, img);
                     // Set to 0 all bits outside bitStored
                     img = ImageProcessor.bitwiseAnd(img.toMat(), overlayBitMask);
                 }
@@ -851,40 +871,12 @@ public class DicomMediaIO extends ImageReader implements DcmMediaReader {
 
             // TODO should be applied for all images
             /*
-             * Handle overlay in pixel data: extract the overlay, serialize it in a file and set all values to O in the
-             * pixel data.
+             * Handle overlay in pixel data: extract the overlay, keep it in the overlay store and set all values to O in
+             * the pixel data.
              */
             Integer overlayBitMask = (Integer) getTagValue(TagW.OverlayBitMask);
             if (overlayBitMask != null) {
-                if (media.getTagValue(TagW.OverlayBurninDataPath) == null) {
-                    // Serialize overlay (from pixel data)
-                    Attributes ds = getDicomObject();
-                    int[] embeddedOverlayGroupOffsets = Overlays.getEmbeddedOverlayGroupOffsets(ds);
-
-                    // TODO remove if the output image is cache
-                    if (embeddedOverlayGroupOffsets.length > 0) {
-                        FileOutputStream fileOut = null;
-                        ObjectOutput objOut = null;
-                        try {
-                            byte[][] overlayData = new byte[embeddedOverlayGroupOffsets.length][];
-                            Raster raster = buffer.getData();
-                            for (int i = 0; i < embeddedOverlayGroupOffsets.length; i++) {
-                                overlayData[i] =
-                                    OverlayUtils.extractOverlay(embeddedOverlayGroupOffsets[i], raster, ds);
-                            }
-                            File file = File.createTempFile("ovly_", "", AppProperties.FILE_CACHE_DIR); //$NON-NLS-1$ //$NON-NLS-2$
-                            fileOut = new FileOutputStream(file);
-                            objOut = new ObjectOutputStream(fileOut);
-                            objOut.writeObject(overlayData);
-                            media.setTag(TagW.OverlayBurninDataPath, file.getPath());
-                        } catch (Exception e) {
-                            LOGGER.error("Cannot serialize overlay", e); //$NON-NLS-1$
-                        } finally {
-                            FileUtil.safeClose(objOut);
-                            FileUtil.safeClose(fileOut);
-                        }
-                    }
-                }
+                extractEmbeddedOverlays(media, img);
                 // Set to 0 all bits outside bitStored
                 img = ImageProcessor.bitwiseAnd(img.toMat(), overlayBitMask);
             }
@@ -892,6 +884,17 @@ public class DicomMediaIO extends ImageReader implements DcmMediaReader {
         return img;
     }
 
+    private void extractEmbeddedOverlays(MediaElement media, PlanarImage img) {
+        OverlayStore store = OverlayStore.getInstance();
+        if (!store.contains(media)) {
+            Attributes ds = getDicomObject();
+            int[] embeddedOverlayGroupOffsets = Overlays.getEmbeddedOverlayGroupOffsets(ds);
+            if (embeddedOverlayGroupOffsets.length > 0) {
+                store.put(media, OverlayUtils.extractOverlays(embeddedOverlayGroupOffsets, img, ds));
+            }
+        }
+    }
+
     private MediaElement getSingleImage() {
         return getSingleImage(0);
     }
@@ -1265,6 +1268,7 @@ public class DicomMediaIO extends ImageReader implements DcmMediaReader {
         iis = null;
         dis = null;
         tsuid = null;
+        headerPrefix = null;
     }
 
     private void checkIndex(int frameIndex) {
@@ -1320,8 +1324,12 @@ public class DicomMediaIO extends ImageReader implements DcmMediaReader {
             return dcmMetadata;
         }
 
+        EdtWatchdog.checkBlockingCall("DICOM header reading"); //$NON-NLS-1$
         try {
             readingHeader = true;
+            // Taken before opening the input, which resets the internal state
+            byte[] prefix = headerPrefix;
+            headerPrefix = null;
             if (iis == null) {
                 Optional<File> file = fileCache.getOriginalFile();
                 if (file.isPresent()) {
@@ -1333,8 +1341,16 @@ public class DicomMediaIO extends ImageReader implements DcmMediaReader {
                 throw new IllegalStateException("Input not set!"); //$NON-NLS-1$
             }
 
-            iis.seek(0L);
-            dis = new DicomInputStream(new ImageInputStreamAdapter(iis));
+            if (prefix == null || prefix.length == 0) {
+                iis.seek(0L);
+                dis = new DicomInputStream(new ImageInputStreamAdapter(iis));
+            } else {
+                // Continue after the bytes already read, the offsets of the bulk data remain the same
+                iis.seek(prefix.length);
+                InputStream in =
+                    new SequenceInputStream(new ByteArrayInputStream(prefix), new ImageInputStreamAdapter(iis));
+                dis = new DicomInputStream(in);
+            }
             dis.setIncludeBulkData(IncludeBulkData.URI);
             dis.setBulkDataDescriptor(DicomCodec.BULKDATA_DESCRIPTOR);
             // avoid a copy of pixeldata into temporary file
@@ -11,10 +11,12 @@
 package org.weasis.dicom.codec;
 
 import java.awt.image.RenderedImage;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
-import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.dcm4che3.data.Tag;
 import org.slf4j.Logger;
@@ -22,10 +24,11 @@ import org.slf4j.LoggerFactory;
 import org.weasis.core.api.explorer.ObservableEvent;
 import org.weasis.core.api.explorer.model.DataExplorerModel;
 import org.weasis.core.api.gui.util.Filter;
-import org.weasis.core.api.gui.util.MathUtil;
 import org.weasis.core.api.image.CvUtil;
+import org.weasis.core.api.media.data.MemoryGovernor;
 import org.weasis.core.api.media.data.Series;
 import org.weasis.core.api.media.data.SeriesEvent;
+import org.weasis.core.api.media.data.SlicePositionIndex;
 import org.weasis.core.api.media.data.TagView;
 import org.weasis.core.api.media.data.TagW;
 import org.weasis.core.api.util.FileUtil;
@@ -40,6 +43,18 @@ public class DicomSeries extends Series<DicomImageElement> {
 
     private static volatile PreloadingTask preloadingTask;
 
+    // Slice location indexes by filter, filter version and sort order, cleared when the series changes
+    private final Map<List<Object>, SlicePositionIndex<DicomImageElement>> sliceIndexes =
+        new LinkedHashMap<List<Object>, SlicePositionIndex<DicomImageElement>>(8, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<List<Object>, SlicePositionIndex<DicomImageElement>> eldest) {
+                return size() > 6;
+            }
+        };
+    private int indexVersion = 0;
+
     public DicomSeries(String subseriesInstanceUID) {
         this(subseriesInstanceUID, null, defaultTagView);
     }
@@ -81,8 +96,9 @@ public class DicomSeries extends Series<DicomImageElement> {
             }
             DataExplorerModel model = (DataExplorerModel) getTagValue(TagW.ExplorerModel);
             if (model != null) {
-                model.firePropertyChange(new ObservableEvent(ObservableEvent.BasicAction.ADD, model, null,
-                    new SeriesEvent(SeriesEvent.Action.ADD_IMAGE, this, media)));
+                SeriesEvent event = new SeriesEvent(SeriesEvent.Action.ADD_IMAGE, this, media);
+                model.fireCoalescedPropertyChange(event.getMergeKey(),
+                    new ObservableEvent(ObservableEvent.BasicAction.ADD, model, null, event));
             }
         }
     }
@@ -133,62 +149,69 @@ public class DicomSeries extends Series<DicomImageElement> {
     }
 
     @Override
-    public DicomImageElement getNearestImage(double location, int offset, Filter<DicomImageElement> filter,
+    protected void resetSortedMediasMap() {
+        super.resetSortedMediasMap();
+        resetSliceIndexes();
+    }
+
+    @Override
+    protected void insertInSortedMedias(List<? extends DicomImageElement> added) {
+        super.insertInSortedMedias(added);
+        resetSliceIndexes();
+    }
+
+    private void resetSliceIndexes() {
+        synchronized (sliceIndexes) {
+            indexVersion++;
+            sliceIndexes.clear();
+        }
+    }
+
+    /**
+     * @param filter
+     * @param sort
+     * @return the index of the slice locations for the sorted and filtered list of images, built once until the
+     *         series changes
+     */
+    public SlicePositionIndex<DicomImageElement> getSlicePositionIndex(Filter<DicomImageElement> filter,
         Comparator<DicomImageElement> sort) {
+        List<Object> key = Arrays.asList(filter, sort, filter == null ? 0 : filter.getVersion());
+        int version;
+        synchronized (sliceIndexes) {
+            SlicePositionIndex<DicomImageElement> index = sliceIndexes.get(key);
+            if (index != null) {
+                return index;
+            }
+            version = indexVersion;
+        }
+        SlicePositionIndex<DicomImageElement> index;
         Iterable<DicomImageElement> mediaList = getMedias(filter, sort);
-        DicomImageElement nearest = null;
-        int index = 0;
-        int bestIndex = -1;
         synchronized (this) {
-            double bestDiff = Double.MAX_VALUE;
-            for (Iterator<DicomImageElement> iter = mediaList.iterator(); iter.hasNext();) {
-                DicomImageElement dcm = iter.next();
-                double[] val = (double[]) dcm.getTagValue(TagW.SlicePosition);
-                if (val != null) {
-                    double diff = Math.abs(location - (val[0] + val[1] + val[2]));
-                    if (diff < bestDiff) {
-                        bestDiff = diff;
-                        nearest = dcm;
-                        bestIndex = index;
-                        if (MathUtil.isEqualToZero(diff)) {
-                            break;
-                        }
-                    }
-                }
-                index++;
+            index = new SlicePositionIndex<>(mediaList);
+        }
+        synchronized (sliceIndexes) {
+            // Do not keep an index built while the series was changing
+            if (version == indexVersion) {
+                sliceIndexes.put(key, index);
             }
         }
+        return index;
+    }
+
+    @Override
+    public DicomImageElement getNearestImage(double location, int offset, Filter<DicomImageElement> filter,
+        Comparator<DicomImageElement> sort) {
+        SlicePositionIndex<DicomImageElement> index = getSlicePositionIndex(filter, sort);
         if (offset > 0) {
-            return getMedia(bestIndex + offset, filter, sort);
+            return getMedia(index.getNearestIndex(location) + offset, filter, sort);
         }
-        return nearest;
+        return index.getNearestMedia(location);
     }
 
     @Override
     public int getNearestImageIndex(double location, int offset, Filter<DicomImageElement> filter,
         Comparator<DicomImageElement> sort) {
-        Iterable<DicomImageElement> mediaList = getMedias(filter, sort);
-        int index = 0;
-        int bestIndex = -1;
-        synchronized (this) {
-            double bestDiff = Double.MAX_VALUE;
-            for (Iterator<DicomImageElement> iter = mediaList.iterator(); iter.hasNext();) {
-                DicomImageElement dcm = iter.next();
-                double[] val = (double[]) dcm.getTagValue(TagW.SlicePosition);
-                if (val != null) {
-                    double diff = Math.abs(location - (val[0] + val[1] + val[2]));
-                    if (diff < bestDiff) {
-                        bestDiff = diff;
-                        bestIndex = index;
-                        if (MathUtil.isEqualToZero(diff)) {
-                            break;
-                        }
-                    }
-                }
-                index++;
-            }
-        }
-
+        int bestIndex = getSlicePositionIndex(filter, sort).getNearestIndex(location);
         return (offset > 0) ? (bestIndex + offset) : bestIndex;
     }
 
@@ -268,7 +291,7 @@ public class DicomSeries extends Series<DicomImageElement> {
                         img.getImage();
                     } catch (OutOfMemoryError e) {
                         LOGGER.error("Out of memory when loading image: {}", img, e); //$NON-NLS-1$
-                        CvUtil.runGarbageCollectorAndWait(50);
+                        MemoryGovernor.getInstance().handleOutOfMemory(50);
                         return;
                     }
                     long stop = System.currentTimeMillis();
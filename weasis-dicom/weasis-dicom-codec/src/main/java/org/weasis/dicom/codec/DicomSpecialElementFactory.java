@@ -12,6 +12,13 @@ package org.weasis.dicom.codec;
 
 public interface DicomSpecialElementFactory {
 
+    /**
+     * Service properties of the modalities and the series MIME type. When both are declared, the factory is only
+     * activated when the first element is built.
+     */
+    String P_MODALITIES = "weasis.modalities"; //$NON-NLS-1$
+    String P_SERIES_MIMETYPE = "weasis.series.mimetype"; //$NON-NLS-1$
+
     String getSeriesMimeType();
 
     String[] getModalities();
@@ -0,0 +1,99 @@
+/*******************************************************************************
+ * Copyright (c) 2009-2018 Weasis Team and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ *     Nicolas Roduit - initial API and implementation
+ *******************************************************************************/
+package org.weasis.dicom.codec;
+
+import org.osgi.framework.BundleContext;
+import org.osgi.framework.ServiceReference;
+import org.osgi.service.component.ComponentConstants;
+
+/**
+ * Factory registered from the service properties, the service (and its bundle with a lazy activation policy) is only
+ * activated when the first special element is built.
+ */
+class LazyDicomSpecialElementFactory implements DicomSpecialElementFactory {
+
+    private final BundleContext context;
+    private final ServiceReference<DicomSpecialElementFactory> reference;
+    private final String[] modalities;
+    private final String mimeType;
+    private volatile DicomSpecialElementFactory factory;
+
+    LazyDicomSpecialElementFactory(BundleContext context, ServiceReference<DicomSpecialElementFactory> reference) {
+        this.context = context;
+        this.reference = reference;
+        this.modalities = getStrings(reference.getProperty(P_MODALITIES));
+        Object mime = reference.getProperty(P_SERIES_MIMETYPE);
+        this.mimeType = mime == null ? null : mime.toString();
+        if (modalities == null || mimeType == null) {
+            // The service properties are not declared, get the service immediately
+            getFactory();
+        }
+    }
+
+    private static String[] getStrings(Object val) {
+        if (val instanceof String[]) {
+            return (String[]) val;
+        } else if (val instanceof String) {
+            return new String[] { (String) val };
+        }
+        return null;
+    }
+
+    ServiceReference<DicomSpecialElementFactory> getReference() {
+        return reference;
+    }
+
+    String getName() {
+        Object name = reference.getProperty(ComponentConstants.COMPONENT_NAME);
+        return name == null ? String.valueOf(reference) : name.toString();
+    }
+
+    private DicomSpecialElementFactory getFactory() {
+        DicomSpecialElementFactory f = factory;
+        if (f == null) {
+            synchronized (this) {
+                f = factory;
+                if (f == null) {
+                    f = context.getService(reference);
+                    if (f == null) {
+                        throw new IllegalStateException("Service not available: " + getName()); //$NON-NLS-1$
+                    }
+                    factory = f;
+                }
+            }
+        }
+        return f;
+    }
+
+    void release() {
+        synchronized (this) {
+            if (factory != null) {
+                factory = null;
+                context.ungetService(reference);
+            }
+        }
+    }
+
+    @Override
+    public String getSeriesMimeType() {
+        return mimeType == null ? getFactory().getSeriesMimeType() : mimeType;
+    }
+
+    @Override
+    public String[] getModalities() {
+        return modalities == null ? getFactory().getModalities() : modalities;
+    }
+
+    @Override
+    public DicomSpecialElement buildDicomSpecialElement(DicomMediaIO mediaIO) {
+        return getFactory().buildDicomSpecialElement(mediaIO);
+    }
+}
@@ -14,38 +14,32 @@ import java.time.LocalTime;
 
 import org.dcm4che3.data.Tag;
 import org.weasis.core.api.media.data.SeriesComparator;
+import org.weasis.core.api.media.data.SortKeyComparator;
 import org.weasis.core.api.media.data.TagW;
 
 public final class SortSeriesStack {
 
     // Comparator cannot be a generic list of DicomOpImage because the Collection to sort has an AbstractImage type
-    public static final SeriesComparator<DicomImageElement> instanceNumber = new SeriesComparator<DicomImageElement>() {
+    public static final SeriesComparator<DicomImageElement> instanceNumber =
+        new SortKeyComparator<DicomImageElement>() {
 
-        @Override
-        public int compare(DicomImageElement m1, DicomImageElement m2) {
-            Integer val1 = TagD.getTagValue(m1, Tag.InstanceNumber, Integer.class);
-            Integer val2 = TagD.getTagValue(m2, Tag.InstanceNumber, Integer.class);
-            if (val1 == null || val2 == null) {
-                return 0;
+            @Override
+            protected double extractSortKey(DicomImageElement media) {
+                Integer val = TagD.getTagValue(media, Tag.InstanceNumber, Integer.class);
+                return val == null ? Double.NaN : val;
             }
-            return val1.compareTo(val2);
-        }
 
-        @Override
-        public String toString() {
-            return Messages.getString("SortSeriesStack.inst"); //$NON-NLS-1$
-        }
-    };
-    public static final SeriesComparator<DicomImageElement> slicePosition = new SeriesComparator<DicomImageElement>() {
+            @Override
+            public String toString() {
+                return Messages.getString("SortSeriesStack.inst"); //$NON-NLS-1$
+            }
+        };
+    public static final SeriesComparator<DicomImageElement> slicePosition = new SortKeyComparator<DicomImageElement>() {
 
         @Override
-        public int compare(DicomImageElement m1, DicomImageElement m2) {
-            double[] val1 = (double[]) m1.getTagValue(TagW.SlicePosition);
-            double[] val2 = (double[]) m2.getTagValue(TagW.SlicePosition);
-            if (val1 == null || val2 == null) {
-                return 0;
-            }
-            return Double.compare(val1[0] + val1[1] + val1[2], val2[0] + val2[1] + val2[2]);
+        protected double extractSortKey(DicomImageElement media) {
+            double[] val = (double[]) media.getTagValue(TagW.SlicePosition);
+            return val == null ? Double.NaN : val[0] + val[1] + val[2];
         }
 
         @Override
@@ -54,16 +48,12 @@ public final class SortSeriesStack {
         }
     };
 
-    public static final SeriesComparator<DicomImageElement> sliceLocation = new SeriesComparator<DicomImageElement>() {
+    public static final SeriesComparator<DicomImageElement> sliceLocation = new SortKeyComparator<DicomImageElement>() {
 
         @Override
-        public int compare(DicomImageElement m1, DicomImageElement m2) {
-            Double val1 = TagD.getTagValue(m1, Tag.SliceLocation, Double.class);
-            Double val2 = TagD.getTagValue(m2, Tag.SliceLocation, Double.class);
-            if (val1 == null || val2 == null) {
-                return 0;
-            }
-            return val1.compareTo(val2);
+        protected double extractSortKey(DicomImageElement media) {
+            Double val = TagD.getTagValue(media, Tag.SliceLocation, Double.class);
+            return val == null ? Double.NaN : val;
         }
 
         @Override
@@ -73,16 +63,12 @@ public final class SortSeriesStack {
     };
 
     public static final SeriesComparator<DicomImageElement> acquisitionTime =
-        new SeriesComparator<DicomImageElement>() {
+        new SortKeyComparator<DicomImageElement>() {
 
             @Override
-            public int compare(DicomImageElement m1, DicomImageElement m2) {
-                LocalTime val1 = TagD.getTagValue(m1, Tag.AcquisitionTime, LocalTime.class);
-                LocalTime val2 = TagD.getTagValue(m2, Tag.AcquisitionTime, LocalTime.class);
-                if (val1 == null || val2 == null) {
-                    return 0;
-                }
-                return val1.compareTo(val2);
+            protected double extractSortKey(DicomImageElement media) {
+                LocalTime val = TagD.getTagValue(media, Tag.AcquisitionTime, LocalTime.class);
+                return val == null ? Double.NaN : val.toNanoOfDay();
             }
 
             @Override
@@ -90,16 +76,12 @@ public final class SortSeriesStack {
                 return Messages.getString("SortSeriesStack.time"); //$NON-NLS-1$
             }
         };
-    public static final SeriesComparator<DicomImageElement> contentTime = new SeriesComparator<DicomImageElement>() {
+    public static final SeriesComparator<DicomImageElement> contentTime = new SortKeyComparator<DicomImageElement>() {
 
         @Override
-        public int compare(DicomImageElement m1, DicomImageElement m2) {
-            LocalTime val1 = TagD.getTagValue(m1, Tag.ContentTime, LocalTime.class);
-            LocalTime val2 = TagD.getTagValue(m2, Tag.ContentTime, LocalTime.class);
-            if (val1 == null || val2 == null) {
-                return 0;
-            }
-            return val1.compareTo(val2);
+        protected double extractSortKey(DicomImageElement media) {
+            LocalTime val = TagD.getTagValue(media, Tag.ContentTime, LocalTime.class);
+            return val == null ? Double.NaN : val.toNanoOfDay();
         }
 
         @Override
@@ -109,16 +91,12 @@ public final class SortSeriesStack {
     };
 
     public static final SeriesComparator<DicomImageElement> diffusionBValue =
-        new SeriesComparator<DicomImageElement>() {
+        new SortKeyComparator<DicomImageElement>() {
 
             @Override
-            public int compare(DicomImageElement m1, DicomImageElement m2) {
-                Double val1 = TagD.getTagValue(m1, Tag.DiffusionBValue, Double.class);
-                Double val2 = TagD.getTagValue(m2, Tag.DiffusionBValue, Double.class);
-                if (val1 == null || val2 == null) {
-                    return 0;
-                }
-                return val1.compareTo(val2);
+            protected double extractSortKey(DicomImageElement media) {
+                Double val = TagD.getTagValue(media, Tag.DiffusionBValue, Double.class);
+                return val == null ? Double.NaN : val;
             }
 
             @Override
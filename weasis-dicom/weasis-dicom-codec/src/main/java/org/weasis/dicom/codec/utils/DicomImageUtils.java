@@ -10,18 +10,25 @@
  *******************************************************************************/
 package org.weasis.dicom.codec.utils;
 
+import java.awt.Point;
+import java.awt.image.BufferedImage;
 import java.awt.image.DataBuffer;
+import java.awt.image.DataBufferByte;
+import java.awt.image.Raster;
+import java.awt.image.WritableRaster;
 import java.lang.reflect.Array;
 import java.util.Arrays;
 
 import org.dcm4che3.data.Attributes;
 import org.dcm4che3.data.Tag;
+import org.dcm4che3.image.PhotometricInterpretation;
 import org.weasis.core.api.image.LutShape;
 import org.weasis.core.api.media.data.TagReadable;
 import org.weasis.core.api.media.data.TagW;
 import org.weasis.dicom.codec.TagD;
 import org.weasis.opencv.data.LookupTableCV;
 import org.weasis.opencv.data.PlanarImage;
+import org.weasis.opencv.op.ImageConversion;
 import org.weasis.opencv.op.ImageProcessor;
 
 /**
@@ -35,6 +42,72 @@ public class DicomImageUtils {
     private DicomImageUtils() {
     }
 
+    /**
+     * Builds the image of an item of the Icon Image Sequence (0088,0200). Only uncompressed icons with 8 bits per
+     * sample are supported (MONOCHROME1, MONOCHROME2, PALETTE COLOR and RGB).
+     *
+     * @see <a href="http://dicom.nema.org/medical/dicom/current/output/chtml/part03/sect_F.7.html">F.7 Icon Image Key
+     *      Definition</a>
+     *
+     * @param iconItem
+     * @return the displayable image (gray or RGB) or null when the icon is not supported
+     */
+    public static BufferedImage getIconImage(Attributes iconItem) {
+        if (iconItem == null) {
+            return null;
+        }
+        int width = iconItem.getInt(Tag.Columns, 0);
+        int height = iconItem.getInt(Tag.Rows, 0);
+        int samples = iconItem.getInt(Tag.SamplesPerPixel, 1);
+        Object value = iconItem.getValue(Tag.PixelData);
+        if (width == 0 || height == 0 || iconItem.getInt(Tag.BitsAllocated, 8) != 8 || !(value instanceof byte[])) {
+            return null;
+        }
+        byte[] pixelData = (byte[]) value;
+        int length = width * height;
+        if (pixelData.length < length * samples) {
+            return null;
+        }
+        PhotometricInterpretation pmi =
+            PhotometricInterpretation.fromString(iconItem.getString(Tag.PhotometricInterpretation, "MONOCHROME2")); //$NON-NLS-1$
+
+        if (samples == 3 && pmi == PhotometricInterpretation.RGB) {
+            boolean planar = iconItem.getInt(Tag.PlanarConfiguration, 0) == 1;
+            BufferedImage img = new BufferedImage(width, height, BufferedImage.TYPE_3BYTE_BGR);
+            byte[] dst = ((DataBufferByte) img.getRaster().getDataBuffer()).getData();
+            for (int i = 0; i < length; i++) {
+                int r = planar ? i : i * 3;
+                int g = planar ? length + i : i * 3 + 1;
+                int b = planar ? 2 * length + i : i * 3 + 2;
+                dst[i * 3] = pixelData[b];
+                dst[i * 3 + 1] = pixelData[g];
+                dst[i * 3 + 2] = pixelData[r];
+            }
+            return img;
+        } else if (samples == 1) {
+            if (pmi == PhotometricInterpretation.PALETTE_COLOR) {
+                WritableRaster raster =
+                    Raster.createInterleavedRaster(DataBuffer.TYPE_BYTE, width, height, 1, new Point(0, 0));
+                raster.setDataElements(0, 0, width, height, Arrays.copyOf(pixelData, length));
+                BufferedImage img =
+                    new BufferedImage(pmi.createColorModel(8, DataBuffer.TYPE_BYTE, iconItem), raster, false, null);
+                return ImageConversion.convertTo(img, BufferedImage.TYPE_3BYTE_BGR);
+            } else if (pmi == PhotometricInterpretation.MONOCHROME1
+                || pmi == PhotometricInterpretation.MONOCHROME2) {
+                BufferedImage img = new BufferedImage(width, height, BufferedImage.TYPE_BYTE_GRAY);
+                byte[] dst = ((DataBufferByte) img.getRaster().getDataBuffer()).getData();
+                System.arraycopy(pixelData, 0, dst, 0, length);
+                if (pmi == PhotometricInterpretation.MONOCHROME1) {
+                    for (int i = 0; i < length; i++) {
+                        dst[i] = (byte) (255 - (dst[i] & 0xFF));
+                    }
+                }
+                return img;
+            }
+        }
+        return null;
+    }
+
     public static PlanarImage getRGBImageFromPaletteColorModel(PlanarImage source, Attributes ds) {
         // Convert images with PaletteColorModel to RGB model
         if (ds != null) {
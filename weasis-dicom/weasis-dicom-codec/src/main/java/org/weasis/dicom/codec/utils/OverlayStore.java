@@ -0,0 +1,315 @@
+/*******************************************************************************
+ * Copyright (c) 2009-2018 Weasis Team and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ *     Nicolas Roduit - initial API and implementation
+ *******************************************************************************/
+package org.weasis.dicom.codec.utils;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.weasis.core.api.gui.util.AppProperties;
+import org.weasis.core.api.media.data.MemoryGovernor;
+import org.weasis.core.api.media.data.MemoryGovernor.ManagedCache;
+import org.weasis.core.api.media.data.TagW;
+import org.weasis.core.api.media.data.Tagable;
+import org.weasis.core.api.util.FileUtil;
+
+/**
+ * Overlays embedded in the pixel data, stored as packed bit planes (one bit per pixel, as in OverlayData).
+ * <p>
+ * The planes are kept in memory up to a maximum size. The least recently used are then written in a file of the cache
+ * directory (the path is set in {@link TagW#OverlayBurninDataPath} of the media) and are read back when needed. The
+ * media are weakly referenced: when a media is garbage collected or removed, its planes and its file are released.
+ */
+public final class OverlayStore implements ManagedCache {
+    private static final Logger LOGGER = LoggerFactory.getLogger(OverlayStore.class);
+
+    private static class Holder {
+        static final OverlayStore INSTANCE = new OverlayStore(32L * 1024 * 1024, AppProperties.FILE_CACHE_DIR);
+        static {
+            MemoryGovernor.getInstance().register(INSTANCE);
+        }
+    }
+
+    private static final class Key extends WeakReference<Tagable> {
+        private final int hash;
+        // The planes in memory, null when they are only in the file
+        private byte[][] data;
+        // The planes written in a file, null when only in memory
+        private File file;
+
+        Key(Tagable media, ReferenceQueue<Tagable> queue) {
+            super(media, queue);
+            this.hash = System.identityHashCode(media);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Tagable media = get();
+            return media != null && media == ((Key) obj).get();
+        }
+    }
+
+    private final long maxMemory;
+    private final File spillDir;
+    // The stored key is also the value, it holds the planes and the file
+    private final Map<Key, Key> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final ReferenceQueue<Tagable> queue = new ReferenceQueue<>();
+    private long memory;
+
+    OverlayStore(long maxMemory, File spillDir) {
+        this.maxMemory = maxMemory;
+        this.spillDir = spillDir;
+    }
+
+    public static OverlayStore getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    /**
+     * @param media
+     * @return true if the overlays of the media have been already extracted
+     */
+    public synchronized boolean contains(Tagable media) {
+        expungeStaleEntries();
+        return entries.containsKey(new Key(media, null));
+    }
+
+    /**
+     * @param media
+     * @param data
+     *            the packed bit planes by overlay group, an item is null when the overlay is not in the pixel data
+     */
+    public synchronized void put(Tagable media, byte[][] data) {
+        expungeStaleEntries();
+        release(media, entries.remove(new Key(media, null)));
+        Key key = new Key(media, queue);
+        key.data = data;
+        entries.put(key, key);
+        memory += getSize(data);
+        spillEldest(maxMemory);
+    }
+
+    /**
+     * @param media
+     * @return the packed bit planes or null when the overlays have not been extracted
+     */
+    public synchronized byte[][] get(Tagable media) {
+        expungeStaleEntries();
+        Key key = entries.get(new Key(media, null));
+        if (key == null) {
+            return null;
+        }
+        if (key.data == null && key.file != null) {
+            byte[][] data = read(key.file);
+            if (data != null) {
+                key.data = data;
+                memory += getSize(data);
+                spillEldest(maxMemory);
+            }
+            return data;
+        }
+        return key.data;
+    }
+
+    /**
+     * Remove the planes of the media from the memory and delete the file.
+     *
+     * @param media
+     */
+    public synchronized void remove(Tagable media) {
+        expungeStaleEntries();
+        release(media, entries.remove(new Key(media, null)));
+    }
+
+    synchronized long getMemorySize() {
+        return memory;
+    }
+
+    @Override
+    public String getName() {
+        return "DICOM embedded overlays"; //$NON-NLS-1$
+    }
+
+    @Override
+    public int getEvictionPriority() {
+        return MemoryGovernor.LOW_PRIORITY;
+    }
+
+    @Override
+    public long getNativeMemory() {
+        // The planes are in the Java heap
+        return 0;
+    }
+
+    @Override
+    public long getHeapMemory() {
+        return getMemorySize();
+    }
+
+    @Override
+    public synchronized int getEntryCount() {
+        return entries.size();
+    }
+
+    @Override
+    public synchronized long evict(long bytes) {
+        // Heap cache: write all the planes in files, see MemoryGovernor#register(String, int, SoftHashMap)
+        expungeStaleEntries();
+        spillEldest(0);
+        return 0;
+    }
+
+    private void release(Tagable media, Key key) {
+        if (key != null) {
+            releaseKey(key);
+            if (media != null) {
+                media.setTag(TagW.OverlayBurninDataPath, null);
+            }
+            key.clear();
+        }
+    }
+
+    private void releaseKey(Key key) {
+        if (key.data != null) {
+            memory -= getSize(key.data);
+            key.data = null;
+        }
+        if (key.file != null) {
+            FileUtil.delete(key.file);
+            key.file = null;
+        }
+    }
+
+    private void expungeStaleEntries() {
+        for (Object ref; (ref = queue.poll()) != null;) {
+            Key key = (Key) ref;
+            // A cleared key is only equal to itself, the entry is found by its hash
+            if (entries.remove(key) != null) {
+                releaseKey(key);
+            }
+        }
+    }
+
+    private void spillEldest(long limit) {
+        if (memory <= limit) {
+            return;
+        }
+        // Keep at least the last one in memory, except when releasing all the memory
+        int inMemory = 0;
+        for (Key key : entries.keySet()) {
+            if (key.data != null) {
+                inMemory++;
+            }
+        }
+        int keep = limit > 0 ? 1 : 0;
+        Iterator<Key> it = entries.keySet().iterator();
+        while (memory > limit && inMemory > keep && it.hasNext()) {
+            Key key = it.next();
+            byte[][] data = key.data;
+            if (data == null) {
+                continue;
+            }
+            // The file is written once, the planes do not change
+            if (key.file != null || write(key, data)) {
+                key.data = null;
+                memory -= getSize(data);
+                inMemory--;
+            } else {
+                break;
+            }
+        }
+    }
+
+    private boolean write(Key key, byte[][] data) {
+        Tagable media = key.get();
+        if (media == null) {
+            return false;
+        }
+        try {
+            File file = File.createTempFile("ovly_", ".bin", spillDir); //$NON-NLS-1$ //$NON-NLS-2$
+            ByteBuffer buf = ByteBuffer.allocate((int) (Integer.BYTES * (data.length + 1L) + getSize(data)));
+            buf.putInt(data.length);
+            for (byte[] plane : data) {
+                if (plane == null) {
+                    buf.putInt(-1);
+                } else {
+                    buf.putInt(plane.length);
+                    buf.put(plane);
+                }
+            }
+            buf.flip();
+            try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.WRITE)) {
+                while (buf.hasRemaining()) {
+                    channel.write(buf);
+                }
+            }
+            key.file = file;
+            media.setTag(TagW.OverlayBurninDataPath, file.getPath());
+            return true;
+        } catch (IOException e) {
+            LOGGER.error("Cannot write overlay planes", e); //$NON-NLS-1$
+            return false;
+        }
+    }
+
+    private static byte[][] read(File file) {
+        // The planes are copied in the heap, a plain read is enough
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            ByteBuffer buf = ByteBuffer.allocate((int) channel.size());
+            while (buf.hasRemaining() && channel.read(buf) >= 0) {
+                // Read the whole file
+            }
+            buf.flip();
+            byte[][] data = new byte[buf.getInt()][];
+            for (int i = 0; i < data.length; i++) {
+                int length = buf.getInt();
+                if (length >= 0) {
+                    data[i] = new byte[length];
+                    buf.get(data[i]);
+                }
+            }
+            return data;
+        } catch (Exception e) {
+            LOGGER.error("Cannot read overlay planes from {}", file, e); //$NON-NLS-1$
+            return null;
+        }
+    }
+
+    private static long getSize(byte[][] data) {
+        long size = 0;
+        for (byte[] plane : data) {
+            if (plane != null) {
+                size += plane.length;
+            }
+        }
+        return size;
+    }
+}
@@ -11,34 +11,22 @@
 package org.weasis.dicom.codec.utils;
 
 import java.awt.image.BufferedImage;
-import java.awt.image.ComponentSampleModel;
-import java.awt.image.DataBuffer;
-import java.awt.image.DataBufferByte;
-import java.awt.image.DataBufferShort;
-import java.awt.image.DataBufferUShort;
 import java.awt.image.IndexColorModel;
-import java.awt.image.Raster;
 import java.awt.image.RenderedImage;
 import java.awt.image.WritableRaster;
-import java.io.FileInputStream;
 import java.io.IOException;
-import java.io.ObjectInputStream;
 import java.util.Map;
 
 import org.dcm4che3.data.Attributes;
 import org.dcm4che3.data.Tag;
 import org.dcm4che3.image.Overlays;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import org.opencv.core.CvType;
 import org.weasis.core.api.media.data.ImageElement;
-import org.weasis.core.api.media.data.TagW;
-import org.weasis.core.api.util.FileUtil;
 import org.weasis.dicom.codec.PRSpecialElement;
 import org.weasis.dicom.codec.display.OverlayOp;
+import org.weasis.opencv.data.PlanarImage;
 
 public class OverlayUtils {
-    private static final Logger LOGGER = LoggerFactory.getLogger(OverlayUtils.class);
-
     private static final byte[] icmColorValues = new byte[] { (byte) 0xFF, (byte) 0x00 };
 
     private OverlayUtils() {
@@ -61,26 +49,8 @@ public class OverlayUtils {
         BufferedImage overBi = new BufferedImage(width, height, BufferedImage.TYPE_BYTE_BINARY, icm);
         WritableRaster raster = overBi.getRaster();
 
-        // Get serialized overlay (from pixel data)
-        byte[][] data = null;
-        String filePath = (String) image.getTagValue(TagW.OverlayBurninDataPath);
-        if (filePath != null) {
-            FileInputStream fileIn = null;
-            ObjectInputStream objIn = null;
-            try {
-                fileIn = new FileInputStream(filePath);
-                objIn = new ObjectInputStream(fileIn);
-                Object o = objIn.readObject();
-                if (o instanceof byte[][]) {
-                    data = (byte[][]) o;
-                }
-            } catch (Exception e) {
-                LOGGER.error("Cannot read serialized overlay", e); //$NON-NLS-1$
-            } finally {
-                FileUtil.safeClose(objIn);
-                FileUtil.safeClose(fileIn);
-            }
-        }
+        // Get the overlays extracted from the pixel data
+        byte[][] data = OverlayStore.getInstance().get(image);
 
         int[] overlayGroupOffsets = Overlays.getActiveOverlayGroupOffsets(attributes, 0xffff);
 
@@ -126,64 +96,60 @@ public class OverlayUtils {
         return overBi;
     }
 
-    public static byte[] extractOverlay(int gg0000, Raster raster, Attributes attrs) {
-        if (attrs.getInt(Tag.OverlayBitsAllocated | gg0000, 1) == 1) {
-            return null;
+    /**
+     * Extract the overlays embedded in the pixel data in one pass over the image.
+     *
+     * @param groupOffsets
+     *            the offsets of the overlay groups
+     * @param img
+     *            the image with one channel
+     * @param attrs
+     * @return the packed bit planes by overlay group, an item is null when the overlay is not in the pixel data
+     */
+    public static byte[][] extractOverlays(int[] groupOffsets, PlanarImage img, Attributes attrs) {
+        byte[][] data = new byte[groupOffsets.length][];
+        int[] masks = new int[groupOffsets.length];
+        int[] lengths = new int[groupOffsets.length];
+        int maxLength = 0;
+        for (int i = 0; i < groupOffsets.length; i++) {
+            int gg0000 = groupOffsets[i];
+            if (attrs.getInt(Tag.OverlayBitsAllocated | gg0000, 1) != 1) {
+                int length = attrs.getInt(Tag.OverlayRows | gg0000, 0) * attrs.getInt(Tag.OverlayColumns | gg0000, 0);
+                masks[i] = 1 << attrs.getInt(Tag.OverlayBitPosition | gg0000, 0);
+                lengths[i] = length;
+                // Binary size rounded to an even length, like OverlayData
+                data[i] = new byte[(((length + 7) >>> 3) + 1) & (~1)];
+                maxLength = Math.max(maxLength, length);
+            }
         }
-
-        int ovlyRows = attrs.getInt(Tag.OverlayRows | gg0000, 0);
-        int ovlyColumns = attrs.getInt(Tag.OverlayColumns | gg0000, 0);
-        int bitPosition = attrs.getInt(Tag.OverlayBitPosition | gg0000, 0);
-
-        int mask = 1 << bitPosition;
-        int length = ovlyRows * ovlyColumns;
-
-        // Binary size = ((imageSize + 7) / 8 ) + 1 & (-2) = 32769 & (-2) = 1000000000000001 & 1111111111111111110
-        byte[] ovlyData = new byte[(((length + 7) >>> 3) + 1) & (~1)];
-        extractFromPixeldata(raster, mask, ovlyData, 0, length);
-        return ovlyData;
-    }
-
-    public static void extractFromPixeldata(Raster raster, int mask, byte[] ovlyData, int off, int length) {
-        ComponentSampleModel sm = (ComponentSampleModel) raster.getSampleModel();
-        int columns = raster.getWidth();
-        int stride = sm.getScanlineStride();
-        DataBuffer db = raster.getDataBuffer();
-        switch (db.getDataType()) {
-            case DataBuffer.TYPE_BYTE:
-                extractFromPixeldata(((DataBufferByte) db).getData(), columns, stride, mask, ovlyData, off, length);
-                break;
-            case DataBuffer.TYPE_USHORT:
-                extractFromPixeldata(((DataBufferUShort) db).getData(), columns, stride, mask, ovlyData, off, length);
-                break;
-            case DataBuffer.TYPE_SHORT:
-                extractFromPixeldata(((DataBufferShort) db).getData(), columns, stride, mask, ovlyData, off, length);
-                break;
-            default:
-                throw new UnsupportedOperationException("Unsupported DataBuffer type: " + db.getDataType()); //$NON-NLS-1$
+        int depth = CvType.depth(img.type());
+        // Overlay bits cannot be embedded in floating point values
+        if (maxLength == 0 || img.channels() != 1 || depth > CvType.CV_32S) {
+            return data;
         }
-    }
 
-    private static void extractFromPixeldata(byte[] pixeldata, int columns, int stride, int mask, byte[] ovlyData,
-        int off, int length) {
-        for (int y = 0, i = off, imax = off + length; y < columns && i < imax; y++) {
-            for (int j = y * stride; j < imax && i < imax; j++, i++) {
-                if ((pixeldata[j] & mask) != 0) {
-                    ovlyData[i >>> 3] |= 1 << (i & 7);
-                }
+        int width = img.width();
+        int height = img.height();
+        byte[] bytes = depth <= CvType.CV_8S ? new byte[width] : null;
+        short[] shorts = depth == CvType.CV_16U || depth == CvType.CV_16S ? new short[width] : null;
+        int[] ints = depth == CvType.CV_32S ? new int[width] : null;
+        for (int y = 0, i = 0; y < height && i < maxLength; y++) {
+            if (bytes != null) {
+                img.get(y, 0, bytes);
+            } else if (shorts != null) {
+                img.get(y, 0, shorts);
+            } else {
+                img.get(y, 0, ints);
             }
-        }
-    }
-
-    private static void extractFromPixeldata(short[] pixeldata, int columns, int stride, int mask, byte[] ovlyData,
-        int off, int length) {
-        for (int y = 0, i = off, imax = off + length; y < columns && i < imax; y++) {
-            for (int j = y * stride; j < imax && i < imax; j++, i++) {
-                if ((pixeldata[j] & mask) != 0) {
-                    ovlyData[i >>> 3] |= 1 << (i & 7);
+            for (int x = 0; x < width && i < maxLength; x++, i++) {
+                int val = bytes != null ? bytes[x] : shorts != null ? shorts[x] : ints[x];
+                for (int k = 0; k < masks.length; k++) {
+                    if ((val & masks[k]) != 0 && i < lengths[k]) {
+                        data[k][i >>> 3] |= 1 << (i & 7);
+                    }
                 }
             }
         }
+        return data;
     }
-
 }
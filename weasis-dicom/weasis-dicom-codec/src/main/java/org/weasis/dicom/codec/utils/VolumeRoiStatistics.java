@@ -0,0 +1,527 @@
+/*******************************************************************************
+ * Copyright (c) 2009-2018 Weasis Team and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ *     Nicolas Roduit - initial API and implementation
+ *******************************************************************************/
+package org.weasis.dicom.codec.utils;
+
+import java.awt.Rectangle;
+import java.awt.Shape;
+import java.awt.geom.FlatteningPathIterator;
+import java.awt.geom.Path2D;
+import java.awt.geom.PathIterator;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
+import java.util.function.IntFunction;
+
+import javax.vecmath.Point3d;
+import javax.vecmath.Vector3d;
+
+import org.dcm4che3.data.Tag;
+import org.opencv.core.CvType;
+import org.opencv.core.Mat;
+import org.opencv.core.Rect;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.weasis.core.api.image.util.Unit;
+import org.weasis.core.api.util.ThreadUtil;
+import org.weasis.dicom.codec.DicomImageElement;
+import org.weasis.dicom.codec.TagD;
+import org.weasis.dicom.codec.geometry.GeometryOfSlice;
+import org.weasis.opencv.data.PlanarImage;
+import org.weasis.opencv.op.IntegralImage;
+
+/**
+ * Statistics of a region of interest over a range of slices (voxel count, volume, mean, standard deviation and
+ * histogram of the modality values).
+ * <p>
+ * The contour of each slice is given by a function, see {@link #propagate(Shape)} and
+ * {@link #interpolate(NavigableMap)}. The slices are decoded one at a time by the image loader, the extraction of the
+ * values and the histogram of a slice run in a pool of threads while the next slice is decoded. Each image is removed
+ * from the cache after its processing when it was not already in the cache, so the whole stack is never held in memory.
+ */
+public class VolumeRoiStatistics {
+    private static final Logger LOGGER = LoggerFactory.getLogger(VolumeRoiStatistics.class);
+
+    private static final int NB_CONTOUR_POINTS = 128;
+
+    public static final class Result {
+        private long voxelCount;
+        private double volume;
+        private double sum;
+        private double sumSquare;
+        private double min = Double.MAX_VALUE;
+        private double max = -Double.MAX_VALUE;
+        private int nbSlices;
+        private final double binWidth;
+        private long firstBin;
+        private long[] histogram = new long[0];
+
+        Result(double binWidth) {
+            this.binWidth = binWidth;
+        }
+
+        void add(double val) {
+            voxelCount++;
+            sum += val;
+            sumSquare += val * val;
+            if (val < min) {
+                min = val;
+            }
+            if (val > max) {
+                max = val;
+            }
+            addToHistogram((long) Math.floor(val / binWidth), 1);
+        }
+
+        private void addToHistogram(long bin, long count) {
+            if (histogram.length == 0) {
+                firstBin = bin;
+                histogram = new long[1];
+            } else if (bin < firstBin) {
+                long[] h = new long[(int) (histogram.length + firstBin - bin)];
+                System.arraycopy(histogram, 0, h, (int) (firstBin - bin), histogram.length);
+                histogram = h;
+                firstBin = bin;
+            } else if (bin >= firstBin + histogram.length) {
+                long[] h = new long[(int) (bin - firstBin + 1)];
+                System.arraycopy(histogram, 0, h, 0, histogram.length);
+                histogram = h;
+            }
+            histogram[(int) (bin - firstBin)] += count;
+        }
+
+        void merge(Result r) {
+            if (r.voxelCount == 0) {
+                return;
+            }
+            voxelCount += r.voxelCount;
+            volume += r.volume;
+            sum += r.sum;
+            sumSquare += r.sumSquare;
+            min = Math.min(min, r.min);
+            max = Math.max(max, r.max);
+            nbSlices += r.nbSlices;
+            for (int i = 0; i < r.histogram.length; i++) {
+                if (r.histogram[i] > 0) {
+                    addToHistogram(r.firstBin + i, r.histogram[i]);
+                }
+            }
+        }
+
+        public long getVoxelCount() {
+            return voxelCount;
+        }
+
+        /**
+         * @return the volume in mm³ or NaN when the pixel spacing is not calibrated
+         */
+        public double getVolume() {
+            return volume;
+        }
+
+        public int getNbSlices() {
+            return nbSlices;
+        }
+
+        public double getMean() {
+            return voxelCount == 0 ? Double.NaN : sum / voxelCount;
+        }
+
+        public double getStandardDeviation() {
+            if (voxelCount == 0) {
+                return Double.NaN;
+            }
+            double mean = sum / voxelCount;
+            return Math.sqrt(Math.max(0.0, sumSquare / voxelCount - mean * mean));
+        }
+
+        public double getMin() {
+            return voxelCount == 0 ? Double.NaN : min;
+        }
+
+        public double getMax() {
+            return voxelCount == 0 ? Double.NaN : max;
+        }
+
+        public double getBinWidth() {
+            return binWidth;
+        }
+
+        /**
+         * @return the lower value of the first bin of the histogram
+         */
+        public double getHistogramStart() {
+            return firstBin * binWidth;
+        }
+
+        public long[] getHistogram() {
+            return histogram.clone();
+        }
+    }
+
+    private final List<DicomImageElement> slices;
+    private final IntFunction<Shape> contours;
+    private final double binWidth;
+    private final AtomicInteger nbProcessed = new AtomicInteger(0);
+    private volatile boolean cancelled = false;
+
+    /**
+     * @param slices
+     *            the sorted images of the series
+     * @param contours
+     *            the contour in image coordinates for a slice index, or null when there is no contour on the slice
+     * @param binWidth
+     *            the width of the histogram bins in modality units
+     */
+    public VolumeRoiStatistics(List<DicomImageElement> slices, IntFunction<Shape> contours, double binWidth) {
+        this.slices = Objects.requireNonNull(slices);
+        this.contours = Objects.requireNonNull(contours);
+        if (binWidth <= 0) {
+            throw new IllegalArgumentException("The bin width must be positive"); //$NON-NLS-1$
+        }
+        this.binWidth = binWidth;
+    }
+
+    public void cancel() {
+        cancelled = true;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Compute the statistics between the first and the last index (inclusive).
+     *
+     * @param first
+     * @param last
+     * @param nbThreads
+     *            the number of slices processed at the same time
+     * @param progress
+     *            receives the number of processed slices, can be null
+     * @return the result or null when cancelled
+     * @throws InterruptedException
+     */
+    public Result process(int first, int last, int nbThreads, IntConsumer progress) throws InterruptedException {
+        int start = Math.max(0, Math.min(first, last));
+        int end = Math.min(slices.size() - 1, Math.max(first, last));
+        double[] thickness = getSliceThickness(slices);
+
+        Result result = new Result(binWidth);
+        ExecutorService executor = ThreadUtil.buildNewFixedThreadExecutor(Math.max(1, nbThreads), "Volume ROI"); //$NON-NLS-1$
+        try {
+            List<Future<Result>> futures = new ArrayList<>();
+            for (int i = start; i <= end; i++) {
+                final int index = i;
+                futures.add(executor.submit(() -> {
+                    Result r = cancelled ? null : computeSlice(index, thickness[index]);
+                    int nb = nbProcessed.incrementAndGet();
+                    if (progress != null) {
+                        progress.accept(nb);
+                    }
+                    return r;
+                }));
+            }
+            for (Future<Result> f : futures) {
+                Result r = f.get();
+                if (r != null) {
+                    result.merge(r);
+                }
+            }
+        } catch (ExecutionException e) {
+            LOGGER.error("Volume statistics", e.getCause()); //$NON-NLS-1$
+            return null;
+        } finally {
+            executor.shutdownNow();
+        }
+        return cancelled ? null : result;
+    }
+
+    private Result computeSlice(int index, double thickness) {
+        Result r = new Result(binWidth);
+        Shape shape = contours.apply(index);
+        if (shape == null) {
+            return r;
+        }
+        DicomImageElement img = slices.get(index);
+        boolean inCache = img.isImageInCache();
+        try {
+            PlanarImage image = img.getImage(null, false);
+            if (image == null || image.channels() != 1) {
+                return r;
+            }
+            List<int[]> spans = IntegralImage.getSpans(shape, new Rectangle(0, 0, image.width(), image.height()));
+            if (spans.isEmpty()) {
+                return r;
+            }
+            Rectangle b = new Rectangle(spans.get(0)[1], spans.get(0)[0], 0, 0);
+            for (int[] s : spans) {
+                b.add(s[1], s[0]);
+                b.add(s[2], s[0] + 1);
+            }
+
+            double[] data = new double[b.width * b.height];
+            Mat roi = image.toMat().submat(new Rect(b.x, b.y, b.width, b.height));
+            Mat values = new Mat();
+            try {
+                roi.convertTo(values, CvType.CV_64F);
+                values.get(0, 0, data);
+            } finally {
+                values.release();
+                roi.release();
+            }
+
+            double slope = img.getRescaleSlope(null);
+            double intercept = img.getRescaleIntercept(null);
+            Integer paddingValue = img.getPaddingValue();
+            Integer paddingLimit = img.getPaddingLimit();
+            double padMin = paddingValue == null ? Double.NaN : paddingValue;
+            double padMax = paddingLimit == null ? padMin : paddingLimit;
+            if (padMax < padMin) {
+                double tmp = padMin;
+                padMin = padMax;
+                padMax = tmp;
+            }
+
+            for (int[] s : spans) {
+                int offset = (s[0] - b.y) * b.width - b.x;
+                for (int x = s[1]; x < s[2]; x++) {
+                    double raw = data[offset + x];
+                    // NaN comparisons are always false when there is no padding
+                    if (raw >= padMin && raw <= padMax) {
+                        continue;
+                    }
+                    r.add(raw * slope + intercept);
+                }
+            }
+            r.nbSlices = r.voxelCount > 0 ? 1 : 0;
+            r.volume = r.voxelCount * getPixelArea(img) * thickness;
+        } finally {
+            if (!inCache) {
+                img.removeImageFromCache();
+            }
+        }
+        return r;
+    }
+
+    private static double getPixelArea(DicomImageElement img) {
+        Unit unit = img.getPixelSpacingUnit();
+        if (unit == null || unit == Unit.PIXEL) {
+            return Double.NaN;
+        }
+        double[] size = img.getDisplayPixelSize();
+        double ratio = unit.getConvFactor() / Unit.MILLIMETER.getConvFactor();
+        return size[0] * ratio * size[1] * ratio;
+    }
+
+    /**
+     * The thickness of each slice is the mean distance to the adjacent slices along the normal of the plane, or the
+     * SliceThickness attribute when the geometry is not available.
+     */
+    static double[] getSliceThickness(List<DicomImageElement> slices) {
+        int size = slices.size();
+        double[] positions = new double[size];
+        double[] thickness = new double[size];
+        boolean validGeometry = true;
+        Vector3d normal = null;
+        for (int i = 0; i < size; i++) {
+            GeometryOfSlice geometry = slices.get(i).getSliceGeometry();
+            if (geometry == null) {
+                validGeometry = false;
+                break;
+            }
+            if (normal == null) {
+                normal = geometry.getNormal();
+            }
+            Point3d p = geometry.getTLHC();
+            positions[i] = p.x * normal.x + p.y * normal.y + p.z * normal.z;
+        }
+
+        for (int i = 0; i < size; i++) {
+            double val = Double.NaN;
+            if (validGeometry && size > 1) {
+                double gaps = 0;
+                int nb = 0;
+                if (i > 0) {
+                    gaps += Math.abs(positions[i] - positions[i - 1]);
+                    nb++;
+                }
+                if (i < size - 1) {
+                    gaps += Math.abs(positions[i + 1] - positions[i]);
+                    nb++;
+                }
+                val = gaps / nb;
+            }
+            if (!(val > 0)) {
+                Double t = TagD.getTagValue(slices.get(i), Tag.SliceThickness, Double.class);
+                val = t == null ? Double.NaN : t;
+            }
+            thickness[i] = val;
+        }
+        return thickness;
+    }
+
+    /**
+     * @param shape
+     * @return the same contour on every slice
+     */
+    public static IntFunction<Shape> propagate(Shape shape) {
+        Objects.requireNonNull(shape);
+        return i -> shape;
+    }
+
+    /**
+     * Build the contours by linear interpolation between the key contours. Before the first key and after the last
+     * key, the nearest key contour is propagated.
+     *
+     * @param keyContours
+     *            the contours by slice index
+     * @return the contour for a slice index
+     */
+    public static IntFunction<Shape> interpolate(NavigableMap<Integer, Shape> keyContours) {
+        if (Objects.requireNonNull(keyContours).isEmpty()) {
+            throw new IllegalArgumentException("No key contour"); //$NON-NLS-1$
+        }
+        NavigableMap<Integer, Shape> keys = new TreeMap<>(keyContours);
+        Map<Integer, double[][]> resampled = new HashMap<>();
+        return i -> {
+            Entry<Integer, Shape> low = keys.floorEntry(i);
+            Entry<Integer, Shape> high = keys.ceilingEntry(i);
+            if (low == null) {
+                return high.getValue();
+            }
+            if (high == null || low.getKey().equals(high.getKey())) {
+                return low.getValue();
+            }
+            double[][] p1;
+            double[][] p2;
+            synchronized (resampled) {
+                p1 = resampled.computeIfAbsent(low.getKey(), k -> resample(low.getValue()));
+                p2 = resampled.computeIfAbsent(high.getKey(), k -> resample(high.getValue()));
+            }
+            double t = (double) (i - low.getKey()) / (high.getKey() - low.getKey());
+            return blend(p1, alignContour(p1, p2), t);
+        };
+    }
+
+    private static Shape blend(double[][] p1, double[][] p2, double t) {
+        Path2D path = new Path2D.Double();
+        for (int k = 0; k < NB_CONTOUR_POINTS; k++) {
+            double x = p1[k][0] + t * (p2[k][0] - p1[k][0]);
+            double y = p1[k][1] + t * (p2[k][1] - p1[k][1]);
+            if (k == 0) {
+                path.moveTo(x, y);
+            } else {
+                path.lineTo(x, y);
+            }
+        }
+        path.closePath();
+        return path;
+    }
+
+    /**
+     * Resample the first sub-path of the shape with points equally spaced along the contour.
+     */
+    static double[][] resample(Shape shape) {
+        List<double[]> pts = new ArrayList<>();
+        PathIterator iterator = new FlatteningPathIterator(shape.getPathIterator(null), 0.5);
+        double[] coords = new double[6];
+        while (!iterator.isDone()) {
+            int segType = iterator.currentSegment(coords);
+            if (segType == PathIterator.SEG_MOVETO && !pts.isEmpty()) {
+                break;
+            }
+            if (segType == PathIterator.SEG_MOVETO || segType == PathIterator.SEG_LINETO) {
+                pts.add(new double[] { coords[0], coords[1] });
+            }
+            iterator.next();
+        }
+        if (pts.isEmpty()) {
+            return new double[NB_CONTOUR_POINTS][2];
+        }
+        pts.add(pts.get(0));
+
+        double[] cumul = new double[pts.size()];
+        for (int k = 1; k < pts.size(); k++) {
+            cumul[k] = cumul[k - 1] + Math.hypot(pts.get(k)[0] - pts.get(k - 1)[0], pts.get(k)[1] - pts.get(k - 1)[1]);
+        }
+        double length = cumul[cumul.length - 1];
+        double[][] result = new double[NB_CONTOUR_POINTS][2];
+        int seg = 1;
+        for (int k = 0; k < NB_CONTOUR_POINTS; k++) {
+            double d = length * k / NB_CONTOUR_POINTS;
+            while (seg < cumul.length - 1 && cumul[seg] < d) {
+                seg++;
+            }
+            double segLength = cumul[seg] - cumul[seg - 1];
+            double t = segLength == 0 ? 0 : (d - cumul[seg - 1]) / segLength;
+            double[] a = pts.get(seg - 1);
+            double[] b = pts.get(seg);
+            result[k][0] = a[0] + t * (b[0] - a[0]);
+            result[k][1] = a[1] + t * (b[1] - a[1]);
+        }
+        return result;
+    }
+
+    /**
+     * Return the second contour with the same orientation as the reference and with the starting point minimizing the
+     * distance between the corresponding points.
+     */
+    static double[][] alignContour(double[][] ref, double[][] contour) {
+        int n = contour.length;
+        double[][] c = contour;
+        if (Math.signum(signedArea(ref)) != Math.signum(signedArea(contour))) {
+            c = new double[n][];
+            for (int k = 0; k < n; k++) {
+                c[k] = contour[n - 1 - k];
+            }
+        }
+        int bestShift = 0;
+        double bestDist = Double.MAX_VALUE;
+        for (int shift = 0; shift < n; shift++) {
+            double dist = 0;
+            for (int k = 0; k < n && dist < bestDist; k++) {
+                double[] p = c[(k + shift) % n];
+                double dx = p[0] - ref[k][0];
+                double dy = p[1] - ref[k][1];
+                dist += dx * dx + dy * dy;
+            }
+            if (dist < bestDist) {
+                bestDist = dist;
+                bestShift = shift;
+            }
+        }
+        double[][] result = new double[n][];
+        for (int k = 0; k < n; k++) {
+            result[k] = c[(k + bestShift) % n];
+        }
+        return result;
+    }
+
+    private static double signedArea(double[][] pts) {
+        double area = 0;
+        for (int k = 0; k < pts.length; k++) {
+            double[] a = pts[k];
+            double[] b = pts[(k + 1) % pts.length];
+            area += a[0] * b[1] - b[0] * a[1];
+        }
+        return area / 2.0;
+    }
+}
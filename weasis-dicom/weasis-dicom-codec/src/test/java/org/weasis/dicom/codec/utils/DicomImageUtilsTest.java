@@ -0,0 +1,125 @@
+/*******************************************************************************
+ * Copyright (c) 2009-2018 Weasis Team and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ *     Nicolas Roduit - initial API and implementation
+ *******************************************************************************/
+package org.weasis.dicom.codec.utils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+
+import org.dcm4che3.data.Attributes;
+import org.dcm4che3.data.BulkData;
+import org.dcm4che3.data.Sequence;
+import org.dcm4che3.data.Tag;
+import org.dcm4che3.data.UID;
+import org.dcm4che3.data.VR;
+import org.dcm4che3.io.DicomInputStream;
+import org.dcm4che3.io.DicomInputStream.IncludeBulkData;
+import org.dcm4che3.io.DicomOutputStream;
+import org.junit.Test;
+import org.weasis.dicom.codec.DicomCodec;
+
+public class DicomImageUtilsTest {
+
+    private static Attributes iconItem(String pmi, int size) {
+        Attributes icon = new Attributes();
+        icon.setInt(Tag.SamplesPerPixel, VR.US, 1);
+        icon.setString(Tag.PhotometricInterpretation, VR.CS, pmi);
+        icon.setInt(Tag.Rows, VR.US, size);
+        icon.setInt(Tag.Columns, VR.US, size);
+        icon.setInt(Tag.BitsAllocated, VR.US, 8);
+        icon.setInt(Tag.BitsStored, VR.US, 8);
+        icon.setInt(Tag.HighBit, VR.US, 7);
+        icon.setInt(Tag.PixelRepresentation, VR.US, 0);
+        byte[] pixels = new byte[size * size];
+        for (int i = 0; i < pixels.length; i++) {
+            pixels[i] = (byte) i;
+        }
+        icon.setBytes(Tag.PixelData, VR.OB, pixels);
+        return icon;
+    }
+
+    private static void setPalette(Attributes icon) {
+        int[] desc = { 256, 0, 8 };
+        icon.setInt(Tag.RedPaletteColorLookupTableDescriptor, VR.US, desc);
+        icon.setInt(Tag.GreenPaletteColorLookupTableDescriptor, VR.US, desc);
+        icon.setInt(Tag.BluePaletteColorLookupTableDescriptor, VR.US, desc);
+        byte[] lut = new byte[512];
+        for (int i = 0; i < 256; i++) {
+            lut[2 * i] = (byte) i;
+        }
+        icon.setBytes(Tag.RedPaletteColorLookupTableData, VR.OW, lut);
+        icon.setBytes(Tag.GreenPaletteColorLookupTableData, VR.OW, new byte[512]);
+        icon.setBytes(Tag.BluePaletteColorLookupTableData, VR.OW, new byte[512]);
+    }
+
+    private static Attributes writeAndReadHeader(Attributes icon) throws Exception {
+        Attributes ds = new Attributes();
+        ds.setString(Tag.SOPClassUID, VR.UI, UID.SecondaryCaptureImageStorage);
+        ds.setString(Tag.SOPInstanceUID, VR.UI, "1.2.3.4"); //$NON-NLS-1$
+        ds.setInt(Tag.Rows, VR.US, 512);
+        ds.setInt(Tag.Columns, VR.US, 512);
+        ds.setBytes(Tag.PixelData, VR.OB, new byte[512 * 512]);
+        Sequence seq = ds.newSequence(Tag.IconImageSequence, 1);
+        seq.add(icon);
+
+        File file = File.createTempFile("icon", ".dcm"); //$NON-NLS-1$ //$NON-NLS-2$
+        try {
+            try (DicomOutputStream out = new DicomOutputStream(file)) {
+                out.writeDataset(ds.createFileMetaInformation(UID.ExplicitVRLittleEndian), ds);
+            }
+            // Read the header like DicomMediaIO
+            try (DicomInputStream dis = new DicomInputStream(file)) {
+                dis.setIncludeBulkData(IncludeBulkData.URI);
+                dis.setBulkDataDescriptor(DicomCodec.BULKDATA_DESCRIPTOR);
+                dis.setURI(file.toURI().toString());
+                return dis.readDataset(-1, -1);
+            }
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void test_iconImageFromHeader() throws Exception {
+        Attributes header = writeAndReadHeader(iconItem("MONOCHROME2", 64)); //$NON-NLS-1$
+        assertThat(header.getValue(Tag.PixelData)).isInstanceOf(BulkData.class);
+
+        Attributes item = header.getNestedDataset(Tag.IconImageSequence);
+        assertThat(item.getValue(Tag.PixelData)).isInstanceOf(byte[].class);
+        BufferedImage img = DicomImageUtils.getIconImage(item);
+        assertThat(img).isNotNull();
+        assertThat(img.getWidth()).isEqualTo(64);
+        assertThat(img.getHeight()).isEqualTo(64);
+        assertThat(img.getRaster().getSample(5, 1, 0)).isEqualTo(69);
+    }
+
+    @Test
+    public void test_paletteIconImageFromHeader() throws Exception {
+        Attributes icon = iconItem("PALETTE COLOR", 64); //$NON-NLS-1$
+        setPalette(icon);
+        Attributes item = writeAndReadHeader(icon).getNestedDataset(Tag.IconImageSequence);
+        // The LUT data are larger than the limit of the OW values, but must not be a BulkData in the icon
+        assertThat(item.getValue(Tag.RedPaletteColorLookupTableData)).isInstanceOf(byte[].class);
+        BufferedImage img = DicomImageUtils.getIconImage(item);
+        assertThat(img).isNotNull();
+        assertThat(img.getType()).isEqualTo(BufferedImage.TYPE_3BYTE_BGR);
+        assertThat(img.getWidth()).isEqualTo(64);
+    }
+
+    @Test
+    public void test_unsupportedIcon() throws Exception {
+        assertThat(DicomImageUtils.getIconImage(null)).isNull();
+        Attributes icon = iconItem("MONOCHROME2", 16); //$NON-NLS-1$
+        icon.setInt(Tag.BitsAllocated, VR.US, 16);
+        assertThat(DicomImageUtils.getIconImage(icon)).isNull();
+    }
+}
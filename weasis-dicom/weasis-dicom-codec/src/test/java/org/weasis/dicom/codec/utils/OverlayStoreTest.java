@@ -0,0 +1,92 @@
+/*******************************************************************************
+ * Copyright (c) 2009-2018 Weasis Team and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ *     Nicolas Roduit - initial API and implementation
+ *******************************************************************************/
+package org.weasis.dicom.codec.utils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.nio.file.Files;
+
+import org.junit.Test;
+import org.weasis.core.api.media.data.SimpleTagable;
+import org.weasis.core.api.media.data.TagW;
+
+public class OverlayStoreTest {
+
+    @Test
+    public void test_spill_and_read() throws Exception {
+        File dir = Files.createTempDirectory("ovly").toFile(); //$NON-NLS-1$
+        dir.deleteOnExit();
+        OverlayStore store = new OverlayStore(10, dir);
+
+        SimpleTagable m1 = new SimpleTagable();
+        SimpleTagable m2 = new SimpleTagable();
+        byte[][] data1 = { new byte[] { 1, 2, 3, 4, 5, 6, 7, 8 }, null };
+        byte[][] data2 = { new byte[] { 9, 10, 11, 12, 13, 14 } };
+
+        assertThat(store.contains(m1)).isFalse();
+        store.put(m1, data1);
+        assertThat(store.getMemorySize()).isEqualTo(8);
+        assertThat(m1.getTagValue(TagW.OverlayBurninDataPath)).isNull();
+
+        // Over the maximum size: the least recently used is written in a file
+        store.put(m2, data2);
+        assertThat(store.getMemorySize()).isEqualTo(6);
+        String path = (String) m1.getTagValue(TagW.OverlayBurninDataPath);
+        assertThat(path).isNotNull();
+        new File(path).deleteOnExit();
+        assertThat(store.contains(m1)).isTrue();
+
+        byte[][] read = store.get(m1);
+        assertThat(read.length).isEqualTo(2);
+        assertThat(read[0]).isEqualTo(data1[0]);
+        assertThat(read[1]).isNull();
+        // m2 is now the least recently used
+        assertThat(store.getMemorySize()).isEqualTo(8);
+        Object path2 = m2.getTagValue(TagW.OverlayBurninDataPath);
+        assertThat(path2).isNotNull();
+        new File((String) path2).deleteOnExit();
+        assertThat(store.get(m2)[0]).isEqualTo(data2[0]);
+        // m1 has already a file
+        assertThat(store.getMemorySize()).isEqualTo(6);
+        assertThat(m1.getTagValue(TagW.OverlayBurninDataPath)).isEqualTo(path);
+
+        store.remove(m2);
+        assertThat(store.getMemorySize()).isZero();
+        assertThat(new File((String) path2).exists()).isFalse();
+        assertThat(m2.getTagValue(TagW.OverlayBurninDataPath)).isNull();
+        assertThat(store.contains(m2)).isFalse();
+
+        store.remove(m1);
+        assertThat(new File(path).exists()).isFalse();
+        assertThat(store.getEntryCount()).isZero();
+    }
+
+    @Test
+    public void test_evict() throws Exception {
+        File dir = Files.createTempDirectory("ovly").toFile(); //$NON-NLS-1$
+        dir.deleteOnExit();
+        OverlayStore store = new OverlayStore(100, dir);
+
+        SimpleTagable m1 = new SimpleTagable();
+        store.put(m1, new byte[][] { new byte[] { 1, 2, 3, 4 } });
+        assertThat(store.getMemorySize()).isEqualTo(4);
+
+        // All the planes are written in files
+        assertThat(store.evict(Long.MAX_VALUE)).isZero();
+        assertThat(store.getMemorySize()).isZero();
+        assertThat(store.getEntryCount()).isEqualTo(1);
+        assertThat(store.get(m1)[0]).isEqualTo(new byte[] { 1, 2, 3, 4 });
+
+        store.remove(m1);
+        assertThat(dir.list()).isEmpty();
+    }
+}
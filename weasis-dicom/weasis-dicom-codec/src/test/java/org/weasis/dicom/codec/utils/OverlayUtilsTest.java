@@ -0,0 +1,98 @@
+/*******************************************************************************
+ * Copyright (c) 2009-2018 Weasis Team and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ *     Nicolas Roduit - initial API and implementation
+ *******************************************************************************/
+package org.weasis.dicom.codec.utils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.lang.reflect.Proxy;
+
+import org.dcm4che3.data.Attributes;
+import org.dcm4che3.data.Tag;
+import org.dcm4che3.data.VR;
+import org.junit.Test;
+import org.opencv.core.CvType;
+import org.weasis.opencv.data.PlanarImage;
+
+public class OverlayUtilsTest {
+
+    private static final int WIDTH = 5;
+    private static final int HEIGHT = 3;
+
+    // Bit 12 is the overlay of the group 6000, bit 13 the one of the group 6002
+    private static final int[][] PIXELS = { { 0x1005, 0x0005, 0x3005, 0x0005, 0x0005 },
+        { 0x0005, 0x2005, 0x0005, 0x0005, 0x1005 }, { 0x0005, 0x0005, 0x0005, 0x1005, 0x2005 } };
+
+    private static PlanarImage image(int type) {
+        return (PlanarImage) Proxy.newProxyInstance(PlanarImage.class.getClassLoader(),
+            new Class<?>[] { PlanarImage.class }, (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "type": //$NON-NLS-1$
+                        return type;
+                    case "channels": //$NON-NLS-1$
+                        return 1;
+                    case "width": //$NON-NLS-1$
+                        return WIDTH;
+                    case "height": //$NON-NLS-1$
+                        return HEIGHT;
+                    case "get": //$NON-NLS-1$
+                        int[] row = PIXELS[(Integer) args[0]];
+                        Object buf = args[2];
+                        for (int x = 0; x < WIDTH; x++) {
+                            if (buf instanceof short[]) {
+                                ((short[]) buf)[x] = (short) row[x];
+                            } else if (buf instanceof int[]) {
+                                ((int[]) buf)[x] = row[x];
+                            } else {
+                                throw new IllegalArgumentException("Unexpected buffer"); //$NON-NLS-1$
+                            }
+                        }
+                        return WIDTH;
+                    default:
+                        return null;
+                }
+            });
+    }
+
+    private static Attributes overlays() {
+        Attributes attrs = new Attributes();
+        for (int i = 0; i < 2; i++) {
+            int gg0000 = i << 17;
+            attrs.setInt(Tag.OverlayRows | gg0000, VR.US, HEIGHT);
+            attrs.setInt(Tag.OverlayColumns | gg0000, VR.US, WIDTH);
+            attrs.setInt(Tag.OverlayBitsAllocated | gg0000, VR.US, 16);
+            attrs.setInt(Tag.OverlayBitPosition | gg0000, VR.US, 12 + i);
+        }
+        // Overlay in OverlayData
+        attrs.setInt(Tag.OverlayBitsAllocated | 0x40000, VR.US, 1);
+        return attrs;
+    }
+
+    private static void assertPlanes(byte[][] data) {
+        assertThat(data.length).isEqualTo(3);
+        // Pixels 0, 2, 9 and 13
+        assertThat(data[0]).isEqualTo(new byte[] { 0x05, 0x22 });
+        // Pixels 2, 6 and 14
+        assertThat(data[1]).isEqualTo(new byte[] { 0x44, 0x40 });
+        assertThat(data[2]).isNull();
+    }
+
+    @Test
+    public void test_extractOverlays() throws Exception {
+        int[] groups = { 0, 0x20000, 0x40000 };
+        assertPlanes(OverlayUtils.extractOverlays(groups, image(CvType.CV_16UC1), overlays()));
+        assertPlanes(OverlayUtils.extractOverlays(groups, image(CvType.CV_16SC1), overlays()));
+        assertPlanes(OverlayUtils.extractOverlays(groups, image(CvType.CV_32SC1), overlays()));
+
+        // Floating point values cannot contain overlay bits
+        byte[][] data = OverlayUtils.extractOverlays(groups, image(CvType.CV_32FC1), overlays());
+        assertThat(data[0]).isEqualTo(new byte[2]);
+    }
+}
@@ -0,0 +1,78 @@
+/*******************************************************************************
+ * Copyright (c) 2009-2018 Weasis Team and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ *     Nicolas Roduit - initial API and implementation
+ *******************************************************************************/
+package org.weasis.dicom.codec.utils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+import java.awt.Shape;
+import java.awt.geom.Rectangle2D;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.function.IntFunction;
+
+import org.junit.Test;
+
+public class VolumeRoiStatisticsTest {
+
+    @Test
+    public void test_interpolate() throws Exception {
+        NavigableMap<Integer, Shape> keys = new TreeMap<>();
+        Shape small = new Rectangle2D.Double(0, 0, 10, 10);
+        Shape large = new Rectangle2D.Double(0, 0, 20, 20);
+        keys.put(2, small);
+        keys.put(12, large);
+        IntFunction<Shape> contours = VolumeRoiStatistics.interpolate(keys);
+
+        assertThat(contours.apply(0)).isSameAs(small);
+        assertThat(contours.apply(2)).isSameAs(small);
+        assertThat(contours.apply(12)).isSameAs(large);
+        assertThat(contours.apply(20)).isSameAs(large);
+
+        Rectangle2D middle = contours.apply(7).getBounds2D();
+        assertThat(middle.getMinX()).isCloseTo(0.0, within(0.01));
+        assertThat(middle.getMinY()).isCloseTo(0.0, within(0.01));
+        assertThat(middle.getMaxX()).isCloseTo(15.0, within(0.5));
+        assertThat(middle.getMaxY()).isCloseTo(15.0, within(0.5));
+    }
+
+    @Test
+    public void test_alignContour() throws Exception {
+        double[][] ref = VolumeRoiStatistics.resample(new Rectangle2D.Double(0, 0, 10, 10));
+        double[][] reversed = new double[ref.length][];
+        for (int i = 0; i < ref.length; i++) {
+            reversed[i] = ref[(ref.length - i + 5) % ref.length];
+        }
+        double[][] aligned = VolumeRoiStatistics.alignContour(ref, reversed);
+        for (int i = 0; i < ref.length; i++) {
+            assertThat(aligned[i]).containsExactly(ref[i]);
+        }
+    }
+
+    @Test
+    public void test_resultStatistics() throws Exception {
+        VolumeRoiStatistics.Result r1 = new VolumeRoiStatistics.Result(10.0);
+        r1.add(-5.0);
+        r1.add(15.0);
+        VolumeRoiStatistics.Result r2 = new VolumeRoiStatistics.Result(10.0);
+        r2.add(25.0);
+        r2.add(25.0);
+        r1.merge(r2);
+
+        assertThat(r1.getVoxelCount()).isEqualTo(4);
+        assertThat(r1.getMean()).isEqualTo(15.0);
+        assertThat(r1.getStandardDeviation()).isCloseTo(Math.sqrt(150.0), within(1e-9));
+        assertThat(r1.getMin()).isEqualTo(-5.0);
+        assertThat(r1.getMax()).isEqualTo(25.0);
+        assertThat(r1.getHistogramStart()).isEqualTo(-10.0);
+        assertThat(r1.getHistogram()).containsExactly(1, 0, 1, 2);
+    }
+}
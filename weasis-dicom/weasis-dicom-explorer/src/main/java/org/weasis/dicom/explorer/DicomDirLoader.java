@@ -10,11 +10,7 @@
  *******************************************************************************/
 package org.weasis.dicom.explorer;
 
-import java.awt.Point;
 import java.awt.image.BufferedImage;
-import java.awt.image.DataBuffer;
-import java.awt.image.Raster;
-import java.awt.image.WritableRaster;
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
@@ -23,7 +19,6 @@ import java.util.Optional;
 
 import org.dcm4che3.data.Attributes;
 import org.dcm4che3.data.Tag;
-import org.dcm4che3.image.PhotometricInterpretation;
 import org.dcm4che3.media.DicomDirReader;
 import org.dcm4che3.media.DicomDirWriter;
 import org.dcm4che3.media.RecordFactory;
@@ -43,6 +38,7 @@ import org.weasis.core.ui.editor.image.ViewerPlugin;
 import org.weasis.dicom.codec.DicomSeries;
 import org.weasis.dicom.codec.TagD;
 import org.weasis.dicom.codec.TagD.Level;
+import org.weasis.dicom.codec.utils.DicomImageUtils;
 import org.weasis.dicom.codec.utils.DicomMediaUtils;
 import org.weasis.dicom.codec.utils.PatientComparator;
 import org.weasis.dicom.explorer.wado.DownloadPriority;
@@ -244,26 +240,12 @@ public class DicomDirLoader {
      */
     private String readDicomDirIcon(Attributes iconInstance) {
         if (iconInstance != null) {
-            byte[] pixelData = null;
             try {
-                pixelData = iconInstance.getBytes(Tag.PixelData);
-                if (pixelData != null) {
+                BufferedImage thumbnail = DicomImageUtils.getIconImage(iconInstance);
+                if (thumbnail != null) {
                     File thumbnailPath = File.createTempFile("tumb_", ".jpg", Thumbnail.THUMBNAIL_CACHE_DIR); //$NON-NLS-1$ //$NON-NLS-2$
-                    if (thumbnailPath != null) {
-                        int width = iconInstance.getInt(Tag.Columns, 0);
-                        int height = iconInstance.getInt(Tag.Rows, 0);
-                        if (width != 0 && height != 0) {          
-                            WritableRaster raster =
-                                Raster.createInterleavedRaster(DataBuffer.TYPE_BYTE, width, height, 1, new Point(0, 0));
-                            raster.setDataElements(0, 0, width, height, pixelData);
-                            PhotometricInterpretation pmi = PhotometricInterpretation
-                                .fromString(iconInstance.getString(Tag.PhotometricInterpretation, "MONOCHROME2")); //$NON-NLS-1$
-                            BufferedImage thumbnail = new BufferedImage(
-                                pmi.createColorModel(8, DataBuffer.TYPE_BYTE, iconInstance), raster, false, null);
-                            if (ImageProcessor.writeImage(thumbnail, thumbnailPath)) {
-                                return thumbnailPath.getPath();
-                            }
-                        }
+                    if (ImageProcessor.writeImage(thumbnail, thumbnailPath)) {
+                        return thumbnailPath.getPath();
                     }
                 }
             } catch (Exception e) {
@@ -40,6 +40,7 @@ import org.slf4j.LoggerFactory;
 import org.weasis.core.api.command.Option;
 import org.weasis.core.api.command.Options;
 import org.weasis.core.api.explorer.ObservableEvent;
+import org.weasis.core.api.explorer.ObservableEventCoalescer;
 import org.weasis.core.api.explorer.model.DataExplorerModel;
 import org.weasis.core.api.explorer.model.Tree;
 import org.weasis.core.api.explorer.model.TreeModel;
@@ -105,6 +106,7 @@ public class DicomModel implements TreeModel, DataExplorerModel {
 
     private final Tree<MediaSeriesGroup> model;
     private PropertyChangeSupport propertyChange = null;
+    private final ObservableEventCoalescer eventCoalescer = new ObservableEventCoalescer(this::firePropertyChange);
     private final SplittingRules splittingRules;
 
     public DicomModel() {
@@ -308,6 +310,13 @@ public class DicomModel implements TreeModel, DataExplorerModel {
         }
     }
 
+    @Override
+    public void fireCoalescedPropertyChange(Object key, ObservableEvent event) {
+        if (propertyChange != null) {
+            eventCoalescer.post(key, event);
+        }
+    }
+
     public void mergeSeries(List<MediaSeries<? extends MediaElement>> seriesList) {
         if (seriesList != null && seriesList.size() > 1) {
             String uid = TagD.getTagValue(seriesList.get(0), Tag.SeriesInstanceUID, String.class);
@@ -97,9 +97,11 @@ public class LoadLocalDicom extends ExplorerTask<Boolean, String> {
                 }
             } else {
                 if (file[i].canRead()) {
-                    if (FileUtil.isFileExtensionMatching(file[i], DicomCodec.FILE_EXTENSIONS)
-                        || MimeInspector.isMatchingMimeTypeFromMagicNumber(file[i], DicomMediaIO.MIMETYPE)) {
-                        DicomMediaIO loader = new DicomMediaIO(file[i]);
+                    // Read only once the beginning of the file for checking the type and parsing the header
+                    byte[] prefix = MimeInspector.readPrefix(file[i]);
+                    if (prefix != null && (MimeInspector.isDicomPrefix(prefix)
+                        || FileUtil.isFileExtensionMatching(file[i], DicomCodec.FILE_EXTENSIONS))) {
+                        DicomMediaIO loader = new DicomMediaIO(file[i], prefix);
                         if (loader.isReadableDicom()) {
                             // Issue: must handle adding image to viewer and building thumbnail (middle image)
                             SeriesThumbnail t = buildDicomStructure(loader, openPlugin);
@@ -53,6 +53,8 @@ import org.weasis.core.api.media.data.SeriesThumbnail;
 import org.weasis.core.api.media.data.TagW;
 import org.weasis.core.api.media.data.TagW.TagType;
 import org.weasis.core.api.media.data.Thumbnail;
+import org.weasis.core.api.metrics.Metric;
+import org.weasis.core.api.metrics.MetricRegistry;
 import org.weasis.core.api.service.AuditLog;
 import org.weasis.core.api.util.FileUtil;
 import org.weasis.core.api.util.NetworkUtil;
@@ -688,9 +690,11 @@ public class LoadSeries extends ExplorerTask<Boolean, String> implements SeriesI
                 if (dicomSeries != null) {
                     if (cache) {
                         LOGGER.debug("Start to download DICOM instance {} to {}.", getUrl(), tempFile.getName()); //$NON-NLS-1$
+                        long start = System.nanoTime();
                         int bytesTransferred = downloadInFileCache(stream, tempFile);
                         if (bytesTransferred == -1) {
                             LOGGER.info("End of downloading {} ", getUrl()); //$NON-NLS-1$
+                            updateDownloadMetrics(tempFile.length(), System.nanoTime() - start);
                         } else if (bytesTransferred >= 0) {
                             return false;
                         }
@@ -714,7 +718,7 @@ public class LoadSeries extends ExplorerTask<Boolean, String> implements SeriesI
                         MediaSeriesGroup study = dicomModel.getParent(dicomSeries, DicomModel.study);
                         dicomReader.writeMetaData(study);
                         dicomReader.writeMetaData(dicomSeries);
-                        GuiExecutor.instance().invokeAndWait(() -> {
+                        GuiExecutor.instance().execute(() -> {
                             Thumbnail thumb = (Thumbnail) dicomSeries.getTagValue(TagW.Thumbnail);
                             if (thumb != null) {
                                 thumb.repaint();
@@ -734,9 +738,9 @@ public class LoadSeries extends ExplorerTask<Boolean, String> implements SeriesI
                         dicomReader.getFileCache().setOriginalTempFile(tempFile);
                     }
                     final DicomMediaIO reader = dicomReader;
-                    // Necessary to wait the runnable because the dicomSeries must be added to the dicomModel
-                    // before reaching done() of SwingWorker
-                    GuiExecutor.instance().invokeAndWait(() -> updateUI(reader));
+                    // Do not wait the EDT: the dicomSeries is still added to the dicomModel before reaching done() of
+                    // SwingWorker because the downloading tasks are all completed before and the EDT runs in order
+                    GuiExecutor.instance().execute(() -> updateUI(reader));
                 }
             }
             // Increment progress bar in EDT and repaint when downloaded
@@ -744,6 +748,15 @@ public class LoadSeries extends ExplorerTask<Boolean, String> implements SeriesI
             return true;
         }
 
+        private void updateDownloadMetrics(long bytes, long nanos) {
+            MetricRegistry registry = MetricRegistry.getInstance();
+            registry.counter("download.bytes", Metric.UNIT_BYTES).add(bytes); //$NON-NLS-1$
+            if (nanos > 0) {
+                registry.histogram("download.rate", Metric.UNIT_BYTES_PER_SECOND) //$NON-NLS-1$
+                    .update(bytes * 1_000_000_000L / nanos);
+            }
+        }
+
         private int downloadInFileCache(InputStream stream, File tempFile) throws IOException {
             final WadoParameters wado = (WadoParameters) dicomSeries.getTagValue(TagW.WadoParameters);
             int[] overrideList = Optional.ofNullable(wado).map(WadoParameters::getOverrideDicomTagIDList).orElse(null);
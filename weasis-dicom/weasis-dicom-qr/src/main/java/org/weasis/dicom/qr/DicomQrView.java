@@ -22,7 +22,12 @@ import java.time.LocalDateTime;
 import java.time.temporal.TemporalAdjusters;
 import java.time.temporal.WeekFields;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ExecutorService;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -41,6 +46,7 @@ import javax.swing.JPopupMenu;
 import javax.swing.JProgressBar;
 import javax.swing.JTextField;
 import javax.swing.SwingUtilities;
+import javax.swing.Timer;
 import javax.swing.border.Border;
 import javax.swing.border.TitledBorder;
 import javax.swing.event.ListDataEvent;
@@ -50,6 +56,7 @@ import javax.swing.tree.TreePath;
 import org.dcm4che3.data.Attributes;
 import org.dcm4che3.data.Tag;
 import org.dcm4che3.net.Status;
+import org.dcm4che3.net.service.QueryRetrieveLevel;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.weasis.core.api.gui.util.AbstractItemDialogPage;
@@ -169,9 +176,37 @@ public class DicomQrView extends AbstractItemDialogPage implements ImportDicom {
         }
     }
 
+    public enum ResultLimit {
+        NO_LIMIT(Messages.getString("DicomQrView.no_limit"), 0), //$NON-NLS-1$
+        L100("100", 100), //$NON-NLS-1$
+        L500("500", 500), //$NON-NLS-1$
+        L1000("1000", 1000), //$NON-NLS-1$
+        L5000("5000", 5000); //$NON-NLS-1$
+
+        private final String displayName;
+        private final int limit;
+
+        private ResultLimit(String name, int limit) {
+            this.displayName = name;
+            this.limit = limit;
+        }
+
+        public int getLimit() {
+            return limit;
+        }
+
+        @Override
+        public String toString() {
+            return displayName;
+        }
+    }
+
     private static final String LAST_SEL_NODE = "lastSelNode"; //$NON-NLS-1$
     private static final String LAST_CALLING_NODE = "lastCallingNode"; //$NON-NLS-1$
     private static final String LAST_RETRIEVE_TYPE = "lastRetrieveType"; //$NON-NLS-1$
+    private static final String LAST_RESULT_LIMIT = "lastResultLimit"; //$NON-NLS-1$
+    // Delay for grouping the C-FIND responses in one update of the tree
+    private static final int RESULT_REFRESH_DELAY = 250;
     static final File tempDir = FileUtil.createTempDir(AppProperties.buildAccessibleTempDirectory("tmp", "qr")); //$NON-NLS-1$ //$NON-NLS-2$
 
     private final Border spaceY = BorderFactory.createEmptyBorder(10, 3, 0, 3);
@@ -229,14 +264,24 @@ public class DicomQrView extends AbstractItemDialogPage implements ImportDicom {
     private final JComboBox<AbstractDicomNode> comboCallingNode = new JComboBox<>();
     private final DicomListener dicomListener;
     private final ExecutorService executor = ThreadUtil.buildNewFixedThreadExecutor(3, "Dicom Q/R task"); //$NON-NLS-1$
+    private final JComboBox<ResultLimit> comboLimit = new JComboBox<>(ResultLimit.values());
+    private final JButton searchBtn = new JButton(Messages.getString("DicomQrView.search")); //$NON-NLS-1$
+    private final TitledBorder resultBorder = new TitledBorder(null, Messages.getString("DicomQrView.result"), //$NON-NLS-1$
+        TitledBorder.DEFAULT_JUSTIFICATION, TitledBorder.DEFAULT_POSITION, FontTools.getFont12Bold(), Color.GRAY);
+
+    // C-FIND responses waiting to be added in the tree, the producer is the association thread
+    private final Queue<Attributes> pendingResults = new ConcurrentLinkedQueue<>();
+    private final Map<String, MediaSeriesGroup> patientGroups = new HashMap<>();
+    // Studies by patient pseudo UID and study UID, avoids scanning the children of the patient for each response
+    private final Map<String, MediaSeriesGroup> studyGroups = new HashMap<>();
+    private final Timer resultTimer = new Timer(RESULT_REFRESH_DELAY, e -> flushResults());
+    private volatile StreamingCFind currentQuery;
+    private RetrieveTreeModel retrieveTreeModel;
 
     public DicomQrView() {
         super(Messages.getString("DicomQrView.title")); //$NON-NLS-1$
         initGUI();
-        tree.setBorder(BorderFactory.createCompoundBorder(spaceY,
-            new TitledBorder(null, Messages.getString("DicomQrView.result"), //$NON-NLS-1$
-                TitledBorder.DEFAULT_JUSTIFICATION, TitledBorder.DEFAULT_POSITION, FontTools.getFont12Bold(),
-                Color.GRAY)));
+        tree.setBorder(BorderFactory.createCompoundBorder(spaceY, resultBorder));
         add(tree, BorderLayout.CENTER);
         initialize(true);
 
@@ -309,12 +354,18 @@ public class DicomQrView extends AbstractItemDialogPage implements ImportDicom {
         panel5.setAlignmentY(Component.TOP_ALIGNMENT);
         panel5.setAlignmentX(Component.LEFT_ALIGNMENT);
         panel5.setLayout(new FlowLayout(FlowLayout.LEFT, 15, 10));
-        panel5.add(Box.createHorizontalStrut(350));
+        panel5.add(Box.createHorizontalStrut(150));
+        JLabel lblLimit = new JLabel(Messages.getString("DicomQrView.max_results") + StringUtil.COLON); //$NON-NLS-1$
+        panel5.add(lblLimit);
+        panel5.add(comboLimit);
         JButton clearBtn = new JButton(Messages.getString("DicomQrView.clear")); //$NON-NLS-1$
         clearBtn.setToolTipText(Messages.getString("DicomQrView.clear_search")); //$NON-NLS-1$
         clearBtn.addActionListener(e -> clearItems());
         panel5.add(clearBtn);
-        JButton searchBtn = new JButton(Messages.getString("DicomQrView.search")); //$NON-NLS-1$
+        JButton refreshBtn = new JButton(Messages.getString("DicomQrView.refresh")); //$NON-NLS-1$
+        refreshBtn.setToolTipText(Messages.getString("DicomQrView.refresh_search")); //$NON-NLS-1$
+        refreshBtn.addActionListener(e -> refresh());
+        panel5.add(refreshBtn);
         searchBtn.setToolTipText(Messages.getString("DicomQrView.tips_dcm_query")); //$NON-NLS-1$
         searchBtn.addActionListener(e -> cfind());
         panel5.add(searchBtn);
@@ -433,11 +484,29 @@ public class DicomQrView extends AbstractItemDialogPage implements ImportDicom {
         endDatePicker.setDate(null);
     }
 
+    private void refresh() {
+        if (currentQuery != null) {
+            return;
+        }
+        Object selectedItem = comboDestinationNode.getSelectedItem();
+        if (selectedItem instanceof DefaultDicomNode) {
+            QueryResultCache.getInstance().invalidate(((DefaultDicomNode) selectedItem).getDicomNode());
+        }
+        cfind();
+    }
+
     private void cfind() {
+        StreamingCFind runningQuery = currentQuery;
+        if (runningQuery != null) {
+            // The search button stops the current query
+            runningQuery.cancel();
+            return;
+        }
+
         SearchParameters searchParams = buildCurrentSearchParameters();
         List<DicomParam> p = searchParams.getParameters();
         // Clear model
-        dicomModel.dispose();
+        clearResults();
 
         if (p.isEmpty()) {
             String message = Messages.getString("DicomQrView.msg_empty_query"); //$NON-NLS-1$
@@ -471,20 +540,43 @@ public class DicomQrView extends AbstractItemDialogPage implements ImportDicom {
         AbstractDicomNode callingNode = (AbstractDicomNode) comboCallingNode.getSelectedItem();
         if (selectedItem instanceof DefaultDicomNode && callingNode instanceof DefaultDicomNode) {
             final DefaultDicomNode node = (DefaultDicomNode) selectedItem;
+            ResultLimit limit = (ResultLimit) comboLimit.getSelectedItem();
+            int maxResults = limit == null ? 0 : limit.getLimit();
+            final DicomParam[] keys = p.toArray(new DicomParam[p.size()]);
+
+            final QueryResultCache cache = QueryResultCache.getInstance();
+            final String cacheKey =
+                QueryResultCache.buildKey(node.getDicomNode(), QueryRetrieveLevel.STUDY, maxResults, keys);
+            List<Attributes> cachedItems = cache.get(cacheKey);
+            if (cachedItems != null) {
+                LOGGER.debug("C-FIND: {} matches from the cache", cachedItems.size()); //$NON-NLS-1$
+                pendingResults.addAll(cachedItems);
+                flushResults();
+                return;
+            }
+
             AdvancedParams params = new AdvancedParams();
             ConnectOptions connectOptions = new ConnectOptions();
             connectOptions.setConnectTimeout(3000);
             connectOptions.setAcceptTimeout(5000);
             params.setConnectOptions(connectOptions);
-            final DicomState state = CFind.process(params, ((DefaultDicomNode) callingNode).getDicomNodeWithOnlyAET(),
-                node.getDicomNode(), p.toArray(new DicomParam[p.size()]));
-            if (state.getStatus() == Status.Success) {
-                displayResult(state);
-            } else {
-                LOGGER.error("Dicom cfind error: {}", state.getMessage()); //$NON-NLS-1$
-                GuiExecutor.instance().execute(() -> JOptionPane.showMessageDialog(basePanel, state.getMessage(), null,
-                    JOptionPane.ERROR_MESSAGE));
-            }
+            final StreamingCFind query = new StreamingCFind(params,
+                ((DefaultDicomNode) callingNode).getDicomNodeWithOnlyAET(), node.getDicomNode(), maxResults);
+
+            currentQuery = query;
+            searchBtn.setText(Messages.getString("DicomQrView.stop")); //$NON-NLS-1$
+            resultTimer.start();
+            executor.execute(() -> {
+                List<Attributes> items = Collections.synchronizedList(new ArrayList<>());
+                DicomState state = query.process(a -> {
+                    items.add(a);
+                    pendingResults.add(a);
+                }, keys);
+                if (state.getStatus() == Status.Success && !query.isCancelled()) {
+                    cache.put(cacheKey, items);
+                }
+                GuiExecutor.instance().execute(() -> queryDone(query, state));
+            });
         } else if (selectedItem instanceof DicomWebNode) {
             throw new IllegalAccessError("Not implemented yet"); //$NON-NLS-1$
         }
@@ -496,67 +588,112 @@ public class DicomQrView extends AbstractItemDialogPage implements ImportDicom {
         }
     }
 
-    private void displayResult(DicomState state) {
-        List<Attributes> items = state.getDicomRSP();
-        if (items != null) {
-            for (int i = 0; i < items.size(); i++) {
-                Attributes item = items.get(i);
+    private void clearResults() {
+        pendingResults.clear();
+        patientGroups.clear();
+        studyGroups.clear();
+        dicomModel.dispose();
+        resultBorder.setTitle(Messages.getString("DicomQrView.result")); //$NON-NLS-1$
+        retrieveTreeModel = new RetrieveTreeModel(dicomModel);
+        tree.setCheckTreeModel(retrieveTreeModel);
+        tree.revalidate();
+        tree.repaint();
+    }
+
+    private void queryDone(StreamingCFind query, DicomState state) {
+        flushResults();
+        resultTimer.stop();
+        currentQuery = null;
+        searchBtn.setText(Messages.getString("DicomQrView.search")); //$NON-NLS-1$
+        LOGGER.debug("C-FIND: {} matches", query.getNbMatches()); //$NON-NLS-1$
+        if (query.isLimitReached()) {
+            resultBorder.setTitle(Messages.getString("DicomQrView.result") + " (" //$NON-NLS-1$ //$NON-NLS-2$
+                + Messages.getString("DicomQrView.max_results") + StringUtil.COLON_AND_SPACE + query.getNbMatches() //$NON-NLS-1$
+                + ")"); //$NON-NLS-1$
+            tree.repaint();
+        }
+        if (state.getStatus() != Status.Success && state.getStatus() != Status.Cancel) {
+            LOGGER.error("Dicom cfind error: {}", state.getMessage()); //$NON-NLS-1$
+            JOptionPane.showMessageDialog(basePanel, state.getMessage(), null, JOptionPane.ERROR_MESSAGE);
+        }
+    }
+
+    /**
+     * Add the pending C-FIND responses in the model and in the tree. Called periodically on the EDT while the query is
+     * running so that the results are displayed as they arrive.
+     */
+    private void flushResults() {
+        Attributes item;
+        int count = 0;
+        while ((item = pendingResults.poll()) != null) {
+            count++;
+            if (LOGGER.isTraceEnabled()) {
                 LOGGER.trace("==========================================="); //$NON-NLS-1$
-                LOGGER.trace("CFind Item {}", (i + 1)); //$NON-NLS-1$
+                LOGGER.trace("CFind Item"); //$NON-NLS-1$
                 LOGGER.trace("==========================================="); //$NON-NLS-1$
                 LOGGER.trace("{}", item.toString(100, 150)); //$NON-NLS-1$
+            }
+            TreePath studyPath = addResult(item);
+            if (studyPath != null) {
+                tree.getCheckboxTree().expandPath(studyPath.getParentPath());
+            }
+        }
+        if (count > 0) {
+            tree.revalidate();
+            tree.repaint();
+        }
+    }
 
-                PatientComparator patientComparator = new PatientComparator(item);
-                String patientPseudoUID = patientComparator.buildPatientPseudoUID();
-                MediaSeriesGroup patient = dicomModel.getHierarchyNode(MediaSeriesGroupNode.rootNode, patientPseudoUID);
-                if (patient == null) {
-                    patient = new MediaSeriesGroupNode(TagW.PatientPseudoUID, patientPseudoUID,
-                        DicomModel.patient.getTagView()) {
-                        @Override
-                        public String toString() {
-                            StringBuilder buf = new StringBuilder(getDisplayValue(this, Tag.PatientName));
-                            buf.append(" ["); //$NON-NLS-1$
-                            buf.append(getDisplayValue(this, Tag.PatientID));
-                            buf.append("] "); //$NON-NLS-1$
-                            buf.append(getDisplayValue(this, Tag.PatientBirthDate));
-                            buf.append(" "); //$NON-NLS-1$
-                            buf.append(getDisplayValue(this, Tag.PatientSex));
-                            return buf.toString();
-                        }
-                    };
-                    DicomMediaUtils.writeMetaData(patient, item);
-                    dicomModel.addHierarchyNode(MediaSeriesGroupNode.rootNode, patient);
+    private TreePath addResult(Attributes item) {
+        PatientComparator patientComparator = new PatientComparator(item);
+        String patientPseudoUID = patientComparator.buildPatientPseudoUID();
+        MediaSeriesGroup patient = patientGroups.get(patientPseudoUID);
+        if (patient == null) {
+            patient = new MediaSeriesGroupNode(TagW.PatientPseudoUID, patientPseudoUID,
+                DicomModel.patient.getTagView()) {
+                @Override
+                public String toString() {
+                    StringBuilder buf = new StringBuilder(getDisplayValue(this, Tag.PatientName));
+                    buf.append(" ["); //$NON-NLS-1$
+                    buf.append(getDisplayValue(this, Tag.PatientID));
+                    buf.append("] "); //$NON-NLS-1$
+                    buf.append(getDisplayValue(this, Tag.PatientBirthDate));
+                    buf.append(" "); //$NON-NLS-1$
+                    buf.append(getDisplayValue(this, Tag.PatientSex));
+                    return buf.toString();
                 }
+            };
+            DicomMediaUtils.writeMetaData(patient, item);
+            dicomModel.addHierarchyNode(MediaSeriesGroupNode.rootNode, patient);
+            patientGroups.put(patientPseudoUID, patient);
+        }
 
-                String studyUID = item.getString(Tag.StudyInstanceUID);
-                MediaSeriesGroup study = dicomModel.getHierarchyNode(patient, studyUID);
-                if (study == null) {
-                    study =
-                        new MediaSeriesGroupNode(TagD.getUID(Level.STUDY), studyUID, DicomModel.study.getTagView()) {
-                            @Override
-                            public String toString() {
-                                StringBuilder buf = new StringBuilder(getDisplayValue(this, Tag.StudyDescription));
-                                buf.append(" ["); //$NON-NLS-1$
-                                buf.append(getDisplayValue(this, Tag.ModalitiesInStudy));
-                                buf.append("] "); //$NON-NLS-1$
-                                LocalDateTime studyDate = TagD.dateTime(Tag.StudyDate, Tag.StudyTime, this);
-                                if (studyDate != null) {
-                                    buf.append(TagUtil.formatDateTime(studyDate));
-                                    buf.append(" "); //$NON-NLS-1$
-                                }
-                                buf.append(getDisplayValue(this, Tag.AccessionNumber));
-                                return buf.toString();
-                            }
-                        };
-                    DicomMediaUtils.writeMetaData(study, item);
-                    dicomModel.addHierarchyNode(patient, study);
+        String studyUID = item.getString(Tag.StudyInstanceUID);
+        String studyKey = patientPseudoUID + '\\' + studyUID;
+        MediaSeriesGroup study = studyGroups.get(studyKey);
+        if (study == null) {
+            study = new MediaSeriesGroupNode(TagD.getUID(Level.STUDY), studyUID, DicomModel.study.getTagView()) {
+                @Override
+                public String toString() {
+                    StringBuilder buf = new StringBuilder(getDisplayValue(this, Tag.StudyDescription));
+                    buf.append(" ["); //$NON-NLS-1$
+                    buf.append(getDisplayValue(this, Tag.ModalitiesInStudy));
+                    buf.append("] "); //$NON-NLS-1$
+                    LocalDateTime studyDate = TagD.dateTime(Tag.StudyDate, Tag.StudyTime, this);
+                    if (studyDate != null) {
+                        buf.append(TagUtil.formatDateTime(studyDate));
+                        buf.append(" "); //$NON-NLS-1$
+                    }
+                    buf.append(getDisplayValue(this, Tag.AccessionNumber));
+                    return buf.toString();
                 }
-            }
+            };
+            DicomMediaUtils.writeMetaData(study, item);
+            dicomModel.addHierarchyNode(patient, study);
+            studyGroups.put(studyKey, study);
+            return retrieveTreeModel.addStudy(patient, study);
         }
-
-        tree.setCheckTreeModel(new RetrieveTreeModel(dicomModel));
-        tree.revalidate();
-        tree.repaint();
+        return null;
     }
 
     private String getDisplayValue(MediaSeriesGroupNode node, int tagID) {
@@ -596,6 +733,14 @@ public class DicomQrView extends AbstractItemDialogPage implements ImportDicom {
                 // Do nothing
             }
         }
+        String lastLimit = DicomQrFactory.IMPORT_PERSISTENCE.getProperty(LAST_RESULT_LIMIT);
+        if (lastLimit != null) {
+            try {
+                comboLimit.setSelectedItem(ResultLimit.valueOf(lastLimit));
+            } catch (Exception e) {
+                // Do nothing
+            }
+        }
         applySelectedArchive();
         comboDestinationNode.addActionListener(destNodeListener);
     }
@@ -647,6 +792,10 @@ public class DicomQrView extends AbstractItemDialogPage implements ImportDicom {
         if (type != null) {
             DicomQrFactory.IMPORT_PERSISTENCE.setProperty(LAST_RETRIEVE_TYPE, type.name());
         }
+        ResultLimit limit = (ResultLimit) comboLimit.getSelectedItem();
+        if (limit != null) {
+            DicomQrFactory.IMPORT_PERSISTENCE.setProperty(LAST_RESULT_LIMIT, limit.name());
+        }
     }
 
     private void nodeSelectionPersistence(AbstractDicomNode node, String key) {
@@ -675,6 +824,11 @@ public class DicomQrView extends AbstractItemDialogPage implements ImportDicom {
     @Override
     public void closeAdditionalWindow() {
         applyChange();
+        StreamingCFind runningQuery = currentQuery;
+        if (runningQuery != null) {
+            runningQuery.cancel();
+        }
+        resultTimer.stop();
         executor.shutdown();
     }
 
@@ -0,0 +1,171 @@
+/*******************************************************************************
+ * Copyright (c) 2009-2018 Weasis Team and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ *     Nicolas Roduit - initial API and implementation
+ *******************************************************************************/
+package org.weasis.dicom.qr;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import org.dcm4che3.data.Attributes;
+import org.dcm4che3.net.service.QueryRetrieveLevel;
+import org.weasis.core.api.service.BundleTools;
+import org.weasis.dicom.param.DicomNode;
+import org.weasis.dicom.param.DicomParam;
+
+/**
+ * Local cache of C-FIND results for avoiding to query again the archive with the same parameters. The entries are
+ * identified by the called node, the query level and the normalized query keys. An entry expires after a time to live
+ * and the least recently used entries are removed when the maximum size is reached.
+ */
+public class QueryResultCache {
+
+    public static final String P_CACHE_TTL = "weasis.dicom.qr.cache.ttl"; //$NON-NLS-1$
+    public static final String P_CACHE_SIZE = "weasis.dicom.qr.cache.size"; //$NON-NLS-1$
+
+    private static final class Holder {
+        private static final QueryResultCache INSTANCE = new QueryResultCache(
+            TimeUnit.SECONDS.toNanos(BundleTools.SYSTEM_PREFERENCES.getLongProperty(P_CACHE_TTL, 300)),
+            BundleTools.SYSTEM_PREFERENCES.getIntProperty(P_CACHE_SIZE, 50), System::nanoTime);
+    }
+
+    private static final class Entry {
+        private final List<Attributes> items;
+        private final long creationTime;
+
+        Entry(List<Attributes> items, long creationTime) {
+            this.items = items;
+            this.creationTime = creationTime;
+        }
+    }
+
+    private final long ttl;
+    private final LongSupplier clock;
+    private final LinkedHashMap<String, Entry> map;
+
+    /**
+     * @param ttl
+     *            the time to live of an entry in nanoseconds, 0 disables the cache
+     * @param maxSize
+     *            the maximum number of queries kept in the cache
+     * @param clock
+     *            the time source in nanoseconds
+     */
+    QueryResultCache(long ttl, final int maxSize, LongSupplier clock) {
+        this.ttl = Math.max(0, ttl);
+        this.clock = Objects.requireNonNull(clock);
+        this.map = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+            private static final long serialVersionUID = 5227418396226716451L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    public static QueryResultCache getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    public boolean isEnabled() {
+        return ttl > 0;
+    }
+
+    /**
+     * @param key
+     *            the key built with {@link #buildKey(DicomNode, QueryRetrieveLevel, int, DicomParam...)}
+     * @return the cached responses or null if there is no valid entry
+     */
+    public synchronized List<Attributes> get(String key) {
+        Entry entry = map.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (clock.getAsLong() - entry.creationTime >= ttl) {
+            map.remove(key);
+            return null;
+        }
+        return entry.items;
+    }
+
+    public synchronized void put(String key, List<Attributes> items) {
+        if (isEnabled() && key != null && items != null) {
+            map.put(key, new Entry(Collections.unmodifiableList(new ArrayList<>(items)), clock.getAsLong()));
+        }
+    }
+
+    public synchronized int size() {
+        return map.size();
+    }
+
+    /**
+     * Remove all the entries related to the called node.
+     *
+     * @param calledNode
+     */
+    public synchronized void invalidate(DicomNode calledNode) {
+        String prefix = getNodeKey(calledNode) + '|';
+        for (Iterator<String> it = map.keySet().iterator(); it.hasNext();) {
+            if (it.next().startsWith(prefix)) {
+                it.remove();
+            }
+        }
+    }
+
+    public synchronized void invalidateAll() {
+        map.clear();
+    }
+
+    /**
+     * Build a key which does not depend on the order of the parameters, on the surrounding spaces of the values and on
+     * the return keys order.
+     *
+     * @param calledNode
+     * @param level
+     * @param limit
+     *            the maximum number of matches, 0 for no limit
+     * @param keys
+     * @return the cache key
+     */
+    public static String buildKey(DicomNode calledNode, QueryRetrieveLevel level, int limit, DicomParam... keys) {
+        StringBuilder buf = new StringBuilder(getNodeKey(calledNode));
+        buf.append('|');
+        buf.append(level);
+        buf.append('|');
+        buf.append(limit);
+        DicomParam[] params = Arrays.copyOf(keys, keys.length);
+        Arrays.sort(params, Comparator.comparingInt(DicomParam::getTag));
+        for (DicomParam p : params) {
+            buf.append('|');
+            buf.append(Integer.toHexString(p.getTag()));
+            String[] values = p.getValues();
+            if (values != null) {
+                for (String v : values) {
+                    buf.append('\\');
+                    buf.append(v == null ? "" : v.trim()); //$NON-NLS-1$
+                }
+            }
+        }
+        return buf.toString();
+    }
+
+    private static String getNodeKey(DicomNode node) {
+        return node.getAet() + '@' + node.getHostname() + ':' + node.getPort();
+    }
+}
@@ -16,7 +16,10 @@ import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 
 import javax.swing.tree.DefaultMutableTreeNode;
@@ -50,12 +53,17 @@ public class RetrieveTreeModel {
     private final DefaultTreeModel model;
     private final TreeCheckingModel checkingModel;
     private final List<TreePath> defaultSelectedPaths;
+    private final Map<MediaSeriesGroup, DefaultMutableTreeNode> patientNodes = new HashMap<>();
 
     public RetrieveTreeModel(DicomModel dicomModel) {
         this.model = buildModel(dicomModel);
         this.rootNode = (DefaultMutableTreeNode) model.getRoot();
         this.checkingModel = new DefaultTreeCheckingModel(model);
         this.defaultSelectedPaths = Collections.synchronizedList(new ArrayList<TreePath>());
+        for (int i = 0; i < rootNode.getChildCount(); i++) {
+            DefaultMutableTreeNode node = (DefaultMutableTreeNode) rootNode.getChildAt(i);
+            patientNodes.put((MediaSeriesGroup) node.getUserObject(), node);
+        }
     }
 
     public DefaultMutableTreeNode getRootNode() {
@@ -83,6 +91,39 @@ public class RetrieveTreeModel {
         return defaultSelectedPaths;
     }
 
+    /**
+     * Insert a new study node at its sorted position and notify the tree listeners, the patient node is created if
+     * necessary. Must be called from the EDT.
+     *
+     * @param patient
+     * @param study
+     * @return the path of the new study node
+     */
+    public TreePath addStudy(MediaSeriesGroup patient, MediaSeriesGroup study) {
+        DefaultMutableTreeNode patientNode = patientNodes.get(patient);
+        if (patientNode == null) {
+            if (patientNodes.isEmpty()) {
+                rootNode.setUserObject(DicomExplorer.ALL_PATIENTS);
+                model.nodeChanged(rootNode);
+            }
+            patientNode = new DefaultMutableTreeNode(patient, true);
+            patientNodes.put(patient, patientNode);
+            model.insertNodeInto(patientNode, rootNode,
+                getInsertionIndex(rootNode, patientNode, DicomSorter.PATIENT_COMPARATOR));
+        }
+        DefaultMutableTreeNode studyNode = new ToolTipStudyNode(study, true);
+        model.insertNodeInto(studyNode, patientNode,
+            getInsertionIndex(patientNode, studyNode, DicomSorter.STUDY_COMPARATOR));
+        return new TreePath(studyNode.getPath());
+    }
+
+    private static int getInsertionIndex(DefaultMutableTreeNode parent, DefaultMutableTreeNode node,
+        Comparator<Object> comparator) {
+        List<?> children = Collections.list(parent.children());
+        int index = Collections.binarySearch(children, node, comparator);
+        return index < 0 ? -(index + 1) : index;
+    }
+
     private static void buildSeries(DefaultMutableTreeNode studyNode, Series<?> series) {
         DefaultMutableTreeNode seriesNode = new ToolTipSeriesNode(series, true);
 
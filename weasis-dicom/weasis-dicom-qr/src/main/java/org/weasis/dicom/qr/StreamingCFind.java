@@ -0,0 +1,222 @@
+/*******************************************************************************
+ * Copyright (c) 2009-2018 Weasis Team and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ *     Nicolas Roduit - initial API and implementation
+ *******************************************************************************/
+package org.weasis.dicom.qr;
+
+import java.io.IOException;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import org.dcm4che3.data.Attributes;
+import org.dcm4che3.data.ElementDictionary;
+import org.dcm4che3.data.Tag;
+import org.dcm4che3.data.UID;
+import org.dcm4che3.data.VR;
+import org.dcm4che3.net.ApplicationEntity;
+import org.dcm4che3.net.Association;
+import org.dcm4che3.net.Connection;
+import org.dcm4che3.net.Device;
+import org.dcm4che3.net.DimseRSPHandler;
+import org.dcm4che3.net.Status;
+import org.dcm4che3.net.pdu.AAssociateRQ;
+import org.dcm4che3.net.pdu.PresentationContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.weasis.core.api.util.ThreadUtil;
+import org.weasis.dicom.param.AdvancedParams;
+import org.weasis.dicom.param.DicomNode;
+import org.weasis.dicom.param.DicomParam;
+import org.weasis.dicom.param.DicomState;
+
+/**
+ * Study root C-FIND which delivers each matching response to a consumer as soon as it is received instead of
+ * accumulating all the responses in a {@link DicomState}. The query can be stopped with {@link #cancel()} or after a
+ * maximum number of matches, in both cases a C-CANCEL is sent to the called node.
+ * <p>
+ * The association is configured by {@link AdvancedParams} as in {@link org.weasis.dicom.op.CFind} (connection
+ * options, TLS, priority and transfer syntaxes), only the handling of the responses differs.
+ * <p>
+ * The consumer is called from the association thread and must not block.
+ */
+public class StreamingCFind {
+    private static final Logger LOGGER = LoggerFactory.getLogger(StreamingCFind.class);
+
+    private final AdvancedParams params;
+    private final DicomNode callingNode;
+    private final DicomNode calledNode;
+    private final int limit;
+    private final AtomicInteger nbMatches = new AtomicInteger(0);
+
+    private volatile boolean cancelled = false;
+    private volatile Association association;
+    private volatile DimseRSPHandler rspHandler;
+
+    /**
+     * @param params
+     *            the connection parameters, null for the default ones
+     * @param callingNode
+     * @param calledNode
+     * @param limit
+     *            the maximum number of matches, 0 for no limit
+     */
+    public StreamingCFind(AdvancedParams params, DicomNode callingNode, DicomNode calledNode, int limit) {
+        this.params = params == null ? new AdvancedParams() : params;
+        this.callingNode = Objects.requireNonNull(callingNode);
+        this.calledNode = Objects.requireNonNull(calledNode);
+        this.limit = Math.max(0, limit);
+    }
+
+    public int getNbMatches() {
+        return nbMatches.get();
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * @return true when the query has been stopped because the maximum number of matches has been reached
+     */
+    public boolean isLimitReached() {
+        return limit > 0 && nbMatches.get() >= limit;
+    }
+
+    public void cancel() {
+        cancelled = true;
+        sendCancel();
+    }
+
+    private void sendCancel() {
+        Association as = association;
+        DimseRSPHandler handler = rspHandler;
+        if (as != null && handler != null && as.isReadyForDataTransfer()) {
+            try {
+                handler.cancel(as);
+            } catch (IOException e) {
+                LOGGER.error("Cannot cancel C-FIND", e); //$NON-NLS-1$
+            }
+        }
+    }
+
+    /**
+     * Execute the query and wait until the last response or the cancellation.
+     *
+     * @param consumer
+     *            receives each matching dataset
+     * @param keys
+     *            the matching and return keys
+     * @return the final state of the query (without the responses)
+     */
+    public DicomState process(Consumer<Attributes> consumer, DicomParam... keys) {
+        Objects.requireNonNull(consumer);
+        Attributes attrs = new Attributes();
+        attrs.setString(Tag.QueryRetrieveLevel, VR.CS, "STUDY"); //$NON-NLS-1$
+        for (DicomParam p : keys) {
+            addAttributes(attrs, p);
+        }
+
+        Device device = new Device("findscu"); //$NON-NLS-1$
+        ApplicationEntity ae = new ApplicationEntity("FINDSCU"); //$NON-NLS-1$
+        Connection conn = new Connection();
+        Connection remoteConn = new Connection();
+        device.addConnection(conn);
+        device.addApplicationEntity(ae);
+        ae.addConnection(conn);
+        ae.setAssociationInitiator(true);
+
+        final String cuid = UID.StudyRootQueryRetrieveInformationModelFIND;
+        AAssociateRQ rq = new AAssociateRQ();
+        rq.addPresentationContext(new PresentationContext(1, cuid, params.getTsuidOrder()));
+
+        ExecutorService executor = ThreadUtil.buildNewSingleThreadExecutor("C-FIND"); //$NON-NLS-1$
+        ScheduledExecutorService scheduledExecutor =
+            Executors.newSingleThreadScheduledExecutor(ThreadUtil.getThreadFactory("C-FIND")); //$NON-NLS-1$
+        device.setExecutor(executor);
+        device.setScheduledExecutor(scheduledExecutor);
+
+        final int[] finalStatus = { Status.Pending };
+        final String[] errorComment = { null };
+        try {
+            // Same configuration as CFind: called and calling nodes, connection options and TLS
+            params.configureConnect(rq, remoteConn, calledNode);
+            params.configureBind(ae, conn, callingNode);
+            params.configure(conn);
+            params.configureTLS(conn, remoteConn);
+            if (cancelled) {
+                return new DicomState(Status.Cancel, null, null);
+            }
+            Association as = ae.connect(remoteConn, rq);
+            association = as;
+            try {
+                DimseRSPHandler handler = new DimseRSPHandler(as.nextMessageID()) {
+                    @Override
+                    public void onDimseRSP(Association a, Attributes cmd, Attributes data) {
+                        super.onDimseRSP(a, cmd, data);
+                        int status = cmd.getInt(Tag.Status, -1);
+                        if (Status.isPending(status)) {
+                            if (!cancelled && (limit == 0 || nbMatches.get() < limit)) {
+                                consumer.accept(data);
+                                if (nbMatches.incrementAndGet() == limit) {
+                                    sendCancel();
+                                }
+                            }
+                        } else {
+                            finalStatus[0] = status;
+                            errorComment[0] = cmd.getString(Tag.ErrorComment);
+                        }
+                    }
+                };
+                rspHandler = handler;
+                as.cfind(cuid, params.getPriority(), attrs, null, handler);
+                if (cancelled) {
+                    sendCancel();
+                }
+                as.waitForOutstandingRSP();
+            } finally {
+                if (as.isReadyForDataTransfer()) {
+                    as.release();
+                }
+                as.waitForSocketClose();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new DicomState(Status.Cancel, null, null);
+        } catch (Exception e) {
+            LOGGER.error("C-FIND to {}", calledNode, e); //$NON-NLS-1$
+            return new DicomState(Status.UnableToProcess, e.getMessage(), null);
+        } finally {
+            association = null;
+            rspHandler = null;
+            executor.shutdown();
+            scheduledExecutor.shutdown();
+        }
+
+        int status = finalStatus[0];
+        if (status == Status.Cancel || cancelled || isLimitReached()) {
+            return new DicomState(Status.Success, null, null);
+        }
+        return new DicomState(status, errorComment[0], null);
+    }
+
+    private static void addAttributes(Attributes attrs, DicomParam param) {
+        int tag = param.getTag();
+        VR vr = ElementDictionary.vrOf(tag, null);
+        String[] values = param.getValues();
+        if (values == null || values.length == 0) {
+            attrs.setNull(tag, vr);
+        } else {
+            attrs.setString(tag, vr, values);
+        }
+    }
+}
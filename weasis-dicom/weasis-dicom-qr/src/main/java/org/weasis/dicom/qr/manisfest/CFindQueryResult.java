@@ -14,6 +14,7 @@ import java.util.List;
 
 import org.dcm4che3.data.Attributes;
 import org.dcm4che3.data.Tag;
+import org.dcm4che3.net.Status;
 import org.dcm4che3.net.service.QueryRetrieveLevel;
 import org.weasis.core.api.media.data.MediaSeriesGroup;
 import org.weasis.core.api.util.StringUtil;
@@ -31,6 +32,7 @@ import org.weasis.dicom.param.AdvancedParams;
 import org.weasis.dicom.param.DicomNode;
 import org.weasis.dicom.param.DicomParam;
 import org.weasis.dicom.param.DicomState;
+import org.weasis.dicom.qr.QueryResultCache;
 
 public class CFindQueryResult extends AbstractQueryResult {
 
@@ -55,11 +57,9 @@ public class CFindQueryResult extends AbstractQueryResult {
                 // Return Keys
                 CFind.SeriesInstanceUID, CFind.Modality, CFind.SeriesNumber, CFind.SeriesDescription };
 
-            DicomState state =
-                CFind.process(advancedParams, callingNode, calledNode, 0, QueryRetrieveLevel.SERIES, keysSeries);
-
             // TODO add error message
-            List<Attributes> seriesRSP = state.getDicomRSP();
+            List<Attributes> seriesRSP =
+                cfind(advancedParams, callingNode, calledNode, QueryRetrieveLevel.SERIES, keysSeries);
             if (seriesRSP != null && !seriesRSP.isEmpty()) {
                 MediaSeriesGroup studyGroup = model.getStudyNode(studyUID);
                 MediaSeriesGroup patientGroup = model.getParent(studyGroup, DicomModel.patient);
@@ -72,6 +72,21 @@ public class CFindQueryResult extends AbstractQueryResult {
         }
     }
 
+    private static List<Attributes> cfind(AdvancedParams advancedParams, DicomNode callingNode, DicomNode calledNode,
+        QueryRetrieveLevel level, DicomParam... keys) {
+        QueryResultCache cache = QueryResultCache.getInstance();
+        String cacheKey = QueryResultCache.buildKey(calledNode, level, 0, keys);
+        List<Attributes> items = cache.get(cacheKey);
+        if (items == null) {
+            DicomState state = CFind.process(advancedParams, callingNode, calledNode, 0, level, keys);
+            items = state.getDicomRSP();
+            if (state.getStatus() == Status.Success) {
+                cache.put(cacheKey, items);
+            }
+        }
+        return items;
+    }
+
     private static Series getSeries(Study study, final Attributes seriesDataset) {
         String uid = seriesDataset.getString(Tag.SeriesInstanceUID);
         Series s = study.getSeries(uid);
@@ -95,10 +110,8 @@ public class CFindQueryResult extends AbstractQueryResult {
                 new DicomParam(Tag.SeriesInstanceUID, serieInstanceUID),
                 // Return Keys
                 CFind.SOPInstanceUID, CFind.InstanceNumber };
-            DicomState state =
-                CFind.process(advancedParams, callingNode, calledNode, 0, QueryRetrieveLevel.IMAGE, keysInstance);
-
-            List<Attributes> instances = state.getDicomRSP();
+            List<Attributes> instances =
+                cfind(advancedParams, callingNode, calledNode, QueryRetrieveLevel.IMAGE, keysInstance);
             if (instances != null && !instances.isEmpty()) {
                 Series s = getSeries(study, seriesDataset);
 
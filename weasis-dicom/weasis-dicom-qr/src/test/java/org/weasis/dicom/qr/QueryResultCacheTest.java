@@ -0,0 +1,111 @@
+/*******************************************************************************
+ * Copyright (c) 2009-2018 Weasis Team and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ *     Nicolas Roduit - initial API and implementation
+ *******************************************************************************/
+package org.weasis.dicom.qr;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.dcm4che3.data.Attributes;
+import org.dcm4che3.data.Tag;
+import org.dcm4che3.net.service.QueryRetrieveLevel;
+import org.junit.Before;
+import org.junit.Test;
+import org.weasis.dicom.param.DicomNode;
+import org.weasis.dicom.param.DicomParam;
+
+public class QueryResultCacheTest {
+
+    private static final DicomNode PACS = new DicomNode("PACS", "localhost", 11112); //$NON-NLS-1$ //$NON-NLS-2$
+    private static final DicomNode PACS2 = new DicomNode("PACS2", "localhost", 11113); //$NON-NLS-1$ //$NON-NLS-2$
+    private static final long TTL = 1000;
+
+    private final AtomicLong time = new AtomicLong();
+    private QueryResultCache cache;
+
+    @Before
+    public void setUp() {
+        time.set(0);
+        cache = new QueryResultCache(TTL, 2, time::get);
+    }
+
+    @Test
+    public void test_buildKey() throws Exception {
+        String key1 = QueryResultCache.buildKey(PACS, QueryRetrieveLevel.STUDY, 0,
+            new DicomParam(Tag.PatientID, " 12345 "), new DicomParam(Tag.StudyDate, "20180101-")); //$NON-NLS-1$ //$NON-NLS-2$
+        String key2 = QueryResultCache.buildKey(PACS, QueryRetrieveLevel.STUDY, 0,
+            new DicomParam(Tag.StudyDate, "20180101-"), new DicomParam(Tag.PatientID, "12345")); //$NON-NLS-1$ //$NON-NLS-2$
+        assertThat(key1).isEqualTo(key2);
+
+        assertThat(QueryResultCache.buildKey(PACS2, QueryRetrieveLevel.STUDY, 0,
+            new DicomParam(Tag.PatientID, "12345"), new DicomParam(Tag.StudyDate, "20180101-"))) //$NON-NLS-1$ //$NON-NLS-2$
+                .isNotEqualTo(key1);
+        assertThat(QueryResultCache.buildKey(PACS, QueryRetrieveLevel.STUDY, 100,
+            new DicomParam(Tag.PatientID, "12345"), new DicomParam(Tag.StudyDate, "20180101-"))) //$NON-NLS-1$ //$NON-NLS-2$
+                .isNotEqualTo(key1);
+        assertThat(QueryResultCache.buildKey(PACS, QueryRetrieveLevel.STUDY, 0,
+            new DicomParam(Tag.PatientID, "123456"), new DicomParam(Tag.StudyDate, "20180101-"))) //$NON-NLS-1$ //$NON-NLS-2$
+                .isNotEqualTo(key1);
+    }
+
+    @Test
+    public void test_ttl() throws Exception {
+        List<Attributes> items = Arrays.asList(new Attributes(), new Attributes());
+        cache.put("a", items); //$NON-NLS-1$
+        assertThat(cache.get("a")).containsExactlyElementsOf(items); //$NON-NLS-1$
+
+        time.set(TTL - 1);
+        assertThat(cache.get("a")).hasSize(2); //$NON-NLS-1$
+
+        time.set(TTL);
+        assertThat(cache.get("a")).isNull(); //$NON-NLS-1$
+        assertThat(cache.size()).isEqualTo(0);
+    }
+
+    @Test
+    public void test_maxSize() throws Exception {
+        cache.put("a", Arrays.asList(new Attributes())); //$NON-NLS-1$
+        cache.put("b", Arrays.asList(new Attributes())); //$NON-NLS-1$
+        // Access "a" so that "b" becomes the least recently used entry
+        assertThat(cache.get("a")).isNotNull(); //$NON-NLS-1$
+        cache.put("c", Arrays.asList(new Attributes())); //$NON-NLS-1$
+
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(cache.get("a")).isNotNull(); //$NON-NLS-1$
+        assertThat(cache.get("b")).isNull(); //$NON-NLS-1$
+        assertThat(cache.get("c")).isNotNull(); //$NON-NLS-1$
+    }
+
+    @Test
+    public void test_invalidate() throws Exception {
+        String key1 = QueryResultCache.buildKey(PACS, QueryRetrieveLevel.STUDY, 0, new DicomParam(Tag.PatientID, "1")); //$NON-NLS-1$
+        String key2 = QueryResultCache.buildKey(PACS2, QueryRetrieveLevel.STUDY, 0, new DicomParam(Tag.PatientID, "1")); //$NON-NLS-1$
+        cache.put(key1, Arrays.asList(new Attributes()));
+        cache.put(key2, Arrays.asList(new Attributes()));
+
+        cache.invalidate(PACS);
+        assertThat(cache.get(key1)).isNull();
+        assertThat(cache.get(key2)).isNotNull();
+
+        cache.invalidateAll();
+        assertThat(cache.size()).isEqualTo(0);
+    }
+
+    @Test
+    public void test_disabled() throws Exception {
+        QueryResultCache disabled = new QueryResultCache(0, 10, time::get);
+        disabled.put("a", Arrays.asList(new Attributes())); //$NON-NLS-1$
+        assertThat(disabled.isEnabled()).isFalse();
+        assertThat(disabled.get("a")).isNull(); //$NON-NLS-1$
+    }
+}
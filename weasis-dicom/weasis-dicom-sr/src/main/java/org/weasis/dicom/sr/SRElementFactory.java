@@ -14,7 +14,9 @@ import org.weasis.dicom.codec.DicomMediaIO;
 import org.weasis.dicom.codec.DicomSpecialElement;
 import org.weasis.dicom.codec.DicomSpecialElementFactory;
 
-@org.osgi.service.component.annotations.Component(service = DicomSpecialElementFactory.class, immediate = false)
+@org.osgi.service.component.annotations.Component(service = DicomSpecialElementFactory.class, immediate = false, property = {
+    DicomSpecialElementFactory.P_MODALITIES + "=SR",
+    DicomSpecialElementFactory.P_SERIES_MIMETYPE + "=" + SRElementFactory.SERIES_SR_MIMETYPE })
 public class SRElementFactory implements DicomSpecialElementFactory {
 
     public static final String SERIES_SR_MIMETYPE = "sr/dicom"; //$NON-NLS-1$
@@ -28,7 +28,8 @@ import org.weasis.core.ui.editor.ViewerPluginBuilder;
 import org.weasis.dicom.explorer.DicomExplorer;
 import org.weasis.dicom.explorer.DicomModel;
 
-@org.osgi.service.component.annotations.Component(service = SeriesViewerFactory.class, immediate = false)
+@org.osgi.service.component.annotations.Component(service = SeriesViewerFactory.class, immediate = false, property = {
+    SeriesViewerFactory.P_MIME_TYPES + "=" + SRElementFactory.SERIES_SR_MIMETYPE, SeriesViewerFactory.P_LEVEL + ":Integer=25" })
 public class SRFactory implements SeriesViewerFactory {
 
     public static final String NAME = Messages.getString("SRFactory.viewer"); //$NON-NLS-1$
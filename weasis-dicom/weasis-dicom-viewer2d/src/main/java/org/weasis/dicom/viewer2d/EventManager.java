@@ -49,6 +49,7 @@ import org.weasis.core.api.gui.InsertableUtil;
 import org.weasis.core.api.gui.util.ActionState;
 import org.weasis.core.api.gui.util.ActionW;
 import org.weasis.core.api.gui.util.BasicActionState;
+import org.weasis.core.api.gui.util.CineEngine;
 import org.weasis.core.api.gui.util.ComboItemListener;
 import org.weasis.core.api.gui.util.Filter;
 import org.weasis.core.api.gui.util.GuiExecutor;
@@ -239,7 +240,7 @@ public class EventManager extends ImageViewerEventManager<DicomImageElement> imp
     protected SliderCineListener getMoveTroughSliceAction(int speed, TIME time, double mouseSensivity) {
         return new SliderCineListener(ActionW.SCROLL_SERIES, 1, 2, 1, speed, time, mouseSensivity) {
 
-            protected CineThread currentCine;
+            private final CineEngine cineEngine = buildCineEngine(this);
 
             @Override
             public void stateChanged(BoundedRangeModel model) {
@@ -393,72 +394,8 @@ public class EventManager extends ImageViewerEventManager<DicomImageElement> imp
             @Override
             public void setSpeed(int speed) {
                 super.setSpeed(speed);
-                if (currentCine != null) {
-                    currentCine.iniSpeed();
-                }
-            }
-
-            /** Create a thread to cine the images. */
-
-            class CineThread extends Thread {
-
-                private volatile int iteration;
-                private volatile int waitTimeMillis;
-                private volatile int currentCineRate;
-                private volatile long start;
-                private volatile boolean cining = true;
-
-                @Override
-                public void run() {
-                    iniSpeed();
-                    while (cining) {
-                        long startFrameTime = System.currentTimeMillis();
-                        // Set the value to SliderCineListener, must be in EDT for refreshing UI correctly
-                        GuiExecutor.instance().invokeAndWait(new Runnable() {
-
-                            @Override
-                            public void run() {
-                                if (cining) {
-                                    int frameIndex = getSliderValue() + 1;
-                                    setSliderValue(frameIndex > getSliderMax() ? 0 : frameIndex);
-                                }
-                            }
-                        });
-                        // Time to set the new frame index
-                        long elapsedFrame = System.currentTimeMillis() - startFrameTime;
-                        /*
-                         * If this time is smaller than the time to wait according to the cine speed (fps), then wait
-                         * the time left, otherwise continue (that means the cine speed cannot be reached)
-                         */
-                        if (elapsedFrame < waitTimeMillis) {
-                            try {
-                                Thread.sleep(waitTimeMillis - elapsedFrame);
-                            } catch (Exception e) {
-                            }
-                        }
-
-                        iteration++;
-                        // Check the speed every 3 images
-                        if (iteration > 2) {
-                            // Get the speed rate (fps) on the last 3 images
-                            currentCineRate = (int) (iteration * 1000 / (System.currentTimeMillis() - start));
-                            // reinitialize the parameters for computing speed next time
-                            iteration = 0;
-                            waitTimeMillis = 1000 / getSpeed();
-                            start = System.currentTimeMillis();
-                        }
-                    }
-                }
-
-                public void iniSpeed() {
-                    iteration = 0;
-                    currentCineRate = getSpeed();
-                    waitTimeMillis = 1000 / currentCineRate;
-                    start = System.currentTimeMillis();
-                }
-
-                public int getCurrentCineRate() {
-                    return currentCineRate;
+                if (cineEngine.isRunning()) {
+                    cineEngine.setFrameRate(getFramesPerSecond());
                 }
             }
 
@@ -466,25 +403,14 @@ public class EventManager extends ImageViewerEventManager<DicomImageElement> imp
 
             @Override
             public synchronized void start() {
-                if (currentCine != null) {
-                    stop();
-                }
-                if (getSliderMax() - getSliderMin() > 0) {
-                    currentCine = new CineThread();
-                    currentCine.start();
-                }
+                cineEngine.start(getFramesPerSecond());
             }
 
             /** Stop the cining. */
 
             @Override
             public synchronized void stop() {
-                CineThread moribund = currentCine;
-                currentCine = null;
-                if (moribund != null) {
-                    moribund.cining = false;
-                    moribund.interrupt();
-                }
+                cineEngine.stop();
             }
 
             @Override
@@ -496,15 +422,12 @@ public class EventManager extends ImageViewerEventManager<DicomImageElement> imp
 
             @Override
             public int getCurrentCineRate() {
-                if (currentCine != null) {
-                    return currentCine.getCurrentCineRate();
-                }
-                return 0;
+                return (int) Math.round(cineEngine.getAchievedFrameRate());
             }
 
             @Override
             public boolean isCining() {
-                return currentCine != null;
+                return cineEngine.isRunning();
             }
 
         };
@@ -17,7 +17,10 @@ import java.awt.GridBagConstraints;
 import java.awt.Rectangle;
 import java.awt.font.TextAttribute;
 import java.awt.geom.Point2D;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import javax.swing.Icon;
@@ -46,6 +49,7 @@ import org.weasis.core.ui.editor.image.ViewCanvas;
 import org.weasis.core.ui.model.graphic.AbstractGraphicLabel;
 import org.weasis.core.ui.model.layer.AbstractInfoLayer;
 import org.weasis.core.ui.model.layer.LayerAnnotation;
+import org.weasis.core.ui.model.layer.OutlinedTextBlock;
 import org.weasis.dicom.codec.DicomImageElement;
 import org.weasis.dicom.codec.DicomSeries;
 import org.weasis.dicom.codec.PresentationStateReader;
@@ -70,6 +74,35 @@ public class InfoLayer extends AbstractInfoLayer<DicomImageElement> {
 
     private static final Color highlight = new Color(255, 153, 153);
 
+    /**
+     * Formatted values of the corners, which depend only on the image and on the display preferences.
+     */
+    private static final class CornerTexts {
+        private final DicomImageElement image;
+        private final Series series;
+        private final ModalityInfoData modality;
+        private final boolean anonymize;
+        private final boolean hideMin;
+        private final OutlinedTextBlock[] blocks = new OutlinedTextBlock[CornerDisplay.values().length];
+
+        CornerTexts(DicomImageElement image, Series series, ModalityInfoData modality, boolean anonymize,
+            boolean hideMin) {
+            this.image = image;
+            this.series = series;
+            this.modality = modality;
+            this.anonymize = anonymize;
+            this.hideMin = hideMin;
+        }
+
+        boolean isValid(DicomImageElement image, Series series, ModalityInfoData modality, boolean anonymize,
+            boolean hideMin) {
+            return this.image == image && this.series == series && this.modality == modality
+                && this.anonymize == anonymize && this.hideMin == hideMin;
+        }
+    }
+
+    private transient CornerTexts cornerTexts;
+
     public InfoLayer(ViewCanvas<DicomImageElement> view2DPane) {
         super(view2DPane);
         displayPreferences.put(ANNOTATIONS, true);
@@ -301,83 +334,27 @@ public class InfoLayer extends AbstractInfoLayer<DicomImageElement> {
         positions[3] = new Point2D.Float(border, drawY - 5);
 
         if (getDisplayPreferences(ANNOTATIONS) && image != null) {
-            Series series = (Series) view2DPane.getSeries();
-            MediaSeriesGroup study = getParent(series, DicomModel.study);
-            MediaSeriesGroup patient = getParent(series, DicomModel.patient);
-            CornerInfoData corner = modality.getCornerInfo(CornerDisplay.TOP_LEFT);
-            boolean anonymize = getDisplayPreferences(ANONYM_ANNOTATIONS);
+            CornerTexts texts = getCornerTexts(image, modality, hideMin);
+
             drawY = fontHeight;
-            TagView[] infos = corner.getInfos();
-            for (int j = 0; j < infos.length; j++) {
-                if (infos[j] != null) {
-                    if (hideMin || infos[j].containsTag(TagD.get(Tag.PatientName))) {
-                        for (TagW tag : infos[j].getTag()) {
-                            if (!anonymize || tag.getAnonymizationType() != 1) {
-                                Object value = getTagValue(tag, patient, study, series, image);
-                                if (value != null) {
-                                    String str = tag.getFormattedTagValue(value, infos[j].getFormat());
-                                    if (StringUtil.hasText(str)) {
-                                        AbstractGraphicLabel.paintFontOutline(g2, str, border, drawY);
-                                        drawY += fontHeight;
-                                    }
-                                    break;
-                                }
-                            }
-                        }
-                    }
-                }
-            }
+            OutlinedTextBlock block = texts.blocks[CornerDisplay.TOP_LEFT.ordinal()];
+            block.paint(g2, border, drawY, fontHeight);
+            drawY += block.getLineCount() * fontHeight;
             positions[0] = new Point2D.Float(border, drawY - fontHeight + 5);
 
-            corner = modality.getCornerInfo(CornerDisplay.TOP_RIGHT);
             drawY = fontHeight;
-            infos = corner.getInfos();
-            for (int j = 0; j < infos.length; j++) {
-                if (infos[j] != null) {
-                    if (hideMin || infos[j].containsTag(TagD.get(Tag.SeriesDate))) {
-                        Object value;
-                        for (TagW tag : infos[j].getTag()) {
-                            if (!anonymize || tag.getAnonymizationType() != 1) {
-                                value = getTagValue(tag, patient, study, series, image);
-                                if (value != null) {
-                                    String str = tag.getFormattedTagValue(value, infos[j].getFormat());
-                                    if (StringUtil.hasText(str)) {
-                                        AbstractGraphicLabel.paintFontOutline(g2, str,
-                                            bound.width - g2.getFontMetrics().stringWidth(str) - (float) border, drawY);
-                                        drawY += fontHeight;
-                                    }
-                                    break;
-                                }
-                            }
-                        }
-                    }
-                }
-            }
+            block = texts.blocks[CornerDisplay.TOP_RIGHT.ordinal()];
+            block.paint(g2, bound.width - (float) border, drawY, fontHeight);
+            drawY += block.getLineCount() * fontHeight;
             positions[1] = new Point2D.Float(bound.width - border, drawY - fontHeight + 5);
 
             drawY = bound.height - border - 1.5f; // -1.5 for outline
             if (hideMin) {
-                corner = modality.getCornerInfo(CornerDisplay.BOTTOM_RIGHT);
-                infos = corner.getInfos();
-                for (int j = infos.length - 1; j >= 0; j--) {
-                    if (infos[j] != null) {
-                        Object value;
-                        for (TagW tag : infos[j].getTag()) {
-                            if (!anonymize || tag.getAnonymizationType() != 1) {
-                                value = getTagValue(tag, patient, study, series, image);
-                                if (value != null) {
-                                    String str = tag.getFormattedTagValue(value, infos[j].getFormat());
-                                    if (StringUtil.hasText(str)) {
-                                        AbstractGraphicLabel.paintFontOutline(g2, str,
-                                            bound.width - g2.getFontMetrics().stringWidth(str) - (float) border, drawY);
-                                        drawY -= fontHeight;
-                                    }
-                                    break;
-                                }
-                            }
-                        }
-                    }
-                }
+                block = texts.blocks[CornerDisplay.BOTTOM_RIGHT.ordinal()];
+                // The lines are drawn from the bottom
+                block.paint(g2, bound.width - (float) border, drawY - (block.getLineCount() - 1) * fontHeight,
+                    fontHeight);
+                drawY -= block.getLineCount() * fontHeight;
                 drawY -= 5;
                 drawSeriesInMemoryState(g2, view2DPane.getSeries(), bound.width - border, (int) (drawY));
             }
@@ -502,6 +479,64 @@ public class InfoLayer extends AbstractInfoLayer<DicomImageElement> {
         drawExtendedActions(g2, positions);
     }
 
+    private CornerTexts getCornerTexts(DicomImageElement image, ModalityInfoData modality, boolean hideMin) {
+        Series series = (Series) view2DPane.getSeries();
+        boolean anonymize = getDisplayPreferences(ANONYM_ANNOTATIONS);
+        CornerTexts texts = cornerTexts;
+        if (texts == null || !texts.isValid(image, series, modality, anonymize, hideMin)) {
+            texts = new CornerTexts(image, series, modality, anonymize, hideMin);
+            MediaSeriesGroup study = getParent(series, DicomModel.study);
+            MediaSeriesGroup patient = getParent(series, DicomModel.patient);
+            List<String> lines = new ArrayList<>();
+
+            TagView[] infos = modality.getCornerInfo(CornerDisplay.TOP_LEFT).getInfos();
+            for (int j = 0; j < infos.length; j++) {
+                if (infos[j] != null && (hideMin || infos[j].containsTag(TagD.get(Tag.PatientName)))) {
+                    addFormattedValue(lines, infos[j], anonymize, patient, study, series, image);
+                }
+            }
+            texts.blocks[CornerDisplay.TOP_LEFT.ordinal()] = new OutlinedTextBlock(lines, false, Color.WHITE);
+
+            lines.clear();
+            infos = modality.getCornerInfo(CornerDisplay.TOP_RIGHT).getInfos();
+            for (int j = 0; j < infos.length; j++) {
+                if (infos[j] != null && (hideMin || infos[j].containsTag(TagD.get(Tag.SeriesDate)))) {
+                    addFormattedValue(lines, infos[j], anonymize, patient, study, series, image);
+                }
+            }
+            texts.blocks[CornerDisplay.TOP_RIGHT.ordinal()] = new OutlinedTextBlock(lines, true, Color.WHITE);
+
+            lines.clear();
+            infos = modality.getCornerInfo(CornerDisplay.BOTTOM_RIGHT).getInfos();
+            for (int j = infos.length - 1; j >= 0; j--) {
+                if (infos[j] != null) {
+                    addFormattedValue(lines, infos[j], anonymize, patient, study, series, image);
+                }
+            }
+            // From top to bottom
+            Collections.reverse(lines);
+            texts.blocks[CornerDisplay.BOTTOM_RIGHT.ordinal()] = new OutlinedTextBlock(lines, true, Color.WHITE);
+            cornerTexts = texts;
+        }
+        return texts;
+    }
+
+    private void addFormattedValue(List<String> lines, TagView info, boolean anonymize, MediaSeriesGroup patient,
+        MediaSeriesGroup study, Series series, ImageElement image) {
+        for (TagW tag : info.getTag()) {
+            if (!anonymize || tag.getAnonymizationType() != 1) {
+                Object value = getTagValue(tag, patient, study, series, image);
+                if (value != null) {
+                    String str = tag.getFormattedTagValue(value, info.getFormat());
+                    if (StringUtil.hasText(str)) {
+                        lines.add(str);
+                    }
+                    break;
+                }
+            }
+        }
+    }
+
     private MediaSeriesGroup getParent(Series series, TreeModelNode node) {
         if (series != null) {
             Object tagValue = series.getTagValue(TagW.ExplorerModel);
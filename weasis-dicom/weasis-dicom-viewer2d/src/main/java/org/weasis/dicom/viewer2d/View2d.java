@@ -100,6 +100,7 @@ import org.weasis.core.ui.editor.image.ViewCanvas;
 import org.weasis.core.ui.editor.image.ViewerPlugin;
 import org.weasis.core.ui.editor.image.ViewerToolBar;
 import org.weasis.core.ui.model.AbstractGraphicModel;
+import org.weasis.core.ui.model.graphic.AbstractDragGraphicArea;
 import org.weasis.core.ui.model.graphic.DragGraphic;
 import org.weasis.core.ui.model.graphic.Graphic;
 import org.weasis.core.ui.model.graphic.imp.area.PolygonGraphic;
@@ -1137,6 +1138,14 @@ public class View2d extends DefaultView2d<DicomImageElement> {
                     popupMenu.add(calibMenu);
                     popupMenu.add(new JSeparator());
                 }
+
+                if (VolumeStatisticsView.isAvailable(View2d.this, graph)) {
+                    final JMenuItem volumeMenu = new JMenuItem(Messages.getString("View2d.volume_stats")); //$NON-NLS-1$
+                    volumeMenu.addActionListener(
+                        e -> VolumeStatisticsView.showStatistics(View2d.this, (AbstractDragGraphicArea) graph));
+                    popupMenu.add(volumeMenu);
+                    popupMenu.add(new JSeparator());
+                }
             }
 
             if (!list.isEmpty()) {
@@ -0,0 +1,293 @@
+/*******************************************************************************
+ * Copyright (c) 2009-2018 Weasis Team and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ *     Nicolas Roduit - initial API and implementation
+ *******************************************************************************/
+package org.weasis.dicom.viewer2d;
+
+import java.awt.Dimension;
+import java.awt.FontMetrics;
+import java.awt.Graphics;
+import java.awt.GridBagConstraints;
+import java.awt.GridBagLayout;
+import java.awt.Insets;
+import java.awt.Shape;
+import java.awt.geom.AffineTransform;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.function.IntFunction;
+
+import javax.swing.BorderFactory;
+import javax.swing.JCheckBox;
+import javax.swing.JLabel;
+import javax.swing.JOptionPane;
+import javax.swing.JPanel;
+import javax.swing.JSpinner;
+import javax.swing.SpinnerNumberModel;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.weasis.core.api.gui.task.TaskMonitor;
+import org.weasis.core.api.gui.util.ActionW;
+import org.weasis.core.api.gui.util.DecFormater;
+import org.weasis.core.api.gui.util.Filter;
+import org.weasis.core.api.gui.util.GuiExecutor;
+import org.weasis.core.api.media.data.MediaSeries;
+import org.weasis.core.api.media.data.SeriesComparator;
+import org.weasis.core.api.media.data.TagW;
+import org.weasis.core.api.service.AuditLog;
+import org.weasis.core.api.util.StringUtil;
+import org.weasis.core.ui.model.GraphicModel;
+import org.weasis.core.ui.model.graphic.AbstractDragGraphicArea;
+import org.weasis.core.ui.model.graphic.Graphic;
+import org.weasis.core.ui.util.ColorLayerUI;
+import org.weasis.dicom.codec.DicomImageElement;
+import org.weasis.dicom.codec.utils.VolumeRoiStatistics;
+import org.weasis.dicom.codec.utils.VolumeRoiStatistics.Result;
+
+/**
+ * Statistics of a ROI over a range of slices. The selected contour is propagated to the other slices or interpolated
+ * with the contours of the same type drawn on the other slices of the range.
+ */
+public class VolumeStatisticsView {
+    private static final Logger LOGGER = LoggerFactory.getLogger(VolumeStatisticsView.class);
+
+    private VolumeStatisticsView() {
+    }
+
+    public static boolean isAvailable(View2d view, Graphic graphic) {
+        MediaSeries<DicomImageElement> series = view.getSeries();
+        return graphic instanceof AbstractDragGraphicArea && Boolean.TRUE.equals(graphic.isGraphicComplete())
+            && series != null && series.size(null) > 1;
+    }
+
+    public static void showStatistics(View2d view, AbstractDragGraphicArea graphic) {
+        MediaSeries<DicomImageElement> series = view.getSeries();
+        if (series == null) {
+            return;
+        }
+        SeriesComparator sort = (SeriesComparator) view.getActionValue(ActionW.SORTSTACK.cmd());
+        Boolean reverse = (Boolean) view.getActionValue(ActionW.INVERSESTACK.cmd());
+        Comparator sortFilter = (reverse != null && reverse) ? sort.getReversOrderComparator() : sort;
+        Filter filter = (Filter) view.getActionValue(ActionW.FILTERED_SERIES.cmd());
+        final List<DicomImageElement> slices = new ArrayList<>();
+        for (DicomImageElement img : series.copyOfMedias(filter, sortFilter)) {
+            slices.add(img);
+        }
+        int current = slices.indexOf(view.getImage());
+        if (current < 0) {
+            return;
+        }
+
+        JPanel panel = new JPanel(new GridBagLayout());
+        SpinnerNumberModel firstModel = new SpinnerNumberModel(1, 1, slices.size(), 1);
+        SpinnerNumberModel lastModel = new SpinnerNumberModel(slices.size(), 1, slices.size(), 1);
+        JCheckBox interpolate = new JCheckBox(Messages.getString("VolumeStatisticsView.interpolate")); //$NON-NLS-1$
+        interpolate.setSelected(true);
+        addRow(panel, 0, new JLabel(Messages.getString("VolumeStatisticsView.first") + StringUtil.COLON), //$NON-NLS-1$
+            new JSpinner(firstModel));
+        addRow(panel, 1, new JLabel(Messages.getString("VolumeStatisticsView.last") + StringUtil.COLON), //$NON-NLS-1$
+            new JSpinner(lastModel));
+        GridBagConstraints c = new GridBagConstraints();
+        c.gridy = 2;
+        c.gridwidth = 2;
+        c.anchor = GridBagConstraints.WEST;
+        panel.add(interpolate, c);
+
+        String title = Messages.getString("VolumeStatisticsView.title"); //$NON-NLS-1$
+        ColorLayerUI layerUI = ColorLayerUI.createTransparentLayerUI(view);
+        int res = JOptionPane.showConfirmDialog(ColorLayerUI.getContentPane(layerUI), panel, title,
+            JOptionPane.OK_CANCEL_OPTION);
+        if (layerUI != null) {
+            layerUI.hideUI();
+        }
+        if (res != JOptionPane.OK_OPTION) {
+            return;
+        }
+
+        int first = Math.min(firstModel.getNumber().intValue(), lastModel.getNumber().intValue()) - 1;
+        int last = Math.max(firstModel.getNumber().intValue(), lastModel.getNumber().intValue()) - 1;
+        IntFunction<Shape> contours;
+        if (interpolate.isSelected()) {
+            contours = VolumeRoiStatistics.interpolate(getKeyContours(slices, first, last, current, graphic));
+        } else {
+            contours = VolumeRoiStatistics.propagate(getSliceShape(graphic, slices.get(current)));
+        }
+
+        VolumeRoiStatistics stats = new VolumeRoiStatistics(slices, contours, 1.0);
+        TaskMonitor taskMonitor = new TaskMonitor(view, title, null, 0, last - first + 1);
+        taskMonitor.setMillisToPopup(500);
+        Thread thread = new Thread(() -> {
+            Result result = null;
+            try {
+                result = stats.process(first, last, Runtime.getRuntime().availableProcessors(), nb -> {
+                    if (taskMonitor.isCanceled()) {
+                        stats.cancel();
+                    }
+                    GuiExecutor.instance().execute(() -> taskMonitor.setProgress(nb));
+                });
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Exception e) {
+                AuditLog.logError(LOGGER, e, "Volume statistics error"); //$NON-NLS-1$
+            } finally {
+                final Result r = result;
+                GuiExecutor.instance().execute(() -> {
+                    taskMonitor.close();
+                    if (r != null) {
+                        JOptionPane.showMessageDialog(view, new Object[] { getDescription(r), new HistogramPanel(r) },
+                            title, JOptionPane.INFORMATION_MESSAGE);
+                    }
+                });
+            }
+        }, title);
+        thread.start();
+    }
+
+    private static NavigableMap<Integer, Shape> getKeyContours(List<DicomImageElement> slices, int first, int last,
+        int current, AbstractDragGraphicArea graphic) {
+        NavigableMap<Integer, Shape> keys = new TreeMap<>();
+        keys.put(current, getSliceShape(graphic, slices.get(current)));
+        for (int i = first; i <= last; i++) {
+            if (i == current) {
+                continue;
+            }
+            Object model = slices.get(i).getTagValue(TagW.PresentationModel);
+            if (model instanceof GraphicModel) {
+                for (Graphic g : ((GraphicModel) model).getModels()) {
+                    // Only the same type of ROI is considered as a key contour
+                    if (g.getClass() == graphic.getClass() && Boolean.TRUE.equals(g.isGraphicComplete())) {
+                        keys.put(i, getSliceShape((AbstractDragGraphicArea) g, slices.get(i)));
+                        break;
+                    }
+                }
+            }
+        }
+        return keys;
+    }
+
+    /**
+     * @param graphic
+     *            a ROI drawn on the image
+     * @param image
+     *            the image of the ROI
+     * @return the shape in the coordinates of the raw pixels of the image (the graphics are drawn on the image
+     *         rectified to square pixels)
+     */
+    private static Shape getSliceShape(AbstractDragGraphicArea graphic, DicomImageElement image) {
+        Shape shape = graphic.getShape();
+        AffineTransform transform =
+            AffineTransform.getScaleInstance(1.0 / image.getRescaleX(), 1.0 / image.getRescaleY());
+        return shape == null || transform.isIdentity() ? shape : transform.createTransformedShape(shape);
+    }
+
+    private static String getDescription(Result r) {
+        StringBuilder buf = new StringBuilder();
+        buf.append(Messages.getString("VolumeStatisticsView.slices")); //$NON-NLS-1$
+        buf.append(StringUtil.COLON_AND_SPACE);
+        buf.append(r.getNbSlices());
+        buf.append("\n"); //$NON-NLS-1$
+        buf.append(Messages.getString("VolumeStatisticsView.voxels")); //$NON-NLS-1$
+        buf.append(StringUtil.COLON_AND_SPACE);
+        buf.append(r.getVoxelCount());
+        buf.append("\n"); //$NON-NLS-1$
+        buf.append(Messages.getString("VolumeStatisticsView.volume")); //$NON-NLS-1$
+        buf.append(StringUtil.COLON_AND_SPACE);
+        buf.append(Double.isNaN(r.getVolume()) ? StringUtil.EMPTY_STRING
+            : DecFormater.twoDecimal(r.getVolume()) + " mm³"); //$NON-NLS-1$
+        buf.append("\n"); //$NON-NLS-1$
+        buf.append(Messages.getString("VolumeStatisticsView.mean")); //$NON-NLS-1$
+        buf.append(StringUtil.COLON_AND_SPACE);
+        buf.append(DecFormater.twoDecimal(r.getMean()));
+        buf.append("\n"); //$NON-NLS-1$
+        buf.append(Messages.getString("VolumeStatisticsView.std")); //$NON-NLS-1$
+        buf.append(StringUtil.COLON_AND_SPACE);
+        buf.append(DecFormater.twoDecimal(r.getStandardDeviation()));
+        buf.append("\n"); //$NON-NLS-1$
+        buf.append(Messages.getString("VolumeStatisticsView.min")); //$NON-NLS-1$
+        buf.append(StringUtil.COLON_AND_SPACE);
+        buf.append(DecFormater.twoDecimal(r.getMin()));
+        buf.append("\n"); //$NON-NLS-1$
+        buf.append(Messages.getString("VolumeStatisticsView.max")); //$NON-NLS-1$
+        buf.append(StringUtil.COLON_AND_SPACE);
+        buf.append(DecFormater.twoDecimal(r.getMax()));
+        return buf.toString();
+    }
+
+    /**
+     * Histogram of the modality values, the bins are grouped by column of pixels.
+     */
+    private static class HistogramPanel extends JPanel {
+        private final long[] histogram;
+        private final double start;
+        private final double end;
+
+        HistogramPanel(Result r) {
+            this.histogram = r.getHistogram();
+            this.start = r.getHistogramStart();
+            this.end = start + histogram.length * r.getBinWidth();
+            setPreferredSize(new Dimension(320, 160));
+            setBorder(BorderFactory.createTitledBorder(Messages.getString("VolumeStatisticsView.histogram"))); //$NON-NLS-1$
+        }
+
+        @Override
+        protected void paintComponent(Graphics g) {
+            super.paintComponent(g);
+            Insets insets = getInsets();
+            FontMetrics fm = g.getFontMetrics();
+            int x0 = insets.left + 2;
+            int width = getWidth() - insets.left - insets.right - 4;
+            int bottom = getHeight() - insets.bottom - fm.getHeight() - 2;
+            int height = bottom - insets.top - 2;
+            if (histogram.length == 0 || width < 1 || height < 1) {
+                return;
+            }
+
+            long[] columns = new long[width];
+            long max = 0;
+            for (int c = 0; c < width; c++) {
+                int b0 = (int) ((long) c * histogram.length / width);
+                int b1 = Math.max(b0 + 1, (int) ((long) (c + 1) * histogram.length / width));
+                for (int b = b0; b < b1; b++) {
+                    columns[c] += histogram[b];
+                }
+                max = Math.max(max, columns[c]);
+            }
+            if (max == 0) {
+                return;
+            }
+
+            g.setColor(getForeground());
+            for (int c = 0; c < width; c++) {
+                int bar = (int) Math.round(columns[c] * (double) height / max);
+                if (bar > 0) {
+                    g.drawLine(x0 + c, bottom, x0 + c, bottom - bar);
+                }
+            }
+            String low = DecFormater.twoDecimal(start);
+            String high = DecFormater.twoDecimal(end);
+            int y = bottom + fm.getAscent() + 1;
+            g.drawString(low, x0, y);
+            g.drawString(high, x0 + width - fm.stringWidth(high), y);
+        }
+    }
+
+    private static void addRow(JPanel panel, int y, JLabel label, JSpinner spinner) {
+        GridBagConstraints c = new GridBagConstraints();
+        c.gridy = y;
+        c.insets = new Insets(2, 2, 2, 5);
+        c.anchor = GridBagConstraints.WEST;
+        panel.add(label, c);
+        c.gridx = 1;
+        c.fill = GridBagConstraints.HORIZONTAL;
+        panel.add(spinner, c);
+    }
+}
@@ -47,8 +47,10 @@ import org.weasis.dicom.codec.TagD;
 import org.weasis.dicom.viewer2d.Messages;
 import org.weasis.dicom.viewer2d.View2d;
 import org.weasis.dicom.viewer2d.mip.MipView.Type;
+import org.weasis.dicom.viewer2d.mpr.RawImageBuffers;
 import org.weasis.dicom.viewer2d.mpr.RawImageIO;
 import org.weasis.opencv.data.FileRawImage;
+import org.weasis.opencv.data.ImageCV;
 import org.weasis.opencv.data.PlanarImage;
 
 public class SeriesBuilder {
@@ -144,12 +146,15 @@ public class SeriesBuilder {
                 if (curImage != null) {
 
                     DicomImageElement imgRef = (DicomImageElement) sources.get(sources.size() / 2);
+                    ImageCV mip = RawImageBuffers.getInstance().add(curImage.toImageCV());
+                    int width = mip.width();
+                    int height = mip.height();
                     FileRawImage raw = null;
                     try {
                         File mipDir =
                             AppProperties.buildAccessibleTempDirectory(AppProperties.FILE_CACHE_DIR.getName(), "mip"); //$NON-NLS-1$
                         raw = new FileRawImage(File.createTempFile("mip_", ".wcv", mipDir));//$NON-NLS-1$ //$NON-NLS-2$
-                        if(!raw.write(curImage)) {
+                        if(!raw.write(mip)) {
                             raw = null;
                         }
                     } catch (Exception e) {
@@ -160,6 +165,8 @@ public class SeriesBuilder {
                             throw new TaskInterruptionException("Rebuilding MIP series has been canceled!"); //$NON-NLS-1$
                         }
                         LOGGER.error("Writing MIP", e); //$NON-NLS-1$
+                    } finally {
+                        RawImageBuffers.getInstance().release(mip);
                     }
                     if (raw == null) {
                         return;
@@ -169,8 +176,8 @@ public class SeriesBuilder {
 
                     // Tags with same values for all the Series
                     rawIO.setTag(TagD.get(Tag.TransferSyntaxUID), UID.ImplicitVRLittleEndian);
-                    rawIO.setTag(TagD.get(Tag.Columns), curImage.width());
-                    rawIO.setTag(TagD.get(Tag.Rows), curImage.height());
+                    rawIO.setTag(TagD.get(Tag.Columns), width);
+                    rawIO.setTag(TagD.get(Tag.Rows), height);
                     rawIO.setTag(TagD.get(Tag.BitsAllocated), imgRef.getBitsAllocated());
                     rawIO.setTag(TagD.get(Tag.BitsStored), imgRef.getBitsStored());
 
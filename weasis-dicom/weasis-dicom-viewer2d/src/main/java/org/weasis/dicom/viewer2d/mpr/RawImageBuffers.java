@@ -0,0 +1,102 @@
+/*******************************************************************************
+ * Copyright (c) 2009-2018 Weasis Team and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ *     Nicolas Roduit - initial API and implementation
+ *******************************************************************************/
+package org.weasis.dicom.viewer2d.mpr;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.weasis.core.api.media.data.MemoryGovernor;
+import org.weasis.core.api.media.data.MemoryGovernor.ManagedCache;
+import org.weasis.opencv.data.ImageCV;
+
+/**
+ * The MPR and MIP images being built, before they are written in their raw files and read back through
+ * {@link RawImageIO}. For MPR, the images of a whole orientation are in memory until the last source image is read.
+ * <p>
+ * These images cannot be evicted. They are accounted so that the memory governor releases the other caches while
+ * building and reports the memory used by the reconstructions.
+ */
+public final class RawImageBuffers implements ManagedCache {
+
+    private static class Holder {
+        static final RawImageBuffers INSTANCE = new RawImageBuffers();
+        static {
+            MemoryGovernor.getInstance().register(INSTANCE);
+        }
+    }
+
+    private final AtomicLong memory = new AtomicLong();
+    private final AtomicInteger count = new AtomicInteger();
+
+    private RawImageBuffers() {
+    }
+
+    public static RawImageBuffers getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    /**
+     * @param image
+     *            the image being built
+     * @return the image
+     */
+    public ImageCV add(ImageCV image) {
+        memory.addAndGet(image.physicalBytes());
+        count.incrementAndGet();
+        MemoryGovernor.getInstance().checkBudget();
+        return image;
+    }
+
+    /**
+     * Release the image after writing it in its raw file.
+     *
+     * @param image
+     *            the image added by {@link #add(ImageCV)}
+     */
+    public void release(ImageCV image) {
+        if (image != null) {
+            memory.addAndGet(-image.physicalBytes());
+            count.decrementAndGet();
+            image.release();
+        }
+    }
+
+    @Override
+    public String getName() {
+        return "MPR/MIP images being built"; //$NON-NLS-1$
+    }
+
+    @Override
+    public int getEvictionPriority() {
+        return MemoryGovernor.HIGH_PRIORITY;
+    }
+
+    @Override
+    public long getNativeMemory() {
+        return memory.get();
+    }
+
+    @Override
+    public long getHeapMemory() {
+        return 0;
+    }
+
+    @Override
+    public int getEntryCount() {
+        return count.get();
+    }
+
+    @Override
+    public long evict(long bytes) {
+        // In use until written in their file
+        return 0;
+    }
+}
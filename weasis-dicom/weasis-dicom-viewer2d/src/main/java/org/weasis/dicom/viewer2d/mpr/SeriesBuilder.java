@@ -509,7 +509,7 @@ public class SeriesBuilder {
                     } else {
                         newSeries[i].write(builImgs[i]);
                     }
-                    builImgs[i].release();
+                    RawImageBuffers.getInstance().release(builImgs[i]);
                 }
             }
         }
@@ -525,7 +525,7 @@ public class SeriesBuilder {
                 dir.mkdirs();
                 for (int i = 0; i < newSeries.length; i++) {
                     newSeries[i] = new FileRawImage(new File(dir, "mpr_" + (i + 1) + ".wcv"));//$NON-NLS-1$ //$NON-NLS-2$
-                    builImgs[i] = new ImageCV(dstHeight, img.width(), img.type());
+                    builImgs[i] = RawImageBuffers.getInstance().add(new ImageCV(dstHeight, img.width(), img.type()));
                 }
             }
 
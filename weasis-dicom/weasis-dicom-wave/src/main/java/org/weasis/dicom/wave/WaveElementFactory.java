@@ -14,7 +14,10 @@ import org.weasis.dicom.codec.DicomMediaIO;
 import org.weasis.dicom.codec.DicomSpecialElement;
 import org.weasis.dicom.codec.DicomSpecialElementFactory;
 
-@org.osgi.service.component.annotations.Component(service = DicomSpecialElementFactory.class, immediate = false)
+@org.osgi.service.component.annotations.Component(service = DicomSpecialElementFactory.class, immediate = false,
+    property = { DicomSpecialElementFactory.P_MODALITIES + "=ECG", //$NON-NLS-1$
+        DicomSpecialElementFactory.P_MODALITIES + "=HD", //$NON-NLS-1$
+        DicomSpecialElementFactory.P_SERIES_MIMETYPE + "=" + WaveElementFactory.SERIES_WAVEFORM_MIMETYPE }) //$NON-NLS-1$
 public class WaveElementFactory implements DicomSpecialElementFactory {
 
     public static final String SERIES_WAVEFORM_MIMETYPE = "wf/dicom"; //$NON-NLS-1$
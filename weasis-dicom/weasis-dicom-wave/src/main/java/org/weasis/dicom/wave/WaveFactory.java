@@ -28,7 +28,8 @@ import org.weasis.core.ui.editor.ViewerPluginBuilder;
 import org.weasis.dicom.explorer.DicomExplorer;
 import org.weasis.dicom.explorer.DicomModel;
 
-@org.osgi.service.component.annotations.Component(service = SeriesViewerFactory.class, immediate = false)
+@org.osgi.service.component.annotations.Component(service = SeriesViewerFactory.class, immediate = false, property = {
+    SeriesViewerFactory.P_MIME_TYPES + "=" + WaveElementFactory.SERIES_WAVEFORM_MIMETYPE, SeriesViewerFactory.P_LEVEL + ":Integer=35" })
 public class WaveFactory implements SeriesViewerFactory {
 
     public static final String NAME = "DICOM Waveform";
@@ -11,6 +11,7 @@
 package org.weasis.launcher;
 
 import java.io.File;
+import java.io.InputStream;
 import java.io.PipedInputStream;
 import java.io.PipedOutputStream;
 import java.net.URI;
@@ -34,6 +35,7 @@ import org.osgi.framework.BundleContext;
 import org.osgi.framework.BundleException;
 import org.osgi.framework.Constants;
 import org.osgi.service.startlevel.StartLevel;
+import org.weasis.launcher.StartupTimeline.Phase;
 
 public class AutoProcessor {
 
@@ -78,6 +80,11 @@ public class AutoProcessor {
      **/
     public static final String AUTO_START_PROP = "felix.auto.start"; //$NON-NLS-1$
 
+    /**
+     * The property name used to start the bundles with their declared activation policy.
+     **/
+    public static final String LAZY_ACTIVATION_PROP = "weasis.lazy.activation"; //$NON-NLS-1$
+
     public static final String PACK200_COMPRESSION = ".pack.gz"; //$NON-NLS-1$
 
     /**
@@ -89,11 +96,14 @@ public class AutoProcessor {
      * @param context
      *            The system bundle context.
      * @param weasisLoader
+     * @param timeline
+     *            Records the time of the download and installation of the bundles.
      **/
-    public static void process(Map<String, String> configMap, BundleContext context, WeasisLoader weasisLoader) {
+    public static void process(Map<String, String> configMap, BundleContext context, WeasisLoader weasisLoader,
+        StartupTimeline timeline) {
         Map<String, String> map = (configMap == null) ? new HashMap<>() : configMap;
         processAutoDeploy(map, context, weasisLoader);
-        processAutoProperties(map, context, weasisLoader);
+        processAutoProperties(map, context, weasisLoader, timeline);
     }
 
     /**
@@ -237,7 +247,7 @@ public class AutoProcessor {
      * </p>
      */
     private static void processAutoProperties(Map<String, String> configMap, BundleContext context,
-        WeasisLoader weasisLoader) {
+        WeasisLoader weasisLoader, StartupTimeline timeline) {
         // Retrieve the Start Level service, since it will be needed
         // to set the start level of the installed bundles.
         StartLevel sl = (StartLevel) context
@@ -314,50 +324,79 @@ public class AutoProcessor {
             }
         }
 
-        int bundleIter = 0;
-
-        // Parse and install the bundles associated with the key.
-        for (Iterator<Entry<String, BundleElement>> iter = bundleList.entrySet().iterator(); iter.hasNext();) {
-            Entry<String, BundleElement> element = iter.next();
-            String bundleName = element.getKey();
-            BundleElement bundle = element.getValue();
-            if (bundle == null) {
-                // Should never happen
-                continue;
+        String storage = configMap.get(Constants.FRAMEWORK_STORAGE);
+        BundleFetcher fetcher = new BundleFetcher(
+            new File(storage == null ? FileUtil.getApplicationTempDir().getPath() : storage, "weasis-download"), //$NON-NLS-1$
+            timeline);
+        // Download concurrently the bundles which are not in the cache
+        Map<String, String> downloads = new HashMap<>();
+        for (Entry<String, BundleElement> element : bundleList.entrySet()) {
+            if (element.getValue() != null && !installedBundleMap.containsKey(element.getKey())
+                && context.getBundle(getInstallLocation(element.getValue().getLocation())) == null) {
+                downloads.put(element.getKey(), element.getValue().getLocation());
             }
-            try {
-                weasisLoader.writeLabel(WeasisLoader.LBL_DOWNLOADING + " " + bundleName); //$NON-NLS-1$
-                // Do not download again the same bundle version but with different location or already in installed
-                // in cache from a previous version of Weasis
-                Bundle b = installedBundleMap.get(bundleName);
-                if (b == null) {
-                    b = installBundle(context, bundle.getLocation());
-                    installedBundleMap.put(bundleName, b);
+        }
+        final int nbDownloads = downloads.size();
+        weasisLoader.setMax(nbDownloads + bundleList.size());
+        try {
+            if (nbDownloads > 0) {
+                weasisLoader.writeLabel(WeasisLoader.LBL_DOWNLOADING);
+                fetcher.fetchAll(downloads, BundleFetcher.getDefaultThreads(), weasisLoader::setValue);
+            }
+
+            int bundleIter = nbDownloads;
+
+            // Parse and install the bundles associated with the key.
+            for (Iterator<Entry<String, BundleElement>> iter = bundleList.entrySet().iterator(); iter.hasNext();) {
+                Entry<String, BundleElement> element = iter.next();
+                String bundleName = element.getKey();
+                BundleElement bundle = element.getValue();
+                if (bundle == null) {
+                    // Should never happen
+                    continue;
                 }
-                sl.setBundleStartLevel(b, bundle.getStartLevel());
-                loadTranslationBundle(context, b, installedBundleMap);
-            } catch (Exception ex) {
-                if (bundleName.contains(System.getProperty("native.library.spec"))) { //$NON-NLS-1$
-                    System.err.println("Cannot install native bundle: " + bundleName); //$NON-NLS-1$
-                } else {
-                    printError(ex, "Cannot install bundle: " + bundleName); //$NON-NLS-1$
-                    if (ex.getCause() != null) {
-                        ex.printStackTrace();
+                try {
+                    weasisLoader.writeLabel(WeasisLoader.LBL_DOWNLOADING + " " + bundleName); //$NON-NLS-1$
+                    // Do not download again the same bundle version but with different location or already in installed
+                    // in cache from a previous version of Weasis
+                    Bundle b = installedBundleMap.get(bundleName);
+                    if (b == null) {
+                        long start = System.nanoTime();
+                        b = installBundle(context, bundle.getLocation(), fetcher);
+                        timeline.record(bundleName, Phase.INSTALL, start);
+                        installedBundleMap.put(bundleName, b);
                     }
-                    if (!Constants.FRAMEWORK_STORAGE_CLEAN_ONFIRSTINIT
-                        .equals(configMap.get(Constants.FRAMEWORK_STORAGE_CLEAN))) {
-                        // Reset all the old cache
-                        throw new IllegalStateException("A bundle cannot be started"); //$NON-NLS-1$
+                    sl.setBundleStartLevel(b, bundle.getStartLevel());
+                    loadTranslationBundle(context, b, installedBundleMap);
+                } catch (Exception ex) {
+                    if (bundleName.contains(System.getProperty("native.library.spec"))) { //$NON-NLS-1$
+                        System.err.println("Cannot install native bundle: " + bundleName); //$NON-NLS-1$
+                    } else {
+                        printError(ex, "Cannot install bundle: " + bundleName); //$NON-NLS-1$
+                        if (ex.getCause() != null) {
+                            ex.printStackTrace();
+                        }
+                        if (!Constants.FRAMEWORK_STORAGE_CLEAN_ONFIRSTINIT
+                            .equals(configMap.get(Constants.FRAMEWORK_STORAGE_CLEAN))) {
+                            // Reset all the old cache
+                            throw new IllegalStateException("A bundle cannot be started"); //$NON-NLS-1$
+                        }
                     }
+                } finally {
+                    bundleIter++;
+                    weasisLoader.setValue(bundleIter);
                 }
-            } finally {
-                bundleIter++;
-                weasisLoader.setValue(bundleIter);
-            }
 
+            }
+        } finally {
+            // Remove the temporary downloaded files, also when an installation has failed
+            fetcher.clean();
         }
 
         weasisLoader.writeLabel(Messages.getString("AutoProcessor.start")); //$NON-NLS-1$
+        // With the lazy mode, the bundles declaring a lazy activation policy are activated on their first class loading
+        int startOptions = Boolean.parseBoolean(configMap.getOrDefault(LAZY_ACTIVATION_PROP, Boolean.FALSE.toString()))
+            ? Bundle.START_ACTIVATION_POLICY : 0;
         // Now loop through the auto-start bundles and start them.
         for (Iterator<Entry<String, BundleElement>> iter = bundleList.entrySet().iterator(); iter.hasNext();) {
             Entry<String, BundleElement> element = iter.next();
@@ -375,7 +414,7 @@ public class AutoProcessor {
                         b = installBundle(context, bundle.getLocation());
                     }
                     if (b != null) {
-                        b.start();
+                        b.start(startOptions);
                     }
                 } catch (Exception ex) {
                     printError(ex, "Cannot start bundle: " + bundleName); //$NON-NLS-1$
@@ -384,7 +423,7 @@ public class AutoProcessor {
         }
     }
 
-    private static String getBundleNameFromLocation(String location) {
+    static String getBundleNameFromLocation(String location) {
         if (location != null) {
             int index = location.lastIndexOf("/"); //$NON-NLS-1$
             String name = index >= 0 ? location.substring(index + 1) : location;
@@ -494,11 +533,34 @@ public class AutoProcessor {
         return bundle.getHeaders().get(Constants.FRAGMENT_HOST) != null;
     }
 
+    /**
+     * @param location
+     * @return the location without the pack200 classifier
+     */
+    static String getInstallLocation(String location) {
+        if (location.endsWith(PACK200_COMPRESSION)) {
+            return location.substring(0, location.length() - PACK200_COMPRESSION.length());
+        }
+        return location;
+    }
+
     private static Bundle installBundle(BundleContext context, String location) throws Exception {
+        return installBundle(context, location, null);
+    }
+
+    private static Bundle installBundle(BundleContext context, String location, BundleFetcher fetcher)
+        throws Exception {
+        if (fetcher != null) {
+            InputStream in = fetcher.openStream(getInstallLocation(location));
+            if (in != null) {
+                // The stream is closed by the framework
+                return context.installBundle(getInstallLocation(location), in);
+            }
+        }
         boolean pack = location.endsWith(PACK200_COMPRESSION);
         if (pack) {
             // Remove the pack classifier from the location path
-            location = location.substring(0, location.length() - 8);
+            location = getInstallLocation(location);
             pack = context.getBundle(location) == null;
         }
 
@@ -0,0 +1,201 @@
+/*******************************************************************************
+ * Copyright (c) 2009-2018 Weasis Team and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ *     Nicolas Roduit - initial API and implementation
+ *******************************************************************************/
+package org.weasis.launcher;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+import java.util.jar.Pack200;
+import java.util.zip.GZIPInputStream;
+
+import org.osgi.framework.Constants;
+import org.weasis.launcher.StartupTimeline.Phase;
+
+/**
+ * Downloads concurrently the bundles into a staging directory before their installation. Each file is verified (jar
+ * signatures when signed, OSGi manifest). The installation falls back to the remote location when the download fails,
+ * but a bundle failing the verification is not installed.
+ * <p>
+ * The number of concurrent downloads can be configured with the property {@value #P_DOWNLOAD_THREADS}.
+ */
+public class BundleFetcher {
+
+    public static final String P_DOWNLOAD_THREADS = "weasis.bundle.download.threads"; //$NON-NLS-1$
+
+    private final File directory;
+    private final StartupTimeline timeline;
+    // Downloaded files by installation location
+    private final Map<String, File> files = new ConcurrentHashMap<>();
+    // Installation locations of the bundles which have not passed the verification
+    private final Set<String> rejected = ConcurrentHashMap.newKeySet();
+
+    public BundleFetcher(File directory, StartupTimeline timeline) {
+        this.directory = directory;
+        this.timeline = timeline;
+    }
+
+    public static int getDefaultThreads() {
+        return Math.max(1, Integer.getInteger(P_DOWNLOAD_THREADS, 4));
+    }
+
+    /**
+     * @param bundles
+     *            the locations to download by bundle name. A pack200 location is unpacked into a jar file.
+     * @param nbThreads
+     * @param progress
+     *            receives the number of processed bundles, can be null
+     */
+    public void fetchAll(Map<String, String> bundles, int nbThreads, IntConsumer progress) {
+        if (bundles.isEmpty()) {
+            return;
+        }
+        directory.mkdirs();
+        AtomicInteger counter = new AtomicInteger(0);
+        AtomicInteger threadIndex = new AtomicInteger(0);
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, nbThreads), r -> {
+            Thread t = new Thread(r, "Bundle download " + threadIndex.incrementAndGet()); //$NON-NLS-1$
+            t.setDaemon(true);
+            return t;
+        });
+        try {
+            List<Future<?>> futures = new ArrayList<>(bundles.size());
+            for (Entry<String, String> entry : bundles.entrySet()) {
+                futures.add(executor.submit(() -> {
+                    fetch(entry.getKey(), entry.getValue());
+                    if (progress != null) {
+                        progress.accept(counter.incrementAndGet());
+                    }
+                }));
+            }
+            for (Future<?> f : futures) {
+                try {
+                    f.get();
+                } catch (Exception e) {
+                    // Already handled in fetch(), the bundle will be installed from its location
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void fetch(String bundleName, String location) {
+        long start = System.nanoTime();
+        boolean pack = location.endsWith(AutoProcessor.PACK200_COMPRESSION);
+        String installLocation = AutoProcessor.getInstallLocation(location);
+        File file = new File(directory, bundleName + ".jar"); //$NON-NLS-1$
+        try {
+            URL url = new URI(location).toURL();
+            try (InputStream in = FileUtil.getAdaptedConnection(url).getInputStream();
+                            OutputStream out = new FileOutputStream(file)) {
+                if (pack) {
+                    try (GZIPInputStream gzStream = new GZIPInputStream(in);
+                                    JarOutputStream jarStream = new JarOutputStream(out)) {
+                        Pack200.newUnpacker().unpack(gzStream, jarStream);
+                    }
+                } else {
+                    byte[] buf = new byte[FileUtil.FILE_BUFFER * 4];
+                    int offset;
+                    while ((offset = in.read(buf)) > 0) {
+                        out.write(buf, 0, offset);
+                    }
+                }
+            }
+            try {
+                verify(file);
+            } catch (IOException | SecurityException e) {
+                rejected.add(installLocation);
+                System.err.println("Invalid bundle: " + location + " (" + e + ")"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+                delete(file);
+                return;
+            }
+            files.put(installLocation, file);
+            timeline.addBytes(bundleName, file.length());
+        } catch (Exception e) {
+            System.err.println("Cannot download bundle: " + location + " (" + e + ")"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+            delete(file);
+        } finally {
+            timeline.record(bundleName, Phase.DOWNLOAD, start);
+        }
+    }
+
+    /**
+     * Read all the entries, which checks the signatures of a signed jar, and check that the jar is an OSGi bundle.
+     */
+    static void verify(File file) throws IOException {
+        try (JarFile jar = new JarFile(file, true)) {
+            Manifest manifest = jar.getManifest();
+            if (manifest == null || manifest.getMainAttributes().getValue(Constants.BUNDLE_SYMBOLICNAME) == null) {
+                throw new IOException("Not an OSGi bundle"); //$NON-NLS-1$
+            }
+            byte[] buf = new byte[FileUtil.FILE_BUFFER];
+            for (Enumeration<JarEntry> entries = jar.entries(); entries.hasMoreElements();) {
+                JarEntry entry = entries.nextElement();
+                try (InputStream in = jar.getInputStream(entry)) {
+                    while (in.read(buf) != -1) {
+                        // Consume the stream for verifying the digest
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * @param installLocation
+     * @return the stream of the downloaded bundle, or null if the bundle has not been downloaded
+     * @throws IOException
+     *             when the downloaded bundle has not passed the verification, it must not be installed from its remote
+     *             location
+     */
+    public InputStream openStream(String installLocation) throws IOException {
+        if (rejected.contains(installLocation)) {
+            throw new IOException("The verification of the bundle has failed: " + installLocation); //$NON-NLS-1$
+        }
+        File file = files.get(installLocation);
+        return file == null ? null : new FileInputStream(file);
+    }
+
+    public void clean() {
+        for (File file : files.values()) {
+            delete(file);
+        }
+        files.clear();
+        rejected.clear();
+        delete(directory);
+    }
+
+    private static void delete(File file) {
+        if (file.exists() && !file.delete()) {
+            file.deleteOnExit();
+        }
+    }
+}
@@ -0,0 +1,216 @@
+/*******************************************************************************
+ * Copyright (c) 2009-2018 Weasis Team and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ *     Nicolas Roduit - initial API and implementation
+ *******************************************************************************/
+package org.weasis.launcher;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.osgi.framework.Bundle;
+import org.osgi.framework.BundleContext;
+import org.osgi.framework.BundleEvent;
+import org.osgi.framework.ServiceEvent;
+import org.osgi.framework.ServiceListener;
+import org.osgi.framework.SynchronousBundleListener;
+
+/**
+ * Records the time spent by each bundle in the different phases of the startup (download, install, activation) and
+ * the number of services registered by each bundle, with some milestones like the first frame shown.
+ * <p>
+ * A summary and the slowest bundles are printed at the end of the startup, all the bundles are printed when the
+ * property {@value #P_PRINT_ALL} is true. The bundles activated lazily after the startup are printed when they are
+ * activated.
+ */
+public class StartupTimeline implements SynchronousBundleListener, ServiceListener {
+
+    public static final String P_PRINT_ALL = "weasis.startup.timeline"; //$NON-NLS-1$
+
+    private static final int NB_SLOWEST = 5;
+
+    public enum Phase {
+        DOWNLOAD, INSTALL, ACTIVATION
+    }
+
+    static class BundleEntry {
+        private final String name;
+        private final Map<Phase, long[]> phases = new EnumMap<>(Phase.class);
+        private long bytes;
+        private int services;
+        private boolean lazy;
+
+        BundleEntry(String name) {
+            this.name = name;
+        }
+
+        long getDuration(Phase phase) {
+            long[] t = phases.get(phase);
+            return t == null ? 0L : t[1] - t[0];
+        }
+
+        long getTotalDuration() {
+            long total = 0L;
+            for (long[] t : phases.values()) {
+                total += t[1] - t[0];
+            }
+            return total;
+        }
+    }
+
+    private final long origin = System.nanoTime();
+    private final Map<String, BundleEntry> entries = new LinkedHashMap<>();
+    private final Map<String, Long> milestones = new LinkedHashMap<>();
+    private final Map<Long, Long> activationStarts = new HashMap<>();
+    private boolean printed = false;
+
+    /**
+     * Listen the activation of the bundles and the registration of the services.
+     *
+     * @param context
+     *            the system bundle context
+     */
+    public void attach(BundleContext context) {
+        context.addBundleListener(this);
+        context.addServiceListener(this);
+    }
+
+    public void detach(BundleContext context) {
+        context.removeBundleListener(this);
+        context.removeServiceListener(this);
+    }
+
+    /**
+     * @param bundleName
+     * @param phase
+     * @param startNanos
+     *            the value of {@link System#nanoTime()} at the beginning of the phase
+     */
+    public synchronized void record(String bundleName, Phase phase, long startNanos) {
+        entries.computeIfAbsent(bundleName, BundleEntry::new).phases.put(phase,
+            new long[] { startNanos, System.nanoTime() });
+    }
+
+    public synchronized void addBytes(String bundleName, long bytes) {
+        entries.computeIfAbsent(bundleName, BundleEntry::new).bytes += bytes;
+    }
+
+    /**
+     * Record the time of an event of the startup, only the first occurrence is kept.
+     *
+     * @param name
+     */
+    public synchronized void mark(String name) {
+        milestones.putIfAbsent(name, System.nanoTime() - origin);
+    }
+
+    public synchronized long getDuration(Phase phase) {
+        long total = 0L;
+        for (BundleEntry e : entries.values()) {
+            total += e.getDuration(phase);
+        }
+        return total;
+    }
+
+    private static String getName(Bundle bundle) {
+        // Same name as in AutoProcessor
+        String name = AutoProcessor.getBundleNameFromLocation(bundle.getLocation());
+        return name == null ? bundle.getSymbolicName() : name;
+    }
+
+    @Override
+    public void bundleChanged(BundleEvent event) {
+        Bundle bundle = event.getBundle();
+        switch (event.getType()) {
+            case BundleEvent.LAZY_ACTIVATION:
+                synchronized (this) {
+                    entries.computeIfAbsent(getName(bundle), BundleEntry::new).lazy = true;
+                }
+                break;
+            case BundleEvent.STARTING:
+                synchronized (this) {
+                    activationStarts.put(bundle.getBundleId(), System.nanoTime());
+                }
+                break;
+            case BundleEvent.STARTED:
+                Long start;
+                boolean afterStartup;
+                synchronized (this) {
+                    start = activationStarts.remove(bundle.getBundleId());
+                    afterStartup = printed;
+                }
+                if (start != null) {
+                    record(getName(bundle), Phase.ACTIVATION, start);
+                    if (afterStartup) {
+                        System.out.println(String.format("Bundle activated on demand: %s in %d ms", getName(bundle), //$NON-NLS-1$
+                            toMs(System.nanoTime() - start)));
+                    }
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
+    @Override
+    public void serviceChanged(ServiceEvent event) {
+        if (event.getType() == ServiceEvent.REGISTERED) {
+            Bundle bundle = event.getServiceReference().getBundle();
+            if (bundle != null) {
+                synchronized (this) {
+                    entries.computeIfAbsent(getName(bundle), BundleEntry::new).services++;
+                }
+            }
+        }
+    }
+
+    public synchronized void print(PrintStream out) {
+        if (printed) {
+            return;
+        }
+        printed = true;
+        long wall = System.nanoTime() - origin;
+        long bytes = 0L;
+        int services = 0;
+        int lazy = 0;
+        for (BundleEntry e : entries.values()) {
+            bytes += e.bytes;
+            services += e.services;
+            if (e.lazy && e.getDuration(Phase.ACTIVATION) == 0L) {
+                lazy++;
+            }
+        }
+        out.println(String.format("Startup: %d ms for %d bundles, %d services, %d bundles waiting for lazy activation", //$NON-NLS-1$
+            toMs(wall), entries.size(), services, lazy));
+        out.println(String.format("  download %d ms (%d KB), install %d ms, activation %d ms (cumulated)", //$NON-NLS-1$
+            toMs(getDuration(Phase.DOWNLOAD)), bytes / 1024, toMs(getDuration(Phase.INSTALL)),
+            toMs(getDuration(Phase.ACTIVATION))));
+        milestones.forEach((k, v) -> out.println(String.format("  %s at %d ms", k, toMs(v)))); //$NON-NLS-1$
+
+        List<BundleEntry> list = new ArrayList<>(entries.values());
+        list.sort(Comparator.comparingLong(BundleEntry::getTotalDuration).reversed());
+        int max = Boolean.getBoolean(P_PRINT_ALL) ? list.size() : Math.min(NB_SLOWEST, list.size());
+        for (int i = 0; i < max; i++) {
+            BundleEntry e = list.get(i);
+            out.println(String.format("  %s: download %d ms, install %d ms, activation %d ms, %d services%s", e.name, //$NON-NLS-1$
+                toMs(e.getDuration(Phase.DOWNLOAD)), toMs(e.getDuration(Phase.INSTALL)),
+                toMs(e.getDuration(Phase.ACTIVATION)), e.services, e.lazy ? " (lazy)" : "")); //$NON-NLS-1$ //$NON-NLS-2$
+        }
+    }
+
+    private static long toMs(long nanos) {
+        return TimeUnit.NANOSECONDS.toMillis(nanos);
+    }
+}
@@ -13,6 +13,9 @@ package org.weasis.launcher;
 import java.awt.Desktop;
 import java.awt.EventQueue;
 import java.awt.Font;
+import java.awt.Window;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
 import java.io.File;
 import java.io.FileDescriptor;
 import java.io.FileInputStream;
@@ -120,6 +123,7 @@ public class WeasisLauncher {
     static volatile Felix m_felix = null;
     static volatile ServiceTracker m_tracker = null;
     static volatile boolean frameworkLoaded = false;
+    static final StartupTimeline startupTimeline = new StartupTimeline();
 
     private static String APP_PROPERTY_FILE = "weasis.properties"; //$NON-NLS-1$
     public static final String P_WEASIS_VERSION = "weasis.version"; //$NON-NLS-1$
@@ -370,10 +374,11 @@ public class WeasisLauncher {
             m_felix = new Felix(serverProp);
             // Initialize the framework, but don't start it yet.
             m_felix.init();
+            startupTimeline.attach(m_felix.getBundleContext());
 
             // Use the system bundle context to process the auto-deploy
             // and auto-install/auto-start properties.
-            loader.setFelix(serverProp, m_felix.getBundleContext());
+            loader.setFelix(serverProp, m_felix.getBundleContext(), startupTimeline);
             loader.writeLabel(
                 String.format(Messages.getString("WeasisLauncher.starting"), System.getProperty(P_WEASIS_NAME))); //$NON-NLS-1$
             m_tracker =
@@ -383,6 +388,8 @@ public class WeasisLauncher {
 
             // Start the framework.
             m_felix.start();
+            startupTimeline.mark("Framework started"); //$NON-NLS-1$
+            printTimelineWhenShown(mainFrame);
 
             // End of splash screen
             loader.close();
@@ -427,6 +434,22 @@ public class WeasisLauncher {
         }
     }
 
+    private static void printTimelineWhenShown(WeasisFrame mainFrame) {
+        RootPaneContainer container = mainFrame.getRootPaneContainer();
+        if (container instanceof Window && !((Window) container).isShowing()) {
+            ((Window) container).addWindowListener(new WindowAdapter() {
+                @Override
+                public void windowOpened(WindowEvent e) {
+                    e.getWindow().removeWindowListener(this);
+                    startupTimeline.mark("First frame shown"); //$NON-NLS-1$
+                    startupTimeline.print(System.out);
+                }
+            });
+        } else {
+            startupTimeline.print(System.out);
+        }
+    }
+
     protected static void executeCommands(List<StringBuilder> commandList, String goshArgs) {
         SwingUtilities.invokeLater(() -> {
             m_tracker.open();
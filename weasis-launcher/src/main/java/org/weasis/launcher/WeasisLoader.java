@@ -258,7 +258,7 @@ public class WeasisLoader {
         }
     }
 
-    public void setFelix(Map<String, String> serverProp, BundleContext bundleContext) {
-        AutoProcessor.process(serverProp, bundleContext, this);
+    public void setFelix(Map<String, String> serverProp, BundleContext bundleContext, StartupTimeline timeline) {
+        AutoProcessor.process(serverProp, bundleContext, this, timeline);
     }
 }
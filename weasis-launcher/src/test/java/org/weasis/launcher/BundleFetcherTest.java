@@ -0,0 +1,117 @@
+/*******************************************************************************
+ * Copyright (c) 2009-2018 Weasis Team and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ *     Nicolas Roduit - initial API and implementation
+ *******************************************************************************/
+package org.weasis.launcher;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.jar.Attributes;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.osgi.framework.Constants;
+
+public class BundleFetcherTest {
+
+    private File dir;
+
+    @Before
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("bundles").toFile(); //$NON-NLS-1$
+    }
+
+    @After
+    public void tearDown() {
+        File[] files = dir.listFiles();
+        if (files != null) {
+            for (File f : files) {
+                f.delete();
+            }
+        }
+        dir.delete();
+    }
+
+    private File buildJar(String name, String symbolicName) throws IOException {
+        Manifest manifest = new Manifest();
+        manifest.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, "1.0"); //$NON-NLS-1$
+        if (symbolicName != null) {
+            manifest.getMainAttributes().putValue(Constants.BUNDLE_SYMBOLICNAME, symbolicName);
+        }
+        File file = new File(dir, name);
+        try (JarOutputStream out = new JarOutputStream(new FileOutputStream(file), manifest)) {
+            out.putNextEntry(new JarEntry("org/weasis/test/data.txt")); //$NON-NLS-1$
+            out.write("data".getBytes(StandardCharsets.US_ASCII)); //$NON-NLS-1$
+            out.closeEntry();
+        }
+        return file;
+    }
+
+    private static boolean isValid(File file) {
+        try {
+            BundleFetcher.verify(file);
+            return true;
+        } catch (IOException | SecurityException e) {
+            return false;
+        }
+    }
+
+    @Test
+    public void test_verify() throws Exception {
+        assertThat(isValid(buildJar("bundle.jar", "org.weasis.test"))).isTrue(); //$NON-NLS-1$ //$NON-NLS-2$
+        // A jar without OSGi manifest
+        assertThat(isValid(buildJar("plain.jar", null))).isFalse(); //$NON-NLS-1$
+
+        // A truncated download
+        File valid = buildJar("truncated.jar", "org.weasis.test"); //$NON-NLS-1$ //$NON-NLS-2$
+        byte[] content = Files.readAllBytes(valid.toPath());
+        byte[] truncated = new byte[content.length / 2];
+        System.arraycopy(content, 0, truncated, 0, truncated.length);
+        Files.write(valid.toPath(), truncated);
+        assertThat(isValid(valid)).isFalse();
+    }
+
+    @Test
+    public void test_rejected_bundle_is_not_installed() throws Exception {
+        File valid = buildJar("valid.jar", "org.weasis.valid"); //$NON-NLS-1$ //$NON-NLS-2$
+        File invalid = buildJar("invalid.jar", null); //$NON-NLS-1$
+        Map<String, String> bundles = new HashMap<>();
+        bundles.put("valid", valid.toURI().toString()); //$NON-NLS-1$
+        bundles.put("invalid", invalid.toURI().toString()); //$NON-NLS-1$
+
+        BundleFetcher fetcher = new BundleFetcher(new File(dir, "staging"), new StartupTimeline()); //$NON-NLS-1$
+        fetcher.fetchAll(bundles, 2, null);
+        try (InputStream in = fetcher.openStream(valid.toURI().toString())) {
+            assertThat(in).isNotNull();
+        }
+        assertThat(fetcher.openStream(new File(dir, "unknown.jar").toURI().toString())).isNull(); //$NON-NLS-1$
+
+        // Must not fall back to the remote location
+        IOException error = null;
+        try {
+            fetcher.openStream(invalid.toURI().toString());
+        } catch (IOException e) {
+            error = e;
+        }
+        assertThat(error).isNotNull();
+        fetcher.clean();
+    }
+}
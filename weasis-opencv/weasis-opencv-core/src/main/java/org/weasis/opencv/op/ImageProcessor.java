@@ -48,6 +48,8 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.weasis.opencv.data.ImageCV;
 import org.weasis.opencv.data.PlanarImage;
+import org.weasis.opencv.op.tile.TileKernel;
+import org.weasis.opencv.op.tile.TiledAlgorithm;
 
 
 public class ImageProcessor {
@@ -87,14 +89,37 @@ public class ImageProcessor {
             lutMat.put(0, 0, lut[0]);
         }
 
+        if (TiledAlgorithm.isParallelEfficient(srcImg)) {
+            final Mat lookup = lutMat;
+            TiledAlgorithm tiles =
+                new TiledAlgorithm(TiledAlgorithm.DEFAULT_TILE_SIZE, 0, Core.BORDER_DEFAULT, new TileKernel() {
+                    @Override
+                    public void process(Mat tileInput, Mat tileOutput) {
+                        Core.LUT(tileInput, lookup, tileOutput);
+                    }
+                });
+            return tiles.process(srcImg, CvType.makeType(lutMat.depth(), srcImg.channels()));
+        }
+
         ImageCV dstImg = new ImageCV();
         Core.LUT(srcImg, lutMat, dstImg);
         return dstImg;
     }
 
-    public static ImageCV rescaleToByte(Mat source, double alpha, double beta) {
+    public static ImageCV rescaleToByte(Mat source, final double alpha, final double beta) {
+        if (TiledAlgorithm.isParallelEfficient(Objects.requireNonNull(source))) {
+            TiledAlgorithm tiles =
+                new TiledAlgorithm(TiledAlgorithm.DEFAULT_TILE_SIZE, 0, Core.BORDER_DEFAULT, new TileKernel() {
+                    @Override
+                    public void process(Mat tileInput, Mat tileOutput) {
+                        tileInput.convertTo(tileOutput, CvType.CV_8U, alpha, beta);
+                    }
+                });
+            return tiles.process(source, CvType.makeType(CvType.CV_8U, source.channels()));
+        }
+
         ImageCV dstImg = new ImageCV();
-        Objects.requireNonNull(source).convertTo(dstImg, CvType.CV_8U, alpha, beta);
+        source.convertTo(dstImg, CvType.CV_8U, alpha, beta);
         return dstImg;
     }
 
@@ -0,0 +1,341 @@
+/*******************************************************************************
+ * Copyright (c) 2009-2018 Weasis Team and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ *     Nicolas Roduit - initial API and implementation
+ *******************************************************************************/
+package org.weasis.opencv.op;
+
+import java.awt.Rectangle;
+import java.awt.Shape;
+import java.awt.geom.FlatteningPathIterator;
+import java.awt.geom.PathIterator;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+
+import org.opencv.core.Core;
+import org.opencv.core.CvType;
+import org.opencv.core.Mat;
+import org.opencv.core.Scalar;
+import org.opencv.imgproc.Imgproc;
+
+/**
+ * Summed-area tables (integral and squared integral images) of a single channel image. Once built, the mean and the
+ * standard deviation inside a shape are computed from the horizontal spans of the shape, so the cost depends on the
+ * height of the shape instead of its area.
+ * <p>
+ * The pixels of the span are the ones having their center inside the shape, the result can slightly differ from
+ * {@link ImageProcessor#meanStdDev(Mat, Shape, Integer, Integer)} on the border of the shape.
+ * <p>
+ * The tables are built from the pixel values minus the mean of the image. With large pixel values and a small
+ * variance, computing the variance as the mean of the squares minus the square of the mean cancels catastrophically,
+ * the shift keeps the sums close to zero.
+ */
+public class IntegralImage {
+
+    /**
+     * Read access to a summed-area table having one more row and one more column than the image.
+     */
+    public interface SumTable {
+        double get(int row, int col);
+    }
+
+    private static final class MatTable implements SumTable {
+        private final Mat mat;
+        private final double[] dbuf;
+        private final int[] ibuf;
+
+        MatTable(Mat mat) {
+            this.mat = mat;
+            boolean integer = mat.depth() == CvType.CV_32S;
+            this.dbuf = integer ? null : new double[1];
+            this.ibuf = integer ? new int[1] : null;
+        }
+
+        @Override
+        public double get(int row, int col) {
+            if (ibuf == null) {
+                mat.get(row, col, dbuf);
+                return dbuf[0];
+            }
+            mat.get(row, col, ibuf);
+            return ibuf[0];
+        }
+    }
+
+    private final int width;
+    private final int height;
+    private final Mat sum;
+    private final Mat sqsum;
+    // Number of valid pixels, only when padding values are excluded
+    private final Mat count;
+    // Value subtracted to all the pixels
+    private final double shift;
+
+    /**
+     * @param source
+     *            a single channel image
+     * @param paddingValue
+     *            the first value to exclude, can be null
+     * @param paddingLimit
+     *            the last value to exclude, can be null
+     */
+    public IntegralImage(Mat source, Integer paddingValue, Integer paddingLimit) {
+        Objects.requireNonNull(source);
+        if (source.channels() != 1) {
+            throw new IllegalArgumentException("Only single channel image is supported"); //$NON-NLS-1$
+        }
+        this.width = source.width();
+        this.height = source.height();
+        this.sum = new Mat();
+        this.sqsum = new Mat();
+
+        if (paddingValue == null) {
+            this.count = null;
+            this.shift = Core.mean(source).val[0];
+            Mat src64 = new Mat();
+            source.convertTo(src64, CvType.CV_64F, 1.0, -shift);
+            Imgproc.integral2(src64, sum, sqsum, CvType.CV_64F, CvType.CV_64F);
+            src64.release();
+        } else {
+            int min = paddingValue;
+            int max = paddingLimit == null ? paddingValue : paddingLimit;
+            if (max < min) {
+                int temp = min;
+                min = max;
+                max = temp;
+            }
+            Mat padding = new Mat();
+            Core.inRange(source, new Scalar(min), new Scalar(max), padding);
+            Mat valid = new Mat();
+            Core.bitwise_not(padding, valid);
+            this.shift = Core.mean(source, valid).val[0];
+            Mat src = new Mat(source.size(), CvType.CV_64F, new Scalar(0));
+            Mat src64 = new Mat();
+            source.convertTo(src64, CvType.CV_64F, 1.0, -shift);
+            src64.copyTo(src, valid);
+            Imgproc.integral2(src, sum, sqsum, CvType.CV_64F, CvType.CV_64F);
+
+            Mat ones = new Mat();
+            Core.divide(valid, new Scalar(255), ones);
+            this.count = new Mat();
+            Imgproc.integral(ones, count, CvType.CV_32S);
+
+            padding.release();
+            valid.release();
+            src.release();
+            src64.release();
+            ones.release();
+        }
+    }
+
+    public long physicalBytes() {
+        long size = sum.total() * sum.elemSize() + sqsum.total() * sqsum.elemSize();
+        if (count != null) {
+            size += count.total() * count.elemSize();
+        }
+        return size;
+    }
+
+    public void release() {
+        sum.release();
+        sqsum.release();
+        if (count != null) {
+            count.release();
+        }
+    }
+
+    /**
+     * @param shape
+     *            the shape in the image coordinates
+     * @return the mean, the standard deviation and the number of pixels, or null if there is no pixel in the shape
+     */
+    public double[] meanStdDev(Shape shape) {
+        return meanStdDev(getSpans(shape, new Rectangle(0, 0, width, height)), new MatTable(sum), new MatTable(sqsum),
+            count == null ? null : new MatTable(count), shift);
+    }
+
+    /**
+     * Compute the statistics of spans from the summed-area tables of the shifted values.
+     *
+     * @param spans
+     *            the spans as {y, first x, last x (exclusive)}
+     * @param sum
+     *            the sum of (value - shift)
+     * @param sqsum
+     *            the sum of the squares of (value - shift)
+     * @param count
+     *            the number of valid pixels, null when all the pixels are valid
+     * @param shift
+     *            the value subtracted to the pixels when building the tables
+     * @return the mean, the standard deviation and the number of pixels, or null if there is no pixel in the spans
+     */
+    public static double[] meanStdDev(List<int[]> spans, SumTable sum, SumTable sqsum, SumTable count,
+        double shift) {
+        double total = 0;
+        double totalSq = 0;
+        long n = 0;
+        for (int[] span : spans) {
+            int y = span[0];
+            int x0 = span[1];
+            int x1 = span[2];
+            total += rowSum(sum, y, x0, x1);
+            totalSq += rowSum(sqsum, y, x0, x1);
+            if (count == null) {
+                n += x1 - x0;
+            } else {
+                n += Math.round(rowSum(count, y, x0, x1));
+            }
+        }
+        if (n == 0) {
+            return null;
+        }
+        double mean = total / n;
+        double variance = (totalSq - total * mean) / n;
+        return new double[] { shift + mean, Math.sqrt(Math.max(0.0, variance)), n };
+    }
+
+    private static double rowSum(SumTable table, int y, int x0, int x1) {
+        double val = table.get(y + 1, x1) - table.get(y, x1);
+        return val - table.get(y + 1, x0) + table.get(y, x0);
+    }
+
+    /**
+     * Decompose a shape into horizontal spans of pixels with a scanline algorithm. A pixel belongs to the shape when
+     * its center is inside the shape according to the winding rule of the shape.
+     *
+     * @param shape
+     * @param clip
+     *            the limits of the image
+     * @return the list of spans as {y, first x, last x (exclusive)}
+     */
+    public static List<int[]> getSpans(Shape shape, Rectangle clip) {
+        List<int[]> spans = new ArrayList<>();
+        Rectangle b = Objects.requireNonNull(clip).intersection(Objects.requireNonNull(shape).getBounds());
+        if (b.width < 1 || b.height < 1) {
+            return spans;
+        }
+
+        PathIterator iterator = new FlatteningPathIterator(shape.getPathIterator(null), 0.5);
+        boolean nonZero = iterator.getWindingRule() == PathIterator.WIND_NON_ZERO;
+        List<double[]> edges = buildEdges(iterator);
+        // Sort by the minimum y for adding the edges progressively in the active list
+        Collections.sort(edges, new Comparator<double[]>() {
+            @Override
+            public int compare(double[] e1, double[] e2) {
+                return Double.compare(Math.min(e1[1], e1[3]), Math.min(e2[1], e2[3]));
+            }
+        });
+
+        List<double[]> active = new ArrayList<>();
+        double[] xs = new double[8];
+        int[] dirs = new int[8];
+        int next = 0;
+        for (int y = b.y; y < b.y + b.height; y++) {
+            double yc = y + 0.5;
+            while (next < edges.size() && Math.min(edges.get(next)[1], edges.get(next)[3]) <= yc) {
+                active.add(edges.get(next));
+                next++;
+            }
+            for (Iterator<double[]> it = active.iterator(); it.hasNext();) {
+                double[] e = it.next();
+                if (Math.max(e[1], e[3]) <= yc) {
+                    it.remove();
+                }
+            }
+
+            int nb = 0;
+            for (double[] e : active) {
+                if (nb == xs.length) {
+                    xs = Arrays.copyOf(xs, nb * 2);
+                    dirs = Arrays.copyOf(dirs, nb * 2);
+                }
+                xs[nb] = e[0] + (yc - e[1]) * (e[2] - e[0]) / (e[3] - e[1]);
+                dirs[nb] = e[3] > e[1] ? 1 : -1;
+                nb++;
+            }
+            sortCrossings(xs, dirs, nb);
+
+            int winding = 0;
+            for (int i = 0; i < nb - 1; i++) {
+                winding += nonZero ? dirs[i] : 1;
+                boolean inside = nonZero ? winding != 0 : (winding & 1) == 1;
+                if (inside) {
+                    int x0 = Math.max(b.x, (int) Math.ceil(xs[i] - 0.5));
+                    int x1 = Math.min(b.x + b.width, (int) Math.ceil(xs[i + 1] - 0.5));
+                    if (x1 > x0) {
+                        spans.add(new int[] { y, x0, x1 });
+                    }
+                }
+            }
+        }
+        return spans;
+    }
+
+    private static List<double[]> buildEdges(PathIterator iterator) {
+        List<double[]> edges = new ArrayList<>();
+        double[] pts = new double[6];
+        double startX = 0;
+        double startY = 0;
+        double lastX = 0;
+        double lastY = 0;
+        while (!iterator.isDone()) {
+            int segType = iterator.currentSegment(pts);
+            switch (segType) {
+                case PathIterator.SEG_MOVETO:
+                    addEdge(edges, lastX, lastY, startX, startY);
+                    startX = lastX = pts[0];
+                    startY = lastY = pts[1];
+                    break;
+                case PathIterator.SEG_LINETO:
+                    addEdge(edges, lastX, lastY, pts[0], pts[1]);
+                    lastX = pts[0];
+                    lastY = pts[1];
+                    break;
+                case PathIterator.SEG_CLOSE:
+                    addEdge(edges, lastX, lastY, startX, startY);
+                    lastX = startX;
+                    lastY = startY;
+                    break;
+                default:
+                    break; // should never append with FlatteningPathIterator
+            }
+            iterator.next();
+        }
+        // Close implicitly the last sub-path
+        addEdge(edges, lastX, lastY, startX, startY);
+        return edges;
+    }
+
+    private static void addEdge(List<double[]> edges, double x0, double y0, double x1, double y1) {
+        // Horizontal edges do not cross any scanline
+        if (y0 != y1) {
+            edges.add(new double[] { x0, y0, x1, y1 });
+        }
+    }
+
+    private static void sortCrossings(double[] xs, int[] dirs, int length) {
+        // Insertion sort, only a few crossings by line
+        for (int i = 1; i < length; i++) {
+            double x = xs[i];
+            int d = dirs[i];
+            int j = i - 1;
+            while (j >= 0 && xs[j] > x) {
+                xs[j + 1] = xs[j];
+                dirs[j + 1] = dirs[j];
+                j--;
+            }
+            xs[j + 1] = x;
+            dirs[j + 1] = d;
+        }
+    }
+}
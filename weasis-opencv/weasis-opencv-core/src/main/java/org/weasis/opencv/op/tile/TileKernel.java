@@ -0,0 +1,30 @@
+/*******************************************************************************
+ * Copyright (c) 2009-2018 Weasis Team and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ *     Nicolas Roduit - initial API and implementation
+ *******************************************************************************/
+package org.weasis.opencv.op.tile;
+
+import org.opencv.core.Mat;
+
+/**
+ * The processing applied on each tile of a {@link TiledAlgorithm}.
+ * <p>
+ * The implementation is called concurrently from several threads and must not keep state between calls.
+ */
+public interface TileKernel {
+
+    /**
+     * @param tileInput
+     *            the source tile including the padding on each side
+     * @param tileOutput
+     *            the result, must have the size of the input tile. The Mat is reused between calls of the same thread
+     *            and can be allocated with create().
+     */
+    void process(Mat tileInput, Mat tileOutput);
+}
@@ -10,120 +10,267 @@
  *******************************************************************************/
 package org.weasis.opencv.op.tile;
 
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
 import org.opencv.core.Core;
 import org.opencv.core.Mat;
-import org.opencv.core.Point;
 import org.opencv.core.Rect;
+import org.weasis.opencv.data.ImageCV;
 
+/**
+ * Process an image by tiles in parallel.
+ * <p>
+ * Each tile is copied with a padding on each side (the image borders are extrapolated with the border type), processed
+ * by the {@link TileKernel} and the tile without the padding is copied into the result image. The tiles are distributed
+ * on a fork-join pool, each task reuses its tile buffers for its range of tiles and releases them at the end.
+ * <p>
+ * Without padding (point operations), the kernel reads the tile of the source image and writes the tile of the result
+ * image directly, without copying them.
+ */
 public class TiledAlgorithm {
+
+    public static final int DEFAULT_TILE_SIZE = 512;
+
+    /**
+     * The minimum number of pixels of an image for processing it in parallel (see
+     * {@link #isParallelEfficient(Mat)}).
+     */
+    public static final long PARALLEL_MIN_PIXELS = 4L * 1024L * 1024L;
+
+    private static class PoolHolder {
+        static final ForkJoinPool POOL = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+    }
+
     private final int mTileSize;
     private final int mPadding;
     private final int mBorderType;
+    private final TileKernel mKernel;
+    private final ForkJoinPool mPool;
 
-    TiledAlgorithm(int tileSize, int padding, int borderType) {
+    /**
+     * Constructor for the subclasses overriding {@link #processTileImpl(Mat, Mat)}.
+     */
+    protected TiledAlgorithm(int tileSize, int padding, int borderType) {
+        this(tileSize, padding, borderType, null, null);
+    }
+
+    /**
+     * @param tileSize
+     *            the width and the height of the tiles without padding
+     * @param padding
+     *            the number of pixels added on each side of the tiles, at least the radius of the kernel
+     * @param borderType
+     *            the extrapolation at the image borders (see Core.BORDER_*)
+     * @param kernel
+     *            the processing applied on each tile
+     */
+    public TiledAlgorithm(int tileSize, int padding, int borderType, TileKernel kernel) {
+        this(tileSize, padding, borderType, kernel, null);
+    }
+
+    /**
+     * @param tileSize
+     * @param padding
+     * @param borderType
+     * @param kernel
+     * @param pool
+     *            the pool processing the tiles, null for the shared pool
+     */
+    public TiledAlgorithm(int tileSize, int padding, int borderType, TileKernel kernel, ForkJoinPool pool) {
+        if (tileSize < 1 || padding < 0) {
+            throw new IllegalArgumentException("Invalid tile size or padding"); //$NON-NLS-1$
+        }
         this.mTileSize = tileSize;
         this.mPadding = padding;
         this.mBorderType = borderType;
+        this.mKernel = kernel;
+        this.mPool = pool;
+    }
+
+    /**
+     * @param source
+     * @return true when the image is large enough for benefiting from the parallel processing
+     */
+    public static boolean isParallelEfficient(Mat source) {
+        return source.total() >= PARALLEL_MIN_PIXELS && Runtime.getRuntime().availableProcessors() > 1;
     }
 
-    void process(Mat sourceImage, Mat resultImage) {
+    public int getTileSize() {
+        return mTileSize;
+    }
+
+    public int getPadding() {
+        return mPadding;
+    }
+
+    /**
+     * @param sourceImage
+     * @param resultType
+     *            the type of the result image
+     * @return the result image with the same size as the source image
+     */
+    public ImageCV process(Mat sourceImage, int resultType) {
+        ImageCV resultImage = new ImageCV(sourceImage.rows(), sourceImage.cols(), resultType);
+        process(sourceImage, resultImage);
+        return resultImage;
+    }
+
+    /**
+     * @param sourceImage
+     * @param resultImage
+     *            the allocated result image with the same size as the source image. It cannot share the data of the
+     *            source image when there is a padding.
+     */
+    public void process(Mat sourceImage, Mat resultImage) {
         if (sourceImage.rows() != resultImage.rows() || sourceImage.cols() != resultImage.cols()) {
-            throw new IllegalStateException("");
+            throw new IllegalStateException("The source and the result images must have the same size"); //$NON-NLS-1$
+        }
+        if (mPadding > 0 && sourceImage.dataAddr() == resultImage.dataAddr()) {
+            throw new IllegalStateException("Cannot process in place with a padding"); //$NON-NLS-1$
         }
 
         final int rows = (sourceImage.rows() / mTileSize) + (sourceImage.rows() % mTileSize != 0 ? 1 : 0);
         final int cols = (sourceImage.cols() / mTileSize) + (sourceImage.cols() % mTileSize != 0 ? 1 : 0);
-
-        Mat tileInput = new Mat();
-        Mat tileOutput = new Mat();
-
-        for (int rowTile = 0; rowTile < rows; rowTile++) {
-            for (int colTile = 0; colTile < cols; colTile++) {
-                Rect srcTile = new Rect(colTile * mTileSize - mPadding, rowTile * mTileSize - mPadding,
-                    mTileSize + 2 * mPadding, mTileSize + 2 * mPadding);
-                Rect dstTile = new Rect(colTile * mTileSize, rowTile * mTileSize, mTileSize, mTileSize);
-
-                copySourceTile(sourceImage, tileInput, srcTile);
-                processTileImpl(tileInput, tileOutput);
-                copyTileToResultImage(tileOutput, resultImage, dstTile);
-            }
+        final int nbTiles = rows * cols;
+        if (nbTiles == 0) {
+            return;
         }
 
+        ForkJoinPool pool = mPool == null ? PoolHolder.POOL : mPool;
+        // About 4 tasks by thread for balancing the load
+        int threshold = Math.max(1, nbTiles / (pool.getParallelism() * 4));
+        pool.invoke(new TileTask(sourceImage, resultImage, cols, 0, nbTiles, threshold));
     }
 
-    private void copyTileToResultImage(Mat tileOutput, Mat resultImage, Rect dstTile) {
-        Rect srcTile = new Rect(mPadding, mPadding, mTileSize, mTileSize);
-
-        Point br = dstTile.br();
+    private void processTile(Mat sourceImage, Mat resultImage, int nbCols, int index, Mat tileInput,
+        Mat tileOutput) {
+        int x = (index % nbCols) * mTileSize;
+        int y = (index / nbCols) * mTileSize;
+        if (mPadding == 0) {
+            processTileInPlace(sourceImage, resultImage, x, y);
+            return;
+        }
+        Rect srcTile = new Rect(x - mPadding, y - mPadding, mTileSize + 2 * mPadding, mTileSize + 2 * mPadding);
+        Rect dstTile = new Rect(x, y, mTileSize, mTileSize);
 
-        if (br.x >= resultImage.cols()) {
-            dstTile.width -= br.x - resultImage.cols();
-            srcTile.width -= br.x - resultImage.cols();
+        copySourceTile(sourceImage, tileInput, srcTile);
+        processTileImpl(tileInput, tileOutput);
+        if (tileOutput.rows() != tileInput.rows() || tileOutput.cols() != tileInput.cols()) {
+            throw new IllegalStateException("The output tile must have the size of the input tile"); //$NON-NLS-1$
         }
+        copyTileToResultImage(tileOutput, resultImage, dstTile);
+    }
 
-        if (br.y >= resultImage.rows()) {
-            dstTile.height -= br.y - resultImage.rows();
-            srcTile.height -= br.y - resultImage.rows();
+    private void processTileInPlace(Mat sourceImage, Mat resultImage, int x, int y) {
+        // Crop the tiles of the last row and column
+        Rect tile =
+            new Rect(x, y, Math.min(mTileSize, sourceImage.cols() - x), Math.min(mTileSize, sourceImage.rows() - y));
+        Mat srcView = sourceImage.submat(tile);
+        Mat dstView = resultImage.submat(tile);
+        try {
+            long dataAddr = dstView.dataAddr();
+            processTileImpl(srcView, dstView);
+            if (dstView.dataAddr() != dataAddr) {
+                // The kernel has allocated a new output, it is not written into the result image
+                throw new IllegalStateException("The output tile must have the size and the type of the result image"); //$NON-NLS-1$
+            }
+        } finally {
+            srcView.release();
+            dstView.release();
         }
+    }
+
+    private void copyTileToResultImage(Mat tileOutput, Mat resultImage, Rect dstTile) {
+        // Crop the tiles of the last row and column
+        dstTile.width = Math.min(dstTile.width, resultImage.cols() - dstTile.x);
+        dstTile.height = Math.min(dstTile.height, resultImage.rows() - dstTile.y);
+        Rect srcTile = new Rect(mPadding, mPadding, dstTile.width, dstTile.height);
 
         Mat tileView = tileOutput.submat(srcTile);
         Mat dstView = resultImage.submat(dstTile);
-
-        assert (tileView.rows() == dstView.rows());
-        assert (tileView.cols() == dstView.cols());
-
         tileView.copyTo(dstView);
+        tileView.release();
+        dstView.release();
     }
 
-    private void processTileImpl(Mat tileInput, Mat tileOutput) {
-        // TODO Auto-generated method stub
-
+    /**
+     * Process a tile, by default with the kernel given in the constructor.
+     *
+     * @param tileInput
+     * @param tileOutput
+     */
+    protected void processTileImpl(Mat tileInput, Mat tileOutput) {
+        if (mKernel == null) {
+            throw new IllegalStateException("No tile kernel"); //$NON-NLS-1$
+        }
+        mKernel.process(tileInput, tileOutput);
     }
 
     private void copySourceTile(Mat sourceImage, Mat tileInput, Rect tile) {
-        Point tl = tile.tl();
-        Point br = tile.br();
+        // Take care of border cases
+        int x0 = Math.max(tile.x, 0);
+        int y0 = Math.max(tile.y, 0);
+        int x1 = Math.min(tile.x + tile.width, sourceImage.cols());
+        int y1 = Math.min(tile.y + tile.height, sourceImage.rows());
 
-        Point tloffset = new Point();
-        Point broffset = new Point();
+        int left = x0 - tile.x;
+        int top = y0 - tile.y;
+        int right = tile.x + tile.width - x1;
+        int bottom = tile.y + tile.height - y1;
 
-        // Take care of border cases
-        if (tile.x < 0) {
-            tloffset.x = -tile.x;
-            tile.x = 0;
+        Mat region = sourceImage.submat(new Rect(x0, y0, x1 - x0, y1 - y0));
+        // If any of the tile sides exceed source image boundary we must use copyMakeBorder to make proper paddings
+        // for this side
+        if (left > 0 || top > 0 || right > 0 || bottom > 0) {
+            Core.copyMakeBorder(region, tileInput, top, bottom, left, right, mBorderType);
+        } else {
+            // Entire tile (with paddings) lies inside image and it's safe to just take a region
+            region.copyTo(tileInput);
         }
+        region.release();
+    }
 
-        if (tile.y < 0) {
-            tloffset.y = -tile.y;
-            tile.y = 0;
-        }
+    private class TileTask extends RecursiveAction {
+        private static final long serialVersionUID = -2473627640397465410L;
 
-        if (br.x >= sourceImage.cols()) {
-            broffset.x = br.x - sourceImage.cols() + 1;
-            tile.width -= broffset.x;
-        }
+        private final transient Mat sourceImage;
+        private final transient Mat resultImage;
+        private final int nbCols;
+        private final int start;
+        private final int end;
+        private final int threshold;
 
-        if (br.y >= sourceImage.rows()) {
-            broffset.y = br.y - sourceImage.rows() + 1;
-            tile.height -= broffset.y;
+        TileTask(Mat sourceImage, Mat resultImage, int nbCols, int start, int end, int threshold) {
+            this.sourceImage = sourceImage;
+            this.resultImage = resultImage;
+            this.nbCols = nbCols;
+            this.start = start;
+            this.end = end;
+            this.threshold = threshold;
         }
 
-        // If any of the tile sides exceed source image boundary we must use copyMakeBorder to make proper paddings
-        // for this side
-        if (tloffset.x > 0 || tloffset.y > 0 || broffset.x > 0 || broffset.y > 0) {
-            Rect paddedTile = new Rect(tile.tl(), tile.br());
-            assert (paddedTile.x >= 0);
-            assert (paddedTile.y >= 0);
-            assert (paddedTile.br().x < sourceImage.cols());
-            assert (paddedTile.br().y < sourceImage.rows());
-
-            Core.copyMakeBorder(sourceImage.submat(paddedTile), tileInput, (int) tloffset.y, (int) broffset.y,
-                (int) tloffset.x, (int) broffset.x, mBorderType);
-        } else {
-            // Entire tile (with paddings lies inside image and it's safe to just take a region:
-            sourceImage.submat(tile).copyTo(tileInput);
+        @Override
+        protected void compute() {
+            if (end - start <= threshold) {
+                // Input and output tile buffers, reused for the tiles of this task (not required without padding)
+                Mat tileInput = mPadding == 0 ? null : new Mat();
+                Mat tileOutput = mPadding == 0 ? null : new Mat();
+                try {
+                    for (int i = start; i < end; i++) {
+                        processTile(sourceImage, resultImage, nbCols, i, tileInput, tileOutput);
+                    }
+                } finally {
+                    if (tileInput != null) {
+                        tileInput.release();
+                        tileOutput.release();
+                    }
+                }
+            } else {
+                int middle = (start + end) >>> 1;
+                invokeAll(new TileTask(sourceImage, resultImage, nbCols, start, middle, threshold),
+                    new TileTask(sourceImage, resultImage, nbCols, middle, end, threshold));
+            }
         }
-
     }
-
-}
\ No newline at end of file
+}
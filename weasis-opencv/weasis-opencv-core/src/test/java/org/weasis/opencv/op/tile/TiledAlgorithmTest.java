@@ -0,0 +1,170 @@
+/*******************************************************************************
+ * Copyright (c) 2009-2018 Weasis Team and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ *     Nicolas Roduit - initial API and implementation
+ *******************************************************************************/
+package org.weasis.opencv.op.tile;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.opencv.core.Core;
+import org.opencv.core.CvType;
+import org.opencv.core.Mat;
+import org.opencv.core.Point;
+import org.opencv.core.Scalar;
+import org.opencv.imgproc.Imgproc;
+import org.weasis.opencv.data.ImageCV;
+
+/**
+ * The tiled processing must give the same image as the processing of the whole image, also at the borders of the image
+ * and of the last tiles.
+ */
+public class TiledAlgorithmTest {
+
+    private static final int[] BORDER_TYPES =
+        { Core.BORDER_CONSTANT, Core.BORDER_REPLICATE, Core.BORDER_REFLECT, Core.BORDER_REFLECT_101 };
+
+    private static ForkJoinPool pool;
+
+    @BeforeClass
+    public static void setUp() {
+        System.loadLibrary(Core.NATIVE_LIBRARY_NAME);
+        pool = new ForkJoinPool(3);
+    }
+
+    @AfterClass
+    public static void tearDown() {
+        pool.shutdown();
+    }
+
+    private static ImageCV buildImage(int width, int height, int type) {
+        ImageCV img = new ImageCV(height, width, type);
+        Core.randu(img, 0, CvType.depth(type) == CvType.CV_8U ? 256 : 4096);
+        return img;
+    }
+
+    private static void assertSameImage(Mat expected, Mat result) {
+        assertThat(result.rows()).isEqualTo(expected.rows());
+        assertThat(result.cols()).isEqualTo(expected.cols());
+        assertThat(result.type()).isEqualTo(expected.type());
+        Mat diff = new Mat();
+        Core.absdiff(expected, result, diff);
+        assertThat(Core.countNonZero(diff)).isZero();
+        diff.release();
+    }
+
+    private static void assertTiledFilter(int width, int height, int tileSize, final int borderType) {
+        final Mat kernel = new Mat(5, 5, CvType.CV_32F, new Scalar(1.0 / 25.0));
+        ImageCV source = buildImage(width, height, CvType.CV_16UC1);
+
+        ImageCV expected = new ImageCV();
+        Imgproc.filter2D(source, expected, -1, kernel, new Point(-1, -1), 0.0, borderType);
+        TiledAlgorithm tiles = new TiledAlgorithm(tileSize, 2, borderType, new TileKernel() {
+            @Override
+            public void process(Mat tileInput, Mat tileOutput) {
+                Imgproc.filter2D(tileInput, tileOutput, -1, kernel, new Point(-1, -1), 0.0, borderType);
+            }
+        }, pool);
+        ImageCV result = tiles.process(source, source.type());
+        assertSameImage(expected, result);
+
+        source.release();
+        expected.release();
+        result.release();
+        kernel.release();
+    }
+
+    @Test
+    public void test_filter_same_as_untiled() throws Exception {
+        for (int borderType : BORDER_TYPES) {
+            // Partial tiles in the last row and in the last column
+            assertTiledFilter(517, 301, 64, borderType);
+            // Tiles of the size of the padding
+            assertTiledFilter(50, 37, 2, borderType);
+            // A single tile larger than the image
+            assertTiledFilter(40, 30, 512, borderType);
+        }
+    }
+
+    @Test
+    public void test_median_same_as_untiled() throws Exception {
+        ImageCV source = buildImage(333, 211, CvType.CV_8UC1);
+        ImageCV expected = new ImageCV();
+        // The median filter replicates the border pixels
+        Imgproc.medianBlur(source, expected, 5);
+        TiledAlgorithm tiles = new TiledAlgorithm(50, 2, Core.BORDER_REPLICATE, new TileKernel() {
+            @Override
+            public void process(Mat tileInput, Mat tileOutput) {
+                Imgproc.medianBlur(tileInput, tileOutput, 5);
+            }
+        }, pool);
+        ImageCV result = tiles.process(source, source.type());
+        assertSameImage(expected, result);
+
+        source.release();
+        expected.release();
+        result.release();
+    }
+
+    @Test
+    public void test_lut_same_as_untiled() throws Exception {
+        final Mat lut = new Mat(1, 256, CvType.CV_8UC1);
+        byte[] data = new byte[256];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) (255 - i);
+        }
+        lut.put(0, 0, data);
+        ImageCV source = buildImage(517, 301, CvType.CV_8UC1);
+
+        ImageCV expected = new ImageCV();
+        Core.LUT(source, lut, expected);
+        // Without padding, the tiles are processed in place
+        TiledAlgorithm tiles = new TiledAlgorithm(64, 0, Core.BORDER_DEFAULT, new TileKernel() {
+            @Override
+            public void process(Mat tileInput, Mat tileOutput) {
+                Core.LUT(tileInput, lut, tileOutput);
+            }
+        }, pool);
+        ImageCV result = tiles.process(source, source.type());
+        assertSameImage(expected, result);
+
+        // The source and the result images can be the same
+        tiles.process(source, source);
+        assertSameImage(expected, source);
+
+        source.release();
+        expected.release();
+        result.release();
+        lut.release();
+    }
+
+    @Test
+    public void test_rescale_same_as_untiled() throws Exception {
+        ImageCV source = buildImage(301, 517, CvType.CV_16UC1);
+
+        ImageCV expected = new ImageCV();
+        source.convertTo(expected, CvType.CV_8U, 255.0 / 4095.0, 0.0);
+        TiledAlgorithm tiles = new TiledAlgorithm(100, 0, Core.BORDER_DEFAULT, new TileKernel() {
+            @Override
+            public void process(Mat tileInput, Mat tileOutput) {
+                tileInput.convertTo(tileOutput, CvType.CV_8U, 255.0 / 4095.0, 0.0);
+            }
+        }, pool);
+        ImageCV result = tiles.process(source, CvType.CV_8UC1);
+        assertSameImage(expected, result);
+
+        source.release();
+        expected.release();
+        result.release();
+    }
+}